@@ -20,8 +20,13 @@
 
 package org.modelio.audit.engine;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.audit.engine.core.AuditRunnerStatus;
 import org.modelio.audit.engine.core.IAuditExecutionPlan;
@@ -31,11 +36,20 @@ import org.modelio.audit.engine.impl.AuditDiagnostic;
 import org.modelio.audit.engine.impl.AuditDispatcher;
 import org.modelio.audit.engine.impl.AuditRunner;
 import org.modelio.audit.engine.impl.CheckProgram;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
 import org.modelio.vcore.session.api.ICoreSession;
+import org.modelio.vcore.session.api.model.IMObjectFilter;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 @objid ("c14d6c0a-1aae-41cf-bf57-43964505d8cc")
 public class AuditEngine {
+    /**
+     * Maximum number of audit worker threads.
+     */
+    @objid ("2d768e49-6bee-4ec1-af60-841e09fbfc9c")
+    private static final int MAX_WORKERS = 4;
+
     @objid ("4cbb859e-df95-45e6-ac20-840ab2ca64ca")
     private AuditRunningMode runningMode = AuditRunningMode.AUTO;
 
@@ -57,8 +71,17 @@ public class AuditEngine {
     @objid ("392ee00d-9cdd-4e79-a706-38839730de8c")
     private ICoreSession session;
 
+    /**
+     * The audit worker threads, all running {@link #auditRunner}.
+     */
     @objid ("4371ff55-d43d-4b6b-ae3f-9540692832ba")
-    private Thread auditThread;
+    private final List<Thread> auditThreads = new ArrayList<>();
+
+    /**
+     * Runs the {@link #auditDispatcher}: model change events are analyzed out of the committing thread.
+     */
+    @objid ("3643e6b9-9486-4893-9240-5ac780e40943")
+    private ExecutorService dispatchExecutor;
 
     @objid ("54d1b224-431d-4f26-9fd2-ad0b65773c35")
     public AuditEngine() {
@@ -90,15 +113,21 @@ public class AuditEngine {
 
     @objid ("e5210aad-f7b8-49cd-90f7-2efd9f5bc0ea")
     public void start(ICoreSession aSession) {
-        // register the dispatcher as model change listener
-        aSession.getModelChangeSupport().addModelChangeListener(this.auditDispatcher);
+        // register the dispatcher as model change listener.
+        // It computes the controls to post in its own thread: events committed meanwhile are merged.
+        this.dispatchExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("AUDIT dispatcher %d"));
+        aSession.getModelChangeSupport().addModelChangeListener(this.auditDispatcher, ModelChangeFilter.ALL, this.dispatchExecutor);
         aSession.getModelChangeSupport().addStatusChangeListener(this.auditDispatcher);
         
-        // start the runner in a thread
-        this.auditThread = new Thread(this.auditRunner);
-        this.auditThread.setPriority(Thread.MIN_PRIORITY);
-        this.auditThread.setName("AUDIT");
-        this.auditThread.start();
+        // start the runner in worker threads, leaving a processor for the UI
+        int nWorkers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        ThreadFactory threadFactory = new NamedThreadFactory("AUDIT %d");
+        for (int i = 0; i < nWorkers; i++) {
+            Thread worker = threadFactory.newThread(this.auditRunner);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.start();
+            this.auditThreads.add(worker);
+        }
         this.session = aSession;
         
         // set the audit mode to AUTO
@@ -114,9 +143,12 @@ public class AuditEngine {
         // unregister the dispatcher
         aSession.getModelChangeSupport().removeModelChangeListener(this.auditDispatcher);
         aSession.getModelChangeSupport().removeStatusChangeListener(this.auditDispatcher);
+        this.dispatchExecutor.shutdown();
+        this.dispatchExecutor = null;
         
-        // terminate the runner thread
+        // terminate the runner threads
         this.auditRunner.terminate();
+        this.auditThreads.clear();
         
         this.auditDiagnostic.clear();
         this.session = null;
@@ -241,6 +273,18 @@ public class AuditEngine {
         this.auditDispatcher.stop();
     }
 
+    /**
+     * Set the filter telling which elements must be checked first,
+     * typically the elements displayed in the opened editors.
+     * 
+     * @param filter a filter accepting urgent elements, <code>null</code> to check elements in posting order.
+     * @since 4.1
+     */
+    @objid ("22cb3f09-c865-48ce-8e3b-187de3355bae")
+    public void setPriorityFilter(IMObjectFilter filter) {
+        this.controlProgram.setPriorityFilter(filter);
+    }
+
     @objid ("1578d2d0-04a6-4416-904c-e20b9c7dd665")
     public void clearCheck() {
         this.auditDispatcher.clearCheck();
@@ -25,7 +25,9 @@ import java.util.List;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.audit.engine.core.AuditRunnerStatus;
 import org.modelio.audit.service.IAuditService;
+import org.modelio.vcore.session.api.model.IModel;
 import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
 
 /**
  * AuditJobRunner
@@ -48,17 +50,22 @@ public class AuditJobRunner implements Runnable {
     @objid ("1af52af3-591c-4ce4-a65c-1c635336110b")
     private IAuditService auditService;
 
+    @objid ("ecfdca65-f68a-47eb-9966-05e1cf1b49df")
+    private final IModel model;
+
     /**
      * C'Tor
      * 
      * @param auditService - the audit service. Provides both the audit engine that will run the checks and the global audit diagnotic where results will be stored.
+     * @param model - the model containing the elements, used to load the audited sub trees in advance.
      * @param selectedElements - the elements that have to be audited by this audit job run.
      * @param jobId - the identifier of the job (used to further filter the results)
      */
     @objid ("6a19525b-2789-4f97-89b1-784d38cc64a9")
-    public AuditJobRunner(IAuditService auditService, List<MObject> selectedElements, String jobId) {
+    public AuditJobRunner(IAuditService auditService, IModel model, List<MObject> selectedElements, String jobId) {
         this.selectedElements = selectedElements;
         this.auditService = auditService;
+        this.model = model;
         this.jobId = jobId;
     }
 
@@ -68,12 +75,24 @@ public class AuditJobRunner implements Runnable {
     @objid ("7abd401d-3d30-4dbe-affb-42571de8cb29")
     @Override
     public void run() {
-        List<MObject> collectedElements = new ArrayList<>();
+        List<MObject> roots = new ArrayList<>();
         for (MObject e : this.selectedElements) {
             if (e.isValid() && !e.getStatus().isRamc()) {
-                collectElements(collectedElements, e);
+                roots.add(e);
             }
         }
+        
+        // The whole sub trees are walked: load them in batches first
+        List<MRef> refs = new ArrayList<>(roots.size());
+        for (MObject e : roots) {
+            refs.add(new MRef(e));
+        }
+        this.model.prefetch(refs, -1);
+        
+        List<MObject> collectedElements = new ArrayList<>();
+        for (MObject e : roots) {
+            collectElements(collectedElements, e);
+        }
         postChecksToAuditEngine(collectedElements);
         
         // Wait until the audit job is done.
@@ -0,0 +1,116 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.audit.engine.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Describes the audit entries changes made by one update of an {@link IAuditDiagnostic}.
+ * <p>
+ * An entry appears at most once in a delta:
+ * <ul>
+ * <li>added entries were not in the diagnostic before the update,
+ * <li>removed entries are the ones that were in the diagnostic before the update,
+ * <li>changed entries are the new entries replacing an equal entry (same element and rule) of the diagnostic.
+ * </ul>
+ * 
+ * @since 4.1
+ */
+@objid ("48f474d1-d755-40d9-85dc-fbe8975af5c9")
+public final class AuditDelta {
+    @objid ("d37a56ff-bf55-4264-a1a9-28c51624d734")
+    private final List<IAuditEntry> added = new ArrayList<>();
+
+    @objid ("26ea211d-5f39-414b-b96b-fb5c4b790d0f")
+    private final List<IAuditEntry> removed = new ArrayList<>();
+
+    @objid ("e5f3e6db-6201-4487-a669-9913cd7c14ed")
+    private final List<IAuditEntry> changed = new ArrayList<>();
+
+    /**
+     * @return the entries added to the diagnostic.
+     */
+    @objid ("c957f5c6-58c8-486a-a62a-0c6f4b96e4ff")
+    public List<IAuditEntry> getAdded() {
+        return Collections.unmodifiableList(this.added);
+    }
+
+    /**
+     * @return the entries removed from the diagnostic.
+     */
+    @objid ("5c7b6e55-408a-41f1-a09f-7037ae9f6e12")
+    public List<IAuditEntry> getRemoved() {
+        return Collections.unmodifiableList(this.removed);
+    }
+
+    /**
+     * @return the entries that replaced an equal entry of the diagnostic.
+     */
+    @objid ("ac7d46df-eeac-4e01-a612-25744ad3ed19")
+    public List<IAuditEntry> getChanged() {
+        return Collections.unmodifiableList(this.changed);
+    }
+
+    /**
+     * @return <code>true</code> if the delta contains no change.
+     */
+    @objid ("558d4698-4889-4dce-8abb-00c89192fde1")
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    /**
+     * @return the total number of added, removed and changed entries.
+     */
+    @objid ("38cceefe-e926-42b6-ad58-8bdf92589e27")
+    public int size() {
+        return this.added.size() + this.removed.size() + this.changed.size();
+    }
+
+    /**
+     * Record the change of an (element, rule) entry.
+     * 
+     * @param before the entry before the update, <code>null</code> if there was none.
+     * @param after the entry after the update, <code>null</code> if there is none.
+     */
+    @objid ("5a031631-ccc7-46f2-bab3-4430930f194e")
+    public void record(IAuditEntry before, IAuditEntry after) {
+        if (before == after) {
+            return;
+        } else if (before == null) {
+            this.added.add(after);
+        } else if (after == null) {
+            this.removed.add(before);
+        } else {
+            this.changed.add(after);
+        }
+    }
+
+    @objid ("c4719b88-dcf2-45a8-baec-31222a168836")
+    @Override
+    public String toString() {
+        return "AuditDelta [added=" + this.added.size() + ", removed=" + this.removed.size() + ", changed=" + this.changed.size() + "]";
+    }
+
+}
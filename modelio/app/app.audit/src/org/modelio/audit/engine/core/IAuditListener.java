@@ -27,4 +27,19 @@ public interface IAuditListener {
     @objid ("51efa3f3-f1bf-4419-917e-fd045d2b2428")
     void auditModelChanged(IAuditDiagnostic auditDiagnostic);
 
+    /**
+     * Called when audit entries are added, removed or changed in the diagnostic.
+     * <p>
+     * The default implementation calls {@link #auditModelChanged(IAuditDiagnostic)}.
+     * Listeners able to update incrementally should override it.
+     * 
+     * @param auditDiagnostic the changed diagnostic
+     * @param delta the changes
+     * @since 4.1
+     */
+    @objid ("52ab2e76-7434-4b34-842b-5beefc640897")
+    default void auditEntriesChanged(IAuditDiagnostic auditDiagnostic, AuditDelta delta) {
+        auditModelChanged(auditDiagnostic);
+    }
+
 }
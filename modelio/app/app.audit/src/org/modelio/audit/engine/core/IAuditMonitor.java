@@ -27,4 +27,19 @@ public interface IAuditMonitor {
     @objid ("b1daa558-1ec5-49cd-a8a9-55af1b186838")
     void status(AuditRunnerStatus status, int queueSize);
 
+    /**
+     * Called on audit runner status change and progress.
+     * <p>
+     * The default implementation ignores the checks rate.
+     * 
+     * @param status the audit runner status
+     * @param queueSize the number of checks waiting to be run
+     * @param checksPerSecond the number of checks run per second
+     * @since 4.1
+     */
+    @objid ("2c4da1a9-bc4a-4dc9-90a7-1593304997ae")
+    default void status(AuditRunnerStatus status, int queueSize, float checksPerSecond) {
+        status(status, queueSize);
+    }
+
 }
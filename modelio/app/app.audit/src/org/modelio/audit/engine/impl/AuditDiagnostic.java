@@ -22,10 +22,13 @@ package org.modelio.audit.engine.impl;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.audit.engine.core.AuditDelta;
 import org.modelio.audit.engine.core.AuditEntry;
 import org.modelio.audit.engine.core.IAuditDiagnostic;
 import org.modelio.audit.engine.core.IAuditEntry;
@@ -37,6 +40,15 @@ import org.modelio.vcore.smkernel.IRStatus;
 import org.modelio.vcore.smkernel.SmObjectImpl;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
+/**
+ * Audit diagnostic entries store.
+ * <p>
+ * Entries are indexed by element then by rule identifier so that posting a diagnostic batch
+ * costs only the size of the batch. The aggregated severity of each element is maintained
+ * incrementally and reflected in the element audit status flags.
+ * <p>
+ * Listeners are notified with an {@link AuditDelta} describing the changes.
+ */
 @objid ("61091295-2dfe-4e8b-8cd8-f422c2aeb463")
 public class AuditDiagnostic implements IAuditDiagnostic {
     @objid ("4dc1dd97-37d0-4dfd-bc4f-e6dd0c82fcdb")
@@ -48,24 +60,36 @@ public class AuditDiagnostic implements IAuditDiagnostic {
     @objid ("af29eec9-837c-4af5-92bb-01a7fc000d4b")
     private int nTips = 0;
 
+    /**
+     * Audit entries by element then by rule identifier.
+     * <p>
+     * Both levels keep the insertion order.
+     */
     @objid ("131a6d56-f00f-49f1-94d8-1cb8b0ed6e0d")
-    private List<IAuditEntry> entries;
+    private final Map<MObject, ElementEntries> entries;
 
     @objid ("93fde6ab-1a7f-4e96-980d-0014c1f24c79")
-    private List<IAuditListener> auditListeners = new ArrayList<>();
+    private final List<IAuditListener> auditListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Default constructor.
      */
     @objid ("4dc825d2-d00b-49c3-952d-f14df049dc42")
     public AuditDiagnostic() {
-        this.entries = new ArrayList<>();
+        this.entries = new LinkedHashMap<>();
     }
 
+    /**
+     * @return a snapshot of all the diagnostic entries.
+     */
     @objid ("189bd0a7-afcf-4500-8a06-1f6854f47558")
     @Override
     public synchronized List<IAuditEntry> getEntries() {
-        return this.entries;
+        List<IAuditEntry> ret = new ArrayList<>(this.nErrors + this.nWarnings + this.nTips);
+        for (ElementEntries elementEntries : this.entries.values()) {
+            ret.addAll(elementEntries.byRule.values());
+        }
+        return ret;
     }
 
     @objid ("308e961f-d900-49fc-aa6a-5ddf506fb612")
@@ -76,29 +100,37 @@ public class AuditDiagnostic implements IAuditDiagnostic {
         }
         
         List<IAuditEntry> jobEntries = new ArrayList<>();
-        for (IAuditEntry entry : this.entries) {
-            if (entry.getJobId().equals(jobId)) {
-                jobEntries.add(entry);
+        for (ElementEntries elementEntries : this.entries.values()) {
+            for (IAuditEntry entry : elementEntries.byRule.values()) {
+                if (entry.getJobId().equals(jobId)) {
+                    jobEntries.add(entry);
+                }
             }
         }
         return jobEntries;
     }
 
-    @objid ("d05e581e-e7ab-423c-abad-e5170bc5b73d")
-    private IAuditEntry getDiagnosticEntry(List<IAuditEntry> diagnosticEntries, IAuditEntry searchedEntry) {
-        int index = diagnosticEntries.indexOf(searchedEntry);
-        if (index >= 0) {
-            return diagnosticEntries.get(index);
-        }
-        // else
-        return null;
+    /**
+     * Get the aggregated audit severity of an element.
+     * 
+     * @param element a model element
+     * @return the most severe entry severity of the element, {@link AuditSeverity#AuditSuccess} if it has no entry.
+     * @since 4.1
+     */
+    @objid ("8cd32805-c290-4c42-a17d-c6ba0067bf6d")
+    public synchronized AuditSeverity getSeverity(MObject element) {
+        ElementEntries elementEntries = this.entries.get(element);
+        return elementEntries != null ? elementEntries.severity : AuditSeverity.AuditSuccess;
     }
 
     /**
      * Add audit entries in the audit diagnostic.
      * <p>
-     * If the entry is already present the passed argument is not added. If the entry is 'success' removing the previosu one(s) from
-     * the diagnostic
+     * An entry replaces the entry with the same element and rule. A 'success' entry removes the previous one
+     * from the diagnostic.
+     * <p>
+     * Entries of deleted elements are removed when met in the posted entries. An empty entry list, posted when the audit goes idle,
+     * purges all the deleted elements.
      * 
      * @param diagnosticEntries The entries to be added.
      * @param session a modeling session
@@ -106,51 +138,40 @@ public class AuditDiagnostic implements IAuditDiagnostic {
      */
     @objid ("2fa99adc-9027-4112-9596-54654acc2679")
     public synchronized boolean postDiagnostic(List<IAuditEntry> diagnosticEntries, ICoreSession session) {
-        boolean notifyListeners = false;
-        
-        Map<MObject, AuditSeverity> elementMap = new HashMap<>();
-        
-        // Analyze the existing entries
-        for (int i = this.entries.size() - 1; i >= 0; i--) {
-            IAuditEntry entry = this.entries.get(i);
-            MObject element = entry.getElement();
-            if (element == null || element.isDeleted()) {
-                doRemoveEntry(i);
-                notifyListeners = true;
-            } else if (diagnosticEntries.contains(entry)) {
-                IAuditEntry diagnosticEntry = getDiagnosticEntry(diagnosticEntries, entry);
-                diagnosticEntries.remove(diagnosticEntry);
+        Map<MObject, Map<String, IAuditEntry>> before = new HashMap<>();
         
-                if (diagnosticEntry.getSeverity() == AuditSeverity.AuditSuccess) {
-                    doRemoveEntry(i);
-                    elementMap.put(diagnosticEntry.getElement(), maxSeverity(elementMap.get(diagnosticEntry.getElement()), AuditSeverity.AuditSuccess));
-                } else {
-                    elementMap.put(diagnosticEntry.getElement(), maxSeverity(elementMap.get(diagnosticEntry.getElement()), diagnosticEntry.getSeverity()));
-                    doReplaceEntry(diagnosticEntry, i);
-                }
-        
-                notifyListeners = true;
-            }
+        if (diagnosticEntries.isEmpty()) {
+            purgeDeletedElements(before);
         }
         
         for (IAuditEntry diagnosticEntry : diagnosticEntries) {
-            if (diagnosticEntry.getSeverity() != AuditSeverity.AuditSuccess) {
-                doAddEntry(diagnosticEntry);
-                notifyListeners = true;
-                elementMap.put(diagnosticEntry.getElement(),
-                        maxSeverity(elementMap.get(diagnosticEntry.getElement()), diagnosticEntry.getSeverity()));
+            MObject element = diagnosticEntry.getElement();
+            if (element == null) {
+                continue;
+            } else if (element.isDeleted()) {
+                ElementEntries elementEntries = this.entries.get(element);
+                if (elementEntries != null) {
+                    for (IAuditEntry entry : new ArrayList<>(elementEntries.byRule.values())) {
+                        doRemoveEntry(elementEntries, entry.getRuleId(), before);
+                    }
+                }
+            } else if (diagnosticEntry.getSeverity() == AuditSeverity.AuditSuccess) {
+                ElementEntries elementEntries = this.entries.get(element);
+                if (elementEntries != null) {
+                    doRemoveEntry(elementEntries, diagnosticEntry.getRuleId(), before);
+                }
+            } else {
+                doPutEntry(diagnosticEntry, before);
             }
         }
         
-        if (!diagnosticEntries.isEmpty()) {
-            updateElementsStatus(elementMap);
-        }
+        AuditDelta delta = updateElementsStatus(before);
         
         // notify audit listeners
-        if (notifyListeners) {
-            fireAuditModelChanged();
+        if (!delta.isEmpty()) {
+            fireAuditModelChanged(delta);
         }
-        return notifyListeners;
+        return !delta.isEmpty();
     }
 
     /**
@@ -193,74 +214,84 @@ public class AuditDiagnostic implements IAuditDiagnostic {
         return this.nTips;
     }
 
+    /**
+     * Add or replace the entry with the same element and rule.
+     * 
+     * @param entry the new entry
+     * @param before the state of the modified entries before the update.
+     */
     @objid ("0d3101b3-cadc-4c98-b550-4651375c10a1")
-    private void doAddEntry(IAuditEntry entry) {
-        this.entries.add(entry);
-        switch (entry.getSeverity()) {
-        case AuditError:
-            this.nErrors++;
-            break;
-        case AuditWarning:
-            this.nWarnings++;
-            break;
-        case AuditAdvice:
-            this.nTips++;
-            break;
-        default:
-            break;
+    private void doPutEntry(IAuditEntry entry, Map<MObject, Map<String, IAuditEntry>> before) {
+        ElementEntries elementEntries = this.entries.get(entry.getElement());
+        if (elementEntries == null) {
+            elementEntries = new ElementEntries();
+            this.entries.put(entry.getElement(), elementEntries);
         }
+        
+        IAuditEntry old = elementEntries.byRule.put(entry.getRuleId(), entry);
+        rememberBefore(before, entry.getElement(), entry.getRuleId(), old);
+        
+        if (old != null) {
+            count(old.getSeverity(), -1);
+        }
+        count(entry.getSeverity(), 1);
     }
 
-    @objid ("9904e062-e885-43ba-be28-027572ab346d")
-    private void doReplaceEntry(IAuditEntry entry, int index) {
-        switch (this.entries.get(index).getSeverity()) {
-        case AuditError:
-            this.nErrors--;
-            break;
-        case AuditWarning:
-            this.nWarnings--;
-            break;
-        case AuditAdvice:
-            this.nTips--;
-            break;
-        default:
-            break;
+    @objid ("72e7cc63-00a6-460c-ad03-6806824fb9e8")
+    private void doRemoveEntry(ElementEntries elementEntries, String ruleId, Map<MObject, Map<String, IAuditEntry>> before) {
+        IAuditEntry old = elementEntries.byRule.remove(ruleId);
+        if (old != null) {
+            rememberBefore(before, old.getElement(), ruleId, old);
+            count(old.getSeverity(), -1);
+        }
+    }
+
+    /**
+     * Remember the first seen state of an (element, rule) entry during an update.
+     */
+    @objid ("2eeae667-6efd-4921-8c92-a6e7e3866ad9")
+    private static void rememberBefore(Map<MObject, Map<String, IAuditEntry>> before, MObject element, String ruleId, IAuditEntry old) {
+        Map<String, IAuditEntry> elementBefore = before.get(element);
+        if (elementBefore == null) {
+            elementBefore = new HashMap<>();
+            before.put(element, elementBefore);
         }
         
-        this.entries.set(index, entry);
-        
-        switch (entry.getSeverity()) {
-        case AuditError:
-            this.nErrors++;
-            break;
-        case AuditWarning:
-            this.nWarnings++;
-            break;
-        case AuditAdvice:
-            this.nTips++;
-            break;
-        default:
-            break;
+        if (!elementBefore.containsKey(ruleId)) {
+            elementBefore.put(ruleId, old);
         }
     }
 
-    @objid ("72e7cc63-00a6-460c-ad03-6806824fb9e8")
-    private void doRemoveEntry(int index) {
-        switch (this.entries.get(index).getSeverity()) {
+    @objid ("9904e062-e885-43ba-be28-027572ab346d")
+    private void count(AuditSeverity severity, int inc) {
+        switch (severity) {
         case AuditError:
-            this.nErrors--;
+            this.nErrors += inc;
             break;
         case AuditWarning:
-            this.nWarnings--;
+            this.nWarnings += inc;
             break;
         case AuditAdvice:
-            this.nTips--;
+            this.nTips += inc;
             break;
         default:
             break;
         }
-        
-        this.entries.remove(index);
+    }
+
+    /**
+     * Remove the entries of all deleted elements.
+     */
+    @objid ("ba046607-f678-4d0c-9698-88c8e3038e79")
+    private void purgeDeletedElements(Map<MObject, Map<String, IAuditEntry>> before) {
+        for (Entry<MObject, ElementEntries> e : this.entries.entrySet()) {
+            if (e.getKey().isDeleted()) {
+                ElementEntries elementEntries = e.getValue();
+                for (IAuditEntry entry : new ArrayList<>(elementEntries.byRule.values())) {
+                    doRemoveEntry(elementEntries, entry.getRuleId(), before);
+                }
+            }
+        }
     }
 
     /**
@@ -270,99 +301,130 @@ public class AuditDiagnostic implements IAuditDiagnostic {
      */
     @objid ("3bf3a592-6d40-4ce8-b35e-99d13a195d0a")
     public synchronized void auditPlanChanged(Map<String, IRule> configuredRules) {
-        boolean notifyListeners = false;
-        
-        Map<MObject, AuditSeverity> elementMap = new HashMap<>();
+        Map<MObject, Map<String, IAuditEntry>> before = new HashMap<>();
         
         // Process the existing entries
-        for (int i = this.entries.size() - 1; i >= 0; i--) {
-            IAuditEntry entry = this.entries.get(i);
-            if (!configuredRules.containsKey(entry.getRuleId())) {
-                elementMap.put(entry.getElement(), AuditSeverity.AuditSuccess);
-                doRemoveEntry(i);
-                notifyListeners = true;
-            } else {
-                IAuditEntry diagnosticEntry = new AuditEntry(entry.getRuleId(), configuredRules.get(entry.getRuleId())
-                        .getSeverity(), entry.getElement(), entry.getLinkedObjects());
-        
-                doReplaceEntry(diagnosticEntry, i);
-                elementMap.put(diagnosticEntry.getElement(), diagnosticEntry.getSeverity());
-        
-                notifyListeners = true;
+        for (ElementEntries elementEntries : this.entries.values()) {
+            for (IAuditEntry entry : new ArrayList<>(elementEntries.byRule.values())) {
+                IRule rule = configuredRules.get(entry.getRuleId());
+                if (rule == null) {
+                    doRemoveEntry(elementEntries, entry.getRuleId(), before);
+                } else if (rule.getSeverity() != entry.getSeverity()) {
+                    IAuditEntry diagnosticEntry = new AuditEntry(entry.getRuleId(), rule.getSeverity(), entry.getElement(), entry.getLinkedObjects());
+                    diagnosticEntry.setJobId(entry.getJobId());
+                    doPutEntry(diagnosticEntry, before);
+                }
             }
         }
         
-        updateElementsStatus(elementMap);
+        AuditDelta delta = updateElementsStatus(before);
         
-        if (notifyListeners) {
-            fireAuditModelChanged();
+        if (!delta.isEmpty()) {
+            fireAuditModelChanged(delta);
         }
     }
 
     @objid ("5c873292-7f96-410a-ba2d-f3adbb6fe8ed")
-    protected void fireAuditModelChanged() {
+    protected void fireAuditModelChanged(AuditDelta delta) {
         // notify audit listeners
         for (IAuditListener listener : this.auditListeners) {
-            listener.auditModelChanged(this);
+            listener.auditEntriesChanged(this, delta);
         }
     }
 
     @objid ("c602bb98-7f92-428e-9ead-650e6fae24f5")
     public synchronized void clear() {
+        Map<MObject, Map<String, IAuditEntry>> before = new HashMap<>();
+        
+        for (ElementEntries elementEntries : this.entries.values()) {
+            for (IAuditEntry entry : new ArrayList<>(elementEntries.byRule.values())) {
+                doRemoveEntry(elementEntries, entry.getRuleId(), before);
+            }
+        }
+        
+        AuditDelta delta = updateElementsStatus(before);
+        
         // Reset counters
         this.nErrors = 0;
         this.nWarnings = 0;
         this.nTips = 0;
         
-        Map<MObject, AuditSeverity> elementMap = new HashMap<>();
+        fireAuditModelChanged(delta);
+    }
+
+    /**
+     * Update the aggregated severity and the audit status flags of the modified elements,
+     * forget the elements that have no more entries and compute the changes delta.
+     * 
+     * @param before the state of the modified entries before the update.
+     * @return the changes.
+     */
+    @objid ("83fdcdb9-5698-400b-97f9-a7040b9c142e")
+    private AuditDelta updateElementsStatus(Map<MObject, Map<String, IAuditEntry>> before) {
+        AuditDelta delta = new AuditDelta();
         
-        for (int i = this.entries.size() - 1; i >= 0; i--) {
-            IAuditEntry entry = this.entries.get(i);
-            MObject element = entry.getElement();
-            elementMap.put(element, AuditSeverity.AuditSuccess);
+        for (Entry<MObject, Map<String, IAuditEntry>> entry : before.entrySet()) {
+            MObject element = entry.getKey();
+            ElementEntries elementEntries = this.entries.get(element);
         
-        }
+            for (Entry<String, IAuditEntry> ruleEntry : entry.getValue().entrySet()) {
+                delta.record(ruleEntry.getValue(), elementEntries != null ? elementEntries.byRule.get(ruleEntry.getKey()) : null);
+            }
+        
+            if (elementEntries == null) {
+                continue;
+            }
+        
+            AuditSeverity severity = AuditSeverity.AuditSuccess;
+            for (IAuditEntry e : elementEntries.byRule.values()) {
+                severity = maxSeverity(severity, e.getSeverity());
+            }
+            elementEntries.severity = severity;
         
-        updateElementsStatus(elementMap);
+            if (elementEntries.byRule.isEmpty()) {
+                this.entries.remove(element);
+            }
         
-        this.entries.clear();
-        fireAuditModelChanged();
+            if (!element.isDeleted()) {
+                setAuditStatus(element, severity);
+            }
+        }
+        return delta;
     }
 
     /**
-     * Update the audit status flags on the audited elements.
+     * Update the audit status flags of an audited element.
      * 
-     * @param auditStatusMap a map of elements with their audit status.
+     * @param element an audited element.
+     * @param severity its audit status.
      */
-    @objid ("83fdcdb9-5698-400b-97f9-a7040b9c142e")
-    private void updateElementsStatus(Map<MObject, AuditSeverity> auditStatusMap) {
-        for (Entry<MObject, AuditSeverity> entry : auditStatusMap.entrySet()) {
-            final long on;
-            final long off;
-            switch (entry.getValue()) {
-            case AuditSuccess:
-                on = 0;
-                off = IRStatus.AUDIT1 | IRStatus.AUDIT2;
-                break;
-            case AuditAdvice:
-                on = IRStatus.AUDIT1;
-                off = IRStatus.AUDIT2;
-        
-                break;
-            case AuditWarning:
-                on = IRStatus.AUDIT2;
-                off = IRStatus.AUDIT1;
-                break;
-            case AuditError:
-                on = IRStatus.AUDIT1 | IRStatus.AUDIT2;
-                off = 0;
-                break;
-            default:
-                throw new AssertionError(entry.getValue());
-            }
+    @objid ("10cdc1dd-ec11-44e0-8e04-0a8411169296")
+    private static void setAuditStatus(MObject element, AuditSeverity severity) {
+        final long on;
+        final long off;
+        switch (severity) {
+        case AuditSuccess:
+            on = 0;
+            off = IRStatus.AUDIT1 | IRStatus.AUDIT2;
+            break;
+        case AuditAdvice:
+            on = IRStatus.AUDIT1;
+            off = IRStatus.AUDIT2;
         
-            ((SmObjectImpl) entry.getKey()).setRStatus(on, off, 0);
+            break;
+        case AuditWarning:
+            on = IRStatus.AUDIT2;
+            off = IRStatus.AUDIT1;
+            break;
+        case AuditError:
+            on = IRStatus.AUDIT1 | IRStatus.AUDIT2;
+            off = 0;
+            break;
+        default:
+            throw new AssertionError(severity);
         }
+        
+        ((SmObjectImpl) element).setRStatus(on, off, 0);
     }
 
     @objid ("aa63e1c3-fa14-4333-978f-bb602a46cf21")
@@ -380,15 +442,38 @@ public class AuditDiagnostic implements IAuditDiagnostic {
     }
 
     @objid ("d06d5867-524f-4615-9011-ede89d84caf2")
-    public void purgeJob(String jobId) {
+    public synchronized void purgeJob(String jobId) {
         String jid = jobId != null ? jobId : "";
         
-        for (int index = this.entries.size() - 1; index >= 0; index--) {
-            IAuditEntry entry = this.entries.get(index);
-            if (entry.getJobId().equals(jid)) {
-                doRemoveEntry(index);
+        Map<MObject, Map<String, IAuditEntry>> before = new HashMap<>();
+        for (ElementEntries elementEntries : this.entries.values()) {
+            for (IAuditEntry entry : new ArrayList<>(elementEntries.byRule.values())) {
+                if (entry.getJobId().equals(jid)) {
+                    doRemoveEntry(elementEntries, entry.getRuleId(), before);
+                }
             }
         }
+        
+        AuditDelta delta = updateElementsStatus(before);
+        if (!delta.isEmpty()) {
+            fireAuditModelChanged(delta);
+        }
+    }
+
+    /**
+     * Audit entries of an element, indexed by rule identifier.
+     */
+    @objid ("debdbe73-92f5-4cd1-9cae-a0c8174e3153")
+    private static final class ElementEntries {
+        @objid ("7c1941ef-edc2-4a02-a80b-aa0614fe7fc8")
+        final Map<String, IAuditEntry> byRule = new LinkedHashMap<>(4);
+
+        /**
+         * Most severe entry severity.
+         */
+        @objid ("6136e1e1-00a8-4b17-8ee8-50f64c9d3b16")
+        AuditSeverity severity = AuditSeverity.AuditSuccess;
+
     }
 
 }
@@ -53,13 +53,13 @@ import org.modelio.vcore.smkernel.mapi.MObject;
 @objid ("8554d7c2-33f3-43c6-a7cb-d121cc521abf")
 public class AuditDispatcher implements IModelChangeListener, IStatusChangeListener {
     @objid ("f6edb03b-381d-43b8-a4fb-7a53b357d37f")
-    private boolean active;
+    private volatile boolean active;
 
     @objid ("08778ba2-0e17-4b32-80f9-0c35dcfded81")
     private static String MODELCHANGE_JOB = "MODELCHANGE_JOB";
 
     @objid ("8ea36850-3a57-4510-8d80-b7a8b70eea95")
-    private IAuditExecutionPlan plan = null;
+    private volatile IAuditExecutionPlan plan = null;
 
     @objid ("863552bc-dbfe-41e9-87df-98b9e4253439")
     private CheckProgram controlProgram = null;
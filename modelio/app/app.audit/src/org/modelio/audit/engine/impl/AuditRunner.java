@@ -20,8 +20,8 @@
 
 package org.modelio.audit.engine.impl;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.audit.engine.core.AuditRunnerStatus;
 import org.modelio.audit.engine.core.IAuditMonitor;
@@ -33,9 +33,23 @@ import org.modelio.vcore.session.api.ICoreSession;
 /**
  * Audit check runner engine. Its main role consists in fetching some controls to carry out from the CheckProgram, running theses
  * controls and publishing the results in the AuditDiagnostic.
+ * <p>
+ * The runner may be run by several worker threads at once: each worker takes its own batches from the CheckProgram.
  */
 @objid ("12d79e3c-cdd0-4d7d-9ab1-0d606a3b22b5")
 public class AuditRunner implements Runnable {
+    /**
+     * Time in milliseconds an idle worker waits for a batch before checking the loop control again.
+     */
+    @objid ("11159c02-6b8f-4441-812c-329183461a6e")
+    private static final long IDLE_WAIT = 500;
+
+    /**
+     * Minimum time in milliseconds between two computations of the checks rate.
+     */
+    @objid ("b211498f-6483-403b-86f9-80b98dac56ce")
+    private static final long RATE_PERIOD = 1000;
+
     @objid ("3fa7d17e-a40c-4876-9a82-fc45d8bbe396")
     public volatile AuditRunnerStatus status;
 
@@ -49,15 +63,32 @@ public class AuditRunner implements Runnable {
     private AuditDiagnostic auditDiagnostic = null;
 
     @objid ("8328a132-e575-4b65-90bc-0268d78a6840")
-    public List<IAuditMonitor> auditMonitors = new ArrayList<>();
+    public List<IAuditMonitor> auditMonitors = new CopyOnWriteArrayList<>();
 
     @objid ("f5068dbe-4eab-44ad-8be4-312238021aff")
     private ICoreSession session;
 
+    /**
+     * Start time of the current checks rate measure.
+     */
+    @objid ("f86e22f2-9e7f-4ce2-923f-3a182d8d49ca")
+    private long rateStart = System.currentTimeMillis();
+
+    /**
+     * Number of checks run since {@link #rateStart}.
+     */
+    @objid ("1ed53f0a-e267-4ee4-812b-4f8f6c4049dd")
+    private int rateChecks;
+
+    /**
+     * Last computed number of checks run per second.
+     */
+    @objid ("f124b8e4-2f3b-490a-ba48-5d5a726166d4")
+    private volatile float checksPerSecond;
+
     @objid ("e473b09a-bd5d-4d16-a4f7-04a2ced24cab")
     @Override
     public void run() {
-        boolean additionnalDiagnosticToPost = true;
         while (true) {
             try {
                 switch (this.loopControl) {
@@ -67,24 +98,21 @@ public class AuditRunner implements Runnable {
                 case RUN:
                     // process checks
                     CheckBatch batch = this.checkProgram.getNextControlBatch();
+                    if (batch == null) {
+                        // Before waiting for new checks, go IDLE if all workers are done
+                        enterIdle();
+                        batch = this.checkProgram.takeNextControlBatch(IDLE_WAIT);
+                    }
+        
                     if (batch != null) {
-                        additionnalDiagnosticToPost = true;
-                        changeStatus(AuditRunnerStatus.PROCESSING);
-                        processBatch(batch);
-                         // force a fire status to update the controls counter
-                        fireStatus();
-                    } else {
-                        // Before going IDLE, post an empty diagnostic to force
-                        // an update of the global diagnostic
-                        if (additionnalDiagnosticToPost) {
-                            postDiagnostic(new DiagnosticCollector(""));
-                            // force a fire status to update the controls counter
-                            fireStatus();
-                            additionnalDiagnosticToPost = false;
+                        try {
+                            changeStatus(AuditRunnerStatus.PROCESSING);
+                            processBatch(batch);
+                        } finally {
+                            this.checkProgram.batchDone();
                         }
-                        changeStatus(AuditRunnerStatus.IDLE);
-        
-                        Thread.sleep(500);
+                        // force a fire status to update the controls counter
+                        fireStatus();
                     }
                     break;
                 case SUSPEND:
@@ -92,7 +120,7 @@ public class AuditRunner implements Runnable {
                     changeStatus(AuditRunnerStatus.SUSPENDED);
                     // force a fire status to update the controls counter
                     fireStatus();
-                    Thread.sleep(1000);
+                    waitWhileSuspended();
                     break;
         
                 default:
@@ -122,6 +150,52 @@ public class AuditRunner implements Runnable {
             }
         }
         postDiagnostic(diagnostic);
+        countChecks(batch.size());
+    }
+
+    /**
+     * Go IDLE if no batch is pending nor being checked by another worker.
+     * <p>
+     * Before going IDLE, post an empty diagnostic to force an update of the global diagnostic.
+     */
+    @objid ("730d9d17-3f98-4087-8b7f-3b18eea35a8e")
+    private synchronized void enterIdle() {
+        if (this.status != AuditRunnerStatus.IDLE && this.checkProgram.isIdle()) {
+            postDiagnostic(new DiagnosticCollector(""));
+        
+            this.checksPerSecond = 0;
+            this.rateChecks = 0;
+            this.rateStart = System.currentTimeMillis();
+        
+            // force a fire status to update the controls counter
+            fireStatus();
+            changeStatus(AuditRunnerStatus.IDLE);
+        }
+    }
+
+    @objid ("f5131652-4e3d-4782-a1e2-06abd3b1fc59")
+    private synchronized void waitWhileSuspended() throws InterruptedException {
+        while (this.loopControl == LoopControlCommand.SUSPEND) {
+            wait();
+        }
+    }
+
+    /**
+     * Account checks run by a worker and update the checks rate.
+     * 
+     * @param nChecks the number of checks run.
+     */
+    @objid ("57b6293a-b8d7-4944-84fe-b0f8f9e91444")
+    private synchronized void countChecks(int nChecks) {
+        this.rateChecks += nChecks;
+        
+        long now = System.currentTimeMillis();
+        long elapsed = now - this.rateStart;
+        if (elapsed >= RATE_PERIOD) {
+            this.checksPerSecond = this.rateChecks * 1000f / elapsed;
+            this.rateChecks = 0;
+            this.rateStart = now;
+        }
     }
 
     @objid ("04ae3093-b587-4307-927f-6f732ac47e6d")
@@ -142,21 +216,33 @@ public class AuditRunner implements Runnable {
     @objid ("6cb967b6-c0dc-4f5e-9eb4-3a980ff572fc")
     public void start(ICoreSession session) {
         this.session = session;
-        this.loopControl = LoopControlCommand.RUN;
+        setLoopControl(LoopControlCommand.RUN);
     }
 
     @objid ("3c5ce431-58bd-44e8-a638-50f23d559eb6")
     public void stop() {
-        this.loopControl = LoopControlCommand.SUSPEND;
+        setLoopControl(LoopControlCommand.SUSPEND);
     }
 
     @objid ("03f6c7e9-ed35-420f-abcc-cf8a29372b39")
     public void terminate() {
-        this.loopControl = LoopControlCommand.TERMINATE;
+        setLoopControl(LoopControlCommand.TERMINATE);
+    }
+
+    /**
+     * Change the loop control and wake up all the workers so that they apply it.
+     */
+    @objid ("a1bc8221-b9d4-4c82-bd76-1edaf79d93a5")
+    private void setLoopControl(LoopControlCommand command) {
+        synchronized (this) {
+            this.loopControl = command;
+            notifyAll();
+        }
+        this.checkProgram.wakeUpAll();
     }
 
     @objid ("6793eb51-180b-4566-8afe-c69ebb4f2a3b")
-    protected void changeStatus(AuditRunnerStatus newStatus) {
+    protected synchronized void changeStatus(AuditRunnerStatus newStatus) {
         if (this.status != newStatus) {
             this.status = newStatus;
             fireStatus();
@@ -183,7 +269,7 @@ public class AuditRunner implements Runnable {
         
         if (notify) {
             for (IAuditMonitor monitor : this.auditMonitors) {
-                monitor.status(this.status, this.checkProgram.size());
+                monitor.status(this.status, nbRules, this.checksPerSecond);
             }
         }
     }
@@ -193,6 +279,14 @@ public class AuditRunner implements Runnable {
         return this.checkProgram.size();
     }
 
+    /**
+     * @return the number of checks run per second, measured about every second.
+     */
+    @objid ("2c428336-8bba-457d-9fe9-26e9592ffddb")
+    public float getChecksPerSecond() {
+        return this.checksPerSecond;
+    }
+
     @objid ("b985a442-2679-4df9-8cc2-587a1504ed37")
     private enum LoopControlCommand {
         TERMINATE,
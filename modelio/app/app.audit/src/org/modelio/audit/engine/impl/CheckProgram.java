@@ -20,26 +20,64 @@
 
 package org.modelio.audit.engine.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.audit.engine.core.IControl;
+import org.modelio.vcore.session.api.model.IMObjectFilter;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
  * Contains methods to post controls and elements to check, and to check batch of controls for each posted element.
+ * <p>
+ * Controls posted for the same element are merged in one batch until the batch is taken by an audit worker.
+ * Batches are handed out most recent first, elements accepted by the {@link #setPriorityFilter(IMObjectFilter) priority filter}
+ * before all others.
+ * <p>
+ * This class is thread safe: many audit workers may {@link #takeNextControlBatch(long) take} batches concurrently.
  */
 @objid ("83d78770-6ff0-473a-a679-21bf79b24fc0")
 public class CheckProgram {
     @objid ("8ca7c601-6174-4b49-9df1-99e432c1c984")
     private int nPostedChecks = 0;
 
+    /**
+     * Number of batches taken by audit workers and not yet {@link #batchDone() done}.
+     */
+    @objid ("fc8705e9-e6b2-432c-9a26-205111f12137")
+    private int nRunningBatches = 0;
+
+    /**
+     * Sequence number of the last queued element, used to hand out batches in LIFO order.
+     */
+    @objid ("50e40b15-1f48-4203-afe6-1c1f2b233a33")
+    private long lastSequence = 0;
+
+    /**
+     * Pending control batches, by element to check.
+     */
     @objid ("84874193-426f-4d7b-bbb2-02fc922cc161")
-    public Map<String, CheckBatch> controls = new HashMap<>();
+    private final Map<MObject, CheckBatch> controls = new HashMap<>();
 
+    /**
+     * Elements having a pending batch, in hand out order.
+     * <p>
+     * There is exactly one entry for each {@link #controls} key.
+     */
     @objid ("4d44ee16-620f-4d19-b458-37b55fdee3d6")
-    public LinkedList<MObject> lifo = new LinkedList<>();
+    private PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+
+    @objid ("a806b576-19c9-401b-acab-f718f8b4d20c")
+    private IMObjectFilter priorityFilter;
+
+    /**
+     * Tells the queue must be reordered after a priority filter change.
+     */
+    @objid ("d311d5e0-9638-46b9-91f0-757aebb93f89")
+    private boolean reorderNeeded;
 
     @objid ("605c460b-e9c6-48c5-b40b-035920fd9f1e")
     public synchronized void postControl(IControl controlToAdd, MObject elementTocheck, String jobId) {
@@ -49,12 +87,15 @@ public class CheckProgram {
         }
         
         // Get the current batch for this element
-        // if it does not exist, create it
-        String id = elementTocheck.getUuid().toString();
-        CheckBatch batch = this.controls.get(id);
+        // if it does not exist, create it and queue the element
+        CheckBatch batch = this.controls.get(elementTocheck);
         if (batch == null) {
             batch = new CheckBatch(elementTocheck, jobId);
-            this.controls.put(id, batch);
+            this.controls.put(elementTocheck, batch);
+            this.queue.add(new QueueEntry(elementTocheck, isPriority(elementTocheck), ++this.lastSequence));
+        
+            // Wake up a waiting audit worker
+            notify();
         }
         
         // Add the control to the element batch
@@ -62,36 +103,99 @@ public class CheckProgram {
         this.nPostedChecks -= batch.size();
         batch.add(controlToAdd);
         this.nPostedChecks += batch.size();
-        
-        // Add a LIFO entry for the element
-        this.lifo.addFirst(elementTocheck);
     }
 
+    /**
+     * Get the next batch to check without waiting.
+     * <p>
+     * The caller must call {@link #batchDone()} once the returned batch is checked.
+     * 
+     * @return the next batch or <code>null</code> if none is available.
+     */
     @objid ("3d6b0ea9-de44-4bea-9709-55cc2f081f0c")
     public synchronized CheckBatch getNextControlBatch() {
-        while (!this.lifo.isEmpty()) {
-            // Fetch the next LIFO element
-            MObject element = this.lifo.removeFirst();
+        if (this.reorderNeeded) {
+            reorderQueue();
+        }
         
-            if (!element.isDeleted()) {
-                CheckBatch batch = this.controls.get(element.getUuid().toString());
-                if (batch != null) {
-                    // found the batch to return
-                    this.nPostedChecks = this.nPostedChecks - batch.size();
-                    this.controls.remove(element.getUuid().toString());
-                    return batch;
-                }
-            }
-            // If element is no longer valid or if there is no batch for the element,
-            // the lifo entry was old and the element batch has already been processed
-            // let the 'while' loop try to get the next one...
+        QueueEntry entry;
+        while ((entry = this.queue.poll()) != null) {
+            CheckBatch batch = this.controls.remove(entry.element);
+            this.nPostedChecks -= batch.size();
         
-        } // end while
+            // Skip the elements deleted since they were posted
+            if (!entry.element.isDeleted()) {
+                this.nRunningBatches++;
+                return batch;
+            }
+        }
         
-        // the lifo is empty, there are no more batch/controls available
+        // the queue is empty, there are no more batch/controls available
         return null;
     }
 
+    /**
+     * Get the next batch to check, waiting at most the given time for one to be posted.
+     * <p>
+     * The caller must call {@link #batchDone()} once the returned batch is checked.
+     * 
+     * @param timeout the maximum time to wait in milliseconds.
+     * @return the next batch or <code>null</code> if none was posted in time.
+     * @throws java.lang.InterruptedException if the current thread is interrupted while waiting.
+     */
+    @objid ("75f3056c-fe04-41dd-8c1d-991dc40aeb39")
+    public synchronized CheckBatch takeNextControlBatch(long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        CheckBatch batch = getNextControlBatch();
+        while (batch == null) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            wait(remaining);
+            batch = getNextControlBatch();
+        }
+        return batch;
+    }
+
+    /**
+     * Tells a batch returned by {@link #getNextControlBatch()} has been checked.
+     */
+    @objid ("db38bf7a-806e-45ea-a11b-c2860b1a4936")
+    public synchronized void batchDone() {
+        this.nRunningBatches--;
+    }
+
+    /**
+     * @return <code>true</code> if no batch is pending nor being checked.
+     */
+    @objid ("4020397e-866c-4f78-a978-fe6b2c670f61")
+    public synchronized boolean isIdle() {
+        return this.queue.isEmpty() && this.nRunningBatches == 0;
+    }
+
+    /**
+     * Wake up all the audit workers waiting for a batch.
+     */
+    @objid ("514e46b9-7bfe-47d3-87e4-837052947985")
+    public synchronized void wakeUpAll() {
+        notifyAll();
+    }
+
+    /**
+     * Set the filter telling which elements must be checked first.
+     * <p>
+     * Already pending batches are reordered by the next audit worker taking a batch.
+     * The filter is called with the program locked and must be fast.
+     * 
+     * @param filter a filter accepting urgent elements, <code>null</code> to check all elements in posting order.
+     */
+    @objid ("a12ea592-4fb7-4cae-b18a-9dea204eb66f")
+    public synchronized void setPriorityFilter(IMObjectFilter filter) {
+        this.priorityFilter = filter;
+        this.reorderNeeded = ! this.queue.isEmpty();
+    }
+
     @objid ("e54963bf-4a15-4aff-8d95-5b053d11152a")
     public synchronized int size() {
         return this.nPostedChecks;
@@ -99,8 +203,63 @@ public class CheckProgram {
 
     @objid ("5339f61e-d383-43a5-8bac-eeae2db90009")
     public synchronized void clearCleck() {
-        this.lifo.clear();
+        this.queue.clear();
+        this.controls.clear();
         this.nPostedChecks = 0;
+        this.reorderNeeded = false;
+    }
+
+    @objid ("5b988c41-d453-4a11-9b0d-ab213102a1b8")
+    private void reorderQueue() {
+        List<QueueEntry> entries = new ArrayList<>(this.queue.size());
+        for (QueueEntry e : this.queue) {
+            entries.add(new QueueEntry(e.element, isPriority(e.element), e.sequence));
+        }
+        this.queue = new PriorityQueue<>(entries);
+        this.reorderNeeded = false;
+    }
+
+    @objid ("af2a3667-f23b-47a4-b161-f1bf0bccf595")
+    private boolean isPriority(MObject element) {
+        try {
+            return this.priorityFilter != null && this.priorityFilter.accept(element);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Pending element entry in the check queue.
+     * <p>
+     * Priority elements come first, then the most recently posted ones.
+     */
+    @objid ("9c8fab47-b77d-4cc2-bd1c-6fed0f3b0e17")
+    private static final class QueueEntry implements Comparable<QueueEntry> {
+        @objid ("5270ebf9-4d75-4b30-8c6d-8d3410571828")
+        final MObject element;
+
+        @objid ("cd76d792-01b5-4a94-bc8f-433f13b630c7")
+        final boolean priority;
+
+        @objid ("bb4ce6fa-bfc4-45e1-8cfb-1b436dedb920")
+        final long sequence;
+
+        @objid ("12a80458-ea4e-43f4-9ce2-5e9e37184e6a")
+        QueueEntry(MObject element, boolean priority, long sequence) {
+            this.element = element;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @objid ("2235ce3a-ef21-4df5-be3c-068ff7b9663a")
+        @Override
+        public int compareTo(QueueEntry o) {
+            if (this.priority != o.priority) {
+                return this.priority ? -1 : 1;
+            }
+            return Long.compare(o.sequence, this.sequence);
+        }
+
     }
 
 }
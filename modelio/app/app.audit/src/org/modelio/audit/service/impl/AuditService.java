@@ -23,15 +23,21 @@ package org.modelio.audit.service.impl;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystemException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
+import javax.inject.Named;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.statusreporter.StatusReporter;
 import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.e4.ui.services.IServiceConstants;
+import org.eclipse.jface.viewers.ISelection;
 import org.modelio.audit.engine.AuditEngine;
 import org.modelio.audit.engine.AuditJobRunner;
 import org.modelio.audit.engine.core.IAuditExecutionPlan;
@@ -42,7 +48,9 @@ import org.modelio.audit.preferences.model.AuditConfigurationModel;
 import org.modelio.audit.service.IAuditService;
 import org.modelio.gproject.gproject.GProject;
 import org.modelio.platform.core.events.ModelioEventTopics;
+import org.modelio.platform.model.ui.swt.SelectionHelper;
 import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vcore.session.api.model.IMObjectFilter;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
@@ -168,6 +176,19 @@ public class AuditService implements IAuditService {
         }
     }
 
+    /**
+     * Called when the selection changes.
+     * <p>
+     * The elements being edited are checked first: the selected elements and their composition children.
+     */
+    @objid ("cd776f6b-b8ee-41ee-8c0d-460fb46e1f64")
+    @Optional
+    @Inject
+    void onSelectionChange(@Named (IServiceConstants.ACTIVE_SELECTION) final ISelection selection) {
+        final List<MObject> selected = SelectionHelper.toList(selection, MObject.class);
+        this.auditEngine.setPriorityFilter(selected.isEmpty() ? null : new SelectedSubTreeFilter(selected));
+    }
+
     @objid ("7dde1283-45fb-11e2-9b4d-bc305ba4815c")
     @Override
     public AuditEngine getAuditEngine() {
@@ -260,7 +281,7 @@ public class AuditService implements IAuditService {
     @objid ("a146c2ab-3d69-4d46-9638-821cac96ecf4")
     @Override
     public void checkElementTree(final List<MObject> selection, final String jobId) {
-        final AuditJobRunner checker = new AuditJobRunner(this, selection, jobId);
+        final AuditJobRunner checker = new AuditJobRunner(this, getProject().getSession().getModel(), selection, jobId);
         final Thread checkerThread = new Thread(checker);
         checkerThread.setPriority(Thread.MIN_PRIORITY);
         checkerThread.setName("CHECKER");
@@ -401,4 +422,30 @@ public class AuditService implements IAuditService {
 
     }
 
+    /**
+     * Accepts the selected elements and the elements they own.
+     */
+    @objid ("39bfc10a-c946-4403-a17c-049df8402f4f")
+    private static final class SelectedSubTreeFilter implements IMObjectFilter {
+        @objid ("19be5f2e-0f30-4525-8acd-9f4078534cd7")
+        private final Set<MObject> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        @objid ("47deb74c-bd49-4c67-99e6-648308930c7b")
+        SelectedSubTreeFilter(List<MObject> selected) {
+            this.selected.addAll(selected);
+        }
+
+        @objid ("5a2464e5-73ee-45ea-8efd-324df17bfc67")
+        @Override
+        public boolean accept(MObject element) {
+            for (MObject e = element; e != null; e = e.getCompositionOwner()) {
+                if (this.selected.contains(e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
 }
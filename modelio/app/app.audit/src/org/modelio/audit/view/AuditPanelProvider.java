@@ -44,6 +44,7 @@ import org.eclipse.swt.layout.FormData;
 import org.eclipse.swt.layout.FormLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
+import org.modelio.audit.engine.core.AuditDelta;
 import org.modelio.audit.engine.core.AuditEntry;
 import org.modelio.audit.engine.core.AuditRunnerStatus;
 import org.modelio.audit.engine.core.IAuditDiagnostic;
@@ -120,6 +121,32 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
     @objid ("5282ac7b-7d88-4a09-ab65-082fdc4ce984")
     private List<MObject> scope;
 
+    /**
+     * Diagnostic changes received since the last redraw.
+     * <p>
+     * Guarded by itself.
+     */
+    @objid ("4c6a1fe5-1b2c-4488-9ca4-57e337186f40")
+    private final List<AuditDelta> pendingDeltas = new ArrayList<>();
+
+    /**
+     * Number of entries changes in {@link #pendingDeltas}.
+     */
+    @objid ("5b10013d-020d-4252-b402-278fa8aa6fdc")
+    private int pendingChanges = 0;
+
+    /**
+     * Whether the next redraw must fully refresh the table.
+     */
+    @objid ("dcc96be3-fb6b-4df3-a0a6-0a03cd42b9ac")
+    private boolean fullRefreshPending = true;
+
+    /**
+     * Above this number of pending entries changes the table is fully refreshed.
+     */
+    @objid ("2f6ed26b-119f-4a2b-a720-6730d6730ec6")
+    private static final int MAX_INCREMENTAL_CHANGES = 1000;
+
     @objid ("89485182-43f9-4265-9401-27972fff1177")
     public AuditPanelProvider(IAuditService auditService, ICoreSession newModelingSession, IMModelServices newModelService, IModelioNavigationService newNavigationService, MApplication application, EModelService emService) {
         this.modelingSession = newModelingSession;
@@ -184,6 +211,29 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
         refresh(diagnostic);
     }
 
+    /**
+     * This method is called when diagnostic entries change.
+     * <p>
+     * Changes are accumulated until the next redraw, where they are applied incrementally when possible.
+     */
+    @objid ("3ff4a739-9afa-4584-9fb0-1e1a7e9194cf")
+    @Override
+    public void auditEntriesChanged(final IAuditDiagnostic diagnostic, final AuditDelta delta) {
+        synchronized (this.pendingDeltas) {
+            if (!this.fullRefreshPending) {
+                this.pendingDeltas.add(delta);
+                this.pendingChanges += delta.size();
+                if (this.pendingChanges > MAX_INCREMENTAL_CHANGES) {
+                    this.fullRefreshPending = true;
+                    this.pendingDeltas.clear();
+                    this.pendingChanges = 0;
+                }
+            }
+        }
+        
+        scheduleRedraw(diagnostic);
+    }
+
     @objid ("fbf3de03-4c34-40aa-8306-1ad67b3c4420")
     public void setTitleImage(String path) {
         List<MPart> parts = this.emService.findElements(this.application, AuditView.VIEW_ID, MPart.class, new ArrayList<String>());
@@ -236,11 +286,22 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
     @objid ("259e0471-abcb-4500-9f73-04c2feb8a2f8")
     @Override
     public void status(final AuditRunnerStatus status, final int queueSize) {
-        refresh(status, queueSize);
+        refresh(status, queueSize, 0);
+    }
+
+    @objid ("779f6834-9fbc-4d9c-9f6d-47c250474433")
+    @Override
+    public void status(final AuditRunnerStatus status, final int queueSize, final float checksPerSecond) {
+        refresh(status, queueSize, checksPerSecond);
     }
 
     @objid ("37131d50-a26d-4a7b-a4ba-0b03011181b2")
     public void refresh(final AuditRunnerStatus status, final int queueSize) {
+        refresh(status, queueSize, 0);
+    }
+
+    @objid ("a1c2383c-c924-4d91-8ff1-80c65b56f1b1")
+    private void refresh(final AuditRunnerStatus status, final int queueSize, final float checksPerSecond) {
         final TreeViewer lAuditTable = this.auditTable;
         
         if (!lAuditTable.getTree().isDisposed()) {
@@ -248,7 +309,7 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
                 @Override
                 public void run() {
                     if (!lAuditTable.getTree().isDisposed()) {
-                        AuditPanelProvider.this.auditStatus.doRefreshStatus(status, queueSize);
+                        AuditPanelProvider.this.auditStatus.doRefreshStatus(status, queueSize, checksPerSecond);
                     }
                 }
             });
@@ -257,6 +318,17 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
 
     @objid ("64014652-828c-4b75-b1c4-abf04a87ec97")
     public void refresh(final IAuditDiagnostic diagnostic) {
+        synchronized (this.pendingDeltas) {
+            this.fullRefreshPending = true;
+            this.pendingDeltas.clear();
+            this.pendingChanges = 0;
+        }
+        
+        scheduleRedraw(diagnostic);
+    }
+
+    @objid ("7d212c83-f81c-41e0-bf5f-3bbd490da005")
+    private void scheduleRedraw(final IAuditDiagnostic diagnostic) {
         if (!this.redrawScheduled) {
             final TreeViewer lAuditTable = this.auditTable;
             if (!lAuditTable.getTree().isDisposed()) {
@@ -264,17 +336,65 @@ public class AuditPanelProvider implements IPanelProvider, IAuditListener, IAudi
                 lAuditTable.getTree().getDisplay().asyncExec(new Runnable() {
                     @Override
                     public void run() {
+                        // Reset the flag first so that changes posted during the redraw schedule another one.
+                        AuditPanelProvider.this.redrawScheduled = false;
                         if (!lAuditTable.getTree().isDisposed()) {
-                            lAuditTable.refresh();
+                            redraw();
                             AuditPanelProvider.this.auditStatus.doRefreshDiagnostic(diagnostic, AuditPanelProvider.this.getScopeLabel());
                         }
-                        AuditPanelProvider.this.redrawScheduled = false;
                     }
                 });
             }
         }
     }
 
+    /**
+     * Apply the pending diagnostic changes to the table.
+     * <p>
+     * Only the flat view is updated incrementally, grouping views are refreshed.
+     */
+    @objid ("466b5a03-c899-492f-83b3-d9d5fedf8048")
+    void redraw() {
+        final List<AuditDelta> deltas;
+        final boolean full;
+        synchronized (this.pendingDeltas) {
+            full = this.fullRefreshPending || getProviderFactory().getViewMode() != AuditViewMode.FLAT;
+            deltas = new ArrayList<>(this.pendingDeltas);
+            this.pendingDeltas.clear();
+            this.pendingChanges = 0;
+            this.fullRefreshPending = false;
+        }
+        
+        if (full) {
+            this.auditTable.refresh();
+        } else {
+            for (AuditDelta delta : deltas) {
+                this.auditTable.remove(filterShown(delta.getRemoved()));
+                this.auditTable.remove(filterShown(delta.getChanged()));
+                this.auditTable.add(this.auditDiagnostic, filterShown(delta.getAdded()));
+                this.auditTable.add(this.auditDiagnostic, filterShown(delta.getChanged()));
+            }
+        }
+    }
+
+    /**
+     * Keep the entries displayed with the current job filter.
+     */
+    @objid ("f1a29fd9-86da-4cb1-8a71-bf9ed0e2cd36")
+    private Object[] filterShown(List<IAuditEntry> entries) {
+        if (this.jobId == null || ALL_JOBS.equals(this.jobId)) {
+            return entries.toArray();
+        }
+        
+        List<IAuditEntry> ret = new ArrayList<>(entries.size());
+        for (IAuditEntry entry : entries) {
+            if (this.jobId.equals(entry.getJobId())) {
+                ret.add(entry);
+            }
+        }
+        return ret.toArray();
+    }
+
     @objid ("c6420205-1e5b-433f-acba-5b5e488dafd3")
     private TreeViewer createAuditTable(Composite parent) {
         TreeViewer newTree = new TreeViewer(parent, SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION | SWT.BORDER);
@@ -114,6 +114,12 @@ public class StatusBar {
     @objid ("4cce02d2-9071-42c9-9073-8ff4ec7ee4a8")
     private ProgressBar2 progressBar;
 
+    /**
+     * Last displayed number of checks run per second.
+     */
+    @objid ("bcd31932-e4c4-4c08-97ac-89acb1dfba73")
+    private float checksPerSecond;
+
     /**
      * Initialize the status bar.
      * 
@@ -150,7 +156,11 @@ public class StatusBar {
         this.progressBar = new ProgressBar2(this.container, SWT.RIGHT_TO_LEFT) {
             @Override
             public String getSelectionLabel() {
-                return String.format("%d", getSelection());
+                if (StatusBar.this.checksPerSecond > 0) {
+                    return String.format("%d (%.0f/s)", getSelection(), StatusBar.this.checksPerSecond);
+                } else {
+                    return String.format("%d", getSelection());
+                }
             }
         };
         this.progressBar.setMinimum(0);
@@ -227,6 +237,20 @@ public class StatusBar {
      */
     @objid ("f3b2425b-7220-431c-9cb0-ad1715864e5d")
     public void doRefreshStatus(final AuditRunnerStatus status, final int queueSize) {
+        doRefreshStatus(status, queueSize, 0);
+    }
+
+    /**
+     * Update the status view from the given parameters. MUST BE CALLED from the UI Thread
+     * 
+     * @param status The audit status
+     * @param queueSize The queue size
+     * @param checksPerSecond the number of checks run per second
+     * @since 4.1
+     */
+    @objid ("7516a8d5-1357-48a7-82c5-6bf3f68e230f")
+    public void doRefreshStatus(final AuditRunnerStatus status, final int queueSize, final float checksPerSecond) {
+        this.checksPerSecond = checksPerSecond;
         this.progressBar.setSelection(queueSize);
         
         if (status != this.lastRefreshedstatus || status == AuditRunnerStatus.PROCESSING) {
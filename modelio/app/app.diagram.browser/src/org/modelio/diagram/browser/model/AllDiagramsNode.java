@@ -20,17 +20,13 @@
 
 package org.modelio.diagram.browser.model;
 
-import java.util.ArrayList;
-import java.util.List;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.jface.viewers.Viewer;
+import org.modelio.diagram.browser.model.core.DiagramCatalog;
 import org.modelio.diagram.browser.model.core.VirtualFolder;
 import org.modelio.diagram.browser.plugin.DiagramBrowser;
 import org.modelio.gproject.gproject.GProject;
-import org.modelio.metamodel.diagrams.AbstractDiagram;
 import org.modelio.metamodel.uml.infrastructure.AbstractProject;
-import org.modelio.metamodel.uml.infrastructure.Element;
-import org.modelio.vcore.session.api.model.IModel;
 
 @objid ("0047bcce-0d4f-10c6-842f-001ec947cd2a")
 public class AllDiagramsNode extends VirtualFolder {
@@ -47,13 +43,7 @@ public class AllDiagramsNode extends VirtualFolder {
     @objid ("00481674-0d4f-10c6-842f-001ec947cd2a")
     @Override
     public Object[] getChildren(Object parentElement) {
-        List<Element> diagrams = new ArrayList<>();
-        
-        for (AbstractDiagram diag : this.project.getSession().getModel().findByClass(AbstractDiagram.class, IModel.NODELETED)) {
-            if(!diag.isShell())
-                diagrams.add(diag);
-        }
-        return diagrams.toArray();
+        return DiagramCatalog.get(this.project.getSession()).getDiagrams().toArray();
     }
 
     @objid ("00484b80-0d4f-10c6-842f-001ec947cd2a")
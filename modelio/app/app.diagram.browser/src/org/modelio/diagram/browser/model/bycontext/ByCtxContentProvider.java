@@ -26,6 +26,7 @@ import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
+import org.modelio.diagram.browser.model.core.DiagramCatalog;
 import org.modelio.diagram.browser.model.core.DiagramRef;
 import org.modelio.diagram.browser.model.core.VirtualFolder;
 import org.modelio.gproject.gproject.GProject;
@@ -34,7 +35,6 @@ import org.modelio.metamodel.diagrams.DiagramSet;
 import org.modelio.metamodel.uml.infrastructure.Element;
 import org.modelio.metamodel.uml.infrastructure.ModelElement;
 import org.modelio.metamodel.visitors.DefaultInfrastructureVisitor;
-import org.modelio.vcore.session.api.model.IModel;
 import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
 
 /**
@@ -119,12 +119,7 @@ public class ByCtxContentProvider implements ITreeContentProvider {
     private void updateElementFolders() {
         if (this.project == null)
             return;
-        for (AbstractDiagram diagram : this.project.getSession().getModel().findByClass(AbstractDiagram.class, IModel.NODELETED)) {
-            Element context = diagram.getOrigin();
-            if (context == null) {
-                continue;
-            }
-        
+        for (Element context : DiagramCatalog.get(this.project.getSession()).getOrigins()) {
             if (!this.elementFolders.containsKey(context)) {
                 final Element filteringContext = context;
         
@@ -135,9 +130,7 @@ public class ByCtxContentProvider implements ITreeContentProvider {
                         VirtualFolder folder = (VirtualFolder) parentElement;
                         Element element = (ModelElement) folder.getDelegate();
                         if (element instanceof ModelElement) {
-                            for (AbstractDiagram d : ((ModelElement) element).getProduct()) {
-                                objects.add(d);
-                            }
+                            objects.addAll(DiagramCatalog.get(ByCtxContentProvider.this.project.getSession()).getDiagramsOf(element));
                         }
                         return objects.toArray();
                     }
@@ -157,7 +150,7 @@ public class ByCtxContentProvider implements ITreeContentProvider {
                         VirtualFolder folder = (VirtualFolder) parentElement;
                         Element element = (ModelElement) folder.getDelegate();
                         if (element instanceof ModelElement)
-                            return !((ModelElement) element).getProduct().isEmpty();
+                            return !DiagramCatalog.get(ByCtxContentProvider.this.project.getSession()).getDiagramsOf(element).isEmpty();
                         return false;
                     }
         
@@ -21,9 +21,7 @@
 package org.modelio.diagram.browser.model.byset;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
@@ -37,7 +35,6 @@ import org.modelio.metamodel.diagrams.DiagramSet;
 import org.modelio.metamodel.uml.infrastructure.AbstractProject;
 import org.modelio.metamodel.uml.infrastructure.Element;
 import org.modelio.metamodel.visitors.DefaultInfrastructureVisitor;
-import org.modelio.vcore.session.api.model.IModel;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
@@ -69,11 +66,11 @@ public class BySetContentProvider implements ITreeContentProvider {
     @objid ("0045f1b4-0d4f-10c6-842f-001ec947cd2a")
     @Override
     public Object[] getElements(Object inputElement) {
-        Set<Object> fragments = new HashSet<>();
+        List<Object> fragments = new ArrayList<>();
         
-        for (DiagramSet p : this.project.getSession().getModel().findByClass(DiagramSet.class, IModel.NODELETED)) {
-            IProjectFragment fragment = this.project.getFragment(p);
-            if (fragment != null) {
+        // Look at the fragment roots instead of loading all the diagram sets of the model
+        for (IProjectFragment fragment : this.project.getFragments()) {
+            if (!getDiagramRoots(fragment).isEmpty()) {
                 fragments.add(fragment);
             }
         }
@@ -121,18 +118,7 @@ public class BySetContentProvider implements ITreeContentProvider {
             // the 'all diagrams' pseudo node knows about its children
             return ((VirtualFolder) parent).getChildren(parent);
         } else if (parent instanceof IProjectFragment) {
-            List<DiagramSet> diagramSets = new ArrayList<>();
-        
-            for (MObject root : ((IProjectFragment) parent).getRoots()) {
-                if (root instanceof AbstractProject) {
-                    DiagramSet diagramRoot = ((AbstractProject) root).getDiagramRoot();
-                    if (diagramRoot != null) {
-                        diagramSets.add(diagramRoot);
-                    }
-                }
-            }
-        
-            return diagramSets.toArray();
+            return getDiagramRoots((IProjectFragment) parent).toArray();
         }
         // other cases are not expected
         return new Object[0];
@@ -162,6 +148,26 @@ public class BySetContentProvider implements ITreeContentProvider {
         return false;
     }
 
+    /**
+     * Get the root diagram sets of a fragment.
+     * 
+     * @param fragment a project fragment
+     * @return the diagram sets of the fragment project roots.
+     */
+    @objid ("7511cf50-1afb-4884-8764-77223d641e88")
+    private static List<DiagramSet> getDiagramRoots(IProjectFragment fragment) {
+        List<DiagramSet> diagramSets = new ArrayList<>();
+        for (MObject root : fragment.getRoots()) {
+            if (root instanceof AbstractProject) {
+                DiagramSet diagramRoot = ((AbstractProject) root).getDiagramRoot();
+                if (diagramRoot != null) {
+                    diagramSets.add(diagramRoot);
+                }
+            }
+        }
+        return diagramSets;
+    }
+
     /**
      * Constructor initializing the project.
      * @param showFragments
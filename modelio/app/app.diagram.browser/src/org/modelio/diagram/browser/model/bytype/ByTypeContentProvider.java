@@ -20,12 +20,13 @@
 
 package org.modelio.diagram.browser.model.bytype;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
+import org.modelio.diagram.browser.model.core.DiagramCatalog.Descriptor;
+import org.modelio.diagram.browser.model.core.DiagramCatalog;
 import org.modelio.diagram.browser.model.core.VirtualFolder;
 import org.modelio.diagram.browser.plugin.DiagramBrowser;
 import org.modelio.gproject.gproject.GProject;
@@ -33,7 +34,6 @@ import org.modelio.metamodel.diagrams.AbstractDiagram;
 import org.modelio.metamodel.uml.infrastructure.Stereotype;
 import org.modelio.platform.mda.infra.ModuleI18NService;
 import org.modelio.vcore.session.api.ICoreSession;
-import org.modelio.vcore.session.api.model.IModel;
 
 /**
  * Content provider for the ByTypeModel of the diagram browser tree.
@@ -106,7 +106,7 @@ public class ByTypeContentProvider implements ITreeContentProvider {
         ICoreSession session = this.project.getSession();
         if (session == null)
             return;
-        for (AbstractDiagram diagram : session.getModel().findByClass(AbstractDiagram.class, IModel.NODELETED)) {
+        for (AbstractDiagram diagram : DiagramCatalog.get(session).getDiagrams()) {
             String type = getType(diagram);
         
             // Create a new virtual folder for types that are not already in the
@@ -117,15 +117,9 @@ public class ByTypeContentProvider implements ITreeContentProvider {
         
                     @Override
                     public Object[] getChildren(Object parentElement) {
-                        ArrayList<Object> objects = new ArrayList<>();
-                        for (AbstractDiagram diag : ByTypeContentProvider.this.project.getSession().getModel()
-                                .findByClass(AbstractDiagram.class, IModel.NODELETED)) {
-                            if (getType(diag).equals(filteringType)) {
-                                objects.add(diag);
-                            }
-                        }
-        
-                        return objects.toArray();
+                        return DiagramCatalog.get(ByTypeContentProvider.this.project.getSession()).getDiagrams().stream()
+                                .filter(diag -> getType(diag).equals(filteringType))
+                                .toArray();
                     }
         
                     @Override
@@ -163,23 +157,25 @@ public class ByTypeContentProvider implements ITreeContentProvider {
     }
 
     @objid ("00425586-0d4f-10c6-842f-001ec947cd2a")
-    protected static String getType(AbstractDiagram diagram) {
-        if (!diagram.getExtension().isEmpty()) {
-            Stereotype s = diagram.getExtension().get(0);
+    protected String getType(AbstractDiagram diagram) {
+        Descriptor d = DiagramCatalog.get(this.project.getSession()).getDescriptor(diagram);
+        Stereotype s = d.getStereotype();
+        if (s != null && s.isValid()) {
             return ModuleI18NService.getLabel(s);
         }
-        return diagram.getMClass().getName();
+        return d.getMetaclassName();
     }
 
     @objid ("004281aa-0d4f-10c6-842f-001ec947cd2a")
-    private static String getI18nType(AbstractDiagram diagram) {
+    private String getI18nType(AbstractDiagram diagram) {
+        Descriptor d = DiagramCatalog.get(this.project.getSession()).getDescriptor(diagram);
         // for Stereotype use stereotype label if possible
-        if (!diagram.getExtension().isEmpty()) {
-            Stereotype s = diagram.getExtension().get(0);
+        Stereotype s = d.getStereotype();
+        if (s != null && s.isValid()) {
             return ModuleI18NService.getLabel(s);
         }
         // for native diagram metaclasses use a i18n label
-        return DiagramBrowser.I18N.getString("$" + diagram.getMClass().getName() + ".label");
+        return DiagramBrowser.I18N.getString("$" + d.getMetaclassName() + ".label");
     }
 
 }
@@ -0,0 +1,430 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.diagram.browser.model.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.metamodel.diagrams.AbstractDiagram;
+import org.modelio.metamodel.mmextensions.standard.services.ExtensionIndex;
+import org.modelio.metamodel.uml.infrastructure.ModelElement;
+import org.modelio.metamodel.uml.infrastructure.Stereotype;
+import org.modelio.vcore.session.UnknownMetaclassException;
+import org.modelio.vcore.session.api.ICoreSession;
+import org.modelio.vcore.session.api.model.IModel;
+import org.modelio.vcore.session.api.model.change.IElementMovedEvent;
+import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
+import org.modelio.vcore.session.api.model.change.IModelChangeListener;
+import org.modelio.vcore.session.api.repository.IRepositoryChangeEvent;
+import org.modelio.vcore.session.api.repository.IRepositoryChangeListener;
+import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MDependency;
+import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
+
+/**
+ * Catalog of the diagrams of a modeling session, used by the diagram browser content providers.
+ * <p>
+ * The diagram list is read from the repository indexes with {@link IModel#findRefsByName(MClass, boolean, java.util.function.Predicate)}:
+ * listing the diagrams does not load them. Diagrams are returned as unloaded stubs, their content and UI data are loaded
+ * only when a diagram is actually opened or displayed.
+ * <p>
+ * The owner and the first stereotype of the diagrams are read from the indexes too, once per catalog refresh:
+ * <ul>
+ * <li>owners come from {@link IModel#findOwnerRefs(Collection)} and are kept in an origin to diagrams map,
+ * <li>stereotypes come from {@link IModel#findRefsByDep(MClass, boolean, MDependency, MObject)} called for each
+ * stereotype applicable to diagrams. The indexes do not keep the stereotypes order: only diagrams having several
+ * stereotypes are loaded to get the first one.
+ * </ul>
+ * <p>
+ * The catalog listens to the session model and repository changes to stay up to date.
+ * There is one catalog per session, get it with {@link #get(ICoreSession)}.
+ * @since 4.1
+ */
+@objid ("92a63aec-f08d-485e-b283-68bad8c0ab8d")
+public final class DiagramCatalog {
+    @objid ("73fd1cf7-3e75-4d58-9ea4-578a50b4064f")
+    private static final Map<ICoreSession, DiagramCatalog> instances = new WeakHashMap<>();
+
+    @objid ("f7cc1867-1fc5-434d-b65d-916c89725a80")
+    private final ICoreSession session;
+
+    /**
+     * References of all the session diagrams, <code>null</code> when it has to be read again from the indexes.
+     */
+    @objid ("05380be8-738c-4815-ade8-1132e20f7e51")
+    private volatile List<MRef> refs;
+
+    /**
+     * Number of repositories when {@link #refs} was computed.
+     */
+    @objid ("acddf1d1-7681-4607-b370-0dc38d7d65c5")
+    private volatile int repositoryCount;
+
+    /**
+     * References of the diagrams indexed by origin reference, <code>null</code> when it has to be computed again.
+     */
+    @objid ("c626c359-e3b0-4f41-ba1b-933ab132756d")
+    private volatile Map<MRef, List<MRef>> diagramsByOrigin;
+
+    /**
+     * First stereotype indexed by diagram identifier, <code>null</code> when it has to be computed again.
+     * Diagrams without stereotype are not in the map.
+     */
+    @objid ("0dd6c910-03b0-4514-9a77-a2c155184a5d")
+    private volatile Map<String, Stereotype> stereotypes;
+
+    /**
+     * Incremented each time the catalog content is discarded.
+     * <p>
+     * A map computed while the content was discarded is not kept.
+     */
+    @objid ("05df2deb-61b7-46cb-88b2-cc7f2c6ca065")
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @objid ("d270cd14-3cbb-4077-ab0b-64c0cb752777")
+    private final IModelChangeListener modelListener = new IModelChangeListener() {
+        @Override
+        public void modelChanged(IModelChangeEvent event) {
+            onModelChanged(event);
+        }
+    };
+
+    @objid ("fe5fc8d5-8b72-4b87-a80c-2073e9d9f6df")
+    private final IRepositoryChangeListener repositoryListener = new IRepositoryChangeListener() {
+        @Override
+        public void repositoryChanged(IRepositoryChangeEvent event) {
+            invalidate();
+        }
+    };
+
+    /**
+     * Get the diagram catalog of a modeling session.
+     * 
+     * @param session a modeling session
+     * @return the session diagram catalog.
+     */
+    @objid ("f8390fc4-06be-40d7-8320-9eec452c3c15")
+    public static DiagramCatalog get(ICoreSession session) {
+        Objects.requireNonNull(session);
+        DiagramCatalog ret;
+        synchronized (DiagramCatalog.instances) {
+            ret = DiagramCatalog.instances.get(session);
+            if (ret == null) {
+                ret = new DiagramCatalog(session);
+                DiagramCatalog.instances.put(session, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Forget the diagram catalog of a modeling session and stop listening to it.
+     * <p>
+     * To be called when the session is closed. Does nothing if the session has no catalog.
+     * 
+     * @param session a modeling session
+     */
+    @objid ("625c26ab-cad1-4171-b255-1b3207e1d556")
+    public static void dispose(ICoreSession session) {
+        DiagramCatalog ret;
+        synchronized (DiagramCatalog.instances) {
+            ret = DiagramCatalog.instances.remove(session);
+        }
+        
+        if (ret != null) {
+            ret.invalidate();
+            session.getModelChangeSupport().removeModelChangeListener(ret.modelListener);
+            session.getRepositorySupport().removeRepositoryChangeListener(ret.repositoryListener);
+        }
+    }
+
+    @objid ("7c4b0a1e-2a7e-4d00-8a46-0b4a5d63ae47")
+    private DiagramCatalog(ICoreSession session) {
+        this.session = session;
+        
+        session.getModelChangeSupport().addModelChangeListener(this.modelListener);
+        session.getRepositorySupport().addRepositoryChangeListener(this.repositoryListener);
+    }
+
+    /**
+     * Discard the whole catalog content.
+     * <p>
+     * It will be read again on the next request.
+     */
+    @objid ("95d93bc1-6346-4b72-9d51-b4070a1b7cdd")
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.refs = null;
+        this.diagramsByOrigin = null;
+        this.stereotypes = null;
+    }
+
+    /**
+     * Get all the diagrams of the session.
+     * <p>
+     * Deleted diagrams and shells are excluded. The returned diagrams are not loaded.
+     * 
+     * @return the session diagrams.
+     */
+    @objid ("f7a5a1aa-e54a-4496-abd8-ac079ba1706e")
+    public List<AbstractDiagram> getDiagrams() {
+        return resolveAll(getRefs());
+    }
+
+    /**
+     * Get the descriptor of a diagram.
+     * <p>
+     * The diagram is not loaded, unless it has several stereotypes.
+     * 
+     * @param diagram a diagram
+     * @return the diagram descriptor.
+     */
+    @objid ("cba38bb3-220d-4aa2-b203-8e2711223d99")
+    public Descriptor getDescriptor(AbstractDiagram diagram) {
+        return new Descriptor(diagram.getMClass().getName(), getStereotypes().get(diagram.getUuid()));
+    }
+
+    /**
+     * Get the diagrams whose {@link AbstractDiagram#getOrigin() origin} is the given element.
+     * <p>
+     * The returned diagrams are not loaded.
+     * 
+     * @param origin a model element
+     * @return the diagrams owned by the element.
+     */
+    @objid ("26e43f61-2640-4752-938c-28fc32475bb7")
+    public List<AbstractDiagram> getDiagramsOf(MObject origin) {
+        MRef originRef = new MRef(origin.getMClass().getQualifiedName(), origin.getUuid());
+        return resolveAll(getDiagramsByOrigin().getOrDefault(originRef, Collections.emptyList()));
+    }
+
+    /**
+     * Get all the elements that own at least one diagram.
+     * 
+     * @return the diagram origins.
+     */
+    @objid ("6dd70453-dfd6-4baa-bbd1-8da2c637cc5f")
+    public Collection<ModelElement> getOrigins() {
+        Map<MRef, List<MRef>> byOrigin = getDiagramsByOrigin();
+        List<ModelElement> ret = new ArrayList<>(byOrigin.size());
+        for (MRef originRef : byOrigin.keySet()) {
+            ModelElement origin = resolve(originRef, ModelElement.class);
+            if (origin != null) {
+                ret.add(origin);
+            }
+        }
+        return ret;
+    }
+
+    @objid ("25aab778-fc7e-4e3d-9106-a3acb76c0f49")
+    private List<MRef> getRefs() {
+        List<MRef> ret = this.refs;
+        int nbRepositories = this.session.getRepositorySupport().getRepositories().size();
+        if (ret == null || nbRepositories != this.repositoryCount) {
+            if (ret != null) {
+                // Repositories were added or removed
+                invalidate();
+            }
+        
+            int gen = this.generation.get();
+            IModel model = this.session.getModel();
+            ret = new ArrayList<>(model.findRefsByName(this.session.getMetamodel().getMClass(AbstractDiagram.class), true, n -> true));
+            if (gen == this.generation.get()) {
+                this.repositoryCount = nbRepositories;
+                this.refs = ret;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get the diagram references by origin reference, computed from the repository indexes on the first call after a refresh.
+     */
+    @objid ("e6adf9e3-f10c-496d-a00f-5a6938eeca29")
+    private Map<MRef, List<MRef>> getDiagramsByOrigin() {
+        Map<MRef, List<MRef>> ret = this.diagramsByOrigin;
+        if (ret == null) {
+            int gen = this.generation.get();
+            ret = new HashMap<>();
+            for (Map.Entry<MObject, MRef> entry : this.session.getModel().findOwnerRefs(getDiagrams()).entrySet()) {
+                MRef originRef = entry.getValue();
+                if (originRef != null) {
+                    MObject diagram = entry.getKey();
+                    ret.computeIfAbsent(originRef, k -> new ArrayList<>())
+                            .add(new MRef(diagram.getMClass().getQualifiedName(), diagram.getUuid()));
+                }
+            }
+        
+            if (gen == this.generation.get()) {
+                this.diagramsByOrigin = ret;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get the first stereotype of the diagrams, computed from the repository indexes on the first call after a refresh.
+     */
+    @objid ("8f9f2bfc-9193-4952-b32f-280baeeea86b")
+    private Map<String, Stereotype> getStereotypes() {
+        Map<String, Stereotype> ret = this.stereotypes;
+        if (ret == null) {
+            int gen = this.generation.get();
+            ret = computeStereotypes();
+            if (gen == this.generation.get()) {
+                this.stereotypes = ret;
+            }
+        }
+        return ret;
+    }
+
+    @objid ("b4ddd668-099b-4f8e-921e-d6b1e7d8dcdb")
+    private Map<String, Stereotype> computeStereotypes() {
+        IModel model = this.session.getModel();
+        MClass diagramClass = this.session.getMetamodel().getMClass(AbstractDiagram.class);
+        MDependency extensionDep = this.session.getMetamodel().getMClass(ModelElement.class).getDependency("Extension");
+        
+        // Stereotypes applicable to any diagram metaclass
+        ExtensionIndex extensionIndex = ExtensionIndex.get(this.session);
+        Set<Stereotype> candidates = new LinkedHashSet<>(extensionIndex.findStereotypes(null, null, diagramClass));
+        for (MClass cls : diagramClass.getSub(true)) {
+            candidates.addAll(extensionIndex.findStereotypes(null, null, cls));
+        }
+        
+        Map<String, Stereotype> ret = new HashMap<>();
+        Map<String, MRef> several = new HashMap<>();
+        for (Stereotype stereotype : candidates) {
+            for (MRef diagramRef : model.findRefsByDep(diagramClass, true, extensionDep, stereotype)) {
+                if (ret.putIfAbsent(diagramRef.uuid, stereotype) != null) {
+                    several.put(diagramRef.uuid, diagramRef);
+                }
+            }
+        }
+        
+        // The indexes do not keep the stereotypes order: load the diagrams having several ones
+        for (MRef diagramRef : several.values()) {
+            ret.remove(diagramRef.uuid);
+            AbstractDiagram diagram = resolve(diagramRef, AbstractDiagram.class);
+            if (diagram != null && !diagram.getExtension().isEmpty()) {
+                ret.put(diagramRef.uuid, diagram.getExtension().get(0));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Resolve diagram references, deleted diagrams and shells are excluded.
+     */
+    @objid ("3b03084b-9de7-4ee3-896f-bc2f6728bdfc")
+    private List<AbstractDiagram> resolveAll(List<MRef> diagramRefs) {
+        List<AbstractDiagram> ret = new ArrayList<>(diagramRefs.size());
+        for (MRef ref : diagramRefs) {
+            AbstractDiagram diagram = resolve(ref, AbstractDiagram.class);
+            if (diagram != null && !diagram.isShell()) {
+                ret.add(diagram);
+            }
+        }
+        return ret;
+    }
+
+    @objid ("1e983b63-bcdf-4511-a27a-16114f6e4711")
+    private <T extends MObject> T resolve(MRef ref, Class<T> cls) {
+        try {
+            MObject obj = this.session.getModel().findByRef(ref, IModel.NODELETED);
+            return cls.isInstance(obj) ? cls.cast(obj) : null;
+        } catch (@SuppressWarnings ("unused") UnknownMetaclassException e) {
+            // The metaclass is not in the session metamodel anymore
+            return null;
+        }
+    }
+
+    @objid ("40c4ef9c-ce87-49cf-a41f-ccc28abdcd50")
+    private void onModelChanged(IModelChangeEvent event) {
+        // Diagrams may have been created or deleted along with their owner:
+        // read the diagram list again, it does not load anything.
+        if (!event.getCreationEvents().isEmpty() || !event.getDeleteEvents().isEmpty() || !event.getRootDeletionEvents().isEmpty()) {
+            invalidate();
+            return;
+        }
+        
+        for (IElementMovedEvent ev : event.getMoveEvents()) {
+            if (ev.getMovedElement() instanceof AbstractDiagram) {
+                this.generation.incrementAndGet();
+                this.diagramsByOrigin = null;
+                break;
+            }
+        }
+        
+        for (MObject obj : event.getUpdateEvents()) {
+            if (obj instanceof AbstractDiagram) {
+                // The stereotypes may have changed
+                this.generation.incrementAndGet();
+                this.stereotypes = null;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Diagram properties needed by the browser that are not available from the diagram references.
+     */
+    @objid ("a862e02e-95f3-4206-889f-bde869c0426b")
+    public static final class Descriptor {
+        @objid ("167c0d10-a51f-4867-8601-cfcfedfb3f15")
+        private final String metaclassName;
+
+        @objid ("e648a561-f831-4938-9831-e08e228ed6f3")
+        private final Stereotype stereotype;
+
+        @objid ("5457d81e-23b5-4491-a948-2032ddcd9d6d")
+        Descriptor(String metaclassName, Stereotype stereotype) {
+            this.metaclassName = metaclassName;
+            this.stereotype = stereotype;
+        }
+
+        /**
+         * @return the diagram metaclass simple name.
+         */
+        @objid ("73358e2b-3191-4084-a689-338dd354748c")
+        public String getMetaclassName() {
+            return this.metaclassName;
+        }
+
+        /**
+         * @return the first stereotype of the diagram, <code>null</code> if it has none.
+         */
+        @objid ("2dd623fe-cf71-4c7e-9ade-7ea6ef8a7cea")
+        public Stereotype getStereotype() {
+            return this.stereotype;
+        }
+
+    }
+
+}
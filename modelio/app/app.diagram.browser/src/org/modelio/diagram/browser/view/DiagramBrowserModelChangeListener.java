@@ -42,19 +42,17 @@ public class DiagramBrowserModelChangeListener implements IModelChangeListener,
     @objid ("001011b6-0d4f-10c6-842f-001ec947cd2a")
     @Override
     public void modelChanged(IModelChangeEvent event) {
+        // Called in the UI thread, see DiagramBrowserView
+        if (this.view.getPanel().getTree().isDisposed()) {
+            return;
+        }
+        
         // First delegate the event to the model of the browser content provider if supported
         if (this.view.getPanel().getContentProvider() instanceof IModelChangeListener) {
             ((IModelChangeListener) this.view.getPanel().getContentProvider()).modelChanged(event);
         }
         
-        // Re enter the UI thread
-        Display display = Display.getDefault();
-        display.asyncExec(new Runnable() {
-            @Override
-            public void run() {
-                updateNavigatorView();
-            }
-        });
+        updateNavigatorView();
     }
 
     @objid ("001055e0-0d4f-10c6-842f-001ec947cd2a")
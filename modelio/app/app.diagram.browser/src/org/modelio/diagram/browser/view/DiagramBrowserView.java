@@ -22,6 +22,7 @@ package org.modelio.diagram.browser.view;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -44,6 +45,7 @@ import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.modelio.diagram.browser.model.IBrowserModel;
+import org.modelio.diagram.browser.model.core.DiagramCatalog;
 import org.modelio.diagram.browser.model.core.DiagramRef;
 import org.modelio.gproject.gproject.GProject;
 import org.modelio.metamodel.uml.infrastructure.Element;
@@ -55,6 +57,7 @@ import org.modelio.platform.core.picking.IPickingSession;
 import org.modelio.platform.model.ui.swt.SelectionHelper;
 import org.modelio.platform.project.services.IProjectService;
 import org.modelio.vcore.session.api.ICoreSession;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
@@ -153,7 +156,15 @@ public class DiagramBrowserView {
         DiagramBrowserView.this.modelChangeListener = new DiagramBrowserModelChangeListener(
                 DiagramBrowserView.this.diagramBrowserPanelProvider);
         if (openedProject != null) {
-            openedProject.getSession().getModelChangeSupport().addModelChangeListener(DiagramBrowserView.this.modelChangeListener);
+            // The listener refreshes the whole tree: call it in the UI thread after the transactions,
+            // transactions committed while a refresh is pending then give only one refresh.
+            Display display = DiagramBrowserView.this.parent.getDisplay();
+            Executor uiExecutor = r -> {
+                if (!display.isDisposed()) {
+                    display.asyncExec(r);
+                }
+            };
+            openedProject.getSession().getModelChangeSupport().addModelChangeListener(DiagramBrowserView.this.modelChangeListener, ModelChangeFilter.ALL, uiExecutor);
             openedProject.getSession().getModelChangeSupport().addStatusChangeListener(DiagramBrowserView.this.modelChangeListener);
         }
         
@@ -336,6 +347,7 @@ public class DiagramBrowserView {
         if ((project != null) && project.isOpen()) {
             project.getSession().getModelChangeSupport().removeModelChangeListener(this.modelChangeListener);
             project.getSession().getModelChangeSupport().removeStatusChangeListener(this.modelChangeListener);
+            DiagramCatalog.dispose(project.getSession());
         }
         this.modelChangeListener = null;
         
@@ -26,6 +26,7 @@ import org.modelio.diagram.elements.common.abstractdiagram.GmAbstractDiagram;
 import org.modelio.diagram.elements.core.model.IGmDiagram.IModelManager;
 import org.modelio.diagram.elements.core.model.IGmDiagram;
 import org.modelio.metamodel.diagrams.AbstractDiagram;
+import org.modelio.vcore.session.api.memory.IMemoryManager;
 
 /**
  * Abstract diagram editor input, needed to open a diagram.
@@ -43,6 +44,12 @@ public abstract class DiagramEditorInput {
     @objid ("65931998-33f7-11e2-95fe-001ec947c8cc")
     private GmAbstractDiagram model;
 
+    /**
+     * The memory manager the diagram is retained by, <code>null</code> once released.
+     */
+    @objid ("aed83a6f-60ad-4720-8509-ed5ba2ee2d94")
+    private IMemoryManager retainer;
+
     /**
      * Initialize the editor input.
      * <p>
@@ -55,6 +62,11 @@ public abstract class DiagramEditorInput {
     @objid ("65931999-33f7-11e2-95fe-001ec947c8cc")
     public DiagramEditorInput(AbstractDiagram diagram, IModelManager modelManager, GmDiagramCreator gmDiagramCreator) {
         this.diagram = diagram;
+        
+        // Keep the edited diagram in memory as long as possible
+        this.retainer = modelManager.getModelingSession().getMemoryManager();
+        this.retainer.retain(diagram);
+        
         this.model = gmDiagramCreator.createDiagram(modelManager, diagram);
         if (this.model != null) {
             // Make the diagram visible at GM level.
@@ -123,6 +135,11 @@ public abstract class DiagramEditorInput {
             this.model.dispose();
             this.model = null;
         }
+        
+        if (this.retainer != null) {
+            this.retainer.release(this.diagram);
+            this.retainer = null;
+        }
     }
 
     /**
@@ -22,9 +22,11 @@ package org.modelio.xmi.generation;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import javax.xml.stream.XMLStreamException;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -33,6 +35,7 @@ import org.eclipse.uml2.common.util.UML2Util;
 import org.eclipse.uml2.uml.Model;
 import org.eclipse.uml2.uml.PackageableElement;
 import org.eclipse.uml2.uml.UMLFactory;
+import org.modelio.gproject.gproject.GProject;
 import org.modelio.metamodel.uml.infrastructure.MetaclassReference;
 import org.modelio.metamodel.uml.infrastructure.ModelElement;
 import org.modelio.metamodel.uml.infrastructure.ModelTree;
@@ -40,6 +43,8 @@ import org.modelio.metamodel.uml.infrastructure.Profile;
 import org.modelio.metamodel.uml.infrastructure.Stereotype;
 import org.modelio.metamodel.uml.infrastructure.TaggedValue;
 import org.modelio.metamodel.uml.statik.Package;
+import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
 import org.modelio.xmi.api.FormatExport;
 import org.modelio.xmi.api.XMIExtension;
 import org.modelio.xmi.gui.ProgressBarComposite;
@@ -211,6 +216,64 @@ public class ExportServices {
         return resource;
     }
 
+    /**
+     * Export the Modelio model into the XMI file.
+     * <p>
+     * The streaming export is used when selected with {@link StreamingXmiExporter#PROPERTY_STREAMING_EXPORT},
+     * otherwise the Ecore model is built and saved.
+     * @param progressBar The progress bar of the XMI dialog, may be <code>null</code>
+     */
+    @objid ("b405fc9f-82bc-4458-8881-f7c2167fa070")
+    public void exportModel(ProgressBarComposite progressBar) {
+        prefetch(GenerationProperties.getInstance().getRootElements());
+        
+        if (StreamingXmiExporter.isEnabled()) {
+            createStreamedModel(progressBar);
+        } else {
+            createEcoreModel(progressBar);
+        }
+    }
+
+    /**
+     * Load the exported sub trees in batches before visiting them,
+     * instead of one storage unit at a time.
+     * 
+     * @param roots the exported root elements
+     */
+    @objid ("6de16dee-6734-4c63-bc36-87b1e92005cc")
+    private static void prefetch(List<? extends MObject> roots) {
+        if (roots.isEmpty()) {
+            return;
+        }
+        
+        List<MRef> refs = new ArrayList<>(roots.size());
+        for (MObject root : roots) {
+            refs.add(new MRef(root));
+        }
+        GProject.getProject(roots.get(0)).getSession().getModel().prefetch(refs, -1);
+    }
+
+    /**
+     * Write the Modelio model directly in the XMI file, without building the Ecore model.
+     * <p>
+     * Only the structural UML elements are exported, see {@link StreamingXmiExporter}.
+     * @param progressBar The progress bar of the XMI dialog, may be <code>null</code>
+     */
+    @objid ("74e62c7a-c497-43f0-b436-c0b83c045211")
+    public void createStreamedModel(ProgressBarComposite progressBar) {
+        GenerationProperties genProp = GenerationProperties.getInstance();
+        
+        if(progressBar != null)
+            progressBar.setLabel(Xmi.I18N.getString("progressBar.content.export.XMIFileSave"));
+        
+        try {
+            new StreamingXmiExporter(genProp.getRootElements(), progressBar).export(Paths.get(genProp.getFilePath()));
+        } catch (IOException | XMLStreamException e) {
+            Xmi.LOG.error(e);
+            genProp.addError(Xmi.I18N.getString("info.export.result_failed.inSave"));
+        }
+    }
+
     /**
      * Export the Modelio model into Ecore model
      * 
@@ -0,0 +1,759 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.xmi.generation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.metamodel.uml.infrastructure.Abstraction;
+import org.modelio.metamodel.uml.infrastructure.Dependency;
+import org.modelio.metamodel.uml.infrastructure.ModelElement;
+import org.modelio.metamodel.uml.infrastructure.ModelTree;
+import org.modelio.metamodel.uml.infrastructure.Note;
+import org.modelio.metamodel.uml.infrastructure.Usage;
+import org.modelio.metamodel.uml.statik.Association;
+import org.modelio.metamodel.uml.statik.AssociationEnd;
+import org.modelio.metamodel.uml.statik.Attribute;
+import org.modelio.metamodel.uml.statik.Class;
+import org.modelio.metamodel.uml.statik.Classifier;
+import org.modelio.metamodel.uml.statik.Component;
+import org.modelio.metamodel.uml.statik.DataType;
+import org.modelio.metamodel.uml.statik.Enumeration;
+import org.modelio.metamodel.uml.statik.EnumerationLiteral;
+import org.modelio.metamodel.uml.statik.Feature;
+import org.modelio.metamodel.uml.statik.GeneralClass;
+import org.modelio.metamodel.uml.statik.Generalization;
+import org.modelio.metamodel.uml.statik.Interface;
+import org.modelio.metamodel.uml.statik.InterfaceRealization;
+import org.modelio.metamodel.uml.statik.KindOfAccess;
+import org.modelio.metamodel.uml.statik.NameSpace;
+import org.modelio.metamodel.uml.statik.Operation;
+import org.modelio.metamodel.uml.statik.Package;
+import org.modelio.metamodel.uml.statik.Parameter;
+import org.modelio.metamodel.uml.statik.StructuralFeature;
+import org.modelio.metamodel.uml.statik.VisibilityMode;
+import org.modelio.vbasic.xml.CloseableXMLStreamWriter;
+import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.xmi.gui.ProgressBarComposite;
+import org.modelio.xmi.plugin.Xmi;
+import org.modelio.xmi.util.ModelioPrimitiveTypeMapper;
+import org.modelio.xmi.util.ModelioTypes;
+
+/**
+ * Writes the structural part of a Modelio model directly to an EMF UML2 3.0.0 XMI file.
+ * <p>
+ * Unlike {@link ExportServices#createEcoreModel(ProgressBarComposite)}, no Eclipse UML2
+ * object graph is built: the Modelio model is walked once and each element is written
+ * as soon as it is visited. The Modelio UUID is used as <code>xmi:id</code> so that
+ * forward references need no lookup. The only state kept during the walk is:
+ * <ul>
+ * <li>the table of referenced elements that are not written by the walk, written as stubs at the end,</li>
+ * <li>the associations and dependencies of the top level classifier being written,
+ * that UML2 requires to be owned by the enclosing package.</li>
+ * </ul>
+ * <p>
+ * Supported elements: packages, classes, components, interfaces, data types, enumerations,
+ * attributes, operations, parameters, generalizations, interface realizations, binary associations,
+ * dependencies and notes. Other elements, stereotypes and tagged values are not exported.
+ * @since 4.1
+ */
+@objid ("e16d1832-772d-4aa9-bd15-5337ef03ae9c")
+public class StreamingXmiExporter {
+    /**
+     * Name of the system property that selects the streaming export in {@link ExportServices#exportModel(ProgressBarComposite)}.
+     */
+    @objid ("1fc7b831-f787-43a1-aa68-e74ffa16a9c5")
+    public static final String PROPERTY_STREAMING_EXPORT = "modelio.xmi.streamingExport";
+
+    @objid ("082d009b-f3f0-4765-ab58-9108bd9180f7")
+    private static final String XMI_NS = "http://www.omg.org/XMI";
+
+    @objid ("37e896e7-2ae6-4cd7-8c27-5010149cc572")
+    private static final String UML_NS = "http://www.eclipse.org/uml2/3.0.0/UML";
+
+    @objid ("d313bdd6-dba5-4200-a813-82fbfddae880")
+    private static final String UML_LIBRARY = "pathmap://UML_LIBRARIES/UMLPrimitiveTypes.library.uml#";
+
+    @objid ("6a6e2f64-8ebb-40dc-a6f7-0ec79a05c9b7")
+    private final List<ModelElement> roots;
+
+    @objid ("0f3c361e-8c1a-4b28-bc6c-75da5e4ae1e7")
+    private final ProgressBarComposite progressBar;
+
+    @objid ("06b7e831-b9b8-4525-8274-1c998acf1170")
+    private final ModelioTypes modelioTypes;
+
+    /**
+     * Elements that are referenced but not written by the model walk, by UUID.
+     */
+    @objid ("7ca44787-9784-456a-8359-949c2f6ce644")
+    private final Map<String, ModelElement> stubs = new LinkedHashMap<>();
+
+    /**
+     * Package level elements found while writing the current top level classifier.
+     */
+    @objid ("a0e7c1a4-d29e-423a-ba78-b1c800512018")
+    private final List<ModelElement> deferred = new ArrayList<>();
+
+    @objid ("9e7af28c-3027-474a-bfdf-74aebe638c56")
+    private XMLStreamWriter out;
+
+    @objid ("757595e9-ae82-4603-ab76-18a3603f54c2")
+    private String modelId;
+
+    @objid ("e1934a24-423e-4c52-b1da-a4f6828a2a77")
+    private int skipped;
+
+    /**
+     * @param roots the exported elements. The first one gives its name to the UML model.
+     * @param progressBar the progress bar of the XMI dialog, may be <code>null</code>.
+     */
+    @objid ("104ff695-1492-44af-b34d-faf706449bcb")
+    public StreamingXmiExporter(List<ModelElement> roots, ProgressBarComposite progressBar) {
+        this.roots = roots;
+        this.progressBar = progressBar;
+        this.modelioTypes = GenerationProperties.getInstance().getModelioTypes();
+    }
+
+    /**
+     * @return <code>true</code> if the streaming export was selected with {@link #PROPERTY_STREAMING_EXPORT}.
+     */
+    @objid ("4151e266-fa31-4740-92d5-a0131c5a66fe")
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY_STREAMING_EXPORT);
+    }
+
+    /**
+     * Write the XMI file.
+     * @param file the file to write.
+     * @return the number of elements that were not exported because the streaming export does not support them.
+     * @throws java.io.IOException on file writing failure
+     * @throws javax.xml.stream.XMLStreamException on XML writing failure
+     */
+    @objid ("175b0041-b59c-4cfb-bdc0-726de3cfb03a")
+    public int export(Path file) throws IOException, XMLStreamException {
+        this.stubs.clear();
+        this.deferred.clear();
+        this.skipped = 0;
+        this.modelId = this.roots.get(0).getUuid();
+        
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file));
+                CloseableXMLStreamWriter cw = new CloseableXMLStreamWriter(os, true)) {
+            this.out = cw.getW();
+            this.out.writeStartDocument("UTF-8", "1.0");
+            this.out.writeStartElement("uml", "Model", UML_NS);
+            this.out.writeNamespace("xmi", XMI_NS);
+            this.out.writeNamespace("uml", UML_NS);
+            this.out.writeAttribute("xmi", XMI_NS, "version", "2.0");
+            this.out.writeAttribute("xmi", XMI_NS, "id", this.modelId);
+            this.out.writeAttribute("name", this.roots.get(0).getName());
+        
+            for (ModelElement root : this.roots) {
+                if (root instanceof Package) {
+                    // Root packages are merged into the UML model
+                    writeComments(root);
+                    writePackageContent((Package) root);
+                } else if (root instanceof ModelTree) {
+                    writePackagedElement((ModelTree) root);
+                } else {
+                    this.skipped++;
+                }
+            }
+        
+            writeStubs();
+        
+            this.out.writeEndElement();
+            this.out.writeEndDocument();
+            this.out.flush();
+        } finally {
+            this.out = null;
+        }
+        
+        if (this.skipped > 0) {
+            Xmi.LOG.warning("Streaming XMI export: %d elements were not exported", this.skipped);
+        }
+        return this.skipped;
+    }
+
+    @objid ("9e11dc55-bbcc-4c69-8b9d-1beebdca7e25")
+    private void writePackageContent(Package pkg) throws XMLStreamException {
+        for (ModelTree child : pkg.getOwnedElement()) {
+            writePackagedElement(child);
+        }
+        
+        writeDependencies(pkg);
+    }
+
+    /**
+     * Write a package member then the associations and dependencies collected while writing it.
+     */
+    @objid ("b0033cec-e022-42a8-9988-e5d80e68babc")
+    private void writePackagedElement(ModelTree elt) throws XMLStreamException {
+        if (elt instanceof Package) {
+            startElement("packagedElement", "uml:Package", elt);
+            writeComments(elt);
+            writePackageContent((Package) elt);
+            this.out.writeEndElement();
+            progress();
+        } else if (isSupportedClassifier(elt)) {
+            writeClassifier("packagedElement", (GeneralClass) elt);
+        
+            for (ModelElement d : this.deferred) {
+                if (d instanceof Association) {
+                    writeAssociation((Association) d);
+                } else {
+                    writeDependency((Dependency) d);
+                }
+            }
+            this.deferred.clear();
+        } else {
+            this.skipped++;
+        }
+    }
+
+    @objid ("09442ac8-596f-4a51-a234-cc3e3db1c7df")
+    private void writeClassifier(String tag, GeneralClass cls) throws XMLStreamException {
+        startElement(tag, getUmlType(cls), cls);
+        if (cls.isIsAbstract()) {
+            this.out.writeAttribute("isAbstract", "true");
+        }
+        
+        writeComments(cls);
+        
+        for (Generalization g : cls.getParent()) {
+            String general = getReference(g.getSuperType());
+            if (general != null) {
+                this.out.writeEmptyElement("generalization");
+                writeId(g);
+                this.out.writeAttribute("general", general);
+            }
+        }
+        
+        if (cls instanceof Class) {
+            for (InterfaceRealization r : cls.getRealized()) {
+                String contract = getReference(r.getImplemented());
+                if (contract != null) {
+                    this.out.writeEmptyElement("interfaceRealization");
+                    writeId(r);
+                    this.out.writeAttribute("supplier", contract);
+                    this.out.writeAttribute("client", cls.getUuid());
+                    this.out.writeAttribute("contract", contract);
+                    this.out.writeAttribute("implementingClassifier", cls.getUuid());
+                }
+            }
+        }
+        
+        if (cls instanceof Enumeration) {
+            for (EnumerationLiteral lit : ((Enumeration) cls).getValue()) {
+                this.out.writeStartElement("ownedLiteral");
+                writeId(lit);
+                this.out.writeAttribute("name", lit.getName());
+                writeComments(lit);
+                this.out.writeEndElement();
+            }
+        }
+        
+        for (Attribute att : cls.getOwnedAttribute()) {
+            writeAttribute(att);
+        }
+        
+        for (AssociationEnd end : cls.getOwnedEnd()) {
+            Association assoc = end.getAssociation();
+            if (assoc == null) {
+                continue;
+            }
+        
+            if (end.isNavigable()) {
+                startElement("ownedAttribute", null, end);
+                writeAssociationEndProperties(end, assoc);
+                writeMultiplicity(end, end.getMultiplicityMin(), end.getMultiplicityMax());
+                this.out.writeEndElement();
+            }
+        
+            if (isAssociationWriter(end, assoc)) {
+                this.deferred.add(assoc);
+            }
+        }
+        
+        for (Operation op : cls.getOwnedOperation()) {
+            writeOperation(op);
+        }
+        
+        for (Dependency d : cls.getDependsOnDependency()) {
+            this.deferred.add(d);
+        }
+        
+        if (cls instanceof Class || cls instanceof Interface) {
+            for (ModelTree child : cls.getOwnedElement()) {
+                if (isSupportedClassifier(child)) {
+                    writeClassifier("nestedClassifier", (GeneralClass) child);
+                } else {
+                    this.skipped++;
+                }
+            }
+        } else {
+            this.skipped += cls.getOwnedElement().size();
+        }
+        
+        this.out.writeEndElement();
+        progress();
+    }
+
+    @objid ("d7509339-3007-4974-ad6e-08678e72f240")
+    private void writeAttribute(Attribute att) throws XMLStreamException {
+        startElement("ownedAttribute", null, att);
+        writeFeatureProperties(att);
+        if (att.isIsOrdered()) {
+            this.out.writeAttribute("isOrdered", "true");
+        }
+        if (! att.isIsUnique()) {
+            this.out.writeAttribute("isUnique", "false");
+        }
+        writeTypeReference(att.getType());
+        
+        writeComments(att);
+        writeLibraryType(att.getType());
+        writeMultiplicity(att, att.getMultiplicityMin(), att.getMultiplicityMax());
+        
+        String value = att.getValue();
+        if (value != null && ! value.isEmpty()) {
+            this.out.writeEmptyElement("defaultValue");
+            this.out.writeAttribute("xmi", XMI_NS, "type", "uml:OpaqueExpression");
+            this.out.writeAttribute("xmi", XMI_NS, "id", att.getUuid() + "-default");
+            this.out.writeAttribute("body", value);
+        }
+        this.out.writeEndElement();
+    }
+
+    @objid ("77403e3b-c9ad-4162-99b3-ad8f0d8f362a")
+    private void writeOperation(Operation op) throws XMLStreamException {
+        startElement("ownedOperation", null, op);
+        writeFeatureProperties(op);
+        if (op.isIsAbstract()) {
+            this.out.writeAttribute("isAbstract", "true");
+        }
+        
+        writeComments(op);
+        
+        for (Parameter p : op.getIO()) {
+            writeParameter(p, getDirection(p));
+        }
+        
+        Parameter ret = op.getReturn();
+        if (ret != null) {
+            writeParameter(ret, "return");
+        }
+        this.out.writeEndElement();
+    }
+
+    @objid ("a1af5649-3981-4e69-afd5-278e04058e83")
+    private void writeParameter(Parameter p, String direction) throws XMLStreamException {
+        startElement("ownedParameter", null, p);
+        if (direction != null) {
+            this.out.writeAttribute("direction", direction);
+        }
+        writeTypeReference(p.getType());
+        
+        writeComments(p);
+        writeLibraryType(p.getType());
+        writeMultiplicity(p, p.getMultiplicityMin(), p.getMultiplicityMax());
+        this.out.writeEndElement();
+    }
+
+    @objid ("a3e04f3c-5e4b-4aa9-b54a-ef1401e4a0d5")
+    private void writeAssociation(Association assoc) throws XMLStreamException {
+        StringBuilder memberEnds = new StringBuilder();
+        for (AssociationEnd end : assoc.getEnd()) {
+            if (memberEnds.length() > 0) {
+                memberEnds.append(' ');
+            }
+            memberEnds.append(end.getUuid());
+        }
+        
+        startElement("packagedElement", "uml:Association", assoc);
+        this.out.writeAttribute("memberEnd", memberEnds.toString());
+        writeComments(assoc);
+        
+        for (AssociationEnd end : assoc.getEnd()) {
+            if (! end.isNavigable() || ! isStreamed(end)) {
+                startElement("ownedEnd", null, end);
+                writeAssociationEndProperties(end, assoc);
+                writeMultiplicity(end, end.getMultiplicityMin(), end.getMultiplicityMax());
+                this.out.writeEndElement();
+            }
+        }
+        this.out.writeEndElement();
+    }
+
+    /**
+     * An association is written once, after the first of its end owners that is written by the walk.
+     */
+    @objid ("fd75d712-3c71-43b6-8b75-f914a9231985")
+    private boolean isAssociationWriter(AssociationEnd end, Association assoc) {
+        for (AssociationEnd e : assoc.getEnd()) {
+            Classifier owner = e.getOwner();
+            if (owner != null && isStreamed(owner)) {
+                return e.equals(end);
+            }
+        }
+        return false;
+    }
+
+    @objid ("41281617-34e8-4672-a8b2-7f6bec74d593")
+    private void writeAssociationEndProperties(AssociationEnd end, Association assoc) throws XMLStreamException {
+        writeFeatureProperties(end);
+        
+        String type = getReference(end.getTarget());
+        if (type != null) {
+            this.out.writeAttribute("type", type);
+        }
+        this.out.writeAttribute("association", assoc.getUuid());
+        
+        switch (end.getAggregation()) {
+        case KINDISAGGREGATION:
+            this.out.writeAttribute("aggregation", "shared");
+            break;
+        case KINDISCOMPOSITION:
+            this.out.writeAttribute("aggregation", "composite");
+            break;
+        default:
+            break;
+        }
+    }
+
+    @objid ("f6cc09fe-8119-45fa-b467-2040ae946fbb")
+    private void writeDependencies(ModelElement client) throws XMLStreamException {
+        for (Dependency d : client.getDependsOnDependency()) {
+            writeDependency(d);
+        }
+    }
+
+    @objid ("3112350f-90b6-47b4-b2b7-051c5fe0c991")
+    private void writeDependency(Dependency d) throws XMLStreamException {
+        ModelElement impacted = d.getImpacted();
+        String client = impacted == null ? null : getReference(impacted);
+        String supplier = getReference(d.getDependsOn());
+        if (client == null || supplier == null) {
+            this.skipped++;
+            return;
+        }
+        
+        final String type;
+        if (d instanceof Usage) {
+            type = "uml:Usage";
+        } else if (d instanceof Abstraction) {
+            type = "uml:Abstraction";
+        } else {
+            type = "uml:Dependency";
+        }
+        
+        startElement("packagedElement", type, d);
+        this.out.writeAttribute("client", client);
+        this.out.writeAttribute("supplier", supplier);
+        writeComments(d);
+        this.out.writeEndElement();
+    }
+
+    /**
+     * Write the notes of an element as UML comments.
+     */
+    @objid ("e70618e6-db76-4a9d-a371-b84a7c0a2867")
+    private void writeComments(ModelElement elt) throws XMLStreamException {
+        for (Note note : elt.getDescriptor()) {
+            String content = note.getContent();
+            if (content == null || content.isEmpty()) {
+                continue;
+            }
+        
+            this.out.writeStartElement("ownedComment");
+            this.out.writeAttribute("xmi", XMI_NS, "type", "uml:Comment");
+            writeId(note);
+            this.out.writeAttribute("annotatedElement", getId(elt));
+            this.out.writeStartElement("body");
+            this.out.writeCharacters(content);
+            this.out.writeEndElement();
+            this.out.writeEndElement();
+        }
+    }
+
+    /**
+     * Write the referenced elements that were not written by the model walk.
+     * <p>
+     * Writing a stub cannot reference new elements, so the table does not grow while it is written.
+     */
+    @objid ("896f6238-d3f2-4625-a3e3-d7de3b4e29f9")
+    private void writeStubs() throws XMLStreamException {
+        for (ModelElement stub : this.stubs.values()) {
+            this.out.writeEmptyElement("packagedElement");
+            if (stub instanceof DataType && ModelioPrimitiveTypeMapper.isPredefinedType((GeneralClass) stub)) {
+                this.out.writeAttribute("xmi", XMI_NS, "type", "uml:PrimitiveType");
+            } else {
+                this.out.writeAttribute("xmi", XMI_NS, "type", getUmlType(stub));
+            }
+            writeId(stub);
+            this.out.writeAttribute("name", stub.getName());
+        }
+    }
+
+    @objid ("65bdbc93-ffbc-4735-bdd5-4d6eb3aceb82")
+    private void writeFeatureProperties(Feature f) throws XMLStreamException {
+        this.out.writeAttribute("name", f.getName());
+        writeVisibility(f.getVisibility());
+        
+        if (f.isIsClass()) {
+            this.out.writeAttribute("isStatic", "true");
+        }
+        
+        if (f instanceof StructuralFeature && ((StructuralFeature) f).getChangeable() == KindOfAccess.READ) {
+            this.out.writeAttribute("isReadOnly", "true");
+        }
+    }
+
+    /**
+     * Write the <code>type</code> attribute of a typed element, unless the type is a UML library type.
+     */
+    @objid ("f4cff5cb-a45e-45b3-baca-b1bef6124972")
+    private void writeTypeReference(GeneralClass type) throws XMLStreamException {
+        if (type != null && getUmlLibraryType(type) == null) {
+            String ref = getReference(type);
+            if (ref != null) {
+                this.out.writeAttribute("type", ref);
+            }
+        }
+    }
+
+    /**
+     * Write the <code>type</code> child element referencing the UML primitive types library, if the type is one of them.
+     */
+    @objid ("90c1cb3f-1ee2-4651-a1b1-da7860417e72")
+    private void writeLibraryType(GeneralClass type) throws XMLStreamException {
+        String libraryType = type == null ? null : getUmlLibraryType(type);
+        if (libraryType != null) {
+            this.out.writeEmptyElement("type");
+            this.out.writeAttribute("xmi", XMI_NS, "type", "uml:PrimitiveType");
+            this.out.writeAttribute("href", UML_LIBRARY + libraryType);
+        }
+    }
+
+    /**
+     * Write the lower and upper values, skipping the UML default bounds.
+     */
+    @objid ("4108ea86-3e5f-4cb4-96cd-a801570a07b4")
+    private void writeMultiplicity(ModelElement owner, String min, String max) throws XMLStreamException {
+        if (min != null && ! min.isEmpty() && ! min.equals("1") && isInteger(min)) {
+            this.out.writeEmptyElement("lowerValue");
+            this.out.writeAttribute("xmi", XMI_NS, "type", "uml:LiteralInteger");
+            this.out.writeAttribute("xmi", XMI_NS, "id", owner.getUuid() + "-lower");
+            this.out.writeAttribute("value", min);
+        }
+        
+        if (max != null && ! max.isEmpty() && ! max.equals("1") && (max.equals("*") || isInteger(max))) {
+            this.out.writeEmptyElement("upperValue");
+            this.out.writeAttribute("xmi", XMI_NS, "type", "uml:LiteralUnlimitedNatural");
+            this.out.writeAttribute("xmi", XMI_NS, "id", owner.getUuid() + "-upper");
+            this.out.writeAttribute("value", max);
+        }
+    }
+
+    @objid ("420a4c90-19dd-41f5-aeb5-936f8ea9354b")
+    private void startElement(String tag, String umlType, ModelElement elt) throws XMLStreamException {
+        this.out.writeStartElement(tag);
+        if (umlType != null) {
+            this.out.writeAttribute("xmi", XMI_NS, "type", umlType);
+        }
+        writeId(elt);
+        if (! (elt instanceof Feature) && elt.getName() != null && ! elt.getName().isEmpty()) {
+            this.out.writeAttribute("name", elt.getName());
+        }
+        if (elt instanceof NameSpace) {
+            writeVisibility(((NameSpace) elt).getVisibility());
+        }
+    }
+
+    @objid ("e9e73192-c729-4d43-aa88-68730e18868d")
+    private void writeVisibility(VisibilityMode visibility) throws XMLStreamException {
+        switch (visibility) {
+        case PRIVATE:
+            this.out.writeAttribute("visibility", "private");
+            break;
+        case PROTECTED:
+            this.out.writeAttribute("visibility", "protected");
+            break;
+        case PACKAGEVISIBILITY:
+            this.out.writeAttribute("visibility", "package");
+            break;
+        default:
+            break;
+        }
+    }
+
+    @objid ("7422a666-56c9-4d22-a1b0-3b421e10f05b")
+    private void writeId(MObject elt) throws XMLStreamException {
+        this.out.writeAttribute("xmi", XMI_NS, "id", elt.getUuid());
+    }
+
+    /**
+     * Get the XMI identifier of an element written by the walk.
+     */
+    @objid ("9d6a0db4-bfe5-4c9d-9636-48b6da1cbd5e")
+    private String getId(ModelElement elt) {
+        if (elt instanceof Package && this.roots.contains(elt)) {
+            return this.modelId;
+        }
+        return elt.getUuid();
+    }
+
+    /**
+     * Get the XMI identifier to use to reference an element.
+     * <p>
+     * Classifiers and packages that are not written by the walk are recorded in the stub table.
+     * @return the identifier or <code>null</code> if the element cannot be referenced.
+     */
+    @objid ("c33ca759-210b-4e92-8237-7a1993113ccd")
+    private String getReference(ModelElement target) {
+        if (target == null) {
+            return null;
+        } else if (isStreamed(target)) {
+            return getId(target);
+        } else if (target instanceof NameSpace) {
+            this.stubs.putIfAbsent(target.getUuid(), target);
+            return target.getUuid();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether an element is written by the model walk.
+     * <p>
+     * The owner chain is walked up to an exported root; every owner must be an element
+     * whose content is written.
+     */
+    @objid ("c37cdba6-5be9-49d4-8ae8-84dc387b2b7f")
+    private boolean isStreamed(ModelElement elt) {
+        if (this.roots.contains(elt)) {
+            return true;
+        }
+        
+        final MObject owner = elt.getCompositionOwner();
+        if (! (owner instanceof ModelElement)) {
+            return false;
+        }
+        
+        if (elt instanceof Package) {
+            if (! (owner instanceof Package)) {
+                return false;
+            }
+        } else if (isSupportedClassifier(elt)) {
+            if (! (owner instanceof Package || owner instanceof Class || owner instanceof Interface)) {
+                return false;
+            }
+        } else if (elt instanceof Parameter) {
+            if (! (owner instanceof Operation)) {
+                return false;
+            }
+        } else if (elt instanceof Feature || elt instanceof EnumerationLiteral) {
+            if (! isSupportedClassifier(owner)) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        return isStreamed((ModelElement) owner);
+    }
+
+    @objid ("cfab8402-f067-4a54-9e9d-225d294cbd8c")
+    private String getUmlLibraryType(GeneralClass type) {
+        if (this.modelioTypes == null) {
+            return null;
+        } else if (type.equals(this.modelioTypes.getBOOLEAN())) {
+            return "Boolean";
+        } else if (type.equals(this.modelioTypes.getINTEGER())) {
+            return "Integer";
+        } else if (type.equals(this.modelioTypes.getSTRING())) {
+            return "String";
+        } else if (type instanceof DataType && type.getName().equals(GenerationProperties.getInstance().getUnlimitedNaturalName())) {
+            return "UnlimitedNatural";
+        } else {
+            return null;
+        }
+    }
+
+    @objid ("0b6fbeac-5098-48dc-b331-b309cbaa7570")
+    private void progress() {
+        if (this.progressBar != null) {
+            this.progressBar.addValue();
+        }
+    }
+
+    @objid ("476b1b46-cd55-426e-bbab-3c0933206f0c")
+    private static boolean isSupportedClassifier(MObject elt) {
+        return elt instanceof Class || elt instanceof Interface || elt instanceof DataType || elt instanceof Enumeration;
+    }
+
+    @objid ("bf855a34-e6b4-4b11-9a45-80ffd18742b8")
+    private static String getUmlType(MObject elt) {
+        if (elt instanceof Component) {
+            return "uml:Component";
+        } else if (elt instanceof Interface) {
+            return "uml:Interface";
+        } else if (elt instanceof Enumeration) {
+            return "uml:Enumeration";
+        } else if (elt instanceof DataType) {
+            return "uml:DataType";
+        } else if (elt instanceof Package) {
+            return "uml:Package";
+        } else {
+            return "uml:Class";
+        }
+    }
+
+    @objid ("4b642885-d011-43bc-bc1a-44f8e87f45a1")
+    private static String getDirection(Parameter p) {
+        switch (p.getParameterPassing()) {
+        case OUT:
+            return "out";
+        case INOUT:
+            return "inout";
+        default:
+            return null;
+        }
+    }
+
+    @objid ("c55f33b7-a9b6-4cde-a577-09456adb2f20")
+    private static boolean isInteger(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (! Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return ! s.isEmpty();
+    }
+
+}
@@ -56,7 +56,7 @@ public class ExportThread extends AbstractXMIThread implements IRunnableWithProg
         
         try {
         
-            this.service.createEcoreModel(this.progressBar);
+            this.service.exportModel(this.progressBar);
         
             FormatExport versionExport = genProp.getExportVersion();
             if (!versionExport.equals(FormatExport.EMF300))
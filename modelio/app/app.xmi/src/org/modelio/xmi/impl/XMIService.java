@@ -85,7 +85,7 @@ public class XMIService implements IXMIService {
             genProp.setRootElements(configuration.getEntryPoint());
             genProp.setRoundtripEnabled(configuration.exportedAnotation());
         
-            this.exportService.createEcoreModel(null);
+            this.exportService.exportModel(null);
         
             if (!configuration.getVersionExport().equals(FormatExport.EMF300))
                 XMIFileUtils.changeToUML(xmiFilePath);
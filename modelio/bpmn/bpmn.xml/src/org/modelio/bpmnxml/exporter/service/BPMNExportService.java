@@ -23,10 +23,8 @@ package org.modelio.bpmnxml.exporter.service;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.modelio.api.modelio.diagram.IDiagramService;
@@ -36,6 +34,7 @@ import org.modelio.bpmnxml.exporter.service.processor.export.UpdateExportProcess
 import org.modelio.bpmnxml.exporter.service.walker.BPMNWalker;
 import org.modelio.bpmnxml.model.ObjectFactory;
 import org.modelio.bpmnxml.model.TDefinitions;
+import org.modelio.bpmnxml.utils.BpmnXmlCodec;
 import org.modelio.metamodel.uml.infrastructure.ModelElement;
 import org.modelio.vcore.session.api.ICoreSession;
 
@@ -97,12 +96,7 @@ public class BPMNExportService {
 
     @objid ("4225649f-aeb8-41b7-af27-670b02f0098a")
     private void writeXPDLFile(Path xpdlFile, JAXBElement<? extends TDefinitions> packageType) throws JAXBException {
-        JAXBContext jc = JAXBContext.newInstance("org.modelio.bpmnxml.model");
-        Marshaller  marchaller = jc.createMarshaller();
-        
-        
-        marchaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marchaller.marshal(packageType, xpdlFile.toFile());
+        BpmnXmlCodec.write(xpdlFile, packageType);
     }
 
 }
@@ -26,12 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.modelio.api.modelio.diagram.IDiagramService;
@@ -43,6 +38,7 @@ import org.modelio.bpmnxml.importer.service.processor.update.FinilizeProcessorUp
 import org.modelio.bpmnxml.importer.service.processor.update.UpdateElementProcessorUpdate;
 import org.modelio.bpmnxml.importer.service.walker.JaxbWalker;
 import org.modelio.bpmnxml.model.TDefinitions;
+import org.modelio.bpmnxml.utils.BpmnXmlCodec;
 import org.modelio.gproject.fragment.IProjectFragment;
 import org.modelio.metamodel.bpmn.processCollaboration.BpmnCollaboration;
 import org.modelio.metamodel.bpmn.processCollaboration.BpmnProcess;
@@ -83,7 +79,11 @@ public class BPMNImportService {
             throw new FileNotFoundException();
         }
         
-        TDefinitions jaxbRoot = readXPDLFile(xpdlFile);
+        importBPMN(readXPDLFile(xpdlFile), context, keepId);
+    }
+
+    @objid ("98685515-1e38-4bfc-8b0e-63d86a28982a")
+    private void importBPMN(TDefinitions jaxbRoot, Package context, boolean keepId) {
         try (ITransaction tr = this.session.getTransactionSupport().createTransaction("XPDLImportService")) {
         
             Map<String, Object> elementsMap = new HashMap<>();
@@ -198,11 +198,7 @@ public class BPMNImportService {
 
     @objid ("0a24fb62-2b92-4f1e-96ec-022cd9bb7007")
     private TDefinitions readXPDLFile(Path xpdlFile) throws JAXBException {
-        JAXBContext jc = JAXBContext.newInstance("org.modelio.bpmnxml.model");
-        Unmarshaller unmarshaller = jc.createUnmarshaller();
-        Source source = new StreamSource(xpdlFile.toFile());
-        JAXBElement<TDefinitions> root = unmarshaller.unmarshal(source, TDefinitions.class);
-        return root.getValue();
+        return BpmnXmlCodec.read(xpdlFile);
     }
 
     @objid ("661f400c-1861-44cb-a733-d0b2c364de08")
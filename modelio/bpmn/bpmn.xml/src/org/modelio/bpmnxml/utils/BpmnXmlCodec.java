@@ -0,0 +1,100 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.bpmnxml.utils;
+
+import java.nio.file.Path;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamSource;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.bpmnxml.model.TDefinitions;
+
+/**
+ * Reads and writes BPMN 2.0 XML files.
+ * <p>
+ * The JAXB context is created once and shared: it is thread safe, only marshallers and
+ * unmarshallers are created for each call. All methods may be called concurrently.
+ * <p>
+ * The context is created with the bundle class loader, not with the thread context class loader:
+ * the first call may come from any thread.
+ * @since 4.1
+ */
+@objid ("4698f6c9-e4e9-47df-ba36-dd9c3135cb80")
+public final class BpmnXmlCodec {
+    @objid ("fa018b8e-06a6-4836-a62b-5328f48af433")
+    private static final String MODEL_PACKAGE = "org.modelio.bpmnxml.model";
+
+    @objid ("4143751a-ec85-4655-9b7b-5949bcd5ea08")
+    private static volatile JAXBContext context;
+
+    @objid ("7574a7a3-d9ac-4c68-9b26-63648933ac75")
+    private BpmnXmlCodec() {
+        // no instance
+    }
+
+    /**
+     * @return the shared JAXB context for the BPMN model.
+     * @throws javax.xml.bind.JAXBException if the context cannot be created.
+     */
+    @objid ("80c8049d-6bb1-49de-b6b0-c57622ac905a")
+    public static JAXBContext getContext() throws JAXBException {
+        JAXBContext ret = context;
+        if (ret == null) {
+            synchronized (BpmnXmlCodec.class) {
+                ret = context;
+                if (ret == null) {
+                    ret = JAXBContext.newInstance(MODEL_PACKAGE, TDefinitions.class.getClassLoader());
+                    context = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Read a whole BPMN file.
+     * @param file the file to read
+     * @return the BPMN definitions
+     * @throws javax.xml.bind.JAXBException on read failure
+     */
+    @objid ("37099df9-3d3c-47b3-9df9-66d81b7bb39a")
+    public static TDefinitions read(Path file) throws JAXBException {
+        Unmarshaller unmarshaller = getContext().createUnmarshaller();
+        JAXBElement<TDefinitions> root = unmarshaller.unmarshal(new StreamSource(file.toFile()), TDefinitions.class);
+        return root.getValue();
+    }
+
+    /**
+     * Write a BPMN file.
+     * @param file the file to write
+     * @param definitions the BPMN definitions element
+     * @throws javax.xml.bind.JAXBException on write failure
+     */
+    @objid ("bf96fb4a-e786-4c64-974b-4db39d913e45")
+    public static void write(Path file, JAXBElement<? extends TDefinitions> definitions) throws JAXBException {
+        Marshaller marshaller = getContext().createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.marshal(definitions, file.toFile());
+    }
+
+}
@@ -0,0 +1,213 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.DeadObjectException;
+import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
+
+/**
+ * In memory secondary index of model objects by the value of one attribute.
+ * <p>
+ * Values are read lazily: added and modified objects are only recorded as <i>pending</i>
+ * and their attribute value is read on the next lookup. This avoids loading
+ * the data of objects that are put in the cache as stubs.
+ * <p>
+ * Lookups always check the current attribute value of the candidates, so a missed
+ * modification may only lead to a missing result, never to a wrong one.
+ * <p>
+ * This class is thread safe.
+ */
+@objid ("d920c79b-4e4a-4ab3-86cd-596bf847d3cb")
+class AttValueIndex {
+    @objid ("4a986ec8-642f-443b-ae65-6c1c96f7c3f6")
+    private final SmAttribute att;
+
+    /**
+     * value -> objects having that value.
+     */
+    @objid ("1aad89c4-5307-4795-ab90-27f9ac7d3636")
+    private final Map<Object, Collection<SmObjectImpl>> byValue = new HashMap<>();
+
+    /**
+     * object -> value under which it is currently indexed.
+     */
+    @objid ("409463d4-5e76-431e-9cea-5a8c2a02dd68")
+    private final Map<SmObjectImpl, Object> byObject = new IdentityHashMap<>();
+
+    /**
+     * Objects whose value must be (re)read before next lookup.
+     */
+    @objid ("dc7e8ddf-ec0b-4d51-99dd-638f9b46dd11")
+    private final Set<SmObjectImpl> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Objects whose value is being read outside the lock.
+     */
+    @objid ("4051ee69-9ef1-46a8-a5e2-9566a091e214")
+    private final Set<SmObjectImpl> reading = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Initialize an empty index.
+     * 
+     * @param att the indexed attribute
+     */
+    @objid ("22f9e203-73e6-4902-bbc9-b19eab269446")
+    public AttValueIndex(SmAttribute att) {
+        this.att = att;
+    }
+
+    /**
+     * @return the indexed attribute.
+     */
+    @objid ("214bbea8-2427-4347-bd8f-5f075e91d317")
+    public SmAttribute getAttribute() {
+        return this.att;
+    }
+
+    /**
+     * Record an object to be (re)indexed on next lookup.
+     * 
+     * @param obj an added or modified object.
+     */
+    @objid ("e1fd1063-d3dd-49eb-9681-8110041f82a7")
+    public synchronized void invalidate(SmObjectImpl obj) {
+        this.pending.add(obj);
+    }
+
+    /**
+     * Remove an object from the index.
+     * 
+     * @param obj the object to remove.
+     */
+    @objid ("40bf9844-73ca-4a5c-bcbc-a0b6bd473cee")
+    public synchronized void remove(SmObjectImpl obj) {
+        this.pending.remove(obj);
+        this.reading.remove(obj);
+        unindex(obj);
+    }
+
+    /**
+     * Find the objects whose attribute value equals the given one.
+     * 
+     * @param val the searched value
+     * @param results where found objects are added
+     */
+    @objid ("e559c76f-a9a2-4e79-b9a2-5aa5efedfb3d")
+    public void find(Object val, Collection<? super SmObjectImpl> results) {
+        flushPending();
+        
+        Collection<SmObjectImpl> candidates;
+        synchronized (this) {
+            Collection<SmObjectImpl> found = this.byValue.get(val);
+            if (found == null) {
+                return;
+            }
+            candidates = new ArrayList<>(found);
+        }
+        
+        // Double check outside the lock, values might have been modified without notification.
+        for (SmObjectImpl obj : candidates) {
+            try {
+                if (val.equals(obj.getAttVal(this.att))) {
+                    results.add(obj);
+                }
+            } catch (DeadObjectException e) {
+                // The object is not part of the model anymore
+            }
+        }
+    }
+
+    /**
+     * Read the value of the pending objects and update the index.
+     * <p>
+     * Values are read outside the lock because reading may load the object
+     * and call back the cache from another lock.
+     */
+    @objid ("360b3e16-53ca-4cdd-b306-1c42887506a2")
+    private void flushPending() {
+        Collection<SmObjectImpl> toRead;
+        synchronized (this) {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            toRead = new ArrayList<>(this.pending);
+            this.reading.addAll(this.pending);
+            this.pending.clear();
+        }
+        
+        Map<SmObjectImpl, Object> values = new IdentityHashMap<>(toRead.size());
+        for (SmObjectImpl obj : toRead) {
+            try {
+                values.put(obj, obj.getAttVal(this.att));
+            } catch (DeadObjectException e) {
+                // The object is not part of the model anymore
+                values.put(obj, null);
+            }
+        }
+        
+        synchronized (this) {
+            for (Map.Entry<SmObjectImpl, Object> entry : values.entrySet()) {
+                SmObjectImpl obj = entry.getKey();
+                // Ignore objects removed meanwhile
+                if (this.reading.remove(obj)) {
+                    unindex(obj);
+        
+                    Object val = entry.getValue();
+                    if (val != null) {
+                        this.byObject.put(obj, val);
+                        this.byValue.computeIfAbsent(val, k -> new ArrayList<>(1)).add(obj);
+                    }
+                }
+            }
+        }
+    }
+
+    @objid ("6a091fee-d1e5-4a74-8b38-05b0e90a5599")
+    private void unindex(SmObjectImpl obj) {
+        Object oldVal = this.byObject.remove(obj);
+        if (oldVal != null) {
+            Collection<SmObjectImpl> l = this.byValue.get(oldVal);
+            if (l != null) {
+                l.remove(obj);
+                if (l.isEmpty()) {
+                    this.byValue.remove(oldVal);
+                }
+            }
+        }
+    }
+
+    @objid ("a41e247b-c6cb-4cb3-8f54-bdcf7861d5b6")
+    @Override
+    public String toString() {
+        return Objects.toString(this.att) + " index";
+    }
+
+}
@@ -22,8 +22,10 @@ package org.modelio.vcore.model;
 
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -32,6 +34,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.SmUuid;
+import org.modelio.vcore.smkernel.mapi.MAttribute;
 import org.modelio.vcore.smkernel.mapi.MClass;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.MRef;
@@ -56,6 +60,32 @@ public class MObjectCache {
     @objid ("08448b81-ff4c-474f-a38c-020b42d67aca")
     private SmMetamodel metamodel;
 
+    /**
+     * Attributes declared as indexed with {@link #declareAttIndex(MAttribute)}.
+     */
+    @objid ("4de4c841-4217-4c86-88e6-09f0b2bedea5")
+    private final Set<SmAttribute> indexedAtts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * If <i>true</i> all name attributes are indexed.
+     */
+    @objid ("1eb979c5-1fd4-436c-b810-74f0deceaddd")
+    private volatile boolean nameAttsIndexed;
+
+    /**
+     * Attribute indexes, created on first lookup.
+     */
+    @objid ("e417ebcf-d447-4b21-b8ef-e7ad877ae1aa")
+    private final ConcurrentMap<SmAttribute,AttValueIndex> attIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Attribute indexes applicable to each metaclass.
+     * <p>
+     * Computed lazily and cleared each time an attribute index is created.
+     */
+    @objid ("8164bd98-6cf5-490a-a2b1-3497f07b1de8")
+    private final ConcurrentMap<MClass,AttValueIndex[]> classAttIndexes = new ConcurrentHashMap<>();
+
     /**
      * Creates a new cache.
      * 
@@ -75,12 +105,94 @@ public class MObjectCache {
      */
     @objid ("006c88d8-0d1e-1f20-85a5-001ec947cd2a")
     public void addToCache(SmObjectImpl obj) throws DuplicateObjectException {
-        String oid = obj.getUuid();
+        SmUuid oid = obj.getSmUuid();
         // Put element to cache and check for duplicate identifiers
         SmObjectImpl oldObj = getMClassCache(obj.getClassOf(), true).putIfAbsent(oid, obj);
         if (oldObj != null && oldObj != obj) {
             // Duplicate found: throw exception.
-            throw new DuplicateObjectException(oid, oldObj, obj);
+            throw new DuplicateObjectException(oid.toString(), oldObj, obj);
+        }
+        
+        if (oldObj == null) {
+            invalidateAttIndexes(obj);
+        }
+    }
+
+    /**
+     * Declare an attribute to be indexed.
+     * <p>
+     * {@link #findByAtt(MClass, boolean, String, Object, Collection)} on an indexed attribute
+     * does not need to walk all cached instances of the metaclass anymore.
+     * <p>
+     * Indexes are built lazily on first lookup then maintained when objects are added, removed
+     * or reported modified through {@link #attModified(SmObjectImpl, SmAttribute)}.
+     * 
+     * @param att the attribute to index.
+     * @since 4.1
+     */
+    @objid ("786f8b9c-3226-4ef9-9dcc-7dac84cd135a")
+    public void declareAttIndex(MAttribute att) {
+        this.indexedAtts.add((SmAttribute) att);
+    }
+
+    /**
+     * Declare whether all {@link SmAttribute#isNameAtt() name attributes} are to be indexed.
+     * 
+     * @param indexed <i>true</i> to index name attributes.
+     * @since 4.1
+     */
+    @objid ("316f52bf-4c5d-43cb-81c2-a4741b07fd79")
+    public void setNameAttsIndexed(boolean indexed) {
+        this.nameAttsIndexed = indexed;
+    }
+
+    /**
+     * Tells whether the given attribute is indexed.
+     * 
+     * @param att a metamodel attribute
+     * @return <i>true</i> if the attribute is indexed.
+     * @since 4.1
+     */
+    @objid ("b32016c5-654c-4add-8713-891edf1e9291")
+    public boolean isAttIndexed(SmAttribute att) {
+        return (this.nameAttsIndexed && att.isNameAtt()) || this.indexedAtts.contains(att);
+    }
+
+    /**
+     * To be called when an attribute of a cached object is modified.
+     * <p>
+     * Marks the object to be reindexed on next lookup. Does nothing if the attribute is not indexed.
+     * 
+     * @param obj the modified object
+     * @param att the modified attribute
+     * @since 4.1
+     */
+    @objid ("513b7bfb-3788-49cc-8290-d2af379f2266")
+    public void attModified(SmObjectImpl obj, SmAttribute att) {
+        AttValueIndex idx = this.attIndexes.get(att);
+        if (idx != null) {
+            idx.invalidate(obj);
+        }
+    }
+
+    /**
+     * Mark objects to be reindexed on next lookup in all the indexes applicable to them.
+     * <p>
+     * To be called with the objects modified by a committed, undone or redone transaction.
+     * 
+     * @param objs modified objects.
+     * @since 4.1
+     */
+    @objid ("6a5b40cb-844d-45ef-a162-3a19dd1df15c")
+    public void invalidateAttIndexes(Collection<? extends MObject> objs) {
+        if (this.attIndexes.isEmpty()) {
+            return;
+        }
+        
+        for (MObject obj : objs) {
+            if (obj instanceof SmObjectImpl) {
+                invalidateAttIndexes((SmObjectImpl) obj);
+            }
         }
     }
 
@@ -132,6 +244,11 @@ public class MObjectCache {
             throw new IllegalArgumentException("Unknown attribute \"" + att + "\"");
         }
         
+        if (isAttIndexed(smAtt)) {
+            findByIndexedAtt(cls, withSubClasses, smAtt, val, results);
+            return;
+        }
+        
         // The search is first done for the metaclass itself
         for (SmObjectImpl obj : getMClassCache(cls, false).values()) {
             // Object attVal = smAtt.getValue(obj.getData());
@@ -203,6 +320,20 @@ public class MObjectCache {
      */
     @objid ("aed70f45-a7f1-42ae-b694-f59bde178c67")
     public SmObjectImpl findById(MClass cls, final String siteIdentifier, boolean lookInsubClasses) {
+        return findById(cls, SmUuid.of(siteIdentifier), lookInsubClasses);
+    }
+
+    /**
+     * Find a model object from its MClass and its identifier.
+     * 
+     * @param cls a metaclass
+     * @param siteIdentifier the object identifier
+     * @param lookInsubClasses if true look into subclasses if not found in the given one.
+     * @return the found element or <code>null</code>.
+     * @since 4.1
+     */
+    @objid ("f0492320-308e-4253-9fd7-59dc16f172c3")
+    public SmObjectImpl findById(MClass cls, final SmUuid siteIdentifier, boolean lookInsubClasses) {
         // The search is first done for the metaclass itself
         SmObjectImpl obj = getMClassCache(cls, false).get(siteIdentifier);
         if (obj != null) {
@@ -288,8 +419,9 @@ public class MObjectCache {
      */
     @objid ("f4aa1543-08b1-11e2-b33c-001ec947ccaf")
     public void putToCache(SmObjectImpl obj) {
-        String oid = obj.getUuid();
+        SmUuid oid = obj.getSmUuid();
         getMClassCache(obj.getClassOf(), true).put(oid, obj);
+        invalidateAttIndexes(obj);
     }
 
     /**
@@ -299,7 +431,8 @@ public class MObjectCache {
      */
     @objid ("006c8f36-0d1e-1f20-85a5-001ec947cd2a")
     public void removeFromCache(SmObjectImpl obj) {
-        getMClassCache(obj.getClassOf(), false).remove(obj.getUuid());
+        getMClassCache(obj.getClassOf(), false).remove(obj.getSmUuid());
+        removeFromAttIndexes(obj);
     }
 
     /**
@@ -342,7 +475,96 @@ public class MObjectCache {
      */
     @objid ("2303e101-0753-480f-924d-96419f80edc0")
     public void removeFromCache(MClass cls, String uuid) {
-        getMClassCache(cls, false).remove(uuid);
+        SmObjectImpl removed = getMClassCache(cls, false).remove(SmUuid.of(uuid));
+        if (removed != null) {
+            removeFromAttIndexes(removed);
+        }
+    }
+
+    @objid ("026f34fa-c40c-49a5-9ed1-15fded391768")
+    private void findByIndexedAtt(final MClass cls, boolean withSubClasses, final SmAttribute smAtt, Object val, final Collection<MObject> results) {
+        Collection<SmObjectImpl> found = new ArrayList<>();
+        getAttIndex(smAtt).find(val, found);
+        if (found.isEmpty()) {
+            return;
+        }
+        
+        Set<MClass> subClasses = withSubClasses ? new HashSet<>(cls.getSub(true)) : Collections.emptySet();
+        for (SmObjectImpl obj : found) {
+            MClass objCls = obj.getClassOf();
+            if (objCls == cls || subClasses.contains(objCls)) {
+                results.add(obj);
+            }
+        }
+    }
+
+    /**
+     * Get the index for the given attribute, creating and initializing it if missing.
+     * 
+     * @param att an indexed attribute
+     * @return the attribute index.
+     */
+    @objid ("0c1e25cd-2668-40f8-8fda-e4b90f533ca6")
+    private AttValueIndex getAttIndex(SmAttribute att) {
+        AttValueIndex idx = this.attIndexes.get(att);
+        if (idx == null) {
+            AttValueIndex newIdx = new AttValueIndex(att);
+            idx = this.attIndexes.putIfAbsent(att, newIdx);
+            if (idx == null) {
+                idx = newIdx;
+                this.classAttIndexes.clear();
+        
+                // Index all objects already in the cache
+                for (Map.Entry<MClass, IMClassCache> entry : this.caches.entrySet()) {
+                    if (entry.getKey().getAttribute(att.getName()) == att) {
+                        for (SmObjectImpl obj : entry.getValue().values()) {
+                            idx.invalidate(obj);
+                        }
+                    }
+                }
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Get the attribute indexes applicable to the given metaclass instances.
+     * 
+     * @param cls a metaclass
+     * @return the applicable indexes, may be empty.
+     */
+    @objid ("d4689fc3-67a1-4798-be4c-1b775c3f9322")
+    private AttValueIndex[] getAttIndexes(MClass cls) {
+        AttValueIndex[] ret = this.classAttIndexes.get(cls);
+        if (ret == null) {
+            // Indexes are never removed: the count tells whether one was added meanwhile.
+            int nbIndexes = this.attIndexes.size();
+            ret = this.attIndexes.values().stream()
+                    .filter(idx -> cls.getAttribute(idx.getAttribute().getName()) == idx.getAttribute())
+                    .toArray(AttValueIndex[]::new);
+            if (nbIndexes == this.attIndexes.size()) {
+                this.classAttIndexes.put(cls, ret);
+            }
+        }
+        return ret;
+    }
+
+    @objid ("bcf9a96f-17aa-4045-8ed3-7749d2702ca4")
+    private void invalidateAttIndexes(SmObjectImpl obj) {
+        if (! this.attIndexes.isEmpty()) {
+            for (AttValueIndex idx : getAttIndexes(obj.getClassOf())) {
+                idx.invalidate(obj);
+            }
+        }
+    }
+
+    @objid ("6b4e8216-0c39-4faa-92db-fcfb316b9f7e")
+    private void removeFromAttIndexes(SmObjectImpl obj) {
+        if (! this.attIndexes.isEmpty()) {
+            for (AttValueIndex idx : getAttIndexes(obj.getClassOf())) {
+                idx.remove(obj);
+            }
+        }
     }
 
     /**
@@ -416,7 +638,7 @@ public class MObjectCache {
      * This is an immutable singleton.
      */
     @objid ("80504461-413d-4c89-83b6-b42180f2961e")
-    private static class EmptyClassCache extends AbstractMap<String,SmObjectImpl> implements IMClassCache {
+    private static class EmptyClassCache extends AbstractMap<SmUuid,SmObjectImpl> implements IMClassCache {
         @objid ("497e8dfc-93ba-4d69-b587-5bd6f300994d")
          static final IMClassCache INSTANCE = new EmptyClassCache();
 
@@ -457,7 +679,7 @@ public class MObjectCache {
 
         @objid ("7a5d7033-9962-467f-92e2-4e2e008c9ae4")
         @Override
-        public Set<String> keySet() {
+        public Set<SmUuid> keySet() {
             return Collections.emptySet();
         }
 
@@ -469,7 +691,7 @@ public class MObjectCache {
 
         @objid ("d25852bd-01de-4f97-8149-37796700f079")
         @Override
-        public Set<java.util.Map.Entry<String,SmObjectImpl>> entrySet() {
+        public Set<java.util.Map.Entry<SmUuid,SmObjectImpl>> entrySet() {
             return Collections.emptySet();
         }
 
@@ -487,7 +709,7 @@ public class MObjectCache {
 
         @objid ("03116ab9-1df3-46d2-9f63-3f0a39edfb2b")
         @Override
-        public SmObjectImpl putIfAbsent(String key, SmObjectImpl value) {
+        public SmObjectImpl putIfAbsent(SmUuid key, SmObjectImpl value) {
             throw new UnsupportedOperationException();
         }
 
@@ -499,13 +721,13 @@ public class MObjectCache {
 
         @objid ("1a3641d6-b2d5-46b4-b84b-2706d267dd0f")
         @Override
-        public boolean replace(String key, SmObjectImpl oldValue, SmObjectImpl newValue) {
+        public boolean replace(SmUuid key, SmObjectImpl oldValue, SmObjectImpl newValue) {
             throw new UnsupportedOperationException();
         }
 
         @objid ("c7676202-8770-4db2-bf34-8516deaed152")
         @Override
-        public SmObjectImpl replace(String key, SmObjectImpl value) {
+        public SmObjectImpl replace(SmUuid key, SmObjectImpl value) {
             throw new UnsupportedOperationException();
         }
 
@@ -515,7 +737,7 @@ public class MObjectCache {
      * Typedef to Map<UUID,SmObjectImpl> .
      */
     @objid ("eeabc200-5921-48a9-9945-775681defcde")
-    private interface IMClassCache extends ConcurrentMap<String,SmObjectImpl> {
+    private interface IMClassCache extends ConcurrentMap<SmUuid,SmObjectImpl> {
 
 // nothing more
     }
@@ -524,7 +746,7 @@ public class MObjectCache {
      * Typedef to ConcurrentHashMap<UUID,SmObjectImpl> implementation of {@link IMClassCache}.
      */
     @objid ("009869a8-702b-1f21-85a5-001ec947cd2a")
-    private static class MClassCache extends ConcurrentHashMap<String,SmObjectImpl> implements IMClassCache {
+    private static class MClassCache extends ConcurrentHashMap<SmUuid,SmObjectImpl> implements IMClassCache {
         @objid ("00285e38-4fda-1f32-b43f-001ec947cd2a")
         private static final long serialVersionUID = 1L;
 
@@ -35,6 +35,13 @@ public interface ISmObjectData extends Serializable, IAccessOrdered {
     @objid ("0040009c-702c-1f21-85a5-001ec947cd2a")
     String getUuid();
 
+    /**
+     * @return the universal identifier in compact form.
+     * @since 4.1
+     */
+    @objid ("b256d3a4-f841-46f4-8d6d-d2aa75be60c8")
+    SmUuid getSmUuid();
+
     /**
      * @return the metaclass.
      */
@@ -68,6 +75,16 @@ public interface ISmObjectData extends Serializable, IAccessOrdered {
     @objid ("0081b42e-eb1b-1f22-8c06-001ec947cd2a")
     void init(final String uuid, final long liveId);
 
+    /**
+     * Initialize the data
+     * 
+     * @param uuid the object universal identifier, shared with the model object.
+     * @param liveId the live identifier
+     * @since 4.1
+     */
+    @objid ("b514adba-648f-4454-8fee-9544dcd30832")
+    void init(final SmUuid uuid, final long liveId);
+
     /**
      * @return the repository object.
      */
@@ -32,9 +32,10 @@ public interface ISmObjectDataCache {
      * 
      * @param uid the identifier.
      * @return the cached data or <code>null</code>.
+     * @since 4.1 takes a {@link SmUuid} instead of a String.
      */
     @objid ("0212830d-8585-11e1-bb11-001ec947ccaf")
-    ISmObjectData getCachedData(final String uid);
+    ISmObjectData getCachedData(final SmUuid uid);
 
     /**
      * Put the given data to cache.
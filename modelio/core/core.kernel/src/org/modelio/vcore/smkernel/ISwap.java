@@ -20,6 +20,7 @@
 
 package org.modelio.vcore.smkernel;
 
+import java.util.Collection;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 
 /**
@@ -36,6 +37,21 @@ public interface ISwap {
     @objid ("006b1f34-861a-1f21-85a5-001ec947cd2a")
     void swap(final SmObjectData data);
 
+    /**
+     * Save many objects at once.
+     * <p>
+     * The default implementation calls {@link #swap(SmObjectData)} for each object.
+     * 
+     * @param datas the object datas to save.
+     * @since 4.1
+     */
+    @objid ("cb11f229-14c0-4514-8ef9-0e107a39cf87")
+    default void swap(final Collection<SmObjectData> datas) {
+        for (SmObjectData data : datas) {
+            swap(data);
+        }
+    }
+
     /**
      * Restore a saved object data.
      * 
@@ -45,6 +61,20 @@ public interface ISwap {
     @objid ("006b27f4-861a-1f21-85a5-001ec947cd2a")
     SmObjectData restore(final String uuid);
 
+    /**
+     * Forget a saved object data, if any.
+     * <p>
+     * Called when the saved copy is out of date.
+     * The default implementation restores the object and drops it.
+     * 
+     * @param uuid the object identifier
+     * @since 4.1
+     */
+    @objid ("078581b0-3cf0-4470-b7ca-7107ddcaf222")
+    default void discard(final String uuid) {
+        restore(uuid);
+    }
+
     /**
      * Close the service and release all allocated resources.
      */
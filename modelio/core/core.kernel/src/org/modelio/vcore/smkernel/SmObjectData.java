@@ -43,7 +43,7 @@ public abstract class SmObjectData implements ISmObjectData {
     private int lastAccess;
 
     @objid ("fd60e315-eef1-4280-9311-c44a0f7a5c28")
-    private String uuid;
+    private SmUuid uuid;
 
     @objid ("2c9b5b2f-5261-4e55-a843-094c84fdd65f")
     private volatile transient IMetaOf metaOf;
@@ -64,6 +64,19 @@ public abstract class SmObjectData implements ISmObjectData {
     @SuppressWarnings("hiding")
     @Override
     public final void init(final String uuid, final long liveId) {
+        init(SmUuid.of(uuid), liveId);
+    }
+
+    /**
+     * To be called before using the object.
+     * 
+     * @param uuid the identifier, shared with the model object.
+     * @param liveId identifier for the object in memory.
+     */
+    @objid ("df22ce11-d110-40a9-b0b9-4cbe0a53fda1")
+    @SuppressWarnings("hiding")
+    @Override
+    public final void init(final SmUuid uuid, final long liveId) {
         this.liveId = liveId;
         this.uuid = uuid;
     }
@@ -71,6 +84,12 @@ public abstract class SmObjectData implements ISmObjectData {
     @objid ("0030c6d6-702c-1f21-85a5-001ec947cd2a")
     @Override
     public String getUuid() {
+        return this.uuid == null ? null : this.uuid.toString();
+    }
+
+    @objid ("551540dc-7412-4ee4-a5a8-4e9c4d124280")
+    @Override
+    public SmUuid getSmUuid() {
         return this.uuid;
     }
 
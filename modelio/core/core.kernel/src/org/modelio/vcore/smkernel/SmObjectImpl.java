@@ -77,7 +77,7 @@ public abstract class SmObjectImpl implements ISmMeta, ISmStorable, MObject, Ser
     private long liveId;
 
     @objid ("25484556-b846-4b8c-abd5-9fb79f1588df")
-    private String uuid;
+    private SmUuid uuid;
 
     @objid ("5283f9ce-8199-451a-aa9d-e09ea4dfdd36")
     private volatile transient WeakReference<ISmObjectData> dataRef = null;
@@ -98,6 +98,19 @@ public abstract class SmObjectImpl implements ISmMeta, ISmStorable, MObject, Ser
     @objid ("00806a60-9fc0-1f4f-9c13-001ec947cd2a")
     @Override
     public final String getUuid() {
+        return this.uuid == null ? null : this.uuid.toString();
+    }
+
+    /**
+     * Get the object identifier in compact form.
+     * <p>
+     * Prefer this method to {@link #getUuid()} that builds a new String on each call.
+     * 
+     * @return the object identifier.
+     * @since 4.1
+     */
+    @objid ("4cdf4b3b-4fa2-40fb-98dc-6dbad37c941b")
+    public final SmUuid getSmUuid() {
         return this.uuid;
     }
 
@@ -591,6 +604,19 @@ public abstract class SmObjectImpl implements ISmMeta, ISmStorable, MObject, Ser
     @objid ("0080e882-9fc0-1f4f-9c13-001ec947cd2a")
     @SuppressWarnings ("hiding")
     public final void init(final String uuid, final long liveId) {
+        init(SmUuid.of(uuid), liveId);
+    }
+
+    /**
+     * To be called <strong>just after</strong> the constructor.
+     * 
+     * @param uuid the object identifier
+     * @param liveId the object live identifier
+     * @since 4.1
+     */
+    @objid ("1ea10629-60dd-4553-91aa-163ee0daacde")
+    @SuppressWarnings ("hiding")
+    public final void init(final SmUuid uuid, final long liveId) {
         this.liveId = liveId;
         this.uuid = uuid;
         
@@ -1066,6 +1092,9 @@ public abstract class SmObjectImpl implements ISmMeta, ISmStorable, MObject, Ser
     @objid ("24f92224-adb8-410e-83b6-812488f8cd14")
     @Override
     public int compareTo(MObject o) {
+        if (o instanceof SmObjectImpl) {
+            return this.uuid.compareTo(((SmObjectImpl) o).uuid);
+        }
         return getUuid().compareTo(o.getUuid());
     }
 
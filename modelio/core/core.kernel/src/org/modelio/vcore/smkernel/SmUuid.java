@@ -0,0 +1,240 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.smkernel;
+
+import java.io.Serializable;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Compact model object identifier.
+ * <p>
+ * Identifiers in the canonical lower case UUID form (<code>xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx</code>)
+ * are stored as two 64 bit integers instead of a 36 characters String.
+ * Any other identifier is kept as is.
+ * <p>
+ * A model object, its data and the cache entries share the same instance.
+ * The String form is rebuilt on each {@link #toString()} call.
+ * <p>
+ * Instances are immutable.
+ * <p>
+ * Identifiers are ordered as their String form, without building it for canonical UUIDs.
+ * @since 4.1
+ */
+@objid ("3dcf236d-cc5c-46ba-bde1-ca2919869385")
+public abstract class SmUuid implements Serializable, Comparable<SmUuid> {
+    @objid ("5fb06879-2c16-4693-854c-7540129eb0aa")
+    private static final long serialVersionUID = 1L;
+
+    @objid ("c972a107-45b1-4fd4-a74e-f79b94322dbd")
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Get the identifier for the given String.
+     * 
+     * @param uuid an identifier in String form.
+     * @return the identifier.
+     */
+    @objid ("3a797804-9c2d-46a8-9518-13edfb2f2b07")
+    public static SmUuid of(String uuid) {
+        if (uuid.length() != 36
+                || uuid.charAt(8) != '-'
+                || uuid.charAt(13) != '-'
+                || uuid.charAt(18) != '-'
+                || uuid.charAt(23) != '-') {
+            return new TextUuid(uuid);
+        }
+        
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+        
+            int digit = toDigit(uuid.charAt(i));
+            if (digit < 0) {
+                return new TextUuid(uuid);
+            }
+        
+            if (i < 19) {
+                msb = (msb << 4) | digit;
+            } else {
+                lsb = (lsb << 4) | digit;
+            }
+        }
+        return new CompactUuid(msb, lsb);
+    }
+
+    /**
+     * @return the identifier in String form.
+     */
+    @objid ("03d74077-a3df-4644-9483-a504fe4d6f9e")
+    @Override
+    public abstract String toString();
+
+    /**
+     * Compare the String forms of both identifiers.
+     * <p>
+     * Subclasses override this method to avoid building the Strings when possible.
+     */
+    @objid ("4181d17a-c977-4016-b662-2f78e77a5024")
+    @Override
+    public int compareTo(SmUuid o) {
+        return toString().compareTo(o.toString());
+    }
+
+    @objid ("049d4934-0264-4921-b680-cb10c83182df")
+    private static int toDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else {
+            // Upper case digits are not accepted, the String form would not be restored.
+            return -1;
+        }
+    }
+
+    /**
+     * Canonical UUID stored as two longs.
+     */
+    @objid ("62e58ef5-c0f9-4418-a66e-7c402f815d30")
+    private static final class CompactUuid extends SmUuid {
+        @objid ("422e7533-55a9-4a9d-97da-eb5264065e68")
+        private static final long serialVersionUID = 1L;
+
+        @objid ("af114645-c7be-422d-b29a-735d2c522782")
+        private final long msb;
+
+        @objid ("9ed381d4-a9fc-436c-8b58-237ce1120839")
+        private final long lsb;
+
+        @objid ("299b85e9-f8b3-4173-816d-2af0b7989f81")
+        CompactUuid(long msb, long lsb) {
+            this.msb = msb;
+            this.lsb = lsb;
+        }
+
+        @objid ("ccd603ab-408a-437c-bc4c-dd9bcda68e7e")
+        @Override
+        public String toString() {
+            char[] buf = new char[36];
+            writeHex(buf, 0, this.msb >>> 32, 8);
+            buf[8] = '-';
+            writeHex(buf, 9, this.msb >>> 16, 4);
+            buf[13] = '-';
+            writeHex(buf, 14, this.msb, 4);
+            buf[18] = '-';
+            writeHex(buf, 19, this.lsb >>> 48, 4);
+            buf[23] = '-';
+            writeHex(buf, 24, this.lsb, 12);
+            return new String(buf);
+        }
+
+        @objid ("143cccb9-bee6-43e6-90ae-ff58d9bc5989")
+        @Override
+        public int hashCode() {
+            long h = this.msb ^ this.lsb;
+            return (int) (h >> 32) ^ (int) h;
+        }
+
+        @objid ("f1117575-a891-4461-bf30-c7db2736daba")
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            CompactUuid other = (CompactUuid) obj;
+            return this.msb == other.msb && this.lsb == other.lsb;
+        }
+
+        /**
+         * Lower case hexadecimal digits sort like the numbers they represent,
+         * so comparing the unsigned longs gives the String order.
+         */
+        @objid ("ab27ec65-0ce8-4ef8-b2ad-7404a6db13cc")
+        @Override
+        public int compareTo(SmUuid o) {
+            if (o instanceof CompactUuid) {
+                CompactUuid other = (CompactUuid) o;
+                int ret = Long.compareUnsigned(this.msb, other.msb);
+                return ret != 0 ? ret : Long.compareUnsigned(this.lsb, other.lsb);
+            }
+            return super.compareTo(o);
+        }
+
+        @objid ("368c0ccb-bdee-4b50-853e-565dc1834e78")
+        private static void writeHex(char[] buf, int offset, long val, int nbDigits) {
+            long v = val;
+            for (int i = offset + nbDigits - 1; i >= offset; i--) {
+                buf[i] = DIGITS[(int) (v & 0xF)];
+                v >>>= 4;
+            }
+        }
+
+    }
+
+    /**
+     * Non canonical identifier, kept as a String.
+     */
+    @objid ("3f78893e-373a-4883-b296-e19565ae84f6")
+    private static final class TextUuid extends SmUuid {
+        @objid ("1870a581-e354-45a8-9aee-8f0211652534")
+        private static final long serialVersionUID = 1L;
+
+        @objid ("a561d3f3-ad3c-430b-88d5-54af6f81c88f")
+        private final String text;
+
+        @objid ("62d9c490-068c-45bf-8c98-0d54905559ae")
+        TextUuid(String text) {
+            this.text = text;
+        }
+
+        @objid ("87d566b3-0878-4755-b219-b385d5dc8c38")
+        @Override
+        public String toString() {
+            return this.text;
+        }
+
+        @objid ("7283cf77-ce1c-4f26-8e7d-affc3fdd668b")
+        @Override
+        public int hashCode() {
+            return this.text.hashCode();
+        }
+
+        @objid ("df0bc2f6-be50-448e-b79c-bff9624802a1")
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            return this.text.equals(((TextUuid) obj).text);
+        }
+
+    }
+
+}
@@ -24,9 +24,10 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.collections.TopologicalSorter.CyclicDependencyException;
 import org.modelio.vbasic.log.Log;
@@ -67,7 +68,7 @@ public class SmMetamodel implements MMetamodel {
      * registered classes table above as long as it is not directly manipulated. Only use the provided accessors.
      */
     @objid ("8336756b-8721-426f-bf7b-0a4b751e61aa")
-    private final Map<Class<? extends MObject>, SmClass> byInterfaceCache = new HashMap<>();
+    private final Map<Class<? extends MObject>, SmClass> byInterfaceCache = new ConcurrentHashMap<>();
 
     /**
      * A cache of registered meta classes to provide a fast access by name.
@@ -77,13 +78,13 @@ public class SmMetamodel implements MMetamodel {
      * Only use the provided accessors.
      */
     @objid ("7e5cec9e-d30b-4070-b59d-901a49d745d2")
-    private final Map<String, SmClass> byQualifiedNameCache = new HashMap<>();
+    private final Map<String, SmClass> byQualifiedNameCache = new ConcurrentHashMap<>();
 
     @objid ("e775d656-bd13-4822-a19e-a4847eabf79f")
-    private final Map<String, SmClass> byShortNameCache = new HashMap<>();
+    private final Map<String, SmClass> byShortNameCache = new ConcurrentHashMap<>();
 
     @objid ("3520f2a0-8d11-429f-9ac7-dab3d1356f90")
-    private final Map<String, ISmMetamodelFragment> fragments = new HashMap<>();
+    private final Map<String, ISmMetamodelFragment> fragments = new ConcurrentHashMap<>();
 
     @objid ("db6d575e-873e-4cb5-a005-7812d6f49c1c")
     private final SmExpert mExpert = new SmExpert();
@@ -95,12 +96,15 @@ public class SmMetamodel implements MMetamodel {
      * <p>
      * In the case a metaclass should be removed from this list don't use {@link List#remove(Object)} but
      * {@link List#set(int, Object)} to nullify the entry so that other elements keep their index.
+     * <p>
+     * Modifications are synchronized but lookups are not: repositories may be open concurrently
+     * while their metamodel descriptor is merged, so all caches are concurrent collections.
      */
     @objid ("43fc6e9f-c9da-4c5f-a835-1967c0e54451")
-    private final List<SmClass> metaclasses = new ArrayList<>();
+    private final List<SmClass> metaclasses = new CopyOnWriteArrayList<>();
 
     @objid ("f141e6e5-6002-4ce6-96f7-1ab849cdaf80")
-    private final Collection<ISmMetamodelFragment> regularFragments = new ArrayList<>();
+    private final Collection<ISmMetamodelFragment> regularFragments = new CopyOnWriteArrayList<>();
 
     /**
      * Default constructor.
@@ -199,7 +203,7 @@ public class SmMetamodel implements MMetamodel {
      */
     @objid ("b18527ee-512e-4991-be4c-cc5fe3606f5f")
     public ISmMetamodelFragment getFragment(String fragmentName) {
-        return this.fragments.get(fragmentName);
+        return fragmentName != null ? this.fragments.get(fragmentName) : null;
     }
 
     /**
@@ -234,6 +238,10 @@ public class SmMetamodel implements MMetamodel {
     @objid ("a47b0c3e-43ea-4dde-9a82-5acddb06bdaf")
     @Override
     public SmClass getMClass(final String name) {
+        if (name == null) {
+            return null;
+        }
+        
         SmClass ret = this.byQualifiedNameCache.get(name);
         
         if (ret == null) {
@@ -265,7 +273,7 @@ public class SmMetamodel implements MMetamodel {
     @objid ("c2a385bd-81ea-4096-a2b9-21ab9fd1cce6")
     @Override
     public SmClass getMClass(Class<? extends MObject> interf) {
-        return this.byInterfaceCache.get(interf);
+        return interf != null ? this.byInterfaceCache.get(interf) : null;
     }
 
     @objid ("0509a0ec-17b5-4cf0-96ed-a0b51e092639")
@@ -24,9 +24,9 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import jdbm.Serializer;
 import jdbm.SerializerInput;
@@ -50,7 +50,7 @@ import org.modelio.vcore.smkernel.meta.SmSingleDependency;
 @objid ("dcbe877f-493b-11e2-91c9-001ec947ccaf")
 class CacheEntrySerializer implements Serializer<JdbmSwap.CacheEntry> {
     @objid ("7e405960-4a00-11e2-91c9-001ec947ccaf")
-    private static Map<Class<?>,Object[]> enumContent = new HashMap<>();
+    private static Map<Class<?>,Object[]> enumContent = new ConcurrentHashMap<>();
 
     @objid ("c108316e-4137-424c-be29-76e07e7d46d5")
     private SmMetamodel metamodel;
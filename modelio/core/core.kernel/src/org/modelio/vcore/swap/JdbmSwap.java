@@ -45,6 +45,9 @@ import org.modelio.vcore.utils.jdbm.LongSerializer;
 
 /**
  * JDBM based implementation of Modelio swap.
+ * <p>
+ * Replaced by {@link MappedSwap}, kept as a fallback selected with the
+ * <code>modelio.swap.jdbm</code> system property.
  */
 @objid ("cd738866-8499-11e1-b644-001ec947ccaf")
 public class JdbmSwap implements ISwap {
@@ -242,7 +245,7 @@ public class JdbmSwap implements ISwap {
      * @param <T> the type of the elements to index.
      */
     @objid ("f5f214e6-84b5-11e1-b644-001ec947ccaf")
-    private static class Index<T> {
+    static class Index<T> {
         @objid ("f5f214ea-84b5-11e1-b644-001ec947ccaf")
         private int indexCount = 0;
 
@@ -0,0 +1,792 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.swap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import jdbm.SerializerInput;
+import jdbm.SerializerOutput;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vbasic.log.Log;
+import org.modelio.vcore.smkernel.IMetaOf;
+import org.modelio.vcore.smkernel.IRepositoryObject;
+import org.modelio.vcore.smkernel.ISwap;
+import org.modelio.vcore.smkernel.SmObjectData;
+import org.modelio.vcore.smkernel.meta.SmMetamodel;
+
+/**
+ * Memory mapped files implementation of Modelio swap.
+ * <p>
+ * Swapped objects are appended to memory mapped segment files. Each record is made of its length
+ * followed by the object data serialized with {@link CacheEntrySerializer}.
+ * Segments whose records have all been restored are reused.
+ * <p>
+ * The identifier to record address index is an open addressing hash table stored off heap,
+ * split in stripes that are locked independently so that restores of different objects
+ * do not wait for each other. Only the segment space reservation is global.
+ * <p>
+ * The segments are unmapped on {@link #close()} before the swap directory is deleted.
+ */
+@objid ("2fb33a46-2c0e-4000-9cec-cdd6a245ee0f")
+public class MappedSwap implements ISwap {
+    /**
+     * Default segment file size.
+     */
+    @objid ("8d8b3867-1dc3-485a-91d7-4088a26c798a")
+    private static final int SEGMENT_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Number of index stripes. Must be a power of 2.
+     */
+    @objid ("a5728bb2-5432-4ebd-8781-44c020842bd8")
+    private static final int NB_STRIPES = 16;
+
+    /**
+     * Size of the record header: the record length.
+     */
+    @objid ("b7f57a56-dcc8-486e-8119-44cbfbef7a48")
+    private static final int HEADER_SIZE = 4;
+
+    /**
+     * Position of the object identifier in a record, as written by {@link CacheEntrySerializer}:
+     * after the header, the meta object index, the store handle index and the live id.
+     */
+    @objid ("fd5c5711-cdb2-4586-ab82-22cde06d0afe")
+    private static final int UUID_POS = HEADER_SIZE + 4 + 4 + 8;
+
+    @objid ("df76b956-5309-4434-b773-0ad65d3352b1")
+    private final String swapPath;
+
+    @objid ("e8b4dd6c-877a-4818-9faa-903ed19ea9a7")
+    private final CacheEntrySerializer dataSerializer;
+
+    @objid ("78b5fdff-c471-4a89-a8de-aa83110a6b7f")
+    private final JdbmSwap.Index<IRepositoryObject> storeIndex = new JdbmSwap.Index<>();
+
+    @objid ("274d9fe5-2732-4450-9914-338560620cfd")
+    private final JdbmSwap.Index<IMetaOf> metaObjectIndex = new JdbmSwap.Index<>();
+
+    @objid ("a363bc64-ec7f-4083-b926-adfb82b4af54")
+    private final Stripe[] stripes;
+
+    /**
+     * Lock guarding the segments allocation and the space reservation.
+     */
+    @objid ("681bc7f6-0ca4-4cc2-8ff9-907f30061cbf")
+    private final Object appendLock = new Object();
+
+    /**
+     * All segments, indexed by their identifier.
+     * <p>
+     * Replaced by a bigger copy under {@link #appendLock} when a segment is added.
+     */
+    @objid ("c9f1cd03-a6de-44b3-8303-04e979ba97ab")
+    private volatile Segment[] segments = new Segment[0];
+
+    /**
+     * Segments with no live record, ready to be reused.
+     */
+    @objid ("ef8e1be1-504c-4f6f-a581-8868de95d3d5")
+    private final Deque<Segment> freeSegments = new ArrayDeque<>();
+
+    /**
+     * The segment new records are appended to.
+     */
+    @objid ("80380f41-1746-4c18-80fe-aaa3117a5d5c")
+    private Segment current;
+
+    @objid ("45762e44-e617-4e3d-8833-b27e783f81ed")
+    private volatile boolean closed;
+
+    /**
+     * Held in read mode while the segments are accessed,
+     * in write mode by {@link #close()} to unmap them.
+     */
+    @objid ("272e463e-a58d-441b-8e8e-b007515c63bb")
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /**
+     * Initializes the swap to the given directory.
+     * <p>
+     * The directory will be deleted on close.
+     * 
+     * @param metamodel the metamodel
+     * @param swapDirectory The swap path. Must be a directory, preferably empty.
+     */
+    @objid ("ecc7da6a-07d9-425a-b193-d4bbea6135ff")
+    public MappedSwap(SmMetamodel metamodel, final File swapDirectory) {
+        this.swapPath = swapDirectory.getAbsolutePath();
+        this.dataSerializer = new CacheEntrySerializer(metamodel);
+        
+        this.stripes = new Stripe[NB_STRIPES];
+        for (int i = 0; i < NB_STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        
+        swapDirectory.mkdirs();
+    }
+
+    @objid ("de0f5255-8167-43fe-91c4-13241fe07b03")
+    @Override
+    public void swap(final SmObjectData data) {
+        swap(Collections.singletonList(data));
+    }
+
+    @objid ("8470dbd4-b24a-4b54-9358-3815de631d46")
+    @Override
+    public void swap(Collection<SmObjectData> datas) {
+        if (datas.isEmpty()) {
+            return;
+        }
+        
+        try {
+            // Serialize all objects outside any lock
+            int n = datas.size();
+            String[] uuids = new String[n];
+            int[] ends = new int[n];
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(n * 256);
+            SerializerOutput out = new SerializerOutput(bytes);
+            int i = 0;
+            for (SmObjectData data : datas) {
+                JdbmSwap.CacheEntry entry = new JdbmSwap.CacheEntry();
+                entry.data = data;
+                entry.metaId = this.metaObjectIndex.getId(data.getMetaOf());
+                entry.storeHandleId = this.storeIndex.getId(data.getRepositoryObject());
+        
+                this.dataSerializer.serialize(out, entry);
+                out.flush();
+                uuids[i] = data.getUuid();
+                ends[i] = bytes.size();
+                i++;
+            }
+            byte[] buf = bytes.toByteArray();
+        
+            Lock lock = this.closeLock.readLock();
+            lock.lock();
+            try {
+                // Reserve the space for all records at once
+                long[] addresses = reserve(ends);
+        
+                // Write the records, then make them visible in the index
+                int start = 0;
+                for (i = 0; i < n; i++) {
+                    int len = ends[i] - start;
+                    Segment seg = getSegment(addresses[i]);
+                    ByteBuffer target = seg.buffer.duplicate();
+                    target.position(getOffset(addresses[i]));
+                    target.putInt(len);
+                    target.put(buf, start, len);
+                    start = ends[i];
+                }
+        
+                for (i = 0; i < n; i++) {
+                    long old = getStripe(hash(uuids[i])).put(this, uuids[i], addresses[i]);
+                    if (old != Stripe.NONE) {
+                        recordRemoved(old);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new IOError(e);
+        }
+    }
+
+    @objid ("2d833ff2-36fe-43c0-b7ac-e4384ce1baad")
+    @Override
+    public SmObjectData restore(final String uuid) {
+        Lock lock = this.closeLock.readLock();
+        lock.lock();
+        try {
+            if (this.closed) {
+                return null;
+            }
+        
+            long address = getStripe(hash(uuid)).remove(this, uuid);
+            if (address == Stripe.NONE) {
+                return null;
+            }
+        
+            try {
+                // The segment cannot be reused until recordRemoved() is called.
+                Segment seg = getSegment(address);
+                ByteBuffer src = seg.buffer.duplicate();
+                src.position(getOffset(address));
+                byte[] record = new byte[src.getInt()];
+                src.get(record);
+        
+                JdbmSwap.CacheEntry entry = this.dataSerializer.deserialize(new SerializerInput(new ByteArrayInputStream(record)));
+        
+                SmObjectData ret = entry.data;
+                ret.setRepositoryObject(this.storeIndex.getObject(entry.storeHandleId));
+                ret.setMetaOf(this.metaObjectIndex.getObject(entry.metaId));
+                return ret;
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IOError(e);
+            } finally {
+                recordRemoved(address);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the record without reading it.
+     */
+    @objid ("a7a0f9eb-2b24-47ff-b3c8-e052530f0e73")
+    @Override
+    public void discard(final String uuid) {
+        Lock lock = this.closeLock.readLock();
+        lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+        
+            long address = getStripe(hash(uuid)).remove(this, uuid);
+            if (address != Stripe.NONE) {
+                recordRemoved(address);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @objid ("8f9e1155-fa27-4e06-925e-e1c5cb2220e6")
+    @Override
+    public void close() {
+        Segment[] toUnmap;
+        Lock lock = this.closeLock.writeLock();
+        lock.lock();
+        try {
+            synchronized (this.appendLock) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                toUnmap = this.segments;
+                this.segments = new Segment[0];
+                this.freeSegments.clear();
+                this.current = null;
+            }
+        
+            // No reader is left: unmap the files so that they can be deleted, on Windows too.
+            for (Segment seg : toUnmap) {
+                if (seg != null) {
+                    unmap(seg.buffer);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        try {
+            FileUtils.delete(this.swapPath);
+        } catch (IOException e) {
+            Log.warning("Failed to close and delete the swap space on "+this.swapPath+":");
+            Log.warning(e);
+        }
+    }
+
+    /**
+     * @return the number of segment files.
+     */
+    @objid ("9ab839dd-ea96-4453-80f0-74c13a23eb89")
+    public int getSegmentCount() {
+        int ret = 0;
+        for (Segment s : this.segments) {
+            if (s != null) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the total size of the mapped segment files in bytes.
+     */
+    @objid ("897417c0-8c87-4fb7-ba25-fdf0af97abc3")
+    public long getMappedSize() {
+        long ret = 0;
+        for (Segment s : this.segments) {
+            if (s != null) {
+                ret += s.capacity;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the number of swapped objects that are not restored yet.
+     */
+    @objid ("a5246f4b-b249-4dcb-80e9-557df8cc780a")
+    public int getSwappedCount() {
+        int ret = 0;
+        for (Stripe s : this.stripes) {
+            ret += s.getSize();
+        }
+        return ret;
+    }
+
+    @objid ("022a7de2-317b-4761-b77f-7b519dfb6bdf")
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        
+        super.finalize();
+    }
+
+    /**
+     * Reserve space for the given records.
+     * 
+     * @param ends the end position of each record in the serialized buffer
+     * @return the address of each record.
+     * @throws java.io.IOException on failure creating a segment
+     */
+    @objid ("7a33cd19-eb6f-4d47-91d8-64fca05e8ef2")
+    private long[] reserve(int[] ends) throws IOException {
+        long[] ret = new long[ends.length];
+        synchronized (this.appendLock) {
+            if (this.closed) {
+                throw new IOException("The swap at '"+this.swapPath+"' is closed.");
+            }
+        
+            int start = 0;
+            for (int i = 0; i < ends.length; i++) {
+                int size = HEADER_SIZE + ends[i] - start;
+                start = ends[i];
+        
+                if (this.current == null || this.current.capacity - this.current.writePos < size) {
+                    switchSegment(size);
+                }
+        
+                ret[i] = ((long) this.current.id << 32) | this.current.writePos;
+                this.current.writePos += size;
+                this.current.liveRecords.incrementAndGet();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Replace the current segment by one having at least the given free space.
+     * <p>
+     * Must be called with {@link #appendLock} held.
+     * 
+     * @param size the needed space
+     * @throws java.io.IOException on failure creating a segment
+     */
+    @objid ("3f3ac759-8e7a-43f7-9185-3a5607ceaa34")
+    private void switchSegment(int size) throws IOException {
+        Segment old = this.current;
+        this.current = null;
+        if (old != null) {
+            releaseIfUnused(old);
+        }
+        
+        if (size <= SEGMENT_SIZE && ! this.freeSegments.isEmpty()) {
+            this.current = this.freeSegments.pop();
+            this.current.free = false;
+        } else {
+            this.current = createSegment(Math.max(size, SEGMENT_SIZE));
+        }
+    }
+
+    @objid ("5c25a014-3206-485a-a79f-6eb95e1a4b04")
+    private Segment createSegment(int capacity) throws IOException {
+        Segment[] table = this.segments;
+        int id = table.length;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == null) {
+                id = i;
+                break;
+            }
+        }
+        
+        File file = new File(this.swapPath, "segment" + id + ".swp");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(capacity);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        
+            Segment ret = new Segment(id, file, buffer, capacity);
+            Segment[] newTable = id < table.length ? table.clone() : Arrays.copyOf(table, id + 1);
+            newTable[id] = ret;
+            this.segments = newTable;
+            return ret;
+        }
+    }
+
+    /**
+     * Called when a record is no more used.
+     * 
+     * @param address the record address.
+     */
+    @objid ("3ac0c492-13d4-480e-b187-06642605140e")
+    private void recordRemoved(long address) {
+        Segment seg = getSegment(address);
+        if (seg.liveRecords.decrementAndGet() == 0) {
+            synchronized (this.appendLock) {
+                releaseIfUnused(seg);
+            }
+        }
+    }
+
+    /**
+     * Make the segment reusable if it is not the current one and has no live record.
+     * <p>
+     * Must be called with {@link #appendLock} held.
+     * 
+     * @param seg a segment
+     */
+    @objid ("114e5932-b811-42bf-9b54-bac64397b839")
+    private void releaseIfUnused(Segment seg) {
+        if (seg == this.current || seg.free || seg.liveRecords.get() != 0 || this.closed) {
+            return;
+        }
+        
+        if (seg.capacity == SEGMENT_SIZE) {
+            seg.writePos = 0;
+            seg.free = true;
+            this.freeSegments.push(seg);
+        } else {
+            // Oversized segment: forget it.
+            // No index entry points to it anymore.
+            Segment[] table = this.segments.clone();
+            table[seg.id] = null;
+            this.segments = table;
+            unmap(seg.buffer);
+            if (! seg.file.delete()) {
+                // It will be deleted with the swap directory.
+                seg.file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Release the memory mapping of a segment without waiting for the buffer to be garbage collected.
+     * <p>
+     * A mapped file cannot be deleted on Windows. The buffer must not be accessed anymore.
+     * 
+     * @param buffer a mapped buffer
+     */
+    @objid ("bc5db94a-2177-458c-8a48-e25435464573")
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            try {
+                // Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                // Java 8: DirectByteBuffer.cleaner().clean()
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // The mapping will be released when the buffer is garbage collected.
+            Log.trace("MappedSwap: cannot unmap a segment: %s", e);
+        }
+    }
+
+    @objid ("bc611d24-aa30-4058-8f1b-503286d94a74")
+    private Segment getSegment(long address) {
+        return this.segments[(int) (address >>> 32)];
+    }
+
+    @objid ("eb662bf7-aac6-4815-8790-6c633cabe716")
+    private static int getOffset(long address) {
+        return (int) address;
+    }
+
+    @objid ("6b2c4f48-1f26-44ee-a725-ea10ce27da0f")
+    private Stripe getStripe(long hash) {
+        return this.stripes[(int) (hash >>> 60) & (NB_STRIPES - 1)];
+    }
+
+    /**
+     * Tells whether the record at the given address is the given object.
+     * 
+     * @param address a record address
+     * @param uuid an object identifier
+     * @return true if the record contains the object.
+     */
+    @objid ("13b9d0a7-7c4f-4271-8923-2bb1fa03c75e")
+    boolean isRecordOf(long address, String uuid) {
+        ByteBuffer src = getSegment(address).buffer.duplicate();
+        src.position(getOffset(address) + UUID_POS);
+        
+        // Modified UTF-8 as written by DataOutput.writeUTF()
+        int utflen = src.getShort() & 0xFFFF;
+        byte[] utf = new byte[utflen];
+        src.get(utf);
+        
+        if (utflen == uuid.length()) {
+            // ASCII fast path
+            for (int i = 0; i < utflen; i++) {
+                if (utf[i] != uuid.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return uuid.equals(new String(utf, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 64 bits FNV-1a hash of the identifier. Never returns 0.
+     * 
+     * @param uuid an object identifier
+     * @return the hash
+     */
+    @objid ("f42519f6-82f8-4a81-8cdf-c51230db51a4")
+    static long hash(String uuid) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < uuid.length(); i++) {
+            h ^= uuid.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * A memory mapped segment file.
+     */
+    @objid ("b230496b-e8ea-41d9-aa48-7e3a359116c2")
+    private static final class Segment {
+        @objid ("9eb6ce61-a855-442d-ad3c-312124707271")
+        final int id;
+
+        @objid ("59f70a7d-cb25-432e-b55d-1cd4a2ff6a52")
+        final File file;
+
+        @objid ("b8e1b309-5c7a-4610-bfbe-f19153036a6f")
+        final MappedByteBuffer buffer;
+
+        @objid ("468b73c2-57b1-4d58-82bb-093c5ac81b94")
+        final int capacity;
+
+        /**
+         * Next record position. Guarded by {@link MappedSwap#appendLock}.
+         */
+        @objid ("6703a3f6-3a57-4f7e-8c51-9089346a8d6d")
+        int writePos;
+
+        /**
+         * Whether the segment is in the free list. Guarded by {@link MappedSwap#appendLock}.
+         */
+        @objid ("f1d3e50b-33a5-48bd-8a29-92507b29f348")
+        boolean free;
+
+        @objid ("0059422d-469e-4409-94e8-3cbe2b2b7b1a")
+        final AtomicInteger liveRecords = new AtomicInteger();
+
+        @objid ("992762e5-5f93-4c5e-8f85-6730c4a89c1d")
+        Segment(int id, File file, MappedByteBuffer buffer, int capacity) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+    }
+
+    /**
+     * Off heap open addressing hash table from identifier hash to record address.
+     * <p>
+     * Hash collisions are resolved by reading the identifier stored in the record.
+     */
+    @objid ("3a7468b3-4d42-42d0-a41b-0b1fb93f0765")
+    private static final class Stripe {
+        /**
+         * Address returned when no record is found.
+         */
+        @objid ("47484079-582e-48ca-9034-b26e7d730ded")
+        static final long NONE = -1;
+
+        /**
+         * Address of a removed entry. The key is kept so that probing continues.
+         */
+        @objid ("246371cf-d5fa-4c89-8858-640a269280c4")
+        private static final long REMOVED = -2;
+
+        @objid ("0c6f8fab-33f6-4a03-981b-9625b1391adc")
+        private static final int INITIAL_CAPACITY = 1024;
+
+        @objid ("c4f24898-96e1-48d3-ba91-5101def6bf8d")
+        private LongBuffer keys;
+
+        @objid ("967394e5-ac61-492c-a1d8-b348e62ea4c2")
+        private LongBuffer addresses;
+
+        /**
+         * Number of live entries.
+         */
+        @objid ("0fd98371-a4e5-4403-8ca6-912f2c0c196e")
+        private int size;
+
+        /**
+         * Number of live and removed entries.
+         */
+        @objid ("37067a23-2505-4fa2-84c2-ebc69b14f07c")
+        private int used;
+
+        @objid ("573c61f3-343f-4698-b358-d73d6e73eec1")
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        @objid ("6b11f769-9bd0-4332-9264-7d987d8b590d")
+        synchronized int getSize() {
+            return this.size;
+        }
+
+        /**
+         * Add or replace a record address.
+         * 
+         * @return the replaced address or {@link #NONE}.
+         */
+        @objid ("b9c6b304-45b7-4b2b-b5c9-4c908e53d8a1")
+        synchronized long put(MappedSwap swap, String uuid, long address) {
+            long key = hash(uuid);
+            int mask = this.keys.capacity() - 1;
+            int freeSlot = -1;
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                long k = this.keys.get(i);
+                if (k == 0) {
+                    if (freeSlot == -1) {
+                        freeSlot = i;
+                        this.used++;
+                    }
+                    break;
+                }
+        
+                long a = this.addresses.get(i);
+                if (a == REMOVED) {
+                    if (freeSlot == -1) {
+                        freeSlot = i;
+                    }
+                } else if (k == key && swap.isRecordOf(a, uuid)) {
+                    this.addresses.put(i, address);
+                    return a;
+                }
+            }
+        
+            this.keys.put(freeSlot, key);
+            this.addresses.put(freeSlot, address);
+            this.size++;
+        
+            if (this.used > (this.keys.capacity() >> 1) + (this.keys.capacity() >> 2)) {
+                rehash();
+            }
+            return NONE;
+        }
+
+        /**
+         * Remove a record address.
+         * 
+         * @return the removed address or {@link #NONE}.
+         */
+        @objid ("8466c066-851c-4033-905b-af6148da2bc6")
+        synchronized long remove(MappedSwap swap, String uuid) {
+            long key = hash(uuid);
+            int mask = this.keys.capacity() - 1;
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                long k = this.keys.get(i);
+                if (k == 0) {
+                    return NONE;
+                }
+        
+                long a = this.addresses.get(i);
+                if (k == key && a != REMOVED && swap.isRecordOf(a, uuid)) {
+                    this.addresses.put(i, REMOVED);
+                    this.size--;
+                    return a;
+                }
+            }
+        }
+
+        @objid ("2acb21e3-3e69-4a69-bb68-35a704e01521")
+        private void rehash() {
+            LongBuffer oldKeys = this.keys;
+            LongBuffer oldAddresses = this.addresses;
+            int capacity = oldKeys.capacity();
+            if (this.size > capacity >> 2) {
+                capacity <<= 1;
+            }
+        
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.capacity(); j++) {
+                long k = oldKeys.get(j);
+                long a = oldAddresses.get(j);
+                if (k != 0 && a != REMOVED) {
+                    int i = (int) k & mask;
+                    while (this.keys.get(i) != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    this.keys.put(i, k);
+                    this.addresses.put(i, a);
+                    this.used++;
+                }
+            }
+        }
+
+        @objid ("01311a06-135f-43bf-bd78-1d06dfdb0cd0")
+        private void allocate(int capacity) {
+            this.keys = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+            this.addresses = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+            this.used = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.swap.jmx;
+
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.swap.MappedSwap;
+
+/**
+ * JMX Bean spec for {@link MappedSwap}.
+ */
+@objid ("1ba2469c-09f9-4f4a-992a-4c4820650700")
+public interface IMappedSwapMXBean extends ISwapMXBean {
+    /**
+     * Get the count of batch swaps.
+     * 
+     * @return the batch swap count.
+     */
+    @objid ("1018570b-bfa2-4e99-a192-613c675bd077")
+    long getSwapBatchCount();
+
+    /**
+     * @return the number of swapped objects not restored yet.
+     */
+    @objid ("a9065833-a6b3-430a-8d4e-c1cf4a901465")
+    int getSwappedCount();
+
+    /**
+     * @return the number of segment files.
+     */
+    @objid ("013e0351-4622-4b06-831a-d88100407daa")
+    int getSegmentCount();
+
+    /**
+     * @return the total size of the mapped segment files in bytes.
+     */
+    @objid ("3f829a11-5a1f-42e7-8718-8ecc13a72b9d")
+    long getMappedSize();
+
+}
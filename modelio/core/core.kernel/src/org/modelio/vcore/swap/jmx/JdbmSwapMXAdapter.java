@@ -87,6 +87,12 @@ public class JdbmSwapMXAdapter implements ISwap, ISwapMXBean {
         return this.swap.restore(uuid);
     }
 
+    @objid ("3ca7e940-636d-4d35-8ea2-43c94926636a")
+    @Override
+    public void discard(String uuid) {
+        this.swap.discard(uuid);
+    }
+
     @objid ("dcbe877c-493b-11e2-91c9-001ec947ccaf")
     @Override
     public void close() {
@@ -0,0 +1,147 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.swap.jmx;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.ISwap;
+import org.modelio.vcore.smkernel.SmObjectData;
+import org.modelio.vcore.swap.MappedSwap;
+
+/**
+ * Adapter from {@link MappedSwap} to {@link IMappedSwapMXBean}.
+ * <p>
+ * The counters may be updated concurrently.
+ */
+@objid ("15543cdb-ee27-4c64-b152-6e37e55b0bb5")
+public class MappedSwapMXAdapter implements ISwap, IMappedSwapMXBean {
+    @objid ("b769a7eb-dcd7-4e98-95e9-897573ca4973")
+    private final LongAdder swapCount = new LongAdder();
+
+    @objid ("d8957ad6-03f6-476e-924a-38a972de32cc")
+    private final LongAdder swapBatchCount = new LongAdder();
+
+    @objid ("a2a6480d-50ce-463b-a145-956c78410d37")
+    private final LongAdder restoreCount = new LongAdder();
+
+    @objid ("c8a7f3cb-a7ec-411a-82f3-e80497af65a6")
+    private final MappedSwap swap;
+
+    /**
+     * Initialize the swap adapter.
+     * 
+     * @param swap the real swap.
+     */
+    @objid ("e46a7a92-3454-4f68-be1a-90abd221f9c6")
+    public MappedSwapMXAdapter(MappedSwap swap) {
+        this.swap = swap;
+    }
+
+    /**
+     * The memory mapped swap has no commit: always returns 0.
+     */
+    @objid ("8991cc31-7b06-4181-8adb-9c84f2dd2553")
+    @Override
+    public int getCommitFrequence() {
+        return 0;
+    }
+
+    /**
+     * The memory mapped swap has no commit: does nothing.
+     */
+    @objid ("13e62c43-8fc3-4ace-b989-e2f80747963e")
+    @Override
+    public void setCommitFrequence(int value) {
+        // no commit
+    }
+
+    @objid ("2a03db17-36bc-4a32-955e-85b7fdf4cb53")
+    @Override
+    public long getSwapCount() {
+        return this.swapCount.sum();
+    }
+
+    @objid ("86051b84-5655-446b-88c2-8f58f1fc2389")
+    @Override
+    public long getSwapBatchCount() {
+        return this.swapBatchCount.sum();
+    }
+
+    @objid ("7e1587e1-15b4-4366-bc9f-e1b146c78fc1")
+    @Override
+    public long getRestoreCount() {
+        return this.restoreCount.sum();
+    }
+
+    @objid ("e2223f9c-a9dc-42f1-a3ba-f5f9979b25fc")
+    @Override
+    public int getSwappedCount() {
+        return this.swap.getSwappedCount();
+    }
+
+    @objid ("1c3903f3-148e-4981-bc85-a1cd6ae81e1a")
+    @Override
+    public int getSegmentCount() {
+        return this.swap.getSegmentCount();
+    }
+
+    @objid ("ccd44434-9d11-4784-a4f3-4d1f316d52b4")
+    @Override
+    public long getMappedSize() {
+        return this.swap.getMappedSize();
+    }
+
+    @objid ("4733ab90-76f5-4693-a75c-8f7a68fef946")
+    @Override
+    public void swap(SmObjectData data) {
+        this.swap.swap(data);
+        this.swapCount.increment();
+    }
+
+    @objid ("4814b53c-6a4f-4ad4-99ef-2d718e5b445c")
+    @Override
+    public void swap(Collection<SmObjectData> datas) {
+        this.swap.swap(datas);
+        this.swapCount.add(datas.size());
+        this.swapBatchCount.increment();
+    }
+
+    @objid ("ed486700-bf9c-44e3-b8c0-29dafccae0ca")
+    @Override
+    public SmObjectData restore(String uuid) {
+        this.restoreCount.increment();
+        return this.swap.restore(uuid);
+    }
+
+    @objid ("1a88110e-17fc-404e-856b-ce584cd79ea4")
+    @Override
+    public void discard(String uuid) {
+        this.swap.discard(uuid);
+    }
+
+    @objid ("c0a97d28-a6a2-4345-a0ba-f3925c6f3d4e")
+    @Override
+    public void close() {
+        this.swap.close();
+    }
+
+}
@@ -114,7 +114,7 @@ public class MessageSequencer {
         }
         
         if (d == 0) {
-            return a.getUuid().compareTo(b.getUuid());
+            return a.compareTo(b);
         }
         return d;
     }
@@ -0,0 +1,565 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.metamodel.mmextensions.standard.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.metamodel.mda.ModuleComponent;
+import org.modelio.metamodel.uml.infrastructure.MetaclassReference;
+import org.modelio.metamodel.uml.infrastructure.NoteType;
+import org.modelio.metamodel.uml.infrastructure.Profile;
+import org.modelio.metamodel.uml.infrastructure.ResourceType;
+import org.modelio.metamodel.uml.infrastructure.Stereotype;
+import org.modelio.metamodel.uml.infrastructure.TagType;
+import org.modelio.vbasic.log.Log;
+import org.modelio.vcore.session.api.ICoreSession;
+import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
+import org.modelio.vcore.session.api.model.change.IModelChangeListener;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
+import org.modelio.vcore.session.api.repository.IRepositoryChangeEvent;
+import org.modelio.vcore.session.api.repository.IRepositoryChangeListener;
+import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MMetamodel;
+import org.modelio.vcore.smkernel.mapi.MObject;
+
+/**
+ * In memory index of the metamodel extensions deployed in a modeling session.
+ * <p>
+ * The index is built on first use from the deployed {@link ModuleComponent modules}: each {@link MetaclassReference}
+ * and {@link Stereotype} is recorded once with its module, its resolved base metaclass, its inheritance chain names
+ * and the note, tag and resource types it defines. Extension requests are then answered from the index and memoized,
+ * empty results included, so that a repeated request costs a single hash lookup.
+ * <p>
+ * The index is discarded when a module, profile or extension type is created, modified or deleted, and when
+ * the session repositories change. It is rebuilt on the next request.
+ * <p>
+ * The model may be modified by the running transaction without the index being notified. While a transaction is open,
+ * empty results are therefore computed again from the model and are not memoized.
+ * <p>
+ * There is one index per session, get it with {@link #get(ICoreSession)}.
+ * @since 4.1
+ */
+@objid ("d9d414e8-a6b5-41ec-a930-bd70f547e9b3")
+public final class ExtensionIndex {
+    @objid ("7db49063-363a-4a9a-9186-f33e4664749e")
+    private static final Map<ICoreSession, ExtensionIndex> instances = new WeakHashMap<>();
+
+    @objid ("cdc6fb2b-97ea-4adb-8e64-8d551d30c3bc")
+    private final ICoreSession session;
+
+    /**
+     * The current index content, <code>null</code> when it has to be rebuilt.
+     */
+    @objid ("72559ae8-bfaa-4fa2-9cf2-356dd936ab4a")
+    private volatile Snapshot snapshot;
+
+    /**
+     * Incremented by each {@link #invalidate()}.
+     * <p>
+     * A snapshot built from an older generation is stale: it may have been built while the index was invalidated.
+     */
+    @objid ("4a70123f-9d85-4002-969f-12df16ff2572")
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @objid ("92a2f6b6-1942-4ed6-85f6-839b31b5e47e")
+    private final IModelChangeListener modelListener = new IModelChangeListener() {
+        @Override
+        public void modelChanged(IModelChangeEvent event) {
+            invalidate();
+        }
+    };
+
+    @objid ("5b017689-a517-4b6b-9a47-f75e8d20d008")
+    private final IRepositoryChangeListener repositoryListener = new IRepositoryChangeListener() {
+        @Override
+        public void repositoryChanged(IRepositoryChangeEvent event) {
+            invalidate();
+        }
+    };
+
+    /**
+     * Get the extension index of a modeling session.
+     * 
+     * @param session a modeling session
+     * @return the session extension index.
+     */
+    @objid ("41a24b89-1580-4a2e-afab-44096e9cc462")
+    public static ExtensionIndex get(ICoreSession session) {
+        Objects.requireNonNull(session);
+        ExtensionIndex ret;
+        synchronized (ExtensionIndex.instances) {
+            ret = ExtensionIndex.instances.get(session);
+            if (ret == null) {
+                ret = new ExtensionIndex(session);
+                ExtensionIndex.instances.put(session, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Forget the extension index of a modeling session and stop listening to it.
+     * <p>
+     * To be called when the session is closed. Does nothing if the session has no index.
+     * 
+     * @param session a modeling session
+     */
+    @objid ("d5b14aa9-08ba-46b1-aa7f-f38763f4a31e")
+    public static void dispose(ICoreSession session) {
+        ExtensionIndex ret;
+        synchronized (ExtensionIndex.instances) {
+            ret = ExtensionIndex.instances.remove(session);
+        }
+        
+        if (ret != null) {
+            ret.snapshot = null;
+            session.getModelChangeSupport().removeModelChangeListener(ret.modelListener);
+            session.getRepositorySupport().removeRepositoryChangeListener(ret.repositoryListener);
+        }
+    }
+
+    @objid ("1b0a2ce4-b397-4a47-8b56-14cc046c7a78")
+    private ExtensionIndex(ICoreSession session) {
+        this.session = session;
+        
+        MMetamodel mm = session.getMetamodel();
+        List<MClass> watched = Arrays.asList(
+                mm.getMClass(ModuleComponent.class),
+                mm.getMClass(Profile.class),
+                mm.getMClass(Stereotype.class),
+                mm.getMClass(MetaclassReference.class),
+                mm.getMClass(NoteType.class),
+                mm.getMClass(TagType.class),
+                mm.getMClass(ResourceType.class));
+        
+        session.getModelChangeSupport().addModelChangeListener(this.modelListener, new ModelChangeFilter(watched, null), null);
+        session.getRepositorySupport().addRepositoryChangeListener(this.repositoryListener);
+    }
+
+    /**
+     * Discard the index content.
+     * <p>
+     * The index will be rebuilt on the next request.
+     * Needs to be called only if the extensions are modified in a way that does not fire model change events.
+     */
+    @objid ("24657771-f806-4943-b6e8-7e78f5ce4f09")
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.snapshot = null;
+    }
+
+    /**
+     * Find note types. See {@link IMModelServices#findNoteTypes(String, String, String, MClass)} for the parameters.
+     * 
+     * @param moduleName the name of the module providing the type.
+     * @param ownerName the name of the type owner.
+     * @param noteTypeName the note type name.
+     * @param metaclass the metaclass the note type must be applicable to.
+     * @return an unmodifiable list of the matching note types.
+     */
+    @objid ("467692de-d48f-46e7-b0f1-20ef76b4b0f7")
+    @SuppressWarnings ("unchecked")
+    public List<NoteType> findNoteTypes(String moduleName, String ownerName, String noteTypeName, MClass metaclass) {
+        return (List<NoteType>) find(new Query(Kind.NOTE, moduleName, ownerName, noteTypeName, metaclass));
+    }
+
+    /**
+     * Find resource types. See {@link IMModelServices#findResourceTypes(String, String, String, MClass)} for the parameters.
+     * 
+     * @param moduleName the name of the module providing the type.
+     * @param ownerName the name of the type owner.
+     * @param resourceTypeName the resource type name.
+     * @param metaclass the metaclass the resource type must be applicable to.
+     * @return an unmodifiable list of the matching resource types.
+     */
+    @objid ("61667f3a-c21b-4ca7-9185-895bc5095229")
+    @SuppressWarnings ("unchecked")
+    public List<ResourceType> findResourceTypes(String moduleName, String ownerName, String resourceTypeName, MClass metaclass) {
+        return (List<ResourceType>) find(new Query(Kind.RESOURCE, moduleName, ownerName, resourceTypeName, metaclass));
+    }
+
+    /**
+     * Find stereotypes. See {@link IMModelServices#findStereotypes(String, String, MClass)} for the parameters.
+     * 
+     * @param moduleName the name of the module providing the stereotype.
+     * @param stereotypeName the stereotype name.
+     * @param metaclass the metaclass the stereotype must be applicable to.
+     * @return an unmodifiable list of the matching stereotypes.
+     */
+    @objid ("594fc5e1-e588-418b-a73d-a4c3817d91c1")
+    @SuppressWarnings ("unchecked")
+    public List<Stereotype> findStereotypes(String moduleName, String stereotypeName, MClass metaclass) {
+        return (List<Stereotype>) find(new Query(Kind.STEREOTYPE, moduleName, null, stereotypeName, metaclass));
+    }
+
+    /**
+     * Find tag types. See {@link IMModelServices#findTagTypes(String, String, String, MClass)} for the parameters.
+     * 
+     * @param moduleName the name of the module providing the type.
+     * @param ownerName the name of the type owner.
+     * @param tagTypeName the tag type name.
+     * @param metaclass the metaclass the tag type must be applicable to.
+     * @return an unmodifiable list of the matching tag types.
+     */
+    @objid ("433391da-8ac9-4a2e-8c7d-7be6af4aa553")
+    @SuppressWarnings ("unchecked")
+    public List<TagType> findTagTypes(String moduleName, String ownerName, String tagTypeName, MClass metaclass) {
+        return (List<TagType>) find(new Query(Kind.TAG, moduleName, ownerName, tagTypeName, metaclass));
+    }
+
+    @objid ("8296f528-a13d-4b45-9821-be87d00074f5")
+    @Override
+    public String toString() {
+        Snapshot s = this.snapshot;
+        if (s == null) {
+            return "ExtensionIndex [not built]";
+        }
+        return String.format("ExtensionIndex [owners=%d, memoized requests=%d]", s.owners.size(), s.results.size());
+    }
+
+    @objid ("056e1fa9-f35b-49be-bbc8-81cf3842f237")
+    private List<? extends MObject> find(Query query) {
+        Snapshot s = getSnapshot();
+        boolean inTransaction = this.session.getTransactionSupport().hasCurrentTransaction();
+        
+        List<? extends MObject> ret = s.results.get(query);
+        if (ret == null || inTransaction && !isValid(ret)) {
+            ret = s.compute(query);
+        }
+        
+        if (ret.isEmpty() && inTransaction) {
+            // The running transaction may have created the requested extension
+            return new Snapshot(this.session, 0, -1).compute(query);
+        }
+        
+        s.results.put(query, ret);
+        return ret;
+    }
+
+    @objid ("588215a5-ddbc-4d6a-ae25-ab9c3f87f087")
+    private Snapshot getSnapshot() {
+        int repositoryCount = this.session.getRepositorySupport().getRepositories().size();
+        int gen = this.generation.get();
+        Snapshot s = this.snapshot;
+        if (s == null || s.generation != gen || s.repositoryCount != repositoryCount) {
+            // Repositories were added or removed: modules may have been deployed or undeployed.
+            // A snapshot published by a concurrent build that raced with invalidate() is rejected
+            // here by its generation.
+            s = new Snapshot(this.session, repositoryCount, gen);
+            this.snapshot = s;
+        }
+        return s;
+    }
+
+    @objid ("8b0e1d1b-6282-4c76-b7ba-3d57fc477a1b")
+    private static boolean isValid(List<? extends MObject> elements) {
+        for (MObject obj : elements) {
+            if (!obj.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @objid ("687d0f1e-7583-47e0-b460-9199975abea9")
+    static boolean nameMatches(String name, String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return true;
+        }
+        return name.equals(pattern) || name.matches(pattern);
+    }
+
+    @objid ("2f03830d-20d7-4f07-a5b8-4764db052066")
+    static String getName(MObject obj) {
+        return obj != null ? obj.getName() : "";
+    }
+
+    /**
+     * Indexed extension type kinds.
+     */
+    @objid ("d1a05cb7-d380-40f4-a8cc-10dc2e638343")
+    private enum Kind {
+        STEREOTYPE,
+        NOTE,
+        TAG,
+        RESOURCE;
+    }
+
+    /**
+     * Memoized request key.
+     */
+    @objid ("139b9c97-22f0-43b8-8154-9a6e933f37ec")
+    private static final class Query {
+        @objid ("8f5a3f29-adfa-437f-ab63-9bb29726a8bf")
+        final Kind kind;
+
+        @objid ("9784123f-4128-47c4-806a-7b7a8cfa4510")
+        final String moduleName;
+
+        @objid ("c53d5a0b-a38f-4773-9117-1defc9e742da")
+        final String ownerName;
+
+        @objid ("a1618c3e-9924-4755-ae0c-9e421f8600ee")
+        final String name;
+
+        @objid ("953396c2-30ee-4aa2-8343-2a033119f001")
+        final MClass metaclass;
+
+        @objid ("fa7bddd7-c7ea-468d-98dd-4fea4af453eb")
+        private final int hash;
+
+        @objid ("8d734962-aab5-4fd1-b23a-6e1d555464a8")
+        Query(Kind kind, String moduleName, String ownerName, String name, MClass metaclass) {
+            // null and empty patterns match everything
+            this.kind = kind;
+            this.moduleName = moduleName == null ? "" : moduleName;
+            this.ownerName = ownerName == null ? "" : ownerName;
+            this.name = name == null ? "" : name;
+            this.metaclass = Objects.requireNonNull(metaclass);
+            this.hash = Objects.hash(kind, this.moduleName, this.ownerName, this.name, metaclass);
+        }
+
+        @objid ("b3d3660a-96e0-4aa2-a4cf-75104bc8efa3")
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @objid ("1be33272-8c2c-4d17-91c4-481c9cec845e")
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Query)) {
+                return false;
+            }
+            Query other = (Query) obj;
+            return this.hash == other.hash
+                    && this.kind == other.kind
+                    && this.metaclass == other.metaclass
+                    && this.name.equals(other.name)
+                    && this.ownerName.equals(other.ownerName)
+                    && this.moduleName.equals(other.moduleName);
+        }
+
+    }
+
+    /**
+     * A {@link MetaclassReference} or {@link Stereotype} with everything needed to answer requests.
+     */
+    @objid ("b70816ea-7113-4666-891f-e1ac39b08d43")
+    private static final class Owner {
+        @objid ("3028cc97-d574-496c-8c3a-1efbbffc9799")
+        final ModuleComponent module;
+
+        /**
+         * The stereotype, <code>null</code> for a metaclass reference.
+         */
+        @objid ("594d18de-d313-4dbe-84a4-70be1650010f")
+        final Stereotype stereotype;
+
+        /**
+         * Name of the module of the stereotype, may differ from the profile module.
+         */
+        @objid ("af247e4f-c846-4bdf-b02c-141204670aa1")
+        final String stereotypeModuleName;
+
+        @objid ("c43c017c-24ae-447f-bb7e-531018255fb8")
+        final MClass baseClass;
+
+        /**
+         * The owner name followed by the names of its inheritance parents:
+         * stereotype names for a stereotype, metaclass qualified names for a metaclass reference.
+         */
+        @objid ("ee65525a-e242-41a6-a05a-66454f20375b")
+        final List<String> inheritedNames;
+
+        @objid ("52ee9d67-5c51-4b97-ad68-e71e15532c2a")
+        final List<NoteType> noteTypes;
+
+        @objid ("dbb9601d-4f01-40a8-8eac-4a65cfb25e77")
+        final List<TagType> tagTypes;
+
+        @objid ("d2040385-da68-4925-9925-f9c59cd22610")
+        final List<ResourceType> resourceTypes;
+
+        @objid ("5d9a229b-c8e9-430d-b60f-1a3c217a590c")
+        Owner(ModuleComponent module, MetaclassReference reference, MClass baseClass) {
+            this.module = module;
+            this.stereotype = null;
+            this.stereotypeModuleName = "";
+            this.baseClass = baseClass;
+            this.inheritedNames = new ArrayList<>(4);
+            for (MClass c = baseClass; c != null; c = c.getSuper()) {
+                this.inheritedNames.add(c.getQualifiedName());
+            }
+            this.noteTypes = copy(reference.getDefinedNoteType());
+            this.tagTypes = copy(reference.getDefinedTagType());
+            this.resourceTypes = copy(reference.getDefinedResourceType());
+        }
+
+        @objid ("a198b618-5b4f-4cb5-98e3-f9026d59fcc1")
+        Owner(ModuleComponent module, Stereotype stereotype, MClass baseClass) {
+            this.module = module;
+            this.stereotype = stereotype;
+            this.stereotypeModuleName = getName(stereotype.getModule());
+            this.baseClass = baseClass;
+            this.inheritedNames = new ArrayList<>(4);
+            for (Stereotype s = stereotype; s != null && !this.inheritedNames.contains(s.getName()); s = s.getParent()) {
+                this.inheritedNames.add(s.getName());
+            }
+            this.noteTypes = copy(stereotype.getDefinedNoteType());
+            this.tagTypes = copy(stereotype.getDefinedTagType());
+            this.resourceTypes = copy(stereotype.getDefinedResourceType());
+        }
+
+        @objid ("f6c19836-0422-464f-9784-335b5dc49166")
+        boolean inheritsFrom(String ownerName) {
+            if (ownerName.isEmpty()) {
+                return true;
+            }
+            for (String n : this.inheritedNames) {
+                if (nameMatches(n, ownerName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @objid ("bcfb5a76-99e4-48a1-91c0-2b06fa4dc437")
+        List<? extends MObject> getTypes(Kind kind) {
+            switch (kind) {
+            case NOTE:
+                return this.noteTypes;
+            case TAG:
+                return this.tagTypes;
+            case RESOURCE:
+                return this.resourceTypes;
+            case STEREOTYPE:
+            default:
+                return Collections.singletonList(this.stereotype);
+            }
+        }
+
+        @objid ("22eb3817-eab3-4939-9e44-70baefb0824a")
+        private static <T> List<T> copy(Collection<T> c) {
+            return c.isEmpty() ? Collections.emptyList() : new ArrayList<>(c);
+        }
+
+    }
+
+    /**
+     * Index content built from the model at a given time, with its memoized requests.
+     */
+    @objid ("d3826e11-2d36-4533-ae93-66908ee60a74")
+    private static final class Snapshot {
+        @objid ("4b8a41b4-d0f8-40e9-ba27-e71c6ec51e82")
+        final int repositoryCount;
+
+        /**
+         * The index generation when the snapshot build started.
+         */
+        @objid ("1af4170f-3a9c-4ca6-9496-d1b0f4051ea0")
+        final int generation;
+
+        @objid ("c750c8a2-1bd9-473f-ad7c-1a36ca8acdc5")
+        final List<Owner> owners = new ArrayList<>();
+
+        @objid ("4cc883c2-817b-4a9f-845f-06f6fd588df5")
+        final Map<Query, List<? extends MObject>> results = new ConcurrentHashMap<>();
+
+        @objid ("5e058f16-5080-4863-9b6f-4d538c7f9669")
+        Snapshot(ICoreSession session, int repositoryCount, int generation) {
+            this.repositoryCount = repositoryCount;
+            this.generation = generation;
+            
+            MMetamodel mm = session.getMetamodel();
+            for (ModuleComponent module : session.getModel().findByClass(ModuleComponent.class)) {
+                for (Profile profile : module.getOwnedProfile()) {
+                    for (MetaclassReference reference : profile.getOwnedReference()) {
+                        MClass base = resolve(mm, reference, reference.getReferencedClassName());
+                        if (base != null) {
+                            this.owners.add(new Owner(module, reference, base));
+                        }
+                    }
+        
+                    for (Stereotype ste : profile.getDefinedStereotype()) {
+                        MClass base = resolve(mm, ste, ste.getBaseClassName());
+                        if (base != null) {
+                            this.owners.add(new Owner(module, ste, base));
+                        }
+                    }
+                }
+            }
+        }
+
+        @objid ("45de294b-73dc-4942-85e0-02b57e7259f9")
+        List<? extends MObject> compute(Query query) {
+            List<MObject> ret = null;
+            for (Owner owner : this.owners) {
+                if (!query.metaclass.hasBase(owner.baseClass) || !nameMatches(getName(owner.module), query.moduleName)) {
+                    continue;
+                }
+        
+                if (owner.stereotype == null) {
+                    if (query.kind == Kind.STEREOTYPE || !owner.inheritsFrom(query.ownerName)) {
+                        continue;
+                    }
+                } else if (query.kind != Kind.STEREOTYPE) {
+                    if (!nameMatches(owner.stereotypeModuleName, query.moduleName) || !owner.inheritsFrom(query.ownerName)) {
+                        continue;
+                    }
+                }
+        
+                for (MObject type : owner.getTypes(query.kind)) {
+                    if (nameMatches(getName(type), query.name)) {
+                        if (ret == null) {
+                            ret = new ArrayList<>(1);
+                        }
+                        ret.add(type);
+                    }
+                }
+            }
+            return ret == null ? Collections.emptyList() : Collections.unmodifiableList(ret);
+        }
+
+        @objid ("6b0d1043-cfb9-4402-8296-b8e72a5e190f")
+        private static MClass resolve(MMetamodel mm, MObject owner, String baseName) {
+            MClass ret = mm.getMClass(baseName);
+            if (ret == null) {
+                Log.warning(owner.toString() + ": '" + baseName + "' metaclass not found.");
+            }
+            return ret;
+        }
+
+    }
+
+}
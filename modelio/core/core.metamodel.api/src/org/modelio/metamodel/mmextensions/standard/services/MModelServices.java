@@ -26,11 +26,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
-import org.modelio.metamodel.mda.ModuleComponent;
 import org.modelio.metamodel.mmextensions.infrastructure.ElementNotUniqueException;
 import org.modelio.metamodel.uml.infrastructure.MetaclassReference;
 import org.modelio.metamodel.uml.infrastructure.NoteType;
-import org.modelio.metamodel.uml.infrastructure.Profile;
 import org.modelio.metamodel.uml.infrastructure.ResourceType;
 import org.modelio.metamodel.uml.infrastructure.Stereotype;
 import org.modelio.metamodel.uml.infrastructure.TagType;
@@ -60,9 +58,6 @@ public class MModelServices implements IMModelServices {
     @objid ("954645c8-3e1e-4da5-8659-41fb761424dc")
     private MTools tools;
 
-    @objid ("5bf7bb44-d899-4975-9beb-b546c00f01bf")
-    private ExtensionCache extensionCache;
-
     /**
      * @param session a core modeling session.
      */
@@ -71,7 +66,6 @@ public class MModelServices implements IMModelServices {
         Objects.requireNonNull(session);
         this.session = session;
         this.tools = MTools.get(session);
-        this.extensionCache = new ExtensionCache(session.getMetamodel());
     }
 
     @objid ("113984af-1772-11e2-aa0d-002564c97630")
@@ -139,115 +133,19 @@ public class MModelServices implements IMModelServices {
     @objid ("007e32ae-030f-1035-9f91-001ec947cd2a")
     @Override
     public List<NoteType> findNoteTypes(String moduleName, String ownerName, String noteTypeName, MClass metaclass) {
-        List<NoteType> ret = new ArrayList<>();
-        
-        for (ModuleComponent module : getModel().findByClass(ModuleComponent.class)) {
-            if (nameMatches(module, moduleName)) {
-                for (Profile profile : module.getOwnedProfile()) {
-                    for (MetaclassReference reference : profile.getOwnedReference()) {
-                        try {
-                            MClass referenceClass = getBaseClass(reference.getReferencedClassName());
-                            if (metaclass.hasBase(referenceClass) && inheritsFrom(referenceClass, ownerName)) {
-                                for (NoteType noteType : reference.getDefinedNoteType()) {
-                                    if (nameMatches(noteType, noteTypeName)) {
-                                        ret.add(noteType);
-                                    }
-                                }
-                            }
-                        } catch (MetaclassNotFoundException e) {
-                            reportBadMetaclass(reference, e);
-                        }
-                    }
-        
-                    for (Stereotype ste : profile.getDefinedStereotype()) {
-                        if (nameMatches(ste.getModule(), moduleName)) {
-                            try {
-                                MClass steClass = getBaseClass(ste.getBaseClassName());
-                                if (metaclass.hasBase(steClass) && inheritsFrom(ste, ownerName)) {
-                                    for (NoteType noteType : ste.getDefinedNoteType()) {
-                                        if (nameMatches(noteType, noteTypeName)) {
-                                            ret.add(noteType);
-                                        }
-                                    }
-                                }
-                            } catch (MetaclassNotFoundException e) {
-                                reportBadMetaclass(ste, e);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return ret;
+        return new ArrayList<>(getIndex().findNoteTypes(moduleName, ownerName, noteTypeName, metaclass));
     }
 
     @objid ("007f38de-030f-1035-9f91-001ec947cd2a")
     @Override
     public List<ResourceType> findResourceTypes(String moduleName, String ownerName, String resourceTypeName, MClass metaclass) {
-        List<ResourceType> ret = new ArrayList<>();
-        
-        for (ModuleComponent module : getModel().findByClass(ModuleComponent.class)) {
-            if (nameMatches(module, moduleName)) {
-                for (Profile profile : module.getOwnedProfile()) {
-                    for (MetaclassReference reference : profile.getOwnedReference()) {
-                        try {
-                            MClass referenceClass = getBaseClass(reference.getReferencedClassName());
-                            if (metaclass.hasBase(referenceClass) && inheritsFrom(referenceClass, ownerName)) {
-                                for (ResourceType resourceType : reference.getDefinedResourceType()) {
-                                    if (nameMatches(resourceType, resourceTypeName)) {
-                                        ret.add(resourceType);
-                                    }
-                                }
-                            }
-                        } catch (MetaclassNotFoundException e) {
-                            reportBadMetaclass(reference, e);
-                        }
-                    }
-        
-                    for (Stereotype ste : profile.getDefinedStereotype()) {
-                        if (nameMatches(ste.getModule(), moduleName)) {
-                            try {
-                                MClass steClass = getBaseClass(ste.getBaseClassName());
-                                if (metaclass.hasBase(steClass) && inheritsFrom(ste, ownerName)) {
-                                    for (ResourceType resourceType : ste.getDefinedResourceType()) {
-                                        if (nameMatches(resourceType, resourceTypeName)) {
-                                            ret.add(resourceType);
-                                        }
-                                    }
-                                }
-                            } catch (MetaclassNotFoundException e) {
-                                reportBadMetaclass(ste, e);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return ret;
+        return new ArrayList<>(getIndex().findResourceTypes(moduleName, ownerName, resourceTypeName, metaclass));
     }
 
     @objid ("007cd77e-030f-1035-9f91-001ec947cd2a")
     @Override
     public List<Stereotype> findStereotypes(String moduleName, String stereotypeName, MClass metaclass) {
-        List<Stereotype> ret = new ArrayList<>();
-        
-        for (ModuleComponent module : getModel().findByClass(ModuleComponent.class)) {
-            if (nameMatches(module, moduleName)) {
-                for (Profile profile : module.getOwnedProfile()) {
-                    for (Stereotype ste : profile.getDefinedStereotype()) {
-                        try {
-                            MClass steClass = getBaseClass(ste.getBaseClassName());
-                            if (metaclass.hasBase(steClass) && nameMatches(ste, stereotypeName)) {
-                                ret.add(ste);
-                            }
-                        } catch (MetaclassNotFoundException e) {
-                            reportBadMetaclass(ste, e);
-                        }
-                    }
-                }
-            }
-        }
-        return ret;
+        return new ArrayList<>(getIndex().findStereotypes(moduleName, stereotypeName, metaclass));
     }
 
     @objid ("7c8f22c6-8750-45f3-879c-f2eb1d3e14ea")
@@ -260,63 +158,17 @@ public class MModelServices implements IMModelServices {
     @objid ("008093fa-030f-1035-9f91-001ec947cd2a")
     @Override
     public List<TagType> findTagTypes(String moduleName, String ownerName, String tagTypeName, MClass metaclass) {
-        List<TagType> ret = new ArrayList<>();
-        
-        for (ModuleComponent module : getModel().findByClass(ModuleComponent.class)) {
-            if (nameMatches(module, moduleName)) {
-                for (Profile profile : module.getOwnedProfile()) {
-                    for (MetaclassReference reference : profile.getOwnedReference()) {
-                        try {
-                            MClass referenceClass = getBaseClass(reference.getReferencedClassName());
-                            if (metaclass.hasBase(referenceClass) && inheritsFrom(referenceClass, ownerName)) {
-                                for (TagType tagType : reference.getDefinedTagType()) {
-                                    if (nameMatches(tagType, tagTypeName)) {
-                                        ret.add(tagType);
-                                    }
-                                }
-                            }
-                        } catch (MetaclassNotFoundException e) {
-                            reportBadMetaclass(reference, e);
-                        }
-                    }
-        
-                    for (Stereotype ste : profile.getDefinedStereotype()) {
-                        if (nameMatches(ste.getModule(), moduleName)) {
-                            try {
-                                MClass steClass = getBaseClass(ste.getBaseClassName());
-                                if (metaclass.hasBase(steClass) && inheritsFrom(ste, ownerName)) {
-                                    for (TagType tagType : ste.getDefinedTagType()) {
-                                        if (nameMatches(tagType, tagTypeName)) {
-                                            ret.add(tagType);
-                                        }
-                                    }
-                                }
-                            } catch (MetaclassNotFoundException e) {
-                                reportBadMetaclass(ste, e);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return ret;
+        return new ArrayList<>(getIndex().findTagTypes(moduleName, ownerName, tagTypeName, metaclass));
     }
 
     @objid ("007ddfac-030f-1035-9f91-001ec947cd2a")
     @Override
     public NoteType getNoteType(String moduleName, String ownerName, String noteTypeName, MClass metaclass) throws ElementNotUniqueException {
-        NoteType type = this.extensionCache.getNoteType(moduleName, ownerName, noteTypeName, metaclass);
-        if (type != null) {
-            return type;
-        }
-        
-        List<NoteType> noteTypes = findNoteTypes(moduleName, ownerName, noteTypeName, metaclass);
+        List<NoteType> noteTypes = getIndex().findNoteTypes(moduleName, ownerName, noteTypeName, metaclass);
         if (noteTypes.isEmpty()) {
             return null;
         } else if (noteTypes.size() == 1) {
-            type = noteTypes.get(0);
-            this.extensionCache.add(moduleName, metaclass, type);
-            return type;
+            return noteTypes.get(0);
         } else {
             throw new ElementNotUniqueException(MessageFormat.format("''{0}'' is not a unique NoteType for ''{1}'' metaclass in ''{2}'' module.", noteTypeName, metaclass.getQualifiedName(), moduleName));
         }
@@ -325,18 +177,11 @@ public class MModelServices implements IMModelServices {
     @objid ("007f9838-030f-1035-9f91-001ec947cd2a")
     @Override
     public ResourceType getResourceType(String moduleName, String ownerName, String resourceTypeName, MClass metaclass) throws ElementNotUniqueException {
-        ResourceType type = this.extensionCache.getResourceType(moduleName, ownerName, resourceTypeName, metaclass);
-        if (type != null) {
-            return type;
-        }
-        
-        List<ResourceType> resourceTypes = findResourceTypes(moduleName, ownerName, resourceTypeName, metaclass);
+        List<ResourceType> resourceTypes = getIndex().findResourceTypes(moduleName, ownerName, resourceTypeName, metaclass);
         if (resourceTypes.isEmpty()) {
             return null;
         } else if (resourceTypes.size() == 1) {
-            type = resourceTypes.get(0);
-            this.extensionCache.add(moduleName, metaclass, type);
-            return type;
+            return resourceTypes.get(0);
         } else {
             throw new ElementNotUniqueException(MessageFormat.format("''{0}'' is not a unique ResourceType for ''{1}'' metaclass in ''{2}'' module.", resourceTypeName, metaclass.getQualifiedName(), moduleName));
         }
@@ -345,7 +190,7 @@ public class MModelServices implements IMModelServices {
     @objid ("5a88b537-7d84-42a0-ad2a-1b48243e17e5")
     @Override
     public Stereotype getStereotype(String moduleName, String stereotypeName, MClass metaclass) throws ElementNotUniqueException {
-        List<Stereotype> results = findStereotypes(moduleName, stereotypeName, metaclass);
+        List<Stereotype> results = getIndex().findStereotypes(moduleName, stereotypeName, metaclass);
         if (results.isEmpty()) {
             return null;
         } else if (results.size() == 1) {
@@ -365,18 +210,11 @@ public class MModelServices implements IMModelServices {
     @objid ("0080f4a8-030f-1035-9f91-001ec947cd2a")
     @Override
     public TagType getTagType(String moduleName, String ownerType, String tagTypeName, MClass metaclass) throws ElementNotUniqueException {
-        TagType type = this.extensionCache.getTagType(moduleName, ownerType, tagTypeName, metaclass);
-        if (type != null) {
-            return type;
-        }
-        
-        List<TagType> tagTypes = findTagTypes(moduleName, ownerType, tagTypeName, metaclass);
+        List<TagType> tagTypes = getIndex().findTagTypes(moduleName, ownerType, tagTypeName, metaclass);
         if (tagTypes.isEmpty()) {
             return null;
         } else if (tagTypes.size() == 1) {
-            type = tagTypes.get(0);
-            this.extensionCache.add(moduleName, metaclass, type);
-            return type;
+            return tagTypes.get(0);
         } else {
             throw new ElementNotUniqueException(tagTypeName + " is not a unique TagType for " + metaclass.getName() + " in " + moduleName);
         }
@@ -384,11 +222,16 @@ public class MModelServices implements IMModelServices {
 
     /**
      * Invalidate the service and prevent further usage.
+     * <p>
+     * Also discards the session {@link ExtensionIndex}.
      * 
      * @param object a dummy parameter
      */
     @objid ("00913a16-0eae-1035-9f91-001ec947cd2a")
     public void invalidateProject(Object object) {
+        if (this.session != null) {
+            ExtensionIndex.dispose(this.session);
+        }
         this.session = null;
         this.tools = null;
     }
@@ -438,6 +281,14 @@ public class MModelServices implements IMModelServices {
         return smBase;
     }
 
+    @objid ("d227eb81-b603-447c-a6aa-192276d995e8")
+    private ExtensionIndex getIndex() throws IllegalStateException {
+        if (this.session == null) {
+            throw new IllegalStateException("The project is not open.");
+        }
+        return ExtensionIndex.get(this.session);
+    }
+
     @objid ("84203a74-2f0f-11e2-8f81-001ec947ccaf")
     private IModel getModel() throws IllegalStateException {
         if (this.session == null) {
@@ -467,47 +318,4 @@ public class MModelServices implements IMModelServices {
         }
     }
 
-    /**
-     * Answer to the question: does 'stereotype' or one of its inheritance parent matches the given 'stereotypeName'.
-     * 
-     * @param stereotype a stereotype
-     * @param stereotypeName the name of a stereotype.
-     * @return <code>true</code> if 'stereotype' or one of its inheritance parent matches the given 'stereotypeName'.
-     */
-    @objid ("cbc7dbe7-cb47-4edb-acbd-1cbcfe6bc7e7")
-    private boolean inheritsFrom(Stereotype stereotype, String stereotypeName) {
-        if (nameMatches(stereotype, stereotypeName)) {
-            return true;
-        }
-        
-        if (stereotype.getParent() != null) {
-            if (inheritsFrom(stereotype.getParent(), stereotypeName)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Answer to the question: does 'metaclass' or one of its inheritance parent matches the given 'metaclassName'.
-     * 
-     * @param metaclass a metaclass
-     * @param metaclassName the name of a metaclass.
-     * @return <code>true</code> if 'metaclass' or one of its inheritance parent matches the given 'metaclassName'.
-     */
-    @objid ("99cc2ba6-37dc-4908-a49f-1dc8fb85478f")
-    private boolean inheritsFrom(MClass metaclass, String metaclassName) {
-        String name = metaclass.getQualifiedName();
-        if (name.matches((metaclassName == null || metaclassName.isEmpty()) ? ".*" : metaclassName) || name.equals(metaclassName)) {
-            return true;
-        }
-        
-        if (metaclass.getSuper() != null) {
-            if (inheritsFrom(metaclass.getSuper(), metaclassName)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
 }
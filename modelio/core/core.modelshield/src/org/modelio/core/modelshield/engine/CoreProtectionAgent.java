@@ -25,6 +25,7 @@ import org.modelio.core.modelshield.CheckStatus;
 import org.modelio.core.modelshield.IProtectionAgent;
 import org.modelio.core.modelshield.engine.execution.ObjectProcessor;
 import org.modelio.core.modelshield.engine.execution.TransactionProcessor;
+import org.modelio.core.modelshield.engine.plan.CompiledPlan;
 import org.modelio.core.modelshield.engine.plan.CompositePlan;
 import org.modelio.core.modelshield.engine.plan.IModelShieldPlan;
 import org.modelio.core.modelshield.engine.plan.Plan;
@@ -51,12 +52,22 @@ public class CoreProtectionAgent implements IProtectionAgent {
     @objid ("00079e32-09c6-1f4d-b2b8-001ec947cd2a")
     private final CompositePlan plan;
 
+    @objid ("15ced0cf-05ba-478a-823b-82aa48789ae0")
+    private final SmMetamodel metamodel;
+
+    /**
+     * Dispatch table compiled from {@link #plan}, <code>null</code> when it has to be compiled again.
+     */
+    @objid ("c490141d-927e-47db-a399-2a28064605a4")
+    private volatile CompiledPlan compiledPlan;
+
     /**
      * @param session the core session
      */
     @objid ("0008c9ec-09c6-1f4d-b2b8-001ec947cd2a")
     public CoreProtectionAgent(ICoreSession session) {
         this.plan = new CompositePlan();
+        this.metamodel = session.getMetamodel();
         initCheckers( session);
     }
 
@@ -77,7 +88,7 @@ public class CoreProtectionAgent implements IProtectionAgent {
     public CheckStatus check(final Transaction theTransaction, final IErrorReport report) {
         ShieldContext context = new ShieldContext(report);
         
-        TransactionProcessor v = new TransactionProcessor(this.plan);
+        TransactionProcessor v = new TransactionProcessor(getCompiledPlan());
         v.check(theTransaction, context);
         return report.getEntries().isEmpty() ? CheckStatus.Success : CheckStatus.Fail;
     }
@@ -118,12 +129,29 @@ public class CoreProtectionAgent implements IProtectionAgent {
         
         if (integratedCheckers != null) {
             Plan fragPlan = new Plan();
-            this.plan.addPlan(fragment, fragPlan);
         
             // register integrated checkers
             integratedCheckers.createCheckers(fragPlan, mm);
         
+            this.plan.addPlan(fragment, fragPlan);
+        }
+        
+        this.compiledPlan = null;
+    }
+
+    /**
+     * Get the plan compiled for the current metamodel, compile it if needed.
+     * 
+     * @return the compiled plan.
+     */
+    @objid ("f404f66d-1977-46d5-82d8-272a3572fad4")
+    private CompiledPlan getCompiledPlan() {
+        CompiledPlan ret = this.compiledPlan;
+        if (ret == null) {
+            ret = new CompiledPlan(this.plan, this.metamodel);
+            this.compiledPlan = ret;
         }
+        return ret;
     }
 
     /**
@@ -146,13 +174,16 @@ public class CoreProtectionAgent implements IProtectionAgent {
         @objid ("23767539-5db6-4d3b-9009-7132340d241f")
         @Override
         public void metamodelFragmentRemoved(MMetamodel metamodel, MMetamodelFragment fragment) {
-            // ignore : the plan is already removed in removingMetamodelFragment(...)
+            // the plan is already removed in removingMetamodelFragment(...),
+            // only metaclass identifiers may have changed
+            CoreProtectionAgent.this.compiledPlan = null;
         }
 
         @objid ("5d0381f0-7c38-4ee8-9148-d115e2132676")
         @Override
         public void removingMetamodelFragment(MMetamodel metamodel, MMetamodelFragment fragment) {
             CoreProtectionAgent.this.plan.removeFragment(fragment);
+            CoreProtectionAgent.this.compiledPlan = null;
         }
 
     }
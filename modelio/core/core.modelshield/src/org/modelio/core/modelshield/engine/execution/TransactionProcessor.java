@@ -20,8 +20,10 @@
 
 package org.modelio.core.modelshield.engine.execution;
 
+import java.util.HashSet;
+import java.util.Set;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
-import org.modelio.core.modelshield.engine.plan.IModelShieldPlan;
+import org.modelio.core.modelshield.engine.plan.CompiledPlan;
 import org.modelio.core.modelshield.internal.ShieldContext;
 import org.modelio.vcore.session.impl.transactions.Transaction;
 import org.modelio.vcore.session.impl.transactions.smAction.AppendDependencyAction;
@@ -34,14 +36,16 @@ import org.modelio.vcore.session.impl.transactions.smAction.SetAttributeAction;
 import org.modelio.vcore.session.impl.transactions.smAction.smActionInteractions.IActionVisitor;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.modelshield.api.TriggerType;
+import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
+import org.modelio.vcore.smkernel.meta.SmFeature;
 
 @objid ("00280c2c-0000-0488-0000-000000000000")
 public class TransactionProcessor {
     @objid ("006ad6a0-13d2-1f62-8473-001ec947cd2a")
-    private final IModelShieldPlan plan;
+    private final CompiledPlan plan;
 
     @objid ("006af504-13d2-1f62-8473-001ec947cd2a")
-    public TransactionProcessor(final IModelShieldPlan plan) {
+    public TransactionProcessor(final CompiledPlan plan) {
         this.plan = plan;
     }
 
@@ -54,7 +58,16 @@ public class TransactionProcessor {
     @objid ("006b2812-13d2-1f62-8473-001ec947cd2a")
     private static class ActionVisitor implements IActionVisitor {
         @objid ("54d840a2-2e72-11de-b561-001ec947cd2a")
-        private final PlanExecution planExecutor;
+        private final CompiledPlan plan;
+
+        /**
+         * (object, trigger, feature) triplets already dispatched.
+         * <p>
+         * The checkers to run only depend on the triplet and the {@link ShieldContext}
+         * already runs each checker once per object: dispatching the same triplet again is useless.
+         */
+        @objid ("dacf99a4-c106-4553-bdf2-58bebb647715")
+        private final Set<ActionKey> dispatched = new HashSet<>();
 
         @objid ("0028140c-0000-005b-0000-000000000000")
         private final ShieldContext context;
@@ -82,13 +95,13 @@ public class TransactionProcessor {
         @objid ("00280c2c-0000-0497-0000-000000000000")
         @Override
         public void visitSetAttributeAction(final SetAttributeAction action) {
-            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getAtt().getName());
+            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getAtt());
         }
 
         @objid ("00280c2c-0000-049b-0000-000000000000")
         @Override
         public void visitEraseDependencyAction(final EraseDependencyAction action) {
-            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getDep().getName());
+            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getDep());
             if (action.getDep().isComponent() && action.getRef() != null) {
                 executeCheckersFor(action.getRef(), TriggerType.Move, null);
             }
@@ -97,7 +110,7 @@ public class TransactionProcessor {
         @objid ("00280c2c-0000-049f-0000-000000000000")
         @Override
         public void visitAppendDependencyAction(final AppendDependencyAction action) {
-            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getDep().getName());
+            executeCheckersFor(action.getRefered(), TriggerType.Update, action.getDep());
             if (action.getDep().isComponent() && action.getRef() != null) {
                 executeCheckersFor(action.getRef(), TriggerType.Move, null);
             }
@@ -106,23 +119,70 @@ public class TransactionProcessor {
         @objid ("00280c2c-0000-04a3-0000-000000000000")
         @Override
         public void visitMoveDependencyAction(final MoveDependencyAction action) {
-            executeCheckersFor(action.getRefered(), TriggerType.ReorderTrigger, action.getDep().getName());
+            executeCheckersFor(action.getRefered(), TriggerType.ReorderTrigger, action.getDep());
         }
 
         @objid ("00280c2c-0000-04a6-0000-000000000000")
-        public ActionVisitor(final ShieldContext context, final IModelShieldPlan plan) {
+        public ActionVisitor(final ShieldContext context, final CompiledPlan plan) {
             this.context = context;
-            this.planExecutor = new PlanExecution(plan);
+            this.plan = plan;
         }
 
         @objid ("00280c2c-0000-04ae-0000-000000000000")
-        private void executeCheckersFor(MObject obj, final TriggerType trigger, final String feature) {
-            // if (!obj.isDeleted() && !obj.isTobeDeleted() &&
-            // !obj.isRamcObject())
-            // {
-            this.planExecutor.process(this.context, obj, trigger, feature);
-            // obj.accept(planExecutor);
-            // }
+        private void executeCheckersFor(MObject obj, final TriggerType trigger, final SmFeature feature) {
+            if (! this.dispatched.add(new ActionKey(obj, trigger, feature))) {
+                return;
+            }
+            
+            for (IChecker checker : this.plan.getCheckers(trigger, obj, feature)) {
+                this.context.applyChecker(checker, obj);
+            }
+        }
+
+    }
+
+    /**
+     * Key of a dispatched action.
+     */
+    @objid ("e71555f1-8524-48eb-8619-6ae208bfe225")
+    private static final class ActionKey {
+        @objid ("72f8437a-1a3e-46f7-9d29-de33d4bc4d3c")
+        private final MObject obj;
+
+        @objid ("ccfd499e-91f0-45bf-86b9-b8527f810237")
+        private final TriggerType trigger;
+
+        @objid ("dda37ec6-0d20-44cf-a11a-e57af63381cd")
+        private final SmFeature feature;
+
+        @objid ("1914fbf7-6578-4e6e-b235-16a46a514dd8")
+        public ActionKey(MObject obj, TriggerType trigger, SmFeature feature) {
+            this.obj = obj;
+            this.trigger = trigger;
+            this.feature = feature;
+        }
+
+        @objid ("70320dd0-d605-4995-b0b1-ffe927abc764")
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = System.identityHashCode(this.obj);
+            result = prime * result + this.trigger.hashCode();
+            result = prime * result + System.identityHashCode(this.feature);
+            return result;
+        }
+
+        @objid ("fda6a3ee-39c4-4619-9cf4-5ff3eaef2c26")
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ActionKey)) {
+                return false;
+            }
+            ActionKey k = (ActionKey) other;
+            return this.obj == k.obj && this.trigger == k.trigger && this.feature == k.feature;
         }
 
     }
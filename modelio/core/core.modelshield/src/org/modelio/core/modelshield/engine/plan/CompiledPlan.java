@@ -0,0 +1,187 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.core.modelshield.engine.plan;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.modelshield.api.TriggerType;
+import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
+import org.modelio.vcore.smkernel.meta.SmClass;
+import org.modelio.vcore.smkernel.meta.SmDependency;
+import org.modelio.vcore.smkernel.meta.SmFeature;
+import org.modelio.vcore.smkernel.meta.SmMetamodel;
+
+/**
+ * Immutable dispatch table compiled from another {@link IModelShieldPlan}.
+ * <p>
+ * Checkers are stored in arrays indexed by {@link SmClass#getId() metaclass id} and trigger type.
+ * Update checkers are looked up by feature identity instead of feature name.
+ * <p>
+ * The compiled plan must be built again each time the source plan or the metamodel changes.
+ * Metaclasses unknown at compile time are delegated to the source plan.
+ * @since 4.1
+ */
+@objid ("4093fb9d-677f-4aea-9f6e-13f36bd2f74e")
+public final class CompiledPlan implements IModelShieldPlan {
+    @objid ("96dbdb2a-38d7-4378-9fe2-e4d23da28106")
+    private static final IChecker[] NOCHECKERS = new IChecker[0];
+
+    @objid ("c2ca95cb-bb49-4616-ac9b-f5c864073ced")
+    private static final TriggerType[] TRIGGERS = TriggerType.values();
+
+    @objid ("5eb125c1-8709-4805-a389-83f0b516f604")
+    private final IModelShieldPlan source;
+
+    /**
+     * Checkers indexed by metaclass id then by trigger type ordinal.
+     * <p>
+     * The {@link TriggerType#Update} and {@link TriggerType#ReorderTrigger} slots are not used
+     * for features, see {@link #featureCheckers}.
+     */
+    @objid ("044ee53f-f730-449d-b039-4b0613b0a4b1")
+    private final IChecker[][][] triggerCheckers;
+
+    /**
+     * Update and reorder checkers indexed by metaclass id then by feature.
+     * <p>
+     * The feature map values are indexed by trigger type ordinal.
+     */
+    @objid ("5cf1ec5e-7fcd-488e-bfcb-2f6d9725e7f7")
+    private final Map<SmFeature, IChecker[][]>[] featureCheckers;
+
+    @objid ("4701b287-c248-4f40-a429-01215936e2cf")
+    private final SmClass[] metaclasses;
+
+    /**
+     * Compile a plan for all the metaclasses registered in the metamodel.
+     * 
+     * @param source the plan to compile.
+     * @param mm the metamodel.
+     */
+    @objid ("527a065b-fee8-46ad-8a12-3ca36c99b80d")
+    @SuppressWarnings ("unchecked")
+    public CompiledPlan(IModelShieldPlan source, SmMetamodel mm) {
+        this.source = source;
+        
+        List<SmClass> classes = mm.getRegisteredMClasses();
+        int size = 0;
+        for (SmClass cls : classes) {
+            size = Math.max(size, cls.getId() + 1);
+        }
+        
+        this.metaclasses = new SmClass[size];
+        this.triggerCheckers = new IChecker[size][][];
+        this.featureCheckers = new Map[size];
+        
+        for (SmClass cls : classes) {
+            if (cls.isAbstract()) {
+                // Checkers are never registered on abstract metaclasses
+                continue;
+            }
+        
+            IChecker[][] byTrigger = new IChecker[TriggerType.values().length][];
+            for (TriggerType trigger : CompiledPlan.TRIGGERS) {
+                if (trigger != TriggerType.Update) {
+                    byTrigger[trigger.ordinal()] = toArray(source.getApplicableCheckers(trigger, cls, null));
+                }
+            }
+        
+            Map<SmFeature, IChecker[][]> byFeature = new IdentityHashMap<>();
+            for (SmAttribute att : cls.getAllAttDef()) {
+                byFeature.put(att, compileFeature(source, cls, att));
+            }
+            for (SmDependency dep : cls.getAllDepDef()) {
+                byFeature.put(dep, compileFeature(source, cls, dep));
+            }
+        
+            this.metaclasses[cls.getId()] = cls;
+            this.triggerCheckers[cls.getId()] = byTrigger;
+            this.featureCheckers[cls.getId()] = byFeature;
+        }
+    }
+
+    /**
+     * Get the checkers to run on an object for the given trigger.
+     * 
+     * @param trigger the trigger type
+     * @param obj the modified object
+     * @param feature the modified feature for {@link TriggerType#Update} and {@link TriggerType#ReorderTrigger} triggers, ignored for others.
+     * @return the checkers to run. Must not be modified.
+     */
+    @objid ("703e7f9f-564e-42fa-acc0-19c68ffe9974")
+    public IChecker[] getCheckers(TriggerType trigger, MObject obj, SmFeature feature) {
+        return getCheckers(trigger, (SmClass) obj.getMClass(), feature);
+    }
+
+    @objid ("fdaec3e6-27a1-4f73-9f40-78a9b14a53aa")
+    private IChecker[] getCheckers(TriggerType trigger, SmClass cls, SmFeature feature) {
+        int id = cls.getId();
+        if (id >= this.metaclasses.length || this.metaclasses[id] != cls) {
+            // Metaclass registered after compilation
+            return toArray(this.source.getApplicableCheckers(trigger, cls, feature == null ? null : feature.getName()));
+        }
+        
+        if (feature != null && (trigger == TriggerType.Update || trigger == TriggerType.ReorderTrigger)) {
+            IChecker[][] byTrigger = this.featureCheckers[id].get(feature);
+            if (byTrigger == null) {
+                return toArray(this.source.getApplicableCheckers(trigger, cls, feature.getName()));
+            }
+            return byTrigger[trigger.ordinal()];
+        }
+        
+        IChecker[] ret = this.triggerCheckers[id][trigger.ordinal()];
+        return ret != null ? ret : CompiledPlan.NOCHECKERS;
+    }
+
+    @objid ("12aad736-88c6-4d7e-aa9b-de2251708584")
+    @Override
+    public Collection<IChecker> getApplicableCheckers(TriggerType trigger, MClass mc, String feature) {
+        SmClass cls = (SmClass) mc;
+        SmFeature smFeature = null;
+        if (feature != null) {
+            smFeature = cls.getAttributeDef(feature);
+            if (smFeature == null) {
+                smFeature = cls.getDependencyDef(feature);
+            }
+        }
+        return Arrays.asList(getCheckers(trigger, cls, smFeature));
+    }
+
+    @objid ("65c68366-17fb-48ae-ba12-be4ef717bc20")
+    private static IChecker[][] compileFeature(IModelShieldPlan source, SmClass cls, SmFeature feature) {
+        IChecker[][] ret = new IChecker[TriggerType.values().length][];
+        ret[TriggerType.Update.ordinal()] = toArray(source.getApplicableCheckers(TriggerType.Update, cls, feature.getName()));
+        ret[TriggerType.ReorderTrigger.ordinal()] = toArray(source.getApplicableCheckers(TriggerType.ReorderTrigger, cls, feature.getName()));
+        return ret;
+    }
+
+    @objid ("9625538b-5a09-435c-b79e-9f79891a9260")
+    private static IChecker[] toArray(Collection<IChecker> checkers) {
+        return checkers.isEmpty() ? CompiledPlan.NOCHECKERS : checkers.toArray(new IChecker[checkers.size()]);
+    }
+
+}
@@ -25,8 +25,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.mapi.MClass;
 import org.modelio.vcore.smkernel.mapi.MMetamodelFragment;
-import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.modelshield.api.TriggerType;
 import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
 
@@ -47,11 +47,11 @@ public class CompositePlan implements IModelShieldPlan {
 
     @objid ("93de42a5-42d3-413f-8b55-9c6decc7275f")
     @Override
-    public Collection<IChecker> getApplicableCheckers(TriggerType trigger, MObject obj, String feature) {
+    public Collection<IChecker> getApplicableCheckers(TriggerType trigger, MClass mc, String feature) {
         Collection<IChecker> ret = new ArrayList<>();
         
         for (IModelShieldPlan plan : this.plans.values()) {
-            ret.addAll(plan.getApplicableCheckers(trigger, obj, feature));
+            ret.addAll(plan.getApplicableCheckers(trigger, mc, feature));
         }
         return ret;
     }
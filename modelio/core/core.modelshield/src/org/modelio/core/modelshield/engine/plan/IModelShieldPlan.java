@@ -22,6 +22,7 @@ package org.modelio.core.modelshield.engine.plan;
 
 import java.util.Collection;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.mapi.MClass;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.modelshield.api.TriggerType;
 import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
@@ -29,6 +30,20 @@ import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
 @objid ("0d4297bb-4046-4200-a418-bca4e481bc1b")
 public interface IModelShieldPlan {
     @objid ("0063cbdb-b29c-48c0-ac68-1fea5b3cc6fd")
-    Collection<IChecker> getApplicableCheckers(final TriggerType trigger, final MObject obj, final String feature);
+    default Collection<IChecker> getApplicableCheckers(final TriggerType trigger, final MObject obj, final String feature) {
+        return getApplicableCheckers(trigger, obj.getMClass(), feature);
+    }
+
+    /**
+     * Get the checkers to run on instances of a metaclass for the given trigger.
+     * 
+     * @param trigger the trigger type
+     * @param mc a concrete metaclass
+     * @param feature the modified feature name for {@link TriggerType#Update} triggers.
+     * @return the checkers to run.
+     * @since 4.1
+     */
+    @objid ("eea3ad90-031f-4a90-ad3e-9277760be2d8")
+    Collection<IChecker> getApplicableCheckers(final TriggerType trigger, final MClass mc, final String feature);
 
 }
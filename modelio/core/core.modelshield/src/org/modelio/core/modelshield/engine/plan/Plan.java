@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.smkernel.mapi.MClass;
-import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.modelshield.api.IModelShieldRegistry;
 import org.modelio.vcore.smkernel.mapi.modelshield.api.TriggerType;
 import org.modelio.vcore.smkernel.mapi.modelshield.spi.IChecker;
@@ -66,8 +65,12 @@ public class Plan implements IModelShieldRegistry, IModelShieldPlan {
 
     @objid ("00448c20-f904-1f61-8473-001ec947cd2a")
     @Override
-    public Collection<IChecker> getApplicableCheckers(final TriggerType trigger, final MObject obj, final String feature) {
-        MetaclassPlan metaclassPlan = getMetaclassPlan(obj.getMClass());
+    public Collection<IChecker> getApplicableCheckers(final TriggerType trigger, final MClass mc, final String feature) {
+        MetaclassPlan metaclassPlan = this.metaclassPlans.get(mc);
+        if (metaclassPlan == null) {
+            return Collections.emptyList();
+        }
+        
         switch (trigger) {
         case Create:
             return metaclassPlan.getCreateCheckers();
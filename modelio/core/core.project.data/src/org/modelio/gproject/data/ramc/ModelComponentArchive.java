@@ -20,7 +20,6 @@
 
 package org.modelio.gproject.data.ramc;
 
-import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -53,7 +52,6 @@ import org.modelio.gproject.data.project.GProperties;
 import org.modelio.gproject.data.ramc.IModelComponentInfos.ExportedFile;
 import org.modelio.vbasic.files.FileUtils;
 import org.modelio.vbasic.files.StreamException;
-import org.modelio.vbasic.files.Unzipper;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vbasic.progress.SubProgress;
@@ -271,22 +269,12 @@ public class ModelComponentArchive {
             SubProgress subMonitor = SubProgress.convert(monitor, 30);
             subMonitor.subTask(GProjectData.I18N.getMessage("MC.Archive.ExtractModelComponent", ramcFile.getFileName()));
             
-            try (TmpDir tmpDirectory = new TmpDir(deploymentPath)) {
-                // Unzip the archive
-                unzipRamc(ramcFile, tmpDirectory.path, subMonitor.newChild(10));
-            
-                deployFromDirectory(tmpDirectory.path, deploymentPath, subMonitor);
+            // Copy the files straight from the archive
+            try (FileSystem fs = ManifestReader.createZipFileSystem(ramcFile)) {
+                deployFromDirectory(fs.getPath("/"), deploymentPath, subMonitor);
             }
         }
 
-        @objid ("a020c854-cc36-11e1-87f1-001ec947ccaf")
-        private void unzipRamc(Path ramcFile, Path ramcDirectory, IModelioProgress monitor) throws IOException {
-            SubProgress subMonitor = SubProgress.convert(monitor);
-            Unzipper unzipper = new Unzipper();
-            unzipper.setProgressLabelPrefix(GProjectData.I18N.getMessage("MC.Archive.ExtractModelComponent", ramcFile.getFileName()));
-            unzipper.unzip(ramcFile, ramcDirectory, subMonitor);
-        }
-
         @objid ("a020c859-cc36-11e1-87f1-001ec947ccaf")
         private Element openMetadata(Path ramcPath) throws IOException {
             Path metadataFile = ramcPath.resolve(ModelComponentArchive.METADATAS_XML);
@@ -666,27 +654,4 @@ public class ModelComponentArchive {
 
     }
 
-    /**
-     * Creates a temporary directory on instantiation and delete it on {@link #close()}
-     */
-    @objid ("ebc9aad3-0314-4456-a933-05f9f992c6d6")
-    private static class TmpDir implements Closeable {
-        @objid ("4dd06cf1-24f5-4ee9-9bd4-dfa2e2f23ce1")
-         final Path path;
-
-        @objid ("71de2a7d-9ff8-4c54-9549-c24d09063055")
-        public TmpDir(Path deploymentPath) throws IOException {
-            this.path = Files.createTempDirectory(deploymentPath, ".tmp-deployment");
-        }
-
-        @objid ("c0870711-6fc2-497c-9dbe-620f8b269ee5")
-        @Override
-        public void close() throws IOException {
-            if (this.path != null) {
-                FileUtils.delete(this.path);
-            }
-        }
-
-    }
-
 }
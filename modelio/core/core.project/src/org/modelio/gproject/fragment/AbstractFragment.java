@@ -299,6 +299,7 @@ public abstract class AbstractFragment implements IProjectFragment {
             repository.getErrorSupport().addErrorListener(getRepositoryErrorSupport());
             IAccessManager accessManager = doInitAccessManager();
             this.gproject.getSession().getRepositorySupport().connectRepository(repository, getId(), accessManager, mon);
+            applyMemoryBudget(repository);
         
             mon.setWorkRemaining(100);
             doMountPostConnect(mon);
@@ -319,6 +320,28 @@ public abstract class AbstractFragment implements IProjectFragment {
         }
     }
 
+    /**
+     * Apply the {@link #PROP_MEMORY_BUDGET} fragment property to the connected repository.
+     * @param repository the connected fragment repository.
+     */
+    @objid ("82079104-f548-4e57-bee6-c638a721ec4b")
+    private void applyMemoryBudget(IRepository repository) {
+        String value = getProperties().getValue(PROP_MEMORY_BUDGET);
+        if (value == null || value.trim().isEmpty()) {
+            return;
+        }
+        
+        try {
+            int maxObjects = Integer.parseInt(value.trim());
+            if (maxObjects < 0) {
+                throw new NumberFormatException(value);
+            }
+            this.gproject.getSession().getRepositorySupport().setMemoryBudget(repository, maxObjects);
+        } catch (NumberFormatException e) {
+            Log.warning("'%s' fragment: invalid '%s' property value ignored: '%s'", getId(), PROP_MEMORY_BUDGET, value);
+        }
+    }
+
     @objid ("8ed62b30-07f4-11e2-b193-001ec947ccaf")
     @Override
     public final void unmount() {
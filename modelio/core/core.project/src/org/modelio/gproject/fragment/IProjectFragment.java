@@ -58,6 +58,17 @@ public interface IProjectFragment {
     @objid ("c0e73380-379f-4cd3-b33f-cb685cc2f3b4")
     public static final String PROP_READ_ONLY = "readonly";
 
+    /**
+     * Property that limits the number of model objects of the fragment kept in memory.
+     * <p>
+     * The value is a count of loaded objects, not a memory size.
+     * Objects beyond it are swapped, the least recently accessed first.
+     * Absent or 0 means no limit.
+     * @since 4.1
+     */
+    @objid ("3bde7e02-bec7-4da4-872f-fd5e4c4bed9b")
+    public static final String PROP_MEMORY_BUDGET = "memory.budget";
+
     /**
      * Delete the fragment from the disk.
      * 
@@ -77,6 +77,14 @@ public class ExmlFragment extends AbstractFragment {
     @objid ("f4d8467b-aa5a-11e1-8392-001ec947ccaf")
     public static final FragmentType TYPE = FragmentType.EXML;
 
+    /**
+     * Fragment property that enables binary snapshots of the EXML resources
+     * in the fragment runtime directory, to load the model faster.
+     * @since 4.1
+     */
+    @objid ("40877c6f-27ec-4502-88d2-0b6353670877")
+    public static final String PROP_EXML_SNAPSHOTS = "exml.snapshots";
+
     @objid ("c1778ccd-95da-11e1-ac83-001ec947ccaf")
     private ExmlBase repository;
 
@@ -109,6 +117,7 @@ public class ExmlFragment extends AbstractFragment {
         final LocalExmlResourceProvider resProvider = createResourceProvider();
         
         this.repository = new ExmlBase(resProvider);
+        this.repository.setSnapshotsEnabled(Boolean.parseBoolean(getProperties().getValue(PROP_EXML_SNAPSHOTS)));
         
         // Create the project structure if new fragment
         if (! Files.isDirectory(location)) {
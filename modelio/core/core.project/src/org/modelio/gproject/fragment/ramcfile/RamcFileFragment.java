@@ -23,8 +23,15 @@ package org.modelio.gproject.fragment.ramcfile;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -41,7 +48,6 @@ import org.modelio.gproject.fragment.VersionHelper;
 import org.modelio.gproject.gproject.GProjectEvent;
 import org.modelio.gproject.plugin.CoreProject;
 import org.modelio.metamodel.StandardMetamodel;
-import org.modelio.vbasic.files.Unzipper;
 import org.modelio.vbasic.net.UriPathAccess;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vbasic.progress.SubProgress;
@@ -53,13 +59,17 @@ import org.modelio.vcore.session.impl.permission.BasicAccessManager;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.MetamodelVersionDescriptor;
 import org.modelio.vstore.exml.local.ExmlBase;
+import org.modelio.vstore.exml.resource.FsExmlResourceProvider;
 import org.modelio.vstore.exml.resource.IExmlRepositoryGeometry;
 import org.modelio.vstore.exml.resource.LocalExmlResourceProvider;
 
 /**
  * RAMC fragment stored in a .ramc file.
  * <p>
- * The RAMC archive is extracted to the data directory on mounting.
+ * The RAMC archive is copied to the data directory on first mounting, its model is then read
+ * directly from the archive. The index embedded in the archive is copied to the runtime directory.
+ * <p>
+ * RAMC extracted to the data directory by previous versions are still read from there.
  */
 @objid ("f0e56183-cc02-11e1-87f1-001ec947ccaf")
 public class RamcFileFragment extends AbstractFragment {
@@ -81,6 +91,13 @@ public class RamcFileFragment extends AbstractFragment {
     @objid ("bae38a1c-9935-4d5c-83da-1815dc1ede1b")
     private List<MObject> roots;
 
+    /**
+     * The file system opened on the RAMC archive while the fragment is mounted,
+     * <code>null</code> if the RAMC is extracted.
+     */
+    @objid ("ccab7aa8-77a1-4aee-839d-caa05b5e0cff")
+    private FileSystem archiveFs;
+
     /**
      * Initialize the RAMC fragment.
      * 
@@ -107,8 +124,14 @@ public class RamcFileFragment extends AbstractFragment {
     @objid ("cc07bd6d-d668-4067-b513-b7afaac79182")
     @Override
     public IModelComponentInfos getInformations() throws IOException {
-        final Path archivePath = extractRamcToLocal(null);
-        return new ModelComponentArchive(archivePath, false).getInfos();
+        if (this.archiveFs != null) {
+            return ModelComponentArchive.getInfos(this.archiveFs);
+        } else if (Files.isDirectory(getContentDirectory())) {
+            return ModelComponentArchive.getRamcDirectoryInfos(getContentDirectory());
+        } else {
+            final Path archivePath = copyRamcToLocal(null);
+            return new ModelComponentArchive(archivePath, true).getInfos();
+        }
     }
 
     @objid ("7420cca7-cc3e-11e1-87f1-001ec947ccaf")
@@ -136,15 +159,27 @@ public class RamcFileFragment extends AbstractFragment {
         final Path runtimePath = getRuntimeDirectory();
         Files.createDirectories(runtimePath);
         
-        // Copy the RAMC into the data directory if needed
-        final Path localUri = extractRamcToLocal(aMonitor);
+        closeArchive();
         
-        // The RAMC model is in a "model" sub directory.
-        this.modelLocation = localUri.resolve("model");
+        final LocalExmlResourceProvider resProvider;
+        if (Files.isDirectory(getContentDirectory())) {
+            // RAMC extracted by a previous version, the model is in a "model" sub directory.
+            this.modelLocation = getContentDirectory().resolve("model");
+            resProvider = new LocalExmlResourceProvider(this.modelLocation, this.modelLocation, getId());
+        } else {
+            // Copy the RAMC into the data directory if needed and read the model from the archive.
+            final Path archivePath = copyRamcToLocal(aMonitor);
+            this.archiveFs = openArchive(archivePath);
+            this.modelLocation = this.archiveFs.getPath("/", "model");
+            try {
+                resProvider = new FsExmlResourceProvider(this.modelLocation, runtimePath, getId());
+            } catch (IOException | RuntimeException e) {
+                closeArchive();
+                throw e;
+            }
+        }
         
         // Instantiate the repository.
-        final LocalExmlResourceProvider resProvider = new LocalExmlResourceProvider(this.modelLocation, this.modelLocation, getId());
-        
         this.repository = new ExmlBase(resProvider);
         return this.repository;
     }
@@ -153,6 +188,8 @@ public class RamcFileFragment extends AbstractFragment {
     @Override
     protected void doUnmountPostProcess() throws IOException {
         this.repository = null;
+        this.roots = null;
+        closeArchive();
     }
 
     @objid ("24310712-d0da-11e1-b069-001ec947ccaf")
@@ -168,7 +205,7 @@ public class RamcFileFragment extends AbstractFragment {
         if (this.roots == null) {
             this.roots = new ArrayList<>();
         
-            final IModelComponentInfos infos = ModelComponentArchive.getRamcDirectoryInfos(getContentDirectory());
+            final IModelComponentInfos infos = getInformations();
             for (final ModelRef mref : infos.getRoots()) {
                 final MObject obj = getRepository().findById(getProjectMetamodel().getMClass(mref.mc), mref.uuid);
                 if (obj != null) {
@@ -202,18 +239,18 @@ public class RamcFileFragment extends AbstractFragment {
     }
 
     /**
-     * Copy the RAMC file into the fragment data directory if the URI is not
-     * relative to the data directory.
+     * Copy the RAMC file into the fragment data directory if not already done,
+     * and deploy its exported files.
      * 
      * @param monitor a progress monitor
      * @return the local ramc file location
      * @throws java.io.IOException in case of failure.
      */
     @objid ("b419188e-0baa-11e2-bed6-001ec947ccaf")
-    private Path extractRamcToLocal(final IModelioProgress monitor) throws IOException {
-        final Path localRamcPath = getContentDirectory();
+    private Path copyRamcToLocal(final IModelioProgress monitor) throws IOException {
+        final Path localRamcPath = getArchivePath();
         
-        if (Files.isDirectory(localRamcPath)) {
+        if (Files.isRegularFile(localRamcPath)) {
             return localRamcPath;
         } else {
             // We have to copy the RAMC to local dir.
@@ -221,18 +258,23 @@ public class RamcFileFragment extends AbstractFragment {
         
             try (UriPathAccess acc = new UriPathAccess(this.uri, getAuthData())) {
                 final SubProgress mon = SubProgress.convert(monitor, 2);
-                final String progressLabel = CoreProject.I18N.getMessage("RamcFileFragment.ExtractRamcFrom", getId(), this.uri);
-                mon.subTask(progressLabel);
+                mon.subTask(CoreProject.I18N.getMessage("RamcFileFragment.CopyRamcFrom", getId(), this.uri));
         
-                new Unzipper()
-                .setProgressLabelPrefix(progressLabel)
-                .unzip(acc.getPath(), localRamcPath, mon.newChild(1));
+                // Copy aside so that an interrupted copy is not taken for the archive
+                final Path tmpPath = Files.createTempFile(getDataDirectory(), "archive", ".tmp");
+                try {
+                    Files.copy(acc.getPath(), tmpPath, StandardCopyOption.REPLACE_EXISTING);
+                    mon.worked(1);
         
-                // Deploy exported files
-                mon.subTask(CoreProject.I18N.getMessage("RamcFileFragment.DeployRamcFiles", getId(), this.uri));
-                new ModelComponentArchive(localRamcPath, false)
-                .installExportedFiles(getProject().getProjectFileStructure().getProjectPath(), mon.newChild(1));
+                    // Deploy exported files
+                    mon.subTask(CoreProject.I18N.getMessage("RamcFileFragment.DeployRamcFiles", getId(), this.uri));
+                    new ModelComponentArchive(tmpPath, true)
+                    .installExportedFiles(getProject().getProjectFileStructure().getProjectPath(), mon.newChild(1));
         
+                    Files.move(tmpPath, localRamcPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmpPath);
+                }
                 return localRamcPath;
             } catch (final MalformedURLException e1) {
                 final String msg = CoreProject.I18N.getMessage("RamcFileFragment.InvalidUri", this.uri, e1.getLocalizedMessage());
@@ -244,6 +286,34 @@ public class RamcFileFragment extends AbstractFragment {
         }
     }
 
+    /**
+     * Open a zip file system on a RAMC archive.
+     * 
+     * @param archivePath the RAMC archive path.
+     * @return the archive file system.
+     * @throws java.nio.file.FileSystemException if the archive cannot be opened.
+     * @throws java.io.IOException in case of I/O failure.
+     */
+    @objid ("20a077d2-3c0d-4f40-a5f4-a95d46fb03ee")
+    private static FileSystem openArchive(final Path archivePath) throws IOException {
+        try {
+            return FileSystems.newFileSystem(archivePath, RamcFileFragment.class.getClassLoader());
+        } catch (FileSystemNotFoundException | ProviderNotFoundException | FileSystemAlreadyExistsException e) {
+            final FileSystemException e2 = new FileSystemException(archivePath.toString(), null, e.getLocalizedMessage());
+            e2.initCause(e);
+            throw e2;
+        }
+    }
+
+    @objid ("01196013-e2f5-49a2-b37a-3727449d866b")
+    private void closeArchive() throws IOException {
+        if (this.archiveFs != null) {
+            final FileSystem fs = this.archiveFs;
+            this.archiveFs = null;
+            fs.close();
+        }
+    }
+
     /**
      * Delete other files deployed with the RAMC such as extern libraries
      * or source files.
@@ -253,7 +323,9 @@ public class RamcFileFragment extends AbstractFragment {
      */
     @objid ("85eb632b-e430-41b1-8852-4e6635050d84")
     private void removeExportedFilesOfFragment(final IModelioProgress monitor) throws IOException {
-        final ModelComponentArchive modelComponentArchive = new ModelComponentArchive(getContentDirectory(), false);
+        final ModelComponentArchive modelComponentArchive = Files.isDirectory(getContentDirectory())
+                ? new ModelComponentArchive(getContentDirectory(), false)
+                : new ModelComponentArchive(getArchivePath(), true);
         final Path deploymentPath = getProject().getProjectFileStructure().getProjectDataPath();
         modelComponentArchive.removeExportedFiles(deploymentPath, monitor);
     }
@@ -268,6 +340,16 @@ public class RamcFileFragment extends AbstractFragment {
         return getDataDirectory().resolve("content");
     }
 
+    /**
+     * Get the location of the RAMC archive copy.
+     * 
+     * @return the local RAMC archive path.
+     */
+    @objid ("4cce4966-a260-48da-aa8d-73539feb038a")
+    private Path getArchivePath() {
+        return getDataDirectory().resolve("archive.ramc");
+    }
+
     @objid ("39044ea2-7a39-47c3-b400-404b03190ea0")
     @Override
     public MetamodelVersionDescriptor getRequiredMetamodelDescriptor() throws IOException {
@@ -283,24 +365,15 @@ public class RamcFileFragment extends AbstractFragment {
         if (!found) {
             // Old RAMC with no metamodel version info.
             // Try to guess from file presence.
-            Version v;
-            final Path modelio2_model = getContentDirectory().resolve("model.xml");
-            final Path modelio3_stamp = getContentDirectory().resolve("model").resolve(IExmlRepositoryGeometry.ADMIN_DIRNAME).resolve("stamp.dat");
-            final Path modelio3_format_version = getContentDirectory().resolve("model").resolve(IExmlRepositoryGeometry.FORMAT_VERSION_PATH);
-            if (Files.isRegularFile(modelio3_format_version)) {
-                // Assume last Modelio 3.1.x - 8020 : 24/04/2012
-                // Modelio 3.1 - 9020: 28/11/2013
-                v = VersionHelper.convert(9020);
-            } else if (Files.isRegularFile(modelio3_stamp)) {
-                // Assume last Modelio 3.0.x :
-                // Modelio Phoenix 3.0 - 9017: 04/09/2013
-                v = VersionHelper.convert(9017);
-            } else if (Files.isRegularFile(modelio2_model)) {
-                // Assume last Modelio 2.2 - 8020 : 24/04/2012
-                v = VersionHelper.convert(8020);
+            final Version v;
+            if (this.archiveFs != null) {
+                v = guessMetamodelVersion(this.archiveFs.getPath("/"));
+            } else if (Files.isDirectory(getContentDirectory())) {
+                v = guessMetamodelVersion(getContentDirectory());
             } else {
-                // Set to Modelio 2.0 by default
-                v = VersionHelper.convert(8000);
+                try (FileSystem fs = openArchive(copyRamcToLocal(null))) {
+                    v = guessMetamodelVersion(fs.getPath("/"));
+                }
             }
         
             mmDesc.addDescriptor(new VersionedItem<Void>(StandardMetamodel.NAME, v));
@@ -308,6 +381,36 @@ public class RamcFileFragment extends AbstractFragment {
         return mmDesc;
     }
 
+    /**
+     * Guess the metamodel version of an old RAMC from the presence of some files.
+     * 
+     * @param contentRoot the RAMC content root directory.
+     * @return the guessed metamodel version.
+     */
+    @objid ("5e69d724-3dac-4d1c-9b95-629ce0b40380")
+    private static Version guessMetamodelVersion(final Path contentRoot) {
+        Version v;
+        final Path modelio2_model = contentRoot.resolve("model.xml");
+        final Path modelio3_stamp = contentRoot.resolve("model").resolve(IExmlRepositoryGeometry.ADMIN_DIRNAME).resolve("stamp.dat");
+        final Path modelio3_format_version = contentRoot.resolve("model").resolve(IExmlRepositoryGeometry.FORMAT_VERSION_PATH);
+        if (Files.isRegularFile(modelio3_format_version)) {
+            // Assume last Modelio 3.1.x - 8020 : 24/04/2012
+            // Modelio 3.1 - 9020: 28/11/2013
+            v = VersionHelper.convert(9020);
+        } else if (Files.isRegularFile(modelio3_stamp)) {
+            // Assume last Modelio 3.0.x :
+            // Modelio Phoenix 3.0 - 9017: 04/09/2013
+            v = VersionHelper.convert(9017);
+        } else if (Files.isRegularFile(modelio2_model)) {
+            // Assume last Modelio 2.2 - 8020 : 24/04/2012
+            v = VersionHelper.convert(8020);
+        } else {
+            // Set to Modelio 2.0 by default
+            v = VersionHelper.convert(8000);
+        }
+        return v;
+    }
+
     @objid ("e420b280-dd1d-4461-8997-22577d535d18")
     @Override
     public void rename(final String name, final IModelioProgress aMonitor) throws IOException {
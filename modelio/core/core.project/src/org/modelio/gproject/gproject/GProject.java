@@ -42,6 +42,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.gproject.data.project.DefinitionScope;
@@ -71,6 +76,7 @@ import org.modelio.gproject.plugin.CoreProject;
 import org.modelio.vbasic.auth.IAuthData;
 import org.modelio.vbasic.collections.TopologicalSorter.CyclicDependencyException;
 import org.modelio.vbasic.collections.TopologicalSorter;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
 import org.modelio.vbasic.files.FileUtils;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vbasic.net.UriConnections;
@@ -87,6 +93,7 @@ import org.modelio.vcore.session.impl.CoreSession;
 import org.modelio.vcore.session.impl.permission.BasicAccessManager;
 import org.modelio.vcore.smkernel.mapi.MMetamodelFragment;
 import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MetamodelVersionDescriptor;
 import org.modelio.vcore.smkernel.meta.ISmMetamodelFragment;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
 import org.modelio.version.ModelioVersion;
@@ -127,6 +134,12 @@ public class GProject {
     @objid ("db776f80-1775-11e2-928d-001ec947ccaf")
     private static final List<GProject> allProjects = new CopyOnWriteArrayList<>();
 
+    /**
+     * Maximum number of fragments mounted at the same time on project opening.
+     */
+    @objid ("1b5c9429-cfa2-4159-9591-5d92dd12b1e8")
+    private static final int MAX_MOUNT_THREADS = 4;
+
     @objid ("f5328bd1-9045-4cb4-b97c-b65927a5a7a3")
     private GAuthConf auth;
 
@@ -1089,20 +1102,137 @@ public class GProject {
         }
     }
 
+    /**
+     * Mount all project fragments.
+     * <p>
+     * Conflicting fragments are detected first, in declaration order, so that the first declared fragment always wins.
+     * <p>
+     * The remaining fragments are then mounted concurrently as long as all the metamodel fragments they require are
+     * already known by the session. The others may need fake metaclasses to be built or a migration: they are mounted
+     * afterwards, one after the other, in declaration order.
+     * <p>
+     * The fragment repositories are finally sorted in the session in declaration order, whatever the mount completion order.
+     * 
+     * @param aMonitor a progress monitor.
+     */
     @objid ("c1811640-95da-11e1-ac83-001ec947ccaf")
     private void mountFragments(IModelioProgress aMonitor) {
-        ArrayList<IProjectFragment> mounted = new ArrayList<>(this.allFragments.size());
+        List<IProjectFragment> toMount = new ArrayList<>(this.allFragments.size());
         
         for (IProjectFragment fragment : this.allFragments) {
             try {
-                checkFragmentUnique(mounted, fragment);
-        
-                fragment.mount(aMonitor);
-                mounted.add(fragment);
+                checkFragmentUnique(toMount, fragment);
+                toMount.add(fragment);
             } catch (FragmentConflictException e) {
                 fragment.setDown(e);
             }
         }
+        
+        SubProgress mon = SubProgress.convert(aMonitor, toMount.size());
+        int nbWorkers = Math.min(MAX_MOUNT_THREADS, Math.min(Runtime.getRuntime().availableProcessors(), toMount.size()));
+        if (nbWorkers < 2) {
+            for (IProjectFragment fragment : toMount) {
+                mountFragment(fragment, mon.newChild(1));
+            }
+            return;
+        }
+        
+        List<IProjectFragment> deferred = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers, new NamedThreadFactory("Fragment mount %d"));
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(toMount.size());
+            for (IProjectFragment fragment : toMount) {
+                // Progress monitors are not thread safe: workers report nothing, progress is reported below
+                results.add(executor.submit(() -> {
+                    if (!isMetamodelAvailable(fragment)) {
+                        return false;
+                    }
+                    mountFragment(fragment, null);
+                    return true;
+                }));
+            }
+        
+            for (int i = 0; i < toMount.size(); i++) {
+                IProjectFragment fragment = toMount.get(i);
+                try {
+                    if (results.get(i).get()) {
+                        mon.worked(1);
+                    } else {
+                        deferred.add(fragment);
+                    }
+                } catch (ExecutionException e) {
+                    fragment.setDown(e.getCause());
+                    mon.worked(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            return;
+        } finally {
+            executor.shutdown();
+        }
+        
+        for (IProjectFragment fragment : deferred) {
+            mountFragment(fragment, mon.newChild(1));
+        }
+        
+        // Repositories were connected in mount completion order: restore the declaration order,
+        // it decides which fragment wins when an element is found in several ones.
+        IRepositorySupport repositorySupport = this.session.getRepositorySupport();
+        List<IRepository> order = new ArrayList<>(toMount.size());
+        for (IProjectFragment fragment : toMount) {
+            IRepository repository = repositorySupport.getRepository(fragment.getId());
+            if (repository != null) {
+                order.add(repository);
+            }
+        }
+        repositorySupport.reorderRepositories(order);
+    }
+
+    /**
+     * Mount a fragment and report the time spent through a {@link GProjectEventType#FRAGMENT_MOUNTED} event.
+     * 
+     * @param fragment the fragment to mount.
+     * @param aMonitor a progress monitor, may be null.
+     */
+    @objid ("4d900b98-75b8-4720-9314-b78ab1ecafd5")
+    private void mountFragment(IProjectFragment fragment, IModelioProgress aMonitor) {
+        long start = System.nanoTime();
+        fragment.mount(aMonitor);
+        
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.monitorSupport.fireMonitors(GProjectEvent.fragmentMounted(fragment, duration));
+    }
+
+    /**
+     * Tells whether all metamodel fragments needed by a project fragment are already in the session metamodel.
+     * <p>
+     * Version compatibility is not checked here: it is checked on mount.
+     * 
+     * @param fragment a project fragment.
+     * @return <code>true</code> if the fragment may be mounted without modifying the metamodel, <code>false</code> if unknown.
+     */
+    @objid ("688b6e75-c12c-4673-b1bf-3131b6f29054")
+    private boolean isMetamodelAvailable(IProjectFragment fragment) {
+        try {
+            MetamodelVersionDescriptor needed = fragment.getRequiredMetamodelDescriptor();
+            if (needed == null) {
+                return false;
+            }
+        
+            SmMetamodel mm = getSession().getMetamodel();
+            for (VersionedItem<?> item : needed) {
+                ISmMetamodelFragment mmFragment = mm.getFragment(item.getName());
+                if (mmFragment == null || mmFragment.isFake()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Let the mount report the error
+            return false;
+        }
     }
 
     @objid ("eb3f9579-cf26-4307-a682-828aee8db4f6")
@@ -189,6 +189,22 @@ public class GProjectEvent {
         }
     }
 
+    /**
+     * Instantiate a fragment mounted event.
+     * 
+     * @param afragment the mounted fragment
+     * @param durationMs the mount duration in milliseconds
+     * @return the built event.
+     */
+    @objid ("8456a336-9791-4650-a410-41d1ee75295a")
+    public static GProjectEvent fragmentMounted(IProjectFragment afragment, long durationMs) {
+        GProjectEvent ev = new GProjectEvent(GProjectEventType.FRAGMENT_MOUNTED,
+                String.format("'%s' fragment mounted in %d ms (%s).", afragment.getId(), durationMs, afragment.getState()),
+                afragment,
+                null);
+        return ev;
+    }
+
     /**
      * Instantiate a warning event for the project.
      * 
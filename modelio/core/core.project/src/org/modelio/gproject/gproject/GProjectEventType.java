@@ -53,5 +53,11 @@ public enum GProjectEventType {
      * <p>
      * Ifthe fragment went DOWN, a FRAGMENT_DOWN event is fired instead.
      */
-    FRAGMENT_STATE_CHANGED;
+    FRAGMENT_STATE_CHANGED,
+    /**
+     * A fragment mount attempt has ended.
+     * <p>
+     * The event message tells how long the mount took. The fragment state tells whether it succeeded.
+     */
+    FRAGMENT_MOUNTED;
 }
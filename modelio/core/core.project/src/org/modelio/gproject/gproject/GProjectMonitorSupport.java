@@ -37,7 +37,7 @@ public class GProjectMonitorSupport {
      * @param m a project monitor.
      */
     @objid ("6181ee58-08b6-11e2-b193-001ec947ccaf")
-    public void addMonitor(IProjectMonitor m) {
+    public synchronized void addMonitor(IProjectMonitor m) {
         this.monitors.add(m);
     }
 
@@ -45,17 +45,19 @@ public class GProjectMonitorSupport {
      * @param m a project monitor.
      */
     @objid ("6181ee5b-08b6-11e2-b193-001ec947ccaf")
-    public void removeMonitor(IProjectMonitor m) {
+    public synchronized void removeMonitor(IProjectMonitor m) {
         this.monitors.remove(m);
     }
 
     /**
      * Fire a project event on all projects monitors.
+     * <p>
+     * Fragments may be mounted from several threads: events are fired one at a time so that monitors need not be thread safe.
      * 
      * @param ev a project event.
      */
     @objid ("6181ee5e-08b6-11e2-b193-001ec947ccaf")
-    public void fireMonitors(GProjectEvent ev) {
+    public synchronized void fireMonitors(GProjectEvent ev) {
         if (this.monitors.isEmpty())
             FallBackMonitor.instance.handleProjectEvent(ev);
         else for (IProjectMonitor m : this.monitors) {
@@ -89,6 +91,9 @@ public class GProjectMonitorSupport {
                 else
                     Log.warning(String.valueOf(ev.message));
                 break;
+            case FRAGMENT_MOUNTED:
+                Log.trace(ev.message);
+                break;
             default:
                 break;
             }
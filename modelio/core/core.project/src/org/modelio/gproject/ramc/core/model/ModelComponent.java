@@ -322,7 +322,7 @@ public class ModelComponent implements Comparable<ModelComponent>, IModelCompone
             
                 @Override
                 public int compare(final Element o1, final Element o2) {
-                    return o1.getUuid().compareTo(o2.getUuid());
+                    return o1.compareTo(o2);
                 }
             
             });
@@ -21,12 +21,15 @@
 package org.modelio.vcore.session.api.memory;
 
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
  * Access to the memory manager.
  * <p>
  * The memory manager swaps model objects on the disk when memory is low.
  * It supports listeners who are activated when it frees memory.
+ * <p>
+ * CMS nodes currently edited may be {@link #retain(MObject) retained} so that they are swapped only as a last resort.
  */
 @objid ("7e644839-9d36-43e8-93f4-bce7a061909d")
 public interface IMemoryManager {
@@ -52,4 +55,25 @@ public interface IMemoryManager {
     @objid ("9291e0af-b7c7-4be9-9a4a-6dde3c795661")
     boolean isSwapEnabled();
 
+    /**
+     * Ask the memory manager to keep the given CMS node in memory, typically because it is opened in an editor.
+     * <p>
+     * The objects stored with the CMS node are swapped only if an {@link OutOfMemoryError} is imminent.
+     * Each call must be balanced by a {@link #release(MObject)} call.
+     * 
+     * @param cmsNode a CMS node.
+     * @since 4.1
+     */
+    @objid ("da647118-efd8-40aa-ac87-6f29f0db59cb")
+    void retain(MObject cmsNode);
+
+    /**
+     * Release a CMS node previously {@link #retain(MObject) retained}.
+     * 
+     * @param cmsNode a retained CMS node.
+     * @since 4.1
+     */
+    @objid ("08dcfa49-cc3c-4ae2-ab3b-93706cfd6554")
+    void release(MObject cmsNode);
+
 }
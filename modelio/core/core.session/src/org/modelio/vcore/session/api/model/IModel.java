@@ -21,10 +21,14 @@
 package org.modelio.vcore.session.api.model;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.session.UnknownMetaclassException;
 import org.modelio.vcore.session.impl.GenericFactory;
 import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MDependency;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.MRef;
 
@@ -185,6 +189,40 @@ public interface IModel {
     @objid ("a978f331-8b10-4d48-b093-412cc99b5bef")
     <T extends MObject> Collection<T> findByClass(Class<T> metaclass, boolean withSubClasses);
 
+    /**
+     * Stream the elements of a given class and optionally the class descendants.
+     * <p>
+     * Unlike {@link #findByClass(MClass, boolean)} the result is never gathered in a collection:
+     * repository elements are looked up and loaded while the stream is consumed, and a repository
+     * is opened only when the previous ones are exhausted. Short-circuiting operations like
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} do not load more elements than needed.
+     * <p>
+     * The stream may be made {@link Stream#parallel() parallel}, repositories are then processed concurrently.
+     * Deleted elements are excluded. The stream should be consumed at once and not kept.
+     * 
+     * @param cls a metaclass
+     * @param withSubClasses true to look into subclasses hierarchy
+     * @param filter a filter applied to the elements in each repository, may be <code>null</code>.
+     * @return a stream of the elements typed by this metaclass.
+     * @since 4.1
+     */
+    @objid ("dc2f8874-f7ce-4ca4-8c70-237777450c9c")
+    Stream<MObject> streamByClass(MClass cls, boolean withSubClasses, IMObjectFilter filter);
+
+    /**
+     * Stream the elements of a given class and optionally the class descendants.
+     * <p>
+     * See {@link #streamByClass(MClass, boolean, IMObjectFilter)}.
+     * 
+     * @param metaclass a metaclass
+     * @param withSubClasses true to look into subclasses hierarchy
+     * @param filter a filter applied to the elements in each repository, may be <code>null</code>.
+     * @return a stream of the elements typed by this metaclass.
+     * @since 4.1
+     */
+    @objid ("0f3cee22-634d-4097-b420-44c9eac1e79f")
+    <T extends MObject> Stream<T> streamByClass(Class<T> metaclass, boolean withSubClasses, IMObjectFilter filter);
+
     /**
      * Find an element from its MClass and its identifier.
      * 
@@ -248,6 +286,68 @@ public interface IModel {
     @objid ("33fb2113-b8a3-4b3b-95ed-3481c65d2881")
     MObject findByRef(MRef ref) throws UnknownMetaclassException;
 
+    /**
+     * Find references to the elements of a given class whose name is accepted by the given filter.
+     * <p>
+     * Stored elements are looked up in the repository indexes when possible: elements whose
+     * name does not match are not loaded. Deleted elements are excluded.
+     * <p>
+     * Use {@link #findByRef(MRef)} to get the found elements.
+     * 
+     * @param cls a metaclass
+     * @param withSubClasses true to look into subclasses hierarchy
+     * @param nameFilter the name filter
+     * @return references to the found elements.
+     * @since 4.1
+     */
+    @objid ("45738f5d-4e46-45b6-adb7-24758b9db381")
+    Collection<MRef> findRefsByName(MClass cls, boolean withSubClasses, Predicate<String> nameFilter);
+
+    /**
+     * Find references to the elements of a given class whose given dependency contains the given element.
+     * <p>
+     * Stored elements are looked up in the repository indexes when possible: elements that
+     * do not reference the target are not loaded. Deleted elements are excluded.
+     * <p>
+     * Use {@link #findByRef(MRef)} to get the found elements.
+     * 
+     * @param cls a metaclass
+     * @param withSubClasses true to look into subclasses hierarchy
+     * @param dep a dependency of the metaclass
+     * @param target the referenced element
+     * @return references to the found elements.
+     * @since 4.1
+     */
+    @objid ("3d7b7552-e51c-4cff-9108-3b3cf8ddbe7c")
+    Collection<MRef> findRefsByDep(MClass cls, boolean withSubClasses, MDependency dep, MObject target);
+
+    /**
+     * Get references to the composition owners of the given elements.
+     * <p>
+     * The owners of stored elements are read from the repository indexes when possible:
+     * these elements are then not loaded. The other elements are loaded to get their owner.
+     * 
+     * @param elements model elements, loaded or not.
+     * @return references to the composition owners by element, <code>null</code> for elements without owner.
+     * @since 4.1
+     */
+    @objid ("e095a6a7-c2a5-4eda-874a-919b88846720")
+    Map<MObject, MRef> findOwnerRefs(Collection<? extends MObject> elements);
+
+    /**
+     * Load in advance the given elements with their composition sub tree.
+     * <p>
+     * To be called before walking a large part of the model, to load it in batches
+     * instead of one storage unit at a time. Elements are loaded on access anyway.
+     * 
+     * @param refs references to the elements to prefetch
+     * @param depth the number of storage unit levels to prefetch below the given elements.
+     * 0 loads only the given elements, a negative value loads the whole sub trees.
+     * @since 4.1
+     */
+    @objid ("cdae8b96-462d-4513-8c8b-afaa987d31e5")
+    void prefetch(Collection<MRef> refs, int depth);
+
     /**
      * Get the generic factory.
      * 
@@ -20,6 +20,7 @@
 
 package org.modelio.vcore.session.api.model.change;
 
+import java.util.concurrent.Executor;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 
 /**
@@ -64,6 +65,24 @@ public interface IModelChangeSupport {
     @objid ("0061cd80-58c5-10c8-842f-001ec947cd2a")
     void addModelChangeListener(IModelChangeListener aListener);
 
+    /**
+     * Add a model change listener with an interest filter and a delivery executor.
+     * <p>
+     * The listener only receives the part of the events accepted by the filter, and is not called
+     * when nothing is accepted.
+     * <p>
+     * If an executor is given the listener is called asynchronously in this executor, after the transaction is closed.
+     * Events fired while a previous call is still pending are coalesced into one event.
+     * Asynchronous listeners must neither modify the model nor assume the elements are still in the state they were at commit time.
+     * 
+     * @param aListener the listener.
+     * @param filter the interest filter, {@link ModelChangeFilter#ALL} to receive everything.
+     * @param executor the executor that will call the listener, <code>null</code> to call it synchronously.
+     * @since 4.1
+     */
+    @objid ("5a0acedb-bd73-4af8-9ffc-eab321d44dc5")
+    void addModelChangeListener(IModelChangeListener aListener, ModelChangeFilter filter, Executor executor);
+
     /**
      * Add a persistent view model change listener.
      * <p>
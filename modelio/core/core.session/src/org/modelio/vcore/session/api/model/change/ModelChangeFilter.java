@@ -0,0 +1,138 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.api.model.change;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MObject;
+
+/**
+ * Interest filter of a model change listener.
+ * <p>
+ * A listener registered with a filter only receives the part of the model change events
+ * concerning the elements accepted by the filter, and is not called at all when nothing is accepted.
+ * <p>
+ * An element is accepted if:<ul>
+ * <li> its metaclass is one of the filter metaclasses or inherits from one of them, when metaclasses are given,
+ * <li> it is one of the filter subtree roots or is owned by one of them, when subtree roots are given.
+ * </ul>
+ * @since 4.1
+ */
+@objid ("1bf92f28-910b-472a-87eb-eee4d800e61c")
+public final class ModelChangeFilter {
+    /**
+     * Filter accepting everything.
+     */
+    @objid ("fa15a568-3687-4ed1-a063-6443f3662b2d")
+    public static final ModelChangeFilter ALL = new ModelChangeFilter(null, null);
+
+    /**
+     * Accepted metaclasses, <code>null</code> to accept all metaclasses.
+     */
+    @objid ("fa60686c-b8be-44ce-9bda-52ea967604a8")
+    private final Collection<MClass> metaclasses;
+
+    /**
+     * Accepted composition subtrees roots, <code>null</code> to accept the whole model.
+     */
+    @objid ("b02d73db-0520-469a-befe-29eb1d14e17d")
+    private final Set<MObject> roots;
+
+    /**
+     * @param metaclasses the accepted metaclasses with their sub classes. <code>null</code> or empty to accept all metaclasses.
+     * @param subtreeRoots the roots of the accepted composition subtrees. <code>null</code> or empty to accept the whole model.
+     */
+    @objid ("310d412c-4e20-47c5-8afb-1f53e56da544")
+    public ModelChangeFilter(Collection<? extends MClass> metaclasses, Collection<? extends MObject> subtreeRoots) {
+        this.metaclasses = metaclasses == null || metaclasses.isEmpty() ? null : new ArrayList<>(metaclasses);
+        this.roots = subtreeRoots == null || subtreeRoots.isEmpty() ? null : new HashSet<>(subtreeRoots);
+    }
+
+    /**
+     * Tells whether the filter accepts everything.
+     * 
+     * @return <code>true</code> if the filter accepts all elements.
+     */
+    @objid ("7b899b5e-687a-4880-bde4-ab05c7876ef2")
+    public boolean isAll() {
+        return this.metaclasses == null && this.roots == null;
+    }
+
+    /**
+     * Tells whether an element is accepted.
+     * <p>
+     * The owner hint is the previous composition owner of deleted or moved elements.
+     * The element is accepted if either its current owner or the hinted owner is in an accepted subtree.
+     * 
+     * @param obj a model element
+     * @param ownerHint the previous composition owner of the element, may be <code>null</code>.
+     * @return <code>true</code> if the element is accepted.
+     */
+    @objid ("c8379f4e-3af7-487a-8052-6efaf2dabd1a")
+    public boolean accept(MObject obj, MObject ownerHint) {
+        if (this.metaclasses != null && !isAcceptedClass(obj.getMClass())) {
+            return false;
+        }
+        
+        if (this.roots == null || this.roots.contains(obj)) {
+            return true;
+        }
+        
+        MObject owner = obj.getCompositionOwner();
+        if (isInSubtree(owner)) {
+            return true;
+        }
+        return ownerHint != owner && isInSubtree(ownerHint);
+    }
+
+    @objid ("81421ff3-fca3-46d7-a2cc-d22801c17afe")
+    private boolean isInSubtree(MObject obj) {
+        MObject owner = obj;
+        while (owner != null) {
+            if (this.roots.contains(owner)) {
+                return true;
+            }
+            owner = owner.getCompositionOwner();
+        }
+        return false;
+    }
+
+    @objid ("b06a2185-90f0-415c-aa55-fcd5e7074c4b")
+    private boolean isAcceptedClass(MClass cls) {
+        for (MClass mc : this.metaclasses) {
+            if (mc == cls || cls.hasBase(mc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @objid ("afb95f7c-1be4-48f7-89f9-1023b2a5ea56")
+    @Override
+    public String toString() {
+        return "ModelChangeFilter [metaclasses=" + this.metaclasses + ", roots=" + this.roots + "]";
+    }
+
+}
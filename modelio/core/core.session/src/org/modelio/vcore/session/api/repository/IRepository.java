@@ -23,9 +23,15 @@ package org.modelio.vcore.session.api.repository;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.files.StreamException;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vcore.session.api.blob.IBlobInfo;
 import org.modelio.vcore.session.impl.storage.IModelLoaderProvider;
@@ -33,6 +39,7 @@ import org.modelio.vcore.smkernel.IRepositoryObject;
 import org.modelio.vcore.smkernel.ISmObjectData;
 import org.modelio.vcore.smkernel.SmObjectImpl;
 import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
 import org.modelio.vcore.smkernel.meta.SmClass;
 import org.modelio.vcore.smkernel.meta.SmDependency;
 import org.modelio.vcore.smkernel.meta.descriptor.MetamodelDescriptor;
@@ -123,6 +130,116 @@ public interface IRepository {
     @objid ("0040edd6-eb1c-1f22-8c06-001ec947cd2a")
     Collection<MObject> findByClass(final SmClass cls, boolean withSubClasses);
 
+    /**
+     * Stream the model objects of a given class, and of its subclasses if asked.
+     * <p>
+     * Unlike {@link #findByClass(SmClass, boolean)}, implementations may look up and load the objects
+     * while the stream is consumed, so that short-circuiting operations do not load more objects than needed.
+     * The stream should be consumed at once and not kept.
+     * <p>
+     * The default implementation streams the result of {@link #findByClass(SmClass, boolean)}.
+     * 
+     * @param cls a metamodel class.
+     * @param withSubClasses if true include sub classes hierarchy
+     * @return a stream of the found model objects.
+     * @throws org.modelio.vbasic.files.StreamException if the repository fails while the stream is consumed.
+     * @since 4.1
+     */
+    @objid ("c7f39fb9-127c-4fba-88b2-21638742f2a7")
+    default Stream<MObject> streamByClass(final SmClass cls, boolean withSubClasses) throws StreamException {
+        return findByClass(cls, withSubClasses).stream();
+    }
+
+    /**
+     * Find references to the model objects of a given class whose name is accepted by the given filter.
+     * <p>
+     * Repositories able to do so should look up the names in their persistent index, without loading
+     * the model objects. The tested names are the stored ones: callers must look at loaded objects
+     * for names modified since the last save.
+     * <p>
+     * The default implementation loads all the objects of the class and tests their name.
+     * 
+     * @param cls a metamodel class.
+     * @param withSubClasses if true include sub classes hierarchy
+     * @param nameFilter the name filter
+     * @return references to the found model objects.
+     * @since 4.1
+     */
+    @objid ("3144bb5a-944b-40fc-a85d-b00e5df5af6c")
+    default Collection<MRef> findRefsByName(final SmClass cls, boolean withSubClasses, Predicate<String> nameFilter) {
+        Collection<MRef> results = new ArrayList<>();
+        for (MObject obj : findByClass(cls, withSubClasses)) {
+            if (nameFilter.test(obj.getName())) {
+                results.add(new MRef(obj));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Find references to the model objects of a given class whose given dependency contains the given target.
+     * <p>
+     * Repositories able to do so should look up the links in their persistent index, without loading
+     * the model objects. Objects modified since the last save must be tested on their current links.
+     * <p>
+     * The default implementation loads all the objects of the class and tests their dependency.
+     * 
+     * @param cls a metamodel class.
+     * @param withSubClasses if true include sub classes hierarchy
+     * @param dep a dependency of the metamodel class
+     * @param target the referenced model object
+     * @return references to the found model objects.
+     * @since 4.1
+     */
+    @objid ("44d02986-ec15-47c1-bdb0-3926aa5e7ede")
+    default Collection<MRef> findRefsByDep(final SmClass cls, boolean withSubClasses, SmDependency dep, MObject target) {
+        Collection<MRef> results = new ArrayList<>();
+        for (MObject obj : findByClass(cls, withSubClasses)) {
+            if (obj.mGet(dep).contains(target)) {
+                results.add(new MRef(obj));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Find references to the composition owners of the given objects without loading them.
+     * <p>
+     * Repositories able to do so should read the owners in their persistent index.
+     * Objects modified since the last save must give their current owner.
+     * Only the objects this repository can answer for are in the result: objects stored elsewhere
+     * are ignored, and so may be objects that are not the root of a storage unit.
+     * <p>
+     * The default implementation returns an empty map.
+     * 
+     * @param objs model objects, loaded or not.
+     * @return references to the composition owners by object, <code>null</code> for objects without owner.
+     * @since 4.1
+     */
+    @objid ("ea3b2668-b3ee-4df8-9e72-0df231e72ffe")
+    default Map<MObject, MRef> findOwnerRefs(Collection<? extends MObject> objs) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Load in one batch the given model objects with their composition sub tree.
+     * <p>
+     * This is only a performance hint for callers that are going to walk the given objects sub trees:
+     * model objects are loaded on access anyway. References to objects not stored in this
+     * repository are ignored.
+     * <p>
+     * The default implementation does nothing.
+     * 
+     * @param refs references to the model objects to prefetch.
+     * @param depth the number of storage unit levels to prefetch below the given objects.
+     * 0 loads only the given objects, a negative value loads the whole sub trees.
+     * @since 4.1
+     */
+    @objid ("3b3a8ff2-87b0-4365-b45b-ff323d1e5a97")
+    default void prefetch(Collection<MRef> refs, int depth) {
+        // Nothing to do by default
+    }
+
     /**
      * Get all the model objects of a given class, with the subclasses.
      * 
@@ -203,6 +320,24 @@ public interface IRepository {
     @objid ("0040ae52-eb1c-1f22-8c06-001ec947cd2a")
     boolean isOpen();
 
+    /**
+     * Tells whether the repository may store the object with the given identifier.
+     * <p>
+     * Used to route identifier lookups to the right repositories without asking all of them:
+     * a <code>false</code> answer must be certain, a <code>true</code> answer may be wrong.
+     * Objects in memory but not saved yet do not need to be taken into account.
+     * <p>
+     * The default implementation always returns <code>true</code>.
+     * 
+     * @param siteIdentifier an object identifier
+     * @return <code>false</code> if the object is certainly not stored in this repository.
+     * @since 4.1
+     */
+    @objid ("f667b226-feef-46cb-8b1a-a627506935cc")
+    default boolean mayContain(String siteIdentifier) {
+        return true;
+    }
+
     /**
      * Tells whether the given object is owned by this repository.
      * 
@@ -22,6 +22,7 @@ package org.modelio.vcore.session.api.repository;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vcore.session.api.IAccessManager;
@@ -66,6 +67,10 @@ public interface IRepositorySupport {
      * Connect a repository to this modeling session and associate it with a repository key.
      * <p>
      * The repository key can then be used to find the repository with {@link #getRepository(String)}.
+     * <p>
+     * This method may be called concurrently from several threads: repositories are open in parallel
+     * and only their registration in the session is serialized. Repositories are then registered
+     * in completion order: use {@link #reorderRepositories(List)} to restore a deterministic order.
      * @see #REPOSITORY_KEY_LOCAL
      * @see #REPOSITORY_KEY_SCRATCH
      * 
@@ -89,6 +94,20 @@ public interface IRepositorySupport {
     @objid ("08e18da1-1771-11e2-ac36-001ec947ccaf")
     void connectRepository(IRepository aBase, final IAccessManager accessManager, IModelioProgress monitor) throws IOException;
 
+    /**
+     * Reorder some of the connected repositories.
+     * <p>
+     * Repositories are searched in their registration order, the order decides which repository wins
+     * when an object is found in several ones. The given repositories take, in the given order, the places
+     * they occupy in the connected repositories list. Other repositories keep their place.
+     * Given repositories that are not connected are ignored.
+     * 
+     * @param order repositories in the wanted order.
+     * @since 4.1
+     */
+    @objid ("d55ba453-8ff9-4a5b-be6f-7657127ed88f")
+    void reorderRepositories(List<IRepository> order);
+
     /**
      * Close and remove the given model repository from the connected repositories.
      * 
@@ -149,4 +168,18 @@ public interface IRepositorySupport {
     @objid ("06a53b06-cc63-4961-8d2c-b192fb46977b")
     void removeRepositoryChangeListener(IRepositoryChangeListener listener);
 
+    /**
+     * Limit the number of objects of a repository kept in memory.
+     * <p>
+     * Objects exceeding the budget are swapped, the least recently accessed first,
+     * whatever the available memory.
+     * 
+     * @param repository a connected repository.
+     * @param maxObjects the maximum number of objects to keep in memory, 0 to remove the limit.
+     * @throws java.lang.IllegalArgumentException if the repository is not connected to this session
+     * @since 4.1
+     */
+    @objid ("2aa6969e-914f-4e70-b086-278fbce636de")
+    void setMemoryBudget(IRepository repository, int maxObjects);
+
 }
@@ -78,6 +78,7 @@ import org.modelio.vcore.smkernel.SmObjectImpl;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
 import org.modelio.vcore.swap.JdbmSwap;
+import org.modelio.vcore.swap.MappedSwap;
 
 /**
  * Core modeling session implementation.
@@ -92,6 +93,13 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
     @objid ("54ba67df-cd4b-4212-b7dd-61c227734ac3")
     private static final String REPOSITORY_KEY_SHELL = "repo.key.shell";
 
+    /**
+     * System property that selects the former JDBM swap instead of the memory mapped one when set to <code>true</code>.
+     * @since 4.1
+     */
+    @objid ("bc4acb13-92dc-4ebf-8ff0-31c55c2926be")
+    public static final String PROPERTY_JDBM_SWAP = "modelio.swap.jdbm";
+
     /**
      * Incremented each time a repository is added. Never decremented.
      */
@@ -291,29 +299,42 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
     public void connectRepository(IRepository aBase, String key, final IAccessManager accessManager, IModelioProgress monitor) throws IOException {
         assertOpen();
         
+        // Reserve a repository id under lock, but open the repository outside of it:
+        // opening is the expensive part and independent repositories may be open concurrently.
+        byte rid;
         this.repositoriesLock.lock();
         try {
+            checkKeyAvailable(key);
         
-            if (key != null && this.repoRegistry.get(key) != null) {
-                throw new IllegalArgumentException(this.repoRegistry.get(key) + " already registered with '" + key + "' key");
-            }
-        
-            // Open the database
-            byte rid = this.repoCounter++;
+            rid = this.repoCounter++;
             if (this.repoCounter == 0) {
                 throw new IllegalStateException("Too much repositories added/removed.");
             }
+        } finally {
+            this.repositoriesLock.unlock();
+        }
         
-            short kid = this.ksp.getId();
-            aBase.init(rid);
+        // Open the database
+        short kid = this.ksp.getId();
+        aBase.init(rid);
         
-            if (!aBase.isOpen()) {
-                IAccessManager repoManager = new CompositeAccessManager(accessManager);
-                ModelLoaderConfiguration config = new ModelLoaderConfiguration(this, kid, rid, this.shellRepository,
-                        this.cacheManager, repoManager, this.refreshEventService, new UnloadedRepositoryHandle(aBase));
-                ModelLoaderProvider modelLoaderProvider = new ModelLoaderProvider(config);
+        if (!aBase.isOpen()) {
+            IAccessManager repoManager = new CompositeAccessManager(accessManager);
+            ModelLoaderConfiguration config = new ModelLoaderConfiguration(this, kid, rid, this.shellRepository,
+                    this.cacheManager, repoManager, this.refreshEventService, new UnloadedRepositoryHandle(aBase));
+            ModelLoaderProvider modelLoaderProvider = new ModelLoaderProvider(config);
+        
+            aBase.open(modelLoaderProvider, monitor);
+        }
         
-                aBase.open(modelLoaderProvider, monitor);
+        this.repositoriesLock.lock();
+        try {
+            try {
+                // Another repository may have been registered with the same key meanwhile
+                checkKeyAvailable(key);
+            } catch (IllegalArgumentException e) {
+                aBase.close();
+                throw e;
             }
         
             this.repositories.add(aBase);
@@ -333,6 +354,42 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
         }
     }
 
+    @objid ("201d8092-da29-453b-9b53-5b18e7afaf69")
+    @Override
+    public void reorderRepositories(List<IRepository> order) {
+        assertOpen();
+        this.repositoriesLock.lock();
+        try {
+            List<IRepository> connected = new ArrayList<>(order.size());
+            for (IRepository r : order) {
+                if (this.repositories.contains(r) && !connected.contains(r)) {
+                    connected.add(r);
+                }
+            }
+        
+            // Copy on write list: readers see either the old or the new order
+            Iterator<IRepository> it = connected.iterator();
+            this.repositories.replaceAll(r -> connected.contains(r) ? it.next() : r);
+        } finally {
+            this.repositoriesLock.unlock();
+        }
+    }
+
+    /**
+     * Check no repository is already registered with the given key.
+     * <p>
+     * Must be called with the repositories lock held.
+     * 
+     * @param key a repository key, may be null.
+     * @throws java.lang.IllegalArgumentException if a repository is already registered with the key.
+     */
+    @objid ("5145cb78-1892-4135-95d4-4ee02f2453be")
+    private void checkKeyAvailable(String key) throws IllegalArgumentException {
+        if (key != null && this.repoRegistry.get(key) != null) {
+            throw new IllegalArgumentException(this.repoRegistry.get(key) + " already registered with '" + key + "' key");
+        }
+    }
+
     /**
      * Close and remove the given model repository from the connected repositories.
      * 
@@ -361,6 +418,7 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
             }
         
             this.repositories.remove(toRemove);
+            this.cacheManager.setRepositoryBudget(toRemove.getRepositoryId(), 0);
             for (Iterator<Entry<String, IRepository>> it = this.repoRegistry.entrySet().iterator(); it.hasNext();) {
                 if (it.next().getValue() == toRemove) {
                     it.remove();
@@ -371,6 +429,16 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
         }
     }
 
+    @objid ("bb74166f-580d-433b-966e-22d61d482f15")
+    @Override
+    public void setMemoryBudget(IRepository repository, int maxObjects) {
+        assertOpen();
+        if (! this.repositories.contains(repository)) {
+            throw new IllegalArgumentException(repository + " repository is not connected to this session.");
+        }
+        this.cacheManager.setRepositoryBudget(repository.getRepositoryId(), maxObjects);
+    }
+
     @objid ("9a5a7e82-d7d2-42fc-a2dd-df7b8e5729b0")
     @Override
     public void fireRepositoryChange(IRepositoryChangeEvent event) {
@@ -651,11 +719,16 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
     protected void init(CoreSessionBuilder builder) throws IOException {
         // Set up the cache
         this.cacheManager = new CacheManager(this.metamodel);
+        this.cacheManager.setNameAttsIndexed(true);
         
         // Setup swap
-        final JdbmSwap jdbmSwap = new JdbmSwap(this.metamodel, builder.getSwapDirectory());
-        
-        this.jmxBean = new CoreSessionMXBeanImpl(this, jdbmSwap, this.cacheManager);
+        if (Boolean.getBoolean(PROPERTY_JDBM_SWAP)) {
+            final JdbmSwap swap = new JdbmSwap(this.metamodel, builder.getSwapDirectory());
+            this.jmxBean = new CoreSessionMXBeanImpl(this, swap, this.cacheManager);
+        } else {
+            final MappedSwap swap = new MappedSwap(this.metamodel, builder.getSwapDirectory());
+            this.jmxBean = new CoreSessionMXBeanImpl(this, swap, this.cacheManager);
+        }
         
         // Setup kernel service provider
         this.ksp = new KernelServiceProvider(this, this.jmxBean.getSwapImpl(), this.cacheManager);
@@ -664,6 +737,7 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
         this.blobSupport = new BlobSupport();
         
         this.modelChangeSupport = new ModelChangeSupport();
+        this.jmxBean.setModelChangeSupport(this.modelChangeSupport);
         
         this.repositoryChangeListeners = new CopyOnWriteArrayList<>();
         
@@ -675,6 +749,7 @@ public class CoreSession implements ICoreSession, IRepositorySupport {
         
         // Set up a StdMetaObject
         CacheHandle cacheHandle = new CacheHandle(this.cacheManager);
+        this.transactionManager.setCacheHandle(cacheHandle);
         
         // Set up a storage handle
         this.storageHandle = new StorageHandle(this, this.blobSupport);
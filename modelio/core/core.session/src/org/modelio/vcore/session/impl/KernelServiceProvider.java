@@ -22,7 +22,6 @@ package org.modelio.vcore.session.impl;
 
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.session.api.repository.IRepository;
-import org.modelio.vcore.session.impl.cache.MemoryManager;
 import org.modelio.vcore.smkernel.DeadObjectException;
 import org.modelio.vcore.smkernel.IKernelServiceProvider;
 import org.modelio.vcore.smkernel.ISmObjectData;
@@ -105,16 +104,14 @@ final class KernelServiceProvider implements IKernelServiceProvider {
     @objid ("3ba767f5-4853-11e2-91c9-001ec947ccaf")
     @Override
     public ISmObjectData loadData(SmObjectImpl oobj) throws DeadObjectException {
-        final String uuid = oobj.getUuid();
-        final ISmObjectData cachedData = getDataCache().getCachedData(uuid);
+        final ISmObjectData cachedData = getDataCache().getCachedData(oobj.getSmUuid());
         
         ISmObjectData data = cachedData;
         
-        // Restore from swap
+        // Restore from swap.
+        // The object cannot be both restored and swapped: the swap holds its data while swapping it.
         if (data == null) {
-            synchronized (MemoryManager.get()) {
-                data = getSwap().restore(uuid);
-            }
+            data = getSwap().restore(oobj.getUuid());
         }
         
         // Maybe the data is not loaded
@@ -135,7 +132,7 @@ final class KernelServiceProvider implements IKernelServiceProvider {
         }
         
         oobj.initData(data);
-        oobj.init(uuid, data.getLiveId());
+        oobj.init(oobj.getSmUuid(), data.getLiveId());
         return data;
     }
 
@@ -22,10 +22,17 @@ package org.modelio.vcore.session.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.collections.ConcatSpliterator;
 import org.modelio.vcore.session.UnknownMetaclassException;
 import org.modelio.vcore.session.api.model.IMObjectFilter;
 import org.modelio.vcore.session.api.model.IModel;
@@ -34,10 +41,12 @@ import org.modelio.vcore.session.api.repository.IRepositorySupport;
 import org.modelio.vcore.session.impl.cache.CacheManager;
 import org.modelio.vcore.smkernel.SmObjectImpl;
 import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MDependency;
 import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.MRef;
 import org.modelio.vcore.smkernel.meta.SmClass;
+import org.modelio.vcore.smkernel.meta.SmDependency;
 
 /**
  * Implementation of {@link IModel}.
@@ -114,6 +123,10 @@ public class Model implements IModel {
         if (ret == null) {
             SmClass smCls = (SmClass) cls;
             for (IRepository base : this.repositorySupport.getRepositories()) {
+                if (! base.mayContain(siteIdentifier)) {
+                    continue;
+                }
+        
                 ret = base.findById(smCls, siteIdentifier);
                 if (ret != null && ret.isValid()) {
                     return ret;
@@ -133,6 +146,86 @@ public class Model implements IModel {
         return findById(cls, ref.uuid);
     }
 
+    @objid ("c47e2413-da6a-451f-ad60-665d4fa5a0d9")
+    @Override
+    public void prefetch(Collection<MRef> refs, int depth) {
+        for (IRepository base : this.repositorySupport.getRepositories()) {
+            base.prefetch(refs, depth);
+        }
+    }
+
+    @objid ("4cf8ff08-e2af-4013-9461-00ca692276f3")
+    @Override
+    public Collection<MRef> findRefsByName(MClass cls, boolean withSubClasses, Predicate<String> nameFilter) {
+        Set<MRef> results = new HashSet<>();
+        
+        SmClass smCls = (SmClass) cls;
+        for (IRepository base : this.repositorySupport.getRepositories()) {
+            results.addAll(base.findRefsByName(smCls, withSubClasses, nameFilter));
+        }
+        
+        // Loaded objects may have been created or renamed since the last save,
+        // their current name takes precedence over the stored one.
+        Collection<SmObjectImpl> loaded = new ArrayList<>();
+        this.cacheManager.findByClass(cls, withSubClasses, loaded);
+        for (SmObjectImpl obj : loaded) {
+            MRef ref = new MRef(obj);
+            results.remove(ref);
+            if (nameFilter.test(ref.name)) {
+                results.add(ref);
+            }
+        }
+        
+        // Exclude deleted objects
+        for (SmObjectImpl obj : this.cacheManager.getDeletedObjects()) {
+            results.remove(new MRef(obj.getClassOf().getQualifiedName(), obj.getUuid()));
+        }
+        return results;
+    }
+
+    @objid ("d2d38b0a-5932-45e7-90e2-d7a635f940bf")
+    @Override
+    public Collection<MRef> findRefsByDep(MClass cls, boolean withSubClasses, MDependency dep, MObject target) {
+        Set<MRef> results = new HashSet<>();
+        
+        SmClass smCls = (SmClass) cls;
+        SmDependency smDep = (SmDependency) dep;
+        for (IRepository base : this.repositorySupport.getRepositories()) {
+            results.addAll(base.findRefsByDep(smCls, withSubClasses, smDep, target));
+        }
+        
+        // Exclude deleted objects
+        for (SmObjectImpl obj : this.cacheManager.getDeletedObjects()) {
+            results.remove(new MRef(obj.getClassOf().getQualifiedName(), obj.getUuid()));
+        }
+        return results;
+    }
+
+    @objid ("97253431-f908-4e2f-8e19-44b9fe04a138")
+    @Override
+    public Map<MObject, MRef> findOwnerRefs(Collection<? extends MObject> elements) {
+        Map<MObject, MRef> results = new HashMap<>();
+        
+        Collection<MObject> remaining = new ArrayList<>(elements);
+        for (IRepository base : this.repositorySupport.getRepositories()) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            Map<MObject, MRef> found = base.findOwnerRefs(remaining);
+            if (! found.isEmpty()) {
+                results.putAll(found);
+                remaining.removeIf(found::containsKey);
+            }
+        }
+        
+        // No repository index knows these ones: load them
+        for (MObject obj : remaining) {
+            MObject owner = obj.getCompositionOwner();
+            results.put(obj, owner == null ? null : new MRef(owner.getMClass().getQualifiedName(), owner.getUuid()));
+        }
+        return results;
+    }
+
     @objid ("008e33a2-5f00-10c8-842f-001ec947cd2a")
     @Override
     public GenericFactory getGenericFactory() {
@@ -266,6 +359,37 @@ public class Model implements IModel {
         return (Collection<T>) findByClass(cls, withSubClasses);
     }
 
+    @objid ("0ecba3cb-5636-4bd1-84b0-6d3e9220320e")
+    @Override
+    public Stream<MObject> streamByClass(MClass cls, boolean withSubClasses, IMObjectFilter filter) {
+        SmClass smCls = (SmClass) cls;
+        Predicate<MObject> accepted = filter != null ? filter::accept : obj -> true;
+        
+        // In memory elements, including the ones not saved yet in any repository
+        Set<MObject> loaded = new HashSet<>();
+        this.cacheManager.findByClass(cls, withSubClasses, loaded);
+        
+        Set<MObject> deleted = new HashSet<>(this.cacheManager.getDeletedObjects());
+        loaded.removeAll(deleted);
+        
+        List<Supplier<? extends Spliterator<? extends MObject>>> sources = new ArrayList<>();
+        sources.add(() -> loaded.stream().filter(accepted).spliterator());
+        for (IRepository base : this.repositorySupport.getRepositories()) {
+            sources.add(() -> base.streamByClass(smCls, withSubClasses)
+                    .filter(obj -> !loaded.contains(obj) && !deleted.contains(obj) && accepted.test(obj))
+                    .spliterator());
+        }
+        return ConcatSpliterator.stream(sources, false);
+    }
+
+    @objid ("7b7feb55-f167-4ba1-b43f-d758c71d0071")
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends MObject> Stream<T> streamByClass(Class<T> metaclass, boolean withSubClasses, IMObjectFilter filter) {
+        MClass cls = this.metamodel.getMClass(metaclass);
+        return (Stream<T>) streamByClass(cls, withSubClasses, filter);
+    }
+
     @objid ("83727aa5-acfe-4a64-85b1-71d2f1664d19")
     @Override
     public Collection<? extends MObject> findByClass(MClass cls) {
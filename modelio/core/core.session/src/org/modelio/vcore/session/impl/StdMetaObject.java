@@ -524,6 +524,9 @@ public class StdMetaObject implements IMetaOf {
             data.getRepositoryObject().attModified(obj, att);
             storageDone = true;
         
+            // Cache handling
+            this.cacheHandle.attModified(obj, att);
+        
             // Action handling
             // Highly tricky here: call with the old_value
             // and obj already modified with the new value
@@ -540,8 +543,7 @@ public class StdMetaObject implements IMetaOf {
                 }
                 if (storageDone) {
                     data.getRepositoryObject().attModified(obj, att);
-                    // if (cacheDone) cacheHandle.setObjAttVal(obj, att,
-                    // oldVal);
+                    this.cacheHandle.attModified(obj, att);
                 }
             }
         }
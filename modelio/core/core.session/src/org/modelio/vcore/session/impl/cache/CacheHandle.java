@@ -24,6 +24,7 @@ import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.model.DuplicateObjectException;
 import org.modelio.vcore.session.impl.handles.ICacheHandle;
 import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
 
 /**
  * <code>StdMetaObject</code> delegate to maintain the cache.
@@ -65,4 +66,10 @@ public class CacheHandle implements ICacheHandle {
         this.cacheManager.removeFromDeleted(obj);
     }
 
+    @objid ("3e42bd3e-3d7c-4eb8-a1bc-13233a01e6a4")
+    @Override
+    public void attModified(SmObjectImpl obj, SmAttribute att) {
+        this.cacheManager.attModified(obj, att);
+    }
+
 }
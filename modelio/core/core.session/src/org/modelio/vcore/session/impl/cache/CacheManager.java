@@ -33,6 +33,7 @@ import org.modelio.vcore.smkernel.ISmObjectData;
 import org.modelio.vcore.smkernel.ISmObjectDataCache;
 import org.modelio.vcore.smkernel.SmObjectImpl;
 import org.modelio.vcore.smkernel.SmStatus;
+import org.modelio.vcore.smkernel.SmUuid;
 import org.modelio.vcore.smkernel.mapi.MClass;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
 
@@ -47,7 +48,10 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
     private final Collection<SmObjectImpl> deletedObjects;
 
     @objid ("bee76f3e-82d9-4af3-a6d5-a957d6bef951")
-    private final Map<String, ISmObjectData> dataCache;
+    private final Map<SmUuid, ISmObjectData> dataCache;
+
+    @objid ("a846a575-45d8-4819-8343-dec35f0f88d7")
+    private final EvictionPolicy evictionPolicy;
 
     /**
      * Creates a new cache.
@@ -59,7 +63,8 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
         this.deletedObjects = new HashSet<>();
         this.dataCache = new ConcurrentHashMap<>(1000, 0.85f, 1);
         
-        MemoryManager.get().addManagedCache(this.dataCache);
+        this.evictionPolicy = new EvictionPolicy(this.dataCache);
+        MemoryManager.get().addManagedCache(this.evictionPolicy);
     }
 
     /**
@@ -72,10 +77,10 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
     @Override
     public synchronized void addToCache(SmObjectImpl obj) throws DuplicateObjectException {
         // Look for a duplicate object whatever its MClass is.
-        final String oid = obj.getUuid();
-        final ISmObjectData oldData = getCachedData(oid);
+        final SmUuid oid = obj.getSmUuid();
+        final ISmObjectData oldData = this.dataCache.get(oid);
         if (oldData!= null && oldData != obj.getData()) {
-            SmObjectImpl oldObj = findById(oldData.getClassOf(), oid);
+            SmObjectImpl oldObj = findById(oldData.getClassOf(), oid, true);
             if (oldObj == null) {
                 // No SmObject for the duplicate SmData !
                 // Create one for the occasion.
@@ -90,7 +95,7 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
                 oldObj.initData(oldData);
             }
         
-            throw new DuplicateObjectException(oid, oldObj, obj);
+            throw new DuplicateObjectException(oid.toString(), oldObj, obj);
         }
         
         // Add to cache
@@ -143,7 +148,7 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
     @Override
     public synchronized void removeFromCache(SmObjectImpl obj) {
         super.removeFromCache(obj);
-        this.dataCache.remove(obj.getUuid());
+        this.dataCache.remove(obj.getSmUuid());
     }
 
     /**
@@ -160,7 +165,7 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
 
     @objid ("9c73fcfb-354d-11e2-985b-001ec947ccaf")
     @Override
-    public ISmObjectData getCachedData(final String uid) {
+    public ISmObjectData getCachedData(final SmUuid uid) {
         return this.dataCache.get(uid);
     }
 
@@ -178,7 +183,7 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
                             data.getMetaOf()));
         }
             
-        this.dataCache.put(data.getUuid(), data);
+        this.dataCache.put(data.getSmUuid(), data);
         
         
         /*if (findById(data.getClassOf(), data.getUuid()) == null) {
@@ -196,7 +201,19 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
      */
     @objid ("94392bef-04cf-497c-9731-3dec28723976")
     public void dispose() {
-        MemoryManager.get().removeManagedCache(this.dataCache);
+        MemoryManager.get().removeManagedCache(this.evictionPolicy);
+    }
+
+    /**
+     * Set the maximum number of loaded objects of a repository.
+     * 
+     * @param rid a repository identifier.
+     * @param maxObjects the maximum number of objects to keep in memory, 0 to remove the limit.
+     * @since 4.1
+     */
+    @objid ("f6819039-ff9a-4610-83f8-b7fd0d655dd1")
+    public void setRepositoryBudget(byte rid, int maxObjects) {
+        this.evictionPolicy.setBudget(rid, maxObjects);
     }
 
     @objid ("2a4d3b63-1d29-45c6-8362-3da4c76fb3f1")
@@ -218,7 +235,7 @@ public class CacheManager extends MObjectCache implements ISmObjectDataCache {
     @Override
     public void removeFromCache(MClass cls, String uuid) {
         super.removeFromCache(cls, uuid);
-        this.dataCache.remove(uuid);
+        this.dataCache.remove(SmUuid.of(uuid));
     }
 
 }
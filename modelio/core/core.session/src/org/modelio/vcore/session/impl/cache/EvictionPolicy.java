@@ -0,0 +1,275 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.impl.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.AccessOrderer;
+import org.modelio.vcore.smkernel.IRStatus;
+import org.modelio.vcore.smkernel.ISmObjectData;
+import org.modelio.vcore.smkernel.SmLiveId;
+import org.modelio.vcore.smkernel.SmUuid;
+import org.modelio.vcore.smkernel.StatusState;
+
+/**
+ * Chooses the {@link ISmObjectData} to swap out of a data cache.
+ * <p>
+ * The policy approximates LRU on the access "time" stamped by {@link org.modelio.vcore.smkernel.AccessOrderer}.
+ * A first pass over the cache builds an histogram of the access ages, with logarithmic buckets
+ * of 1/32nd relative width, so that the cutoff age matching the number of objects to free is found
+ * without sorting the cache. A second pass collects the objects older than the cutoff.
+ * Objects within the cutoff bucket are taken in cache iteration order.
+ * <p>
+ * Each repository may also be given a memory budget. Budgets count loaded objects, not bytes:
+ * objects of a repository exceeding its budget are swapped whatever the heap state.
+ * Enforcing all the budgets costs one more pass to count the objects of each repository.
+ * @since 4.1
+ */
+@objid ("453924a0-ad2c-4634-ab5e-58ade7cc952f")
+public class EvictionPolicy {
+    /**
+     * Log2 of the number of histogram buckets per power of 2 of the access age.
+     */
+    @objid ("af136d67-18b3-414d-86e3-773b8294af8f")
+    private static final int SUB_BITS = 5;
+
+    /**
+     * Number of access age buckets of the histogram.
+     * <p>
+     * Ages below 2^{@value #SUB_BITS} have their own bucket,
+     * larger ages are split in 2^{@value #SUB_BITS} buckets per power of 2.
+     */
+    @objid ("10984a90-7c6b-4f81-a86e-07c5315a2587")
+    private static final int BUCKETS = (32 - SUB_BITS) << SUB_BITS;
+
+    @objid ("0b72d8a2-3fc1-46c9-9292-a44cf7b87575")
+    private final Map<SmUuid, ISmObjectData> cache;
+
+    /**
+     * Maximum loaded objects count indexed by repository id, 0 meaning no limit.
+     */
+    @objid ("320b9e62-949c-4df4-b2e5-766473080b86")
+    private final int[] budgets = new int[256];
+
+    /**
+     * Initialize the policy.
+     * 
+     * @param cache the managed data cache.
+     */
+    @objid ("5056cd8d-e33f-4419-9fe5-44a4f72b5b97")
+    public EvictionPolicy(Map<SmUuid, ISmObjectData> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the managed data cache.
+     */
+    @objid ("1ef5049e-e59f-433e-8210-2b335fa0729d")
+    public Map<SmUuid, ISmObjectData> getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Set the maximum number of loaded objects of a repository.
+     * 
+     * @param rid a repository identifier.
+     * @param maxObjects the maximum number of objects to keep in memory, 0 to remove the limit.
+     */
+    @objid ("4ffe9bd0-95e7-4e67-9360-c1c3eb0ea165")
+    public synchronized void setBudget(byte rid, int maxObjects) {
+        if (maxObjects < 0) {
+            throw new IllegalArgumentException("Negative budget: " + maxObjects);
+        }
+        this.budgets[rid & 0xFF] = maxObjects;
+    }
+
+    /**
+     * Select the least recently accessed objects of the cache.
+     * 
+     * @param count the number of objects to select.
+     * @param spared tells which objects must be kept in memory. May be <code>null</code>.
+     * @return the objects to swap, at most <code>count</code>.
+     */
+    @objid ("37d9cdd2-ab46-48ab-b748-67c4b9126765")
+    List<ISmObjectData> selectVictims(int count, Predicate<ISmObjectData> spared) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        return select(d -> 0, new int[] {count}, spared);
+    }
+
+    /**
+     * Select the objects to swap so that each repository fits in its budget.
+     * 
+     * @param spared tells which objects must be kept in memory. May be <code>null</code>.
+     * @return the objects to swap, empty if all repositories fit in their budget.
+     */
+    @objid ("2fba168b-7d84-41b5-b2bd-3089d157486d")
+    List<ISmObjectData> selectOverBudget(Predicate<ISmObjectData> spared) {
+        int[] limits;
+        synchronized (this) {
+            limits = this.budgets.clone();
+        }
+        
+        int[] counts = null;
+        for (int i = 0; i < limits.length; i++) {
+            if (limits[i] > 0) {
+                if (counts == null) {
+                    counts = countByRepository();
+                }
+                break;
+            }
+        }
+        
+        if (counts == null) {
+            return Collections.emptyList();
+        }
+        
+        // Number of objects to swap per repository
+        int[] excess = new int[limits.length];
+        boolean found = false;
+        for (int i = 0; i < limits.length; i++) {
+            if (limits[i] > 0 && counts[i] > limits[i]) {
+                excess[i] = counts[i] - limits[i];
+                found = true;
+            }
+        }
+        
+        if (! found) {
+            return Collections.emptyList();
+        }
+        return select(d -> SmLiveId.getRid(d.getLiveId()) & 0xFF, excess, spared);
+    }
+
+    @objid ("95cb458d-d41f-4923-937c-9ce47fe9893a")
+    private int[] countByRepository() {
+        int[] counts = new int[256];
+        for (ISmObjectData d : this.cache.values()) {
+            counts[SmLiveId.getRid(d.getLiveId()) & 0xFF]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Select the least recently accessed objects of each group in two passes over the cache.
+     * 
+     * @param groupOf gives the group index of an object
+     * @param wanted the number of objects to select in each group
+     * @param spared tells which objects must be kept in memory. May be <code>null</code>.
+     * @return the selected objects.
+     */
+    @objid ("d1d2d3e0-bfa9-4413-8b0f-737052f50b45")
+    private List<ISmObjectData> select(ToIntFunction<ISmObjectData> groupOf, int[] wanted, Predicate<ISmObjectData> spared) {
+        final int now = AccessOrderer.getLastAccess();
+        
+        // First pass: access age histogram of each group
+        int[][] histograms = new int[wanted.length][];
+        for (ISmObjectData d : this.cache.values()) {
+            int g = groupOf.applyAsInt(d);
+            if (wanted[g] > 0 && isCandidate(d, spared)) {
+                if (histograms[g] == null) {
+                    histograms[g] = new int[BUCKETS];
+                }
+                histograms[g][bucket(now, d)]++;
+            }
+        }
+        
+        // Find the bucket where the cumulated count from the oldest one reaches the wanted count.
+        // Only part of the objects of that bucket are taken.
+        int[] cutoffs = new int[wanted.length];
+        int[] atCutoff = new int[wanted.length];
+        int total = 0;
+        for (int g = 0; g < wanted.length; g++) {
+            cutoffs[g] = BUCKETS;
+            if (histograms[g] != null) {
+                int cumulated = 0;
+                for (int b = BUCKETS - 1; b >= 0; b--) {
+                    if (cumulated + histograms[g][b] >= wanted[g]) {
+                        cutoffs[g] = b;
+                        atCutoff[g] = wanted[g] - cumulated;
+                        break;
+                    }
+                    cumulated += histograms[g][b];
+                }
+                if (cutoffs[g] == BUCKETS) {
+                    // Less candidates than wanted: take them all
+                    cutoffs[g] = 0;
+                    atCutoff[g] = histograms[g][0];
+                }
+                total += Math.min(wanted[g], cumulated + atCutoff[g]);
+            }
+        }
+        
+        if (total == 0) {
+            return Collections.emptyList();
+        }
+        
+        // Second pass: collect the objects older than the cutoff
+        List<ISmObjectData> ret = new ArrayList<>(total);
+        for (ISmObjectData d : this.cache.values()) {
+            int g = groupOf.applyAsInt(d);
+            if (histograms[g] != null && isCandidate(d, spared)) {
+                int b = bucket(now, d);
+                if (b > cutoffs[g]) {
+                    ret.add(d);
+                } else if (b == cutoffs[g] && atCutoff[g] > 0) {
+                    atCutoff[g]--;
+                    ret.add(d);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Compute the histogram bucket of an object: the older the object, the higher the bucket.
+     * 
+     * @param now the current access time
+     * @param d an object data
+     * @return the bucket index.
+     */
+    @objid ("818dd04c-a1da-44f1-b34e-371767bdac6f")
+    private static int bucket(int now, ISmObjectData d) {
+        int age = now - d.getLastAccess();
+        if (age < (1 << SUB_BITS)) {
+            // Negative if accessed after 'now' was read
+            return Math.max(0, age);
+        }
+        int exp = 31 - Integer.numberOfLeadingZeros(age);
+        return ((exp - SUB_BITS + 1) << SUB_BITS) | ((age >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1));
+    }
+
+    @objid ("5e9b0855-da13-42ea-bf4d-a8b7c081714a")
+    private static boolean isCandidate(ISmObjectData d, Predicate<ISmObjectData> spared) {
+        return isEvictable(d) && (spared == null || !spared.test(d));
+    }
+
+    @objid ("a53b7346-c25b-4363-8719-35df60a9f6a6")
+    private static boolean isEvictable(ISmObjectData d) {
+        return d.hasAllStatus(IRStatus.LOADING) != StatusState.TRUE;
+    }
+
+}
@@ -24,29 +24,48 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.lang.management.MemoryUsage;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Map;
+import java.util.function.Predicate;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vcore.session.api.memory.IMemoryEventListener;
 import org.modelio.vcore.session.api.memory.IMemoryManager;
 import org.modelio.vcore.smkernel.AccessOrderer;
 import org.modelio.vcore.smkernel.IKernelServiceProvider;
-import org.modelio.vcore.smkernel.IRStatus;
+import org.modelio.vcore.smkernel.IRepositoryObject;
 import org.modelio.vcore.smkernel.ISmObjectData;
 import org.modelio.vcore.smkernel.KernelRegistry;
 import org.modelio.vcore.smkernel.SmObjectData;
-import org.modelio.vcore.smkernel.StatusState;
+import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.SmUuid;
+import org.modelio.vcore.smkernel.mapi.MObject;
 
 /**
- * Service class that polls available memory in a background thread and
+ * Service class that watches available memory in a background thread and
  * asks {@link CacheManager}s to free memory when available memory is low.
  * <p>
+ * The heap pools are given a usage threshold at the high watermark, see {@value #PROPERTY_HIGH_WATERMARK}.
+ * When a garbage collection leaves more memory used than this threshold, the JVM notifies
+ * the memory manager that swaps the least recently accessed objects to bring the heap back
+ * to the low watermark, see {@value #PROPERTY_LOW_WATERMARK}.
+ * Objects of {@link #retain(MObject) retained} CMS nodes are swapped only when an {@link OutOfMemoryError} is imminent.
+ * <p>
+ * The background thread also periodically swaps the objects of repositories exceeding their
+ * {@link EvictionPolicy#setBudget(byte, int) budget}.
+ * <p>
  * {@link IMemoryEventListener} listeners will be fired a {@link IMemoryEventListener#onFreeMemoryStart(MemoryUsage)} property change
  * when beginning freeing memory and {@link IMemoryEventListener#onFreeMemoryEnd(int, MemoryUsage)}
  * when finished.
@@ -56,8 +75,17 @@ public class MemoryManager implements IMemoryManager, Runnable {
     @objid ("ed47c2e3-cf9e-40d0-b14d-c04e4425d99b")
     private static final String PROPERTY_DISABLE_MANAGER = "disableSwap";
 
-    @objid ("635c78ad-6b20-4ffb-83f1-e550b2a1c9b3")
-    private int lastFree = 0;
+    /**
+     * System property defining the fraction of the maximum heap above which objects are swapped.
+     */
+    @objid ("44e63614-e7ac-4b9a-9342-1d3334696f6a")
+    public static final String PROPERTY_HIGH_WATERMARK = "modelio.memory.highWatermark";
+
+    /**
+     * System property defining the fraction of the maximum heap to go back to when swapping objects.
+     */
+    @objid ("d3f3ca07-81cf-4dbc-ab1d-485f7b5d277e")
+    public static final String PROPERTY_LOW_WATERMARK = "modelio.memory.lowWatermark";
 
     @objid ("919f6fe5-3d51-4c86-8cf0-664490c4a4a7")
     private boolean swapEnabled;
@@ -71,15 +99,54 @@ public class MemoryManager implements IMemoryManager, Runnable {
     @objid ("4e1ba2aa-6194-475f-b7c0-cf96a82c5456")
     private static final double LOWMEMORY_RATIO = 0.8;
 
+    @objid ("23b61f8f-3513-49c7-b591-d2af2aa007b5")
+    private static final double DEFAULT_LOW_WATERMARK = 0.6;
+
+    /**
+     * Minimum fraction of each cache to swap once swapping is decided.
+     */
+    @objid ("a122438c-3ccb-45d5-9a5f-ab53e7e6af55")
+    private static final double MIN_FREE_RATIO = 0.1;
+
+    @objid ("8b4562c7-914b-4859-b846-ff1b0124b910")
+    private final double highWatermark;
+
+    @objid ("13ae0c25-e4c4-4210-84b2-6aba1af71c5a")
+    private final double lowWatermark;
+
+    /**
+     * Set by the JMX memory notification when the high watermark is reached.
+     */
+    @objid ("cb287f9f-4e28-48eb-8b37-dafa4e8ae6f8")
+    private boolean lowMemory;
+
+    @objid ("092b7e90-2032-49bc-8d33-9c9a1637b140")
+    private boolean thresholdsInstalled;
+
     @objid ("bd0451d6-8faa-4491-84d9-ba0248e25d51")
     private static volatile MemoryManager instance = null;
 
     @objid ("6ecef006-3d90-4481-886b-d36c0b3abf9f")
-    private Collection<Map<String,ISmObjectData>> caches = new ArrayList<>();
+    private Collection<EvictionPolicy> caches = new ArrayList<>();
 
     @objid ("4d960c39-4d2d-418d-a62f-da0b73bc58d2")
     private Collection<IMemoryEventListener> listeners = new ArrayList<>();
 
+    /**
+     * Retain count of CMS nodes storage handlers.
+     */
+    @objid ("239eae91-dba1-4bce-b114-b7b96619126e")
+    private final Map<IRepositoryObject, Integer> retained = new IdentityHashMap<>();
+
+    /**
+     * Serializes the swap passes.
+     * <p>
+     * Held instead of the memory manager monitor while objects are serialized,
+     * so that object restores and cache registrations do not wait for a swap pass.
+     */
+    @objid ("f0f2affa-30bc-47d2-abe3-f18c147f9c8a")
+    private final Object evictionLock = new Object();
+
     /**
      * Get the memory watcher instance.
      * 
@@ -110,6 +177,9 @@ public class MemoryManager implements IMemoryManager, Runnable {
      */
     @objid ("d9053b8a-722a-4ea1-8e3d-20d028a5c3a0")
     private MemoryManager() {
+        this.highWatermark = getRatioProperty(PROPERTY_HIGH_WATERMARK, LOWMEMORY_RATIO);
+        this.lowWatermark = Math.min(this.highWatermark, getRatioProperty(PROPERTY_LOW_WATERMARK, DEFAULT_LOW_WATERMARK));
+        
         this.swapEnabled = System.getProperty(PROPERTY_DISABLE_MANAGER) == null; 
         if (isSwapEnabled()) {
             createSwapThread();
@@ -128,6 +198,7 @@ public class MemoryManager implements IMemoryManager, Runnable {
         
         while (isSwapEnabled()) {
             try {
+                boolean pressure;
                 synchronized(this) {
                     while (this.caches.isEmpty()) {
                         wait();
@@ -135,6 +206,13 @@ public class MemoryManager implements IMemoryManager, Runnable {
                             return;
                         }
                     }
+            
+                    // Wait for a low memory notification, wake up periodically to check budgets.
+                    if (! this.lowMemory) {
+                        wait(THREAD_PERIOD);
+                    }
+                    pressure = this.lowMemory;
+                    this.lowMemory = false;
                 }
             
                 // Rebuild the last chance swapper if needed
@@ -142,13 +220,11 @@ public class MemoryManager implements IMemoryManager, Runnable {
                     lastResort = new SoftReference<>(new LastResortGc());
                 }
             
-                // Uncomment to enable periodic memory free
-                //ensureFreeMemory();
-            
-                // Wait 3 second at ~90% free, 100ms at 0% free.
-                long toWait = THREAD_PERIOD; //(long) (3000 * (1.1 - pcUsed));
-                Thread.sleep(toWait);
+                if (pressure) {
+                    onHighWatermarkReached();
+                }
             
+                enforceBudgets();
             } catch (InterruptedException e) {
                 //NOOP
             }
@@ -167,91 +243,182 @@ public class MemoryManager implements IMemoryManager, Runnable {
         this.listeners.remove(listener);
     }
 
+    @objid ("5f63a836-c4f9-4344-9a64-448c01501470")
+    @Override
+    public void retain(MObject cmsNode) {
+        IRepositoryObject handle = ((SmObjectImpl) cmsNode).getRepositoryObject();
+        if (handle != null) {
+            synchronized (this.retained) {
+                this.retained.merge(handle, 1, Integer::sum);
+            }
+        }
+    }
+
+    @objid ("364aa0ad-bf88-4de8-91e8-2690e0884ce7")
+    @Override
+    public void release(MObject cmsNode) {
+        IRepositoryObject handle = ((SmObjectImpl) cmsNode).getRepositoryObject();
+        if (handle != null) {
+            synchronized (this.retained) {
+                this.retained.computeIfPresent(handle, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
     /**
      * Add a managed data cache.
      * 
-     * @param dataCache a data cache.
+     * @param policy the eviction policy of a data cache.
      */
     @objid ("57b5a26f-c1d1-4692-9c85-2b36339343cf")
-    public synchronized void addManagedCache(Map<String, ISmObjectData> dataCache) {
-        this.caches.add(dataCache);
+    public synchronized void addManagedCache(EvictionPolicy policy) {
+        this.caches.add(policy);
         notifyAll();
     }
 
     /**
      * Remove a managed cache.
      * 
-     * @param dataCache a data cache.
+     * @param policy the eviction policy of a data cache.
      */
     @objid ("e3999d4b-9483-47f4-b0ed-c0a49a9e6578")
-    public synchronized void removeManagedCache(Map<String, ISmObjectData> dataCache) {
-        this.caches.remove(dataCache);
+    public synchronized void removeManagedCache(EvictionPolicy policy) {
+        this.caches.remove(policy);
     }
 
+    /**
+     * Swaps the given fraction of the least recently accessed objects of each managed cache.
+     * 
+     * @param memoryState the heap state that triggered the call.
+     * @param ratio the fraction of each cache to free.
+     * @param critical if <code>true</code> retained CMS nodes are swapped too.
+     */
     @objid ("14e75e5a-0bfa-423d-af44-edb40da4963d")
-    synchronized void freeMemory(MemoryUsage memoryState) {
-        long total = memoryState.getMax();
-        long used = memoryState.getUsed();
-         
-        int lastAccess = AccessOrderer.getLastAccess();
-        int range = lastAccess - this.lastFree;
-        int toRemove;
-        
-        if (total - used < ONE_MEGABYTE) {
-            toRemove = range * 9 / 10; // if less than 1Mo available, free 90%
-        }
-        else {
-            toRemove = range / 3; // free 30%
-        }
-        
-        int toRemoveIdx = this.lastFree + toRemove; 
+    void freeMemory(MemoryUsage memoryState, double ratio, boolean critical) {
+        synchronized (this.evictionLock) {
+            for (IMemoryEventListener  l : this.listeners) {
+                l.onFreeMemoryStart(memoryState);
+            }
         
-        for (IMemoryEventListener  l : this.listeners) {
-            l.onFreeMemoryStart(memoryState);
-        }
+            Predicate<ISmObjectData> spared = critical ? null : getRetainedFilter();
+            int removed = 0;
         
-        int removed = 0;
+            for (EvictionPolicy c : getManagedCaches()) {
+                int toRemove = (int) (c.getCache().size() * ratio);
+                removed += freeMemory(c.getCache(), c.selectVictims(toRemove, spared));
+            }
         
-        for (Map<String, ISmObjectData> c : this.caches) {
-            removed += freeMemory(c, toRemoveIdx);
+            for (IMemoryEventListener  l : this.listeners) {
+                l.onFreeMemoryEnd(removed, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
+            }
         }
+    }
+
+    /**
+     * Swaps the objects of repositories exceeding their budget.
+     */
+    @objid ("7c9f0a56-c236-441e-8294-f9c142fa82e6")
+    void enforceBudgets() {
+        synchronized (this.evictionLock) {
+            Predicate<ISmObjectData> spared = getRetainedFilter();
+            int removed = 0;
+            MemoryUsage memoryState = null;
         
-        this.lastFree = toRemoveIdx;
+            for (EvictionPolicy c : getManagedCaches()) {
+                List<ISmObjectData> victims = c.selectOverBudget(spared);
+                if (! victims.isEmpty()) {
+                    if (memoryState == null) {
+                        memoryState = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+                        for (IMemoryEventListener  l : this.listeners) {
+                            l.onFreeMemoryStart(memoryState);
+                        }
+                    }
+                    removed += freeMemory(c.getCache(), victims);
+                }
+            }
         
-        for (IMemoryEventListener  l : this.listeners) {
-            l.onFreeMemoryEnd(removed, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
+            if (memoryState != null) {
+                for (IMemoryEventListener  l : this.listeners) {
+                    l.onFreeMemoryEnd(removed, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
+                }
+            }
         }
     }
 
+    /**
+     * @return a snapshot of the managed caches.
+     */
+    @objid ("c2139585-b708-45a5-857f-23612b41445f")
+    private synchronized List<EvictionPolicy> getManagedCaches() {
+        return new ArrayList<>(this.caches);
+    }
+
     /**
      * Swaps and free entries in the given data cache.
+     * <p>
+     * The objects are serialized in batches, then removed one by one from the cache.
+     * An object accessed since its serialization may have been modified: it is kept
+     * in the cache and its swapped copy is discarded.
      * 
      * @param cache an object data cache.
-     * @param toRemoveIdx the access "time" below which an object must be freed.
+     * @param victims the object data to swap and remove from the cache.
      * @return the number of swapped objects.
      */
     @objid ("f5cde29e-4915-4b11-bf56-3226c41952f1")
-    private int freeMemory(Map<String, ISmObjectData> cache, int toRemoveIdx) {
-        int nb = 0;
-        Iterator<Entry<String, ISmObjectData>> it = cache.entrySet().iterator();
+    private int freeMemory(Map<SmUuid, ISmObjectData> cache, List<ISmObjectData> victims) {
+        // Group the objects to swap by kernel to swap them in batches
+        Map<IKernelServiceProvider, List<SmObjectData>> toSwap = new IdentityHashMap<>(2);
+        IKernelServiceProvider[] ksps = new IKernelServiceProvider[victims.size()];
+        int[] accessStamps = new int[victims.size()];
         
-        while (it.hasNext() ) {
-            Entry<String, ISmObjectData> entry = it.next();
-            int lastDataAccess = entry.getValue().getLastAccess();
-            if (lastDataAccess <= toRemoveIdx) {
-                ISmObjectData data = entry.getValue();
-                if (data.hasAllStatus(IRStatus.LOADING) != StatusState.TRUE) {
-                    IKernelServiceProvider ksp = KernelRegistry.getService0(data.getLiveId());
-                    if (ksp != null) {
-                        ksp.getSwap().swap((SmObjectData) data);
-                    }
+        for (int i = 0; i < ksps.length; i++) {
+            ISmObjectData data = victims.get(i);
+            accessStamps[i] = data.getLastAccess();
+            ksps[i] = KernelRegistry.getService0(data.getLiveId());
+            if (ksps[i] != null) {
+                toSwap.computeIfAbsent(ksps[i], k -> new ArrayList<>()).add((SmObjectData) data);
+            }
+        }
         
-                    it.remove();
-                    nb++;
-                }
+        // Swap before removing from the cache
+        for (Entry<IKernelServiceProvider, List<SmObjectData>> entry : toSwap.entrySet()) {
+            entry.getKey().getSwap().swap(entry.getValue());
+        }
+        
+        // Remove first then check the access stamp: the victims list keeps the data
+        // strongly reachable, so the object cannot be restored meanwhile.
+        int removed = 0;
+        for (int i = 0; i < ksps.length; i++) {
+            ISmObjectData data = victims.get(i);
+            boolean wasCached = cache.remove(data.getSmUuid(), data);
+            if (ksps[i] == null) {
+                removed++;
+            } else if (! wasCached) {
+                // Unloaded or deleted meanwhile
+                ksps[i].getSwap().discard(data.getUuid());
+            } else if (data.getLastAccess() != accessStamps[i]) {
+                // Accessed since serialized
+                cache.putIfAbsent(data.getSmUuid(), data);
+                ksps[i].getSwap().discard(data.getUuid());
+            } else {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return a filter matching the objects of retained CMS nodes, or <code>null</code> if none is retained.
+     */
+    @objid ("032a0d21-e6be-4b30-98c6-95941adc0f86")
+    private Predicate<ISmObjectData> getRetainedFilter() {
+        synchronized (this.retained) {
+            if (this.retained.isEmpty()) {
+                return null;
             }
+            Map<IRepositoryObject, Integer> snapshot = new IdentityHashMap<>(this.retained);
+            return d -> snapshot.containsKey(d.getRepositoryObject());
         }
-        return nb;
     }
 
     /**
@@ -266,8 +433,8 @@ public class MemoryManager implements IMemoryManager, Runnable {
         //            l.onResetAccessTimeBegin();
                 
         // Reset all access times
-        for (Map<String, ISmObjectData> c : this.caches) {
-            for (ISmObjectData d : c.values()) {
+        for (EvictionPolicy c : this.caches) {
+            for (ISmObjectData d : c.getCache().values()) {
                 d.setLastAccess(0);
             }
         }
@@ -308,34 +475,139 @@ public class MemoryManager implements IMemoryManager, Runnable {
                 }
             }
         });
+        
+        if (! this.thresholdsInstalled) {
+            this.thresholdsInstalled = true;
               
-        AccessOrderer.addListener(new PropertyChangeListener() {
-            @Override
-            public void propertyChange(PropertyChangeEvent evt) {
-                onAccessTimeOverflow();
-            }
-        });
+            AccessOrderer.addListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    onAccessTimeOverflow();
+                }
+            });
+        
+            installMemoryThresholds();
+        }
         
         t.start();
     }
 
     /**
-     * Ensure that less than {@value #LOWMEMORY_RATIO} fraction of JVM memory is used.
-     * Swaps model objects if the ratio is reached.
+     * Set the high watermark as collection usage threshold of the tenured heap pools
+     * and listen to the JVM notifications.
+     */
+    @objid ("4e5cc09a-aefa-4961-9f33-b52b4c64558f")
+    private void installMemoryThresholds() {
+        boolean found = false;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // Only tenured pools support both usage thresholds.
+            if (pool.getType() == MemoryType.HEAP
+                    && pool.isUsageThresholdSupported()
+                    && pool.isCollectionUsageThresholdSupported()) {
+                long max = pool.getUsage().getMax();
+                if (max > 0) {
+                    pool.setCollectionUsageThreshold((long) (max * this.highWatermark));
+                    found = true;
+                }
+            }
+        }
+        
+        if (! found) {
+            Log.warning("MemoryManager: no heap memory pool supports usage thresholds, objects will be swapped only on imminent OutOfMemoryError.");
+            return;
+        }
+        
+        NotificationEmitter emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+        emitter.addNotificationListener(new NotificationListener() {
+            @Override
+            public void handleNotification(Notification notification, Object handback) {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                    onLowMemory();
+                }
+            }
+        }, null, null);
+    }
+
+    @objid ("7982b786-a77d-4a8c-b53a-b52261f48e96")
+    private synchronized void onLowMemory() {
+        this.lowMemory = true;
+        notifyAll();
+    }
+
+    /**
+     * Ensure that less than the high watermark fraction of JVM memory is used.
+     * Swaps model objects, including retained CMS nodes, if the high watermark is reached.
+     * <p>
+     * Called just before an {@link OutOfMemoryError} would be raised.
      */
     @objid ("c41885c2-8c08-4d3f-8328-61aeba8a067c")
     void ensureFreeMemory() {
         // Compute used memory
         MemoryUsage memState = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
         
-        long available = memState.getCommitted();
+        long available = getAvailable(memState);
         long used = memState.getUsed();
         double pcUsed = (double)used / available;
         
         // Swap some objects if running low memory
-        if (pcUsed > LOWMEMORY_RATIO) {
-            freeMemory(memState);
+        if (pcUsed > this.highWatermark) {
+            freeMemory(memState, getFreeRatio(memState), true);
+        }
+    }
+
+    /**
+     * Swaps model objects to bring back the heap to the low watermark.
+     * <p>
+     * Called when the JVM notified the high watermark was reached after a garbage collection.
+     */
+    @objid ("147f7267-16c9-4fce-b110-230be7727f1a")
+    private void onHighWatermarkReached() {
+        MemoryUsage memState = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        freeMemory(memState, getFreeRatio(memState), false);
+    }
+
+    /**
+     * Compute the fraction of the caches to free.
+     * <p>
+     * The same fraction of the caches as the fraction of used heap above the low watermark is freed.
+     * 
+     * @param memState the heap state
+     * @return the fraction of each cache to free.
+     */
+    @objid ("481d5fc8-a4aa-4977-b825-1128634bbb3d")
+    private double getFreeRatio(MemoryUsage memState) {
+        long available = getAvailable(memState);
+        long used = memState.getUsed();
+        
+        if (available - used < ONE_MEGABYTE) {
+            return 0.9; // if less than 1Mo available, free 90%
+        }
+        
+        double pcUsed = (double)used / available;
+        double ratio = (pcUsed - this.lowWatermark) / pcUsed;
+        return Math.min(0.9, Math.max(MIN_FREE_RATIO, ratio));
+    }
+
+    @objid ("815fa2f0-f73d-4251-9cd5-b8472bfbd35c")
+    private static long getAvailable(MemoryUsage memState) {
+        return memState.getMax() > 0 ? memState.getMax() : memState.getCommitted();
+    }
+
+    @objid ("38618244-7269-40bc-85ed-8a064280ab09")
+    private static double getRatioProperty(String key, double defaultValue) {
+        String s = System.getProperty(key);
+        if (s != null) {
+            try {
+                double v = Double.parseDouble(s);
+                if (v > 0 && v < 1) {
+                    return v;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            Log.warning("MemoryManager: invalid '%s' value '%s', using %s.", key, s, defaultValue);
         }
+        return defaultValue;
     }
 
     /**
@@ -356,7 +628,6 @@ public class MemoryManager implements IMemoryManager, Runnable {
         protected void finalize() throws Throwable {
             // Shield against Linux PermGen full.
             // On Linux SoftReference are freed when PermGen is full too.
-            // Free memory only if 1/4 or less
             ensureFreeMemory();
             
             super.finalize();
@@ -22,6 +22,7 @@ package org.modelio.vcore.session.impl.handles;
 
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
 
 /**
  * Metaobject helper interface to handle the model object cache.
@@ -37,4 +38,15 @@ public interface ICacheHandle {
     @objid ("0012d52c-e639-1f34-b94f-001ec947cd2a")
     void objUndeleted(final SmObjectImpl obj);
 
+    /**
+     * Called each time an attribute value of an object is modified, undone or redone.
+     * <p>
+     * Allows the cache to maintain its attribute indexes.
+     * 
+     * @param obj the modified object
+     * @param att the modified attribute
+     */
+    @objid ("e4133aa8-aaa4-4bc5-8e52-22265199dfc9")
+    void attModified(final SmObjectImpl obj, final SmAttribute att);
+
 }
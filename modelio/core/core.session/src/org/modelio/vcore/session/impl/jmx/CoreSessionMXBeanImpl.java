@@ -27,11 +27,14 @@ import javax.management.ObjectName;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vcore.session.api.ICoreSession;
 import org.modelio.vcore.session.impl.cache.CacheManager;
+import org.modelio.vcore.session.impl.transactions.events.ModelChangeSupport;
 import org.modelio.vcore.smkernel.IKernelServiceProvider;
 import org.modelio.vcore.smkernel.ISwap;
 import org.modelio.vcore.swap.JdbmSwap;
+import org.modelio.vcore.swap.MappedSwap;
 import org.modelio.vcore.swap.jmx.ISwapMXBean;
 import org.modelio.vcore.swap.jmx.JdbmSwapMXAdapter;
+import org.modelio.vcore.swap.jmx.MappedSwapMXAdapter;
 
 /**
  * MBean implementation for CoreSession.
@@ -54,11 +57,20 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
     @objid ("f3583319-4ccb-4238-8e07-c22134bdc6b5")
     private static final String JMX_CORE_SESSION_SWAP_ID = "org.modelio.jmx:type=CoreSession,id=%d,sub=Swap";
 
+    /**
+     * {@link ObjectName} name for the model change support MBean.
+     */
+    @objid ("15b6cf3d-3320-411e-8219-84dbb5a586b0")
+    private static final String JMX_CORE_SESSION_MODEL_CHANGE_ID = "org.modelio.jmx:type=CoreSession,id=%d,sub=ModelChange";
+
     @objid ("dca6b001-493b-11e2-91c9-001ec947ccaf")
     private ICoreSession session;
 
     @objid ("dca91255-493b-11e2-91c9-001ec947ccaf")
-    private JdbmSwapMXAdapter swap;
+    private ISwap swap;
+
+    @objid ("ad646216-fba5-45f8-a94e-6410d90ab2bf")
+    private ISwapMXBean swapBean;
 
     @objid ("dca91256-493b-11e2-91c9-001ec947ccaf")
     private IKernelServiceProvider ksp;
@@ -72,15 +84,40 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
     @objid ("b2ddf6cd-49c5-11e2-91c9-001ec947ccaf")
     private CacheManager cacheManager;
 
+    @objid ("5e4e946b-380f-4a91-a3aa-75ba6becb8c3")
+    private ModelChangeSupportMXAdapter changeSupportBean;
+
+    @objid ("6998ba8b-f51d-48a8-a1d2-400127b87ab2")
+    private ObjectName changeSupportBeanName;
+
     /**
      * @param session the core session
      * @param swap the actual swapper
      * @param cacheManager the session cache manager
      */
     @objid ("dca91257-493b-11e2-91c9-001ec947ccaf")
+    public CoreSessionMXBeanImpl(ICoreSession session, MappedSwap swap, CacheManager cacheManager) {
+        MappedSwapMXAdapter adapter = new MappedSwapMXAdapter(swap);
+        this.session = session;
+        this.swap = adapter;
+        this.swapBean = adapter;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Constructor for the JDBM swap fallback.
+     * 
+     * @param session the core session
+     * @param swap the actual swapper
+     * @param cacheManager the session cache manager
+     * @since 4.1
+     */
+    @objid ("64827961-90fa-4ecb-9a2e-fcdda2bb6b96")
     public CoreSessionMXBeanImpl(ICoreSession session, JdbmSwap swap, CacheManager cacheManager) {
+        JdbmSwapMXAdapter adapter = new JdbmSwapMXAdapter(swap);
         this.session = session;
-        this.swap = new JdbmSwapMXAdapter(swap);
+        this.swap = adapter;
+        this.swapBean = adapter;
         this.cacheManager = cacheManager;
     }
 
@@ -93,7 +130,7 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
     @objid ("dca91260-493b-11e2-91c9-001ec947ccaf")
     @Override
     public ISwapMXBean getSwapBean() {
-        return this.swap;
+        return this.swapBean;
     }
 
     /**
@@ -108,6 +145,18 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
         return this.swap;
     }
 
+    /**
+     * Set the model change support to monitor.
+     * <p>
+     * Must be called before {@link #register()}.
+     * 
+     * @param changeSupport the session model change support.
+     */
+    @objid ("7d2dbbc6-a0b8-40e2-ac29-2569f9ddab59")
+    public void setModelChangeSupport(ModelChangeSupport changeSupport) {
+        this.changeSupportBean = new ModelChangeSupportMXAdapter(changeSupport);
+    }
+
     @objid ("dca91269-493b-11e2-91c9-001ec947ccaf")
     @Override
     public int getKernelId() {
@@ -135,13 +184,18 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
         
             this.swapBeanName = new ObjectName(String.format(JMX_CORE_SESSION_SWAP_ID,getKernelId()));
             mbs.registerMBean(getSwapBean(), this.swapBeanName);
+        
+            if (this.changeSupportBean != null) {
+                this.changeSupportBeanName = new ObjectName(String.format(JMX_CORE_SESSION_MODEL_CHANGE_ID,getKernelId()));
+                mbs.registerMBean(this.changeSupportBean, this.changeSupportBeanName);
+            }
         } catch (JMException e) {
             throw new Error(e);
         }
     }
 
     /**
-     * Remove this bean and the swap bean from the platform.
+     * Remove this bean, the swap bean and the model change bean from the platform.
      */
     @objid ("dcab74a9-493b-11e2-91c9-001ec947ccaf")
     public void unregister() {
@@ -149,6 +203,9 @@ public class CoreSessionMXBeanImpl implements ICoreSessionMXBean {
         try {
             mbs.unregisterMBean(this.beanName);
             mbs.unregisterMBean(this.swapBeanName);
+            if (this.changeSupportBeanName != null) {
+                mbs.unregisterMBean(this.changeSupportBeanName);
+            }
         } catch (JMException e) {
             throw new Error(e);
         }
@@ -0,0 +1,51 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.impl.jmx;
+
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * JMX Bean spec for the session model change support.
+ * @since 4.1
+ */
+@objid ("f2e285e3-c2c3-40b7-8ba2-2f3c7ec77d4a")
+public interface IModelChangeSupportMXBean {
+    /**
+     * @return the number of registered model change listeners.
+     */
+    @objid ("3e7ec9d6-e1a7-4528-8150-7740b716a50b")
+    int getModelChangeListenerCount();
+
+    /**
+     * Get the dispatch statistics of each model change listener, the slowest first.
+     * 
+     * @return one line per listener.
+     */
+    @objid ("4599cc1d-6010-4451-ad79-5f2f890fb30c")
+    String[] getModelChangeListenerStatistics();
+
+    /**
+     * Reset the dispatch statistics of all listeners.
+     */
+    @objid ("8f09f5de-d565-4530-b09f-b3d39c66a9be")
+    void resetStatistics();
+
+}
@@ -0,0 +1,74 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.impl.jmx;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.session.impl.transactions.events.ModelChangeListenerEntry;
+import org.modelio.vcore.session.impl.transactions.events.ModelChangeSupport;
+
+/**
+ * JMX adapter for {@link ModelChangeSupport}.
+ * @since 4.1
+ */
+@objid ("1fd2eaee-d972-47f7-b54e-cc6e37bbab40")
+public class ModelChangeSupportMXAdapter implements IModelChangeSupportMXBean {
+    @objid ("0066d44c-7842-451a-9fec-d60a2f75fea2")
+    private final ModelChangeSupport changeSupport;
+
+    /**
+     * @param changeSupport the monitored model change support.
+     */
+    @objid ("db5c1a62-83b5-4acb-816e-48d5648eb007")
+    public ModelChangeSupportMXAdapter(ModelChangeSupport changeSupport) {
+        this.changeSupport = changeSupport;
+    }
+
+    @objid ("d4a793d0-4331-4684-be95-53ea628459aa")
+    @Override
+    public int getModelChangeListenerCount() {
+        return this.changeSupport.getModelChangeListenerEntries().size();
+    }
+
+    @objid ("d743098c-e0dc-48ce-af24-505d1f812648")
+    @Override
+    public String[] getModelChangeListenerStatistics() {
+        List<ModelChangeListenerEntry> entries = new ArrayList<>(this.changeSupport.getModelChangeListenerEntries());
+        entries.sort(Comparator.comparingLong(ModelChangeListenerEntry::getTotalNanos).reversed());
+        
+        String[] ret = new String[entries.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = entries.get(i).getStatistics();
+        }
+        return ret;
+    }
+
+    @objid ("38f45d1e-71d0-4640-9b03-5905dac4dd70")
+    @Override
+    public void resetStatistics() {
+        for (ModelChangeListenerEntry entry : this.changeSupport.getModelChangeListenerEntries()) {
+            entry.resetStatistics();
+        }
+    }
+
+}
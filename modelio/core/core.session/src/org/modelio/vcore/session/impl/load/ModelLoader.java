@@ -255,7 +255,7 @@ class ModelLoader implements IModelLoader {
         ISmObjectData data = cls.getObjectFactory().createData();
         
         obj.initData(data);
-        data.init(obj.getUuid(), obj.getLiveId());
+        data.init(obj.getSmUuid(), obj.getLiveId());
         addLoadedData(data);
         
         try {
@@ -264,11 +264,11 @@ class ModelLoader implements IModelLoader {
             // Set the object as deleted and shell, .
             data.setRFlags(IRStatus.DELETED | IRStatus.SHELL, 0, 0);
             
-            data = this.cacheManager.getCachedData(obj.getUuid());
+            data = this.cacheManager.getCachedData(obj.getSmUuid());
             
             if (data != null) {
                 obj.initData(data);
-                data.init(data.getUuid(), data.getLiveId());
+                data.init(data.getSmUuid(), data.getLiveId());
             } else {
                 throw new ConcurrentModificationException(e.toString(), e);
             }
@@ -440,7 +440,7 @@ class ModelLoader implements IModelLoader {
                 // The loaded object is deleted : undelete it.
                 //   Create a dummy SmObjectImpl for cacheManager.
                 SmObjectImpl tempObj = data.getClassOf().getObjectFactory().createImpl();
-                tempObj.init(data.getUuid(), data.getLiveId());
+                tempObj.init(data.getSmUuid(), data.getLiveId());
                 tempObj.initData(data);
                 this.cacheManager.removeFromDeleted(tempObj);
             }
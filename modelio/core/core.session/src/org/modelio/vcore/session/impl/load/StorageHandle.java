@@ -290,7 +290,7 @@ public class StorageHandle implements IStorageHandle {
             // Update live ids
             long oldLiveId = toMove.getLiveId();
             long newLiveId = SmLiveId.make(SmLiveId.getKid(oldLiveId), destRepoId, SmLiveId.getClassId(oldLiveId));
-            toMove.init(toMove.getUuid(), newLiveId);
+            toMove.init(toMove.getSmUuid(), newLiveId);
         }
         
         // Recurse to children
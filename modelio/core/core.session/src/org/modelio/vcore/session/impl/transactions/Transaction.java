@@ -22,12 +22,20 @@ package org.modelio.vcore.session.impl.transactions;
 
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vcore.session.api.transactions.ITransaction;
+import org.modelio.vcore.session.impl.transactions.smAction.CreateElementAction;
+import org.modelio.vcore.session.impl.transactions.smAction.DeleteElementAction;
 import org.modelio.vcore.session.impl.transactions.smAction.IAction;
+import org.modelio.vcore.session.impl.transactions.smAction.SetAttributeAction;
+import org.modelio.vcore.session.impl.transactions.smAction.SimpleAction;
 import org.modelio.vcore.session.impl.transactions.smAction.smActionInteractions.IActionVisitor;
+import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
 
 /**
  * Les transactions sont identifiees, cet identifiant permet de donner ?
@@ -64,6 +72,12 @@ public class Transaction implements IAction, ITransaction {
     @objid ("793998af-1387-4741-8966-64b0b2ce578f")
     private Throwable creationTrace;
 
+    /**
+     * Estimated memory retained by the transaction, computed when it enters the undo history.
+     */
+    @objid ("9d8338ab-f9c8-47d9-8bed-4a878512dab5")
+    private long estimatedSize;
+
     /**
      * Constructeur d'une transaction.
      */
@@ -117,6 +131,72 @@ public class Transaction implements IAction, ITransaction {
         }
     }
 
+    /**
+     * Compact the transaction before it enters the undo history, and estimate the memory it retains.
+     * <p>
+     * Successive modifications of the same attribute of the same object are merged into the first one.
+     * The status attribute is left untouched because its modifications go with element creation and deletion.
+     * Sub transactions are compacted separately, and modifications are never merged across a sub transaction.
+     * 
+     * @return the estimated memory retained by the transaction, in bytes.
+     */
+    @objid ("64d41e36-58a9-4805-9ef0-339655c43279")
+    long compact() {
+        compactActions();
+        this.estimatedSize = TransactionSizeEstimator.estimate(this);
+        return this.estimatedSize;
+    }
+
+    /**
+     * @return the estimated memory retained by the transaction, as computed by {@link #compact()}.
+     */
+    @objid ("320dcf0d-1f26-44b6-8b3d-8a13c30fba18")
+    long getEstimatedSize() {
+        return this.estimatedSize;
+    }
+
+    @objid ("62968c0e-a2f3-4e1f-ac69-0cc5049568a2")
+    private void compactActions() {
+        Map<SmObjectImpl, Map<SmAttribute, SetAttributeAction>> lastSets = new IdentityHashMap<>();
+        List<IAction> compacted = new ArrayList<>(this.actions.size());
+        
+        for (IAction action : this.actions) {
+            if (action.isTransaction()) {
+                ((Transaction) action).compactActions();
+                compacted.add(action);
+                
+                // The sub transaction may modify the same attributes: never merge across it
+                lastSets.clear();
+            } else if (action instanceof SetAttributeAction) {
+                SetAttributeAction setAction = (SetAttributeAction) action;
+                SmObjectImpl obj = setAction.getRefered();
+                SmAttribute att = setAction.getAtt();
+                if (att == obj.getClassOf().statusAtt()) {
+                    compacted.add(action);
+                } else {
+                    Map<SmAttribute, SetAttributeAction> objSets = lastSets.computeIfAbsent(obj, k -> new IdentityHashMap<>());
+                    SetAttributeAction first = objSets.get(att);
+                    if (first != null) {
+                        first.merge(setAction);
+                    } else {
+                        objSets.put(att, setAction);
+                        compacted.add(action);
+                    }
+                }
+            } else {
+                if (action instanceof CreateElementAction || action instanceof DeleteElementAction) {
+                    // Never merge attribute modifications across the creation or deletion of the object
+                    lastSets.remove(((SimpleAction) action).getRefered());
+                }
+                compacted.add(action);
+            }
+        }
+        
+        if (compacted.size() != this.actions.size()) {
+            this.actions = compacted;
+        }
+    }
+
     /**
      * Get the stack trace recorded when the transaction was created.
      * 
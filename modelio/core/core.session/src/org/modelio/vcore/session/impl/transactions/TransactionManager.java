@@ -47,11 +47,13 @@ import org.modelio.vcore.session.api.transactions.TransactionCreationException;
 import org.modelio.vcore.session.api.transactions.TransactionForbiddenException;
 import org.modelio.vcore.session.api.transactions.UndoActiveTransactionException;
 import org.modelio.vcore.session.api.transactions.UndoNoDoneTransactionException;
+import org.modelio.vcore.session.impl.handles.ICacheHandle;
 import org.modelio.vcore.session.impl.transactions.events.EventFactory;
 import org.modelio.vcore.session.impl.transactions.events.ModelChangeSupport;
 import org.modelio.vcore.session.impl.transactions.smAction.AddActionNoActiveTransactionException;
 import org.modelio.vcore.session.impl.transactions.smAction.IAction;
 import org.modelio.vcore.session.impl.transactions.smAction.IActionManager;
+import org.modelio.vcore.session.impl.transactions.smAction.SetAttributeAction;
 import org.modelio.vcore.session.plugin.VCoreSession;
 
 /**
@@ -63,6 +65,24 @@ import org.modelio.vcore.session.plugin.VCoreSession;
 @objid ("006f848e-0d1e-1f20-85a5-001ec947cd2a")
 @SuppressWarnings("resource")
 public class TransactionManager implements IActionManager, ITransactionSupport {
+    /**
+     * System property defining the maximum number of transactions kept in the undo history.
+     */
+    @objid ("8a2e2ac0-f02b-4840-8b4d-9f7a05d80631")
+    public static final String PROPERTY_UNDO_MAX_TRANSACTIONS = "modelio.undo.maxTransactions";
+
+    /**
+     * System property defining the maximum estimated memory retained by the undo history, in megabytes.
+     */
+    @objid ("d3b8e4a4-a441-4a1e-bb0c-1d679fbb74d9")
+    public static final String PROPERTY_UNDO_MAX_SIZE = "modelio.undo.maxSize";
+
+    @objid ("941952cb-3705-4e4c-a7b5-3ebcfdb6f19a")
+    private static final int DEFAULT_UNDO_MAX_TRANSACTIONS = 100;
+
+    @objid ("4af5aac3-1e67-4e52-919e-e9774630fa15")
+    private static final long DEFAULT_UNDO_MAX_SIZE = 64;
+
     @objid ("006ede80-0d1e-1f20-85a5-001ec947cd2a")
     private boolean actionsRecorded = true;
 
@@ -113,6 +133,33 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
     @objid ("006ecbe8-0d1e-1f20-85a5-001ec947cd2a")
     private final Deque<Transaction> undoneTransactions = new ArrayDeque<>();
 
+    /**
+     * Maximum number of transactions in the 'done' stack.
+     */
+    @objid ("3f620308-e04a-4e0b-9bb5-2ff7377c17aa")
+    private int maxUndoTransactions;
+
+    /**
+     * Maximum estimated memory retained by the 'done' stack, in bytes.
+     */
+    @objid ("5e7d747b-af80-4d16-b072-b46d0a6fa1ed")
+    private long maxUndoSize;
+
+    /**
+     * Estimated memory retained by the 'done' stack, in bytes.
+     * <p>
+     * The 'undone' stack is not accounted: it only holds transactions moved from the 'done' stack
+     * and is emptied as soon as a new action is recorded.
+     */
+    @objid ("179da3cc-427f-43f5-8a84-4e155b52c99d")
+    private long doneSize;
+
+    /**
+     * Cache to notify of attribute values restored by undo, redo and rollback.
+     */
+    @objid ("bb85e5be-8bc3-467a-b406-0f40754ec446")
+    private ICacheHandle cacheHandle;
+
     /**
      * Constructor for the transaction manager.
      * 
@@ -122,6 +169,8 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
     public TransactionManager(ModelChangeSupport changeSupport) {
         this.actionHandle = new ActionHandle(this);
         this.changeSupport = changeSupport;
+        this.maxUndoTransactions = Integer.getInteger(PROPERTY_UNDO_MAX_TRANSACTIONS, DEFAULT_UNDO_MAX_TRANSACTIONS);
+        this.maxUndoSize = Long.getLong(PROPERTY_UNDO_MAX_SIZE, DEFAULT_UNDO_MAX_SIZE) * 1024 * 1024;
     }
 
     /**
@@ -253,6 +302,8 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
                 // and discards the others.
                 if (toCommit.isUndoable()) {
                     this.doneTransactions.push(toCommit);
+                    this.doneSize += toCommit.compact();
+                    trimUndoHistory();
                 }
         
                 // Notify model change listeners.
@@ -447,7 +498,9 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
             Log.trace("Redo '"+ undoneTransaction.getName()+"'");
         
             undoneTransaction.redo();
+            notifyCacheAttModified(undoneTransaction);
             this.doneTransactions.push(undoneTransaction);
+            this.doneSize += undoneTransaction.getEstimatedSize();
         
             // Notify transaction listeners
             //fireRedoTransaction(undoneTransaction);
@@ -472,6 +525,7 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
             }
             this.undoneTransactions.clear();
             this.doneTransactions.clear();
+            this.doneSize = 0;
             updateHasCurrentTransaction();
         } finally {
             this.sync.unlock();
@@ -508,6 +562,7 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
             // undo the current transaction
             Transaction rollbackTransaction = this.activeTransactions.pop();
             rollbackTransaction.undo(true);
+            notifyCacheAttModified(rollbackTransaction);
         
             // Notify model change listeners
             //fireAbortTransaction(rollbackTransaction, this.activeTransactions.isEmpty());
@@ -597,10 +652,12 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
                 }
         
                 Transaction doneTransaction = this.doneTransactions.pop();
+                this.doneSize -= doneTransaction.getEstimatedSize();
         
                 Log.trace("Undo '"+ doneTransaction.getName()+"'");
         
                 doneTransaction.undo(false);
+                notifyCacheAttModified(doneTransaction);
                 this.undoneTransactions.push(doneTransaction);
         
                 // Notify transaction listeners
@@ -615,6 +672,46 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
         }
     }
 
+    /**
+     * Set the undo history budget.
+     * <p>
+     * The oldest transactions are discarded from the undo history as soon as it holds more than
+     * <code>maxTransactions</code> transactions or retains more than <code>maxSize</code> estimated bytes.
+     * The last committed transaction is always kept, whatever its size.
+     * <p>
+     * Defaults are read from the {@value #PROPERTY_UNDO_MAX_TRANSACTIONS} and {@value #PROPERTY_UNDO_MAX_SIZE}
+     * system properties.
+     * 
+     * @param maxTransactions the maximum number of undoable transactions. Must be at least 1.
+     * @param maxSize the maximum estimated memory retained by the undo history, in bytes.
+     * @since 4.1
+     */
+    @objid ("81f8006d-59e5-4790-8f68-42d6250fd228")
+    public void setUndoBudget(int maxTransactions, long maxSize) {
+        if (maxTransactions < 1) {
+            throw new IllegalArgumentException("maxTransactions="+maxTransactions);
+        }
+        
+        this.sync.lock();
+        try {
+            this.maxUndoTransactions = maxTransactions;
+            this.maxUndoSize = maxSize;
+            trimUndoHistory();
+        } finally {
+            this.sync.unlock();
+        }
+    }
+
+    /**
+     * Set the cache to notify of attribute values restored by undo, redo and rollback.
+     * 
+     * @param cacheHandle the cache handle.
+     */
+    @objid ("5390a242-3e9a-41c7-bad6-766331dfe4a7")
+    public void setCacheHandle(ICacheHandle cacheHandle) {
+        this.cacheHandle = cacheHandle;
+    }
+
     @objid ("c70a5ac5-aea4-4781-8ef2-1d3dc346c415")
     void setTransactionsForbidden(boolean transactionsForbidden) {
         this.transactionsForbidden = transactionsForbidden;
@@ -642,6 +739,29 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
         }
     }
 
+    /**
+     * Notify the cache of all attribute modifications replayed by an undo, redo or rollback.
+     * <p>
+     * Attribute actions are replayed directly on the object data and bypass the metaobject.
+     * 
+     * @param action a replayed transaction or action.
+     */
+    @objid ("cc78e0b9-c91e-4dd5-a64e-58676921aa6a")
+    private void notifyCacheAttModified(IAction action) {
+        if (this.cacheHandle == null) {
+            return;
+        }
+        
+        if (action instanceof Transaction) {
+            for (IAction subAction : ((Transaction) action).getActions()) {
+                notifyCacheAttModified(subAction);
+            }
+        } else if (action instanceof SetAttributeAction) {
+            SetAttributeAction setAction = (SetAttributeAction) action;
+            this.cacheHandle.attModified(setAction.getRefered(), setAction.getAtt());
+        }
+    }
+
     /**
      * Fires model change handlers. Handler can modify the model
      */
@@ -663,6 +783,24 @@ public class TransactionManager implements IActionManager, ITransactionSupport {
         }
     }
 
+    /**
+     * Discard the oldest transactions of the 'done' stack until the undo history budget is met.
+     * <p>
+     * The discarded transactions cannot be undone anymore. They are emptied so that the model objects
+     * and attribute values they still reference become collectable even if a transaction is leaked somewhere.
+     */
+    @objid ("c3166690-32e1-4218-ade9-95084fafa7cd")
+    private void trimUndoHistory() {
+        while (this.doneTransactions.size() > this.maxUndoTransactions
+                || (this.doneSize > this.maxUndoSize && this.doneTransactions.size() > 1)) {
+            Transaction oldest = this.doneTransactions.removeLast();
+            this.doneSize -= oldest.getEstimatedSize();
+        
+            Log.trace("'%s' transaction discarded from the undo history.", oldest.getName());
+            oldest.clearAllSimpleActions();
+        }
+    }
+
     /**
      * Compute the return value of {@link #hasCurrentTransaction()}.
      * <p>
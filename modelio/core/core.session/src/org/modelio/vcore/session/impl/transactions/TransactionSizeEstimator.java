@@ -0,0 +1,136 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.impl.transactions;
+
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.session.impl.transactions.smAction.AppendDependencyAction;
+import org.modelio.vcore.session.impl.transactions.smAction.CreateElementAction;
+import org.modelio.vcore.session.impl.transactions.smAction.DeleteElementAction;
+import org.modelio.vcore.session.impl.transactions.smAction.EraseDependencyAction;
+import org.modelio.vcore.session.impl.transactions.smAction.IAction;
+import org.modelio.vcore.session.impl.transactions.smAction.MoveDependencyAction;
+import org.modelio.vcore.session.impl.transactions.smAction.SetAttributeAction;
+import org.modelio.vcore.session.impl.transactions.smAction.smActionInteractions.IActionVisitor;
+
+/**
+ * Estimates the memory retained by a transaction in the undo/redo history.
+ * <p>
+ * The estimate is a rough approximation of the shallow size of the actions and of the attribute values
+ * they keep. Model objects referenced by the actions are not accounted: they are owned by the cache.
+ * @since 4.1
+ */
+@objid ("c6498137-1478-4b30-a371-df185ac7e9fc")
+class TransactionSizeEstimator implements IActionVisitor {
+    /**
+     * Estimated size of a transaction object without its actions.
+     */
+    @objid ("a5bc2be6-47cd-4f5e-a10f-ff3bd7c01830")
+    private static final int TRANSACTION_SIZE = 64;
+
+    /**
+     * Estimated size of a simple action, including its slot in the transaction action list.
+     */
+    @objid ("7e13f361-3ebf-401b-9cf4-1a95ff246b75")
+    private static final int ACTION_SIZE = 40;
+
+    /**
+     * Estimated size of a boxed attribute value.
+     */
+    @objid ("b7abc787-69ce-4621-adf8-048cfd89fd1d")
+    private static final int VALUE_SIZE = 16;
+
+    @objid ("ec76b635-92e0-4041-8277-213ba4a8325d")
+    private long size;
+
+    /**
+     * Estimate the memory retained by the given transaction.
+     * 
+     * @param tr a transaction
+     * @return the estimated size in bytes.
+     */
+    @objid ("b2abafb1-d147-49bb-8a90-1e2cef819bd3")
+    static long estimate(Transaction tr) {
+        TransactionSizeEstimator v = new TransactionSizeEstimator();
+        tr.accept(v);
+        return v.size;
+    }
+
+    @objid ("652c085d-c0e1-49b0-8cd4-f2751c540903")
+    @Override
+    public void visitTransaction(final Transaction theTransaction) {
+        this.size += TRANSACTION_SIZE;
+        for (IAction a : theTransaction.getActions()) {
+            a.accept(this);
+        }
+    }
+
+    @objid ("eb338e5e-c943-4152-8b05-eef10aee1433")
+    @Override
+    public void visitCreateElementAction(final CreateElementAction theCreateElementAction) {
+        this.size += ACTION_SIZE;
+    }
+
+    @objid ("42ed6a41-6381-4c6d-bd19-997276b7efed")
+    @Override
+    public void visitDeleteElementAction(final DeleteElementAction theDeleteElementAction) {
+        this.size += ACTION_SIZE;
+    }
+
+    @objid ("086ee057-bac4-4849-8e01-3256ea31fa6f")
+    @Override
+    public void visitSetAttributeAction(final SetAttributeAction theSetAttributeAction) {
+        this.size += ACTION_SIZE + valueSize(theSetAttributeAction.getOldValue()) + valueSize(theSetAttributeAction.getNewValue());
+    }
+
+    @objid ("572c5b65-a425-4342-bb2b-1ffb036ac477")
+    @Override
+    public void visitEraseDependencyAction(final EraseDependencyAction theEraseDependencyAction) {
+        this.size += ACTION_SIZE;
+    }
+
+    @objid ("9d10845c-b11c-4ec5-9d55-868ffd4b18f2")
+    @Override
+    public void visitAppendDependencyAction(final AppendDependencyAction theAppendDependencyAction) {
+        this.size += ACTION_SIZE;
+    }
+
+    @objid ("e0c27d1c-6ab7-4eb2-8ab5-b02188ac96f4")
+    @Override
+    public void visitMoveDependencyAction(final MoveDependencyAction theMoveDependencyAction) {
+        this.size += ACTION_SIZE;
+    }
+
+    /**
+     * Strings are the only attribute values whose size really matters: notes and constraints
+     * may hold large texts. Enumerations are shared, other values are small boxed primitives.
+     */
+    @objid ("3fe52a5d-21ff-4ece-acd7-d72f68e8a355")
+    private static long valueSize(Object value) {
+        if (value == null || value instanceof Enum) {
+            return 0;
+        } else if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else {
+            return VALUE_SIZE;
+        }
+    }
+
+}
@@ -32,6 +32,7 @@ import org.modelio.vcore.session.api.model.change.ChangeCause;
 import org.modelio.vcore.session.api.model.change.IElementDeletedEvent;
 import org.modelio.vcore.session.api.model.change.IElementMovedEvent;
 import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
 import org.modelio.vcore.smkernel.mapi.MObject;
 
 @objid ("00d00074-0000-085f-0000-000000000000")
@@ -168,6 +169,54 @@ class ModelChangeEvent implements IModelChangeEvent {
                         this.deletedRootElements.isEmpty();
     }
 
+    /**
+     * Add to this event the part of another event accepted by a filter.
+     * <p>
+     * Used to filter and coalesce events. The cause becomes the added event cause.
+     * When an element was moved or deleted many times the first old parent is kept.
+     * 
+     * @param other the event to add
+     * @param filter the interest filter
+     */
+    @objid ("c147b49f-23d3-4fb9-ab09-ed4c70be72aa")
+    void addFiltered(IModelChangeEvent other, ModelChangeFilter filter) {
+        this.cause = other.getCause();
+        
+        for (MObject obj : other.getCreationEvents()) {
+            if (filter.accept(obj, null)) {
+                this.createdElements.add(obj);
+            }
+        }
+        
+        for (MObject obj : other.getUpdateEvents()) {
+            if (filter.accept(obj, null)) {
+                this.updatedElements.add(obj);
+            }
+        }
+        
+        for (IElementDeletedEvent ev : other.getDeleteEvents()) {
+            if (filter.accept(ev.getDeletedElement(), ev.getOldParent())) {
+                this.deletedElements.putIfAbsent(ev.getDeletedElement(), ev.getOldParent());
+            }
+        }
+        
+        for (MObject obj : other.getRootDeletionEvents()) {
+            if (filter.accept(obj, this.deletedElements.get(obj))) {
+                this.deletedRootElements.add(obj);
+            }
+        }
+        
+        for (IElementMovedEvent ev : other.getMoveEvents()) {
+            if (filter.accept(ev.getMovedElement(), ev.getOldParent())) {
+                this.movedElements.putIfAbsent(ev.getMovedElement(), ev.getOldParent());
+            }
+        }
+        
+        // Computed lists are now obsolete
+        this.deleteEvents = null;
+        this.moveEvents = null;
+    }
+
     @objid ("0020d7d0-47fe-1f3d-aafd-001ec947cd2a")
     static class ElementDeletedEvent implements IElementDeletedEvent {
         @objid ("0020e900-47fe-1f3d-aafd-001ec947cd2a")
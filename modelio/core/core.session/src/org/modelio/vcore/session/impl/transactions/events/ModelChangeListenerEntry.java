@@ -0,0 +1,252 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vcore.session.impl.transactions.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.log.Log;
+import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
+import org.modelio.vcore.session.api.model.change.IModelChangeListener;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
+
+/**
+ * Registration of a model change listener in {@link ModelChangeSupport}.
+ * <p>
+ * Filters the events, delivers them synchronously or in the listener executor and measures the dispatch time.
+ * <p>
+ * For asynchronous listeners, events fired while a delivery is pending are coalesced into one event.
+ * @since 4.1
+ */
+@objid ("403826e2-c794-4587-9fd3-ff48b09ebb98")
+public final class ModelChangeListenerEntry {
+    @objid ("ea294162-139a-4521-9418-7a6ad35e1cdb")
+    private final IModelChangeListener listener;
+
+    @objid ("b2e3596b-627f-43b9-bf01-a4df049bab26")
+    private final ModelChangeFilter filter;
+
+    /**
+     * The delivery executor, <code>null</code> for synchronous delivery.
+     */
+    @objid ("6d7d9eae-fb89-40e8-a5ca-11d8c9774233")
+    private final Executor executor;
+
+    /**
+     * Events waiting for an asynchronous delivery.
+     * <p>
+     * Not <code>null</code> when a delivery is scheduled. Guarded by <code>this</code>.
+     */
+    @objid ("34cac416-0010-4b1c-aff3-db6269e346f8")
+    private List<IModelChangeEvent> pendingEvents;
+
+    @objid ("a0c5e735-2481-496a-be77-ed458106d8bc")
+    private long receivedCount;
+
+    @objid ("761437b4-7371-4d9c-baa7-521570a6fe41")
+    private long coalescedCount;
+
+    @objid ("48d79a5b-605c-4d47-ba55-4ab503c711dd")
+    private long skippedCount;
+
+    @objid ("76d03e7c-bb04-4c10-a394-2e4a230a8e42")
+    private long callCount;
+
+    @objid ("2b6a9c15-ef2c-445f-b692-c78af73ec9ff")
+    private long totalNanos;
+
+    @objid ("a0c793dd-1e63-4799-add9-adce38db4036")
+    private long maxNanos;
+
+    /**
+     * @param listener the listener
+     * @param filter the interest filter
+     * @param executor the delivery executor, <code>null</code> for synchronous delivery.
+     */
+    @objid ("78c06b16-230c-4034-83c7-ae19e9e68d49")
+    ModelChangeListenerEntry(IModelChangeListener listener, ModelChangeFilter filter, Executor executor) {
+        this.listener = listener;
+        this.filter = filter != null ? filter : ModelChangeFilter.ALL;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the registered listener.
+     */
+    @objid ("bb337373-c09c-4fd0-8543-8645d0e02be7")
+    public IModelChangeListener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * @return <code>true</code> if the listener is called in its own executor.
+     */
+    @objid ("c34a77a8-0cc1-4e9e-9014-8dcea9f12366")
+    public boolean isAsynchronous() {
+        return this.executor != null;
+    }
+
+    /**
+     * Fire a model change event to the listener.
+     * <p>
+     * Synchronous listeners are called in the current thread. For asynchronous listeners the event is queued
+     * and a delivery is scheduled in the listener executor if none is pending.
+     * 
+     * @param event the model change event.
+     */
+    @objid ("e9035198-405b-4fdb-80d4-8be091768305")
+    void fire(IModelChangeEvent event) {
+        if (this.executor == null) {
+            synchronized (this) {
+                this.receivedCount++;
+            }
+            deliver(Collections.singletonList(event));
+            return;
+        }
+        
+        boolean schedule;
+        synchronized (this) {
+            this.receivedCount++;
+            schedule = this.pendingEvents == null;
+            if (schedule) {
+                this.pendingEvents = new ArrayList<>(2);
+            } else {
+                this.coalescedCount++;
+            }
+            this.pendingEvents.add(event);
+        }
+        
+        if (schedule) {
+            try {
+                this.executor.execute(this::deliverPending);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    this.pendingEvents = null;
+                }
+                Log.warning("'%s' model change listener executor rejected the delivery: %s", this.listener, e);
+            }
+        }
+    }
+
+    @objid ("f4645470-5d19-4021-b365-2b4ea25bf4dd")
+    private void deliverPending() {
+        final List<IModelChangeEvent> events;
+        synchronized (this) {
+            events = this.pendingEvents;
+            this.pendingEvents = null;
+        }
+        
+        if (events != null) {
+            deliver(events);
+        }
+    }
+
+    /**
+     * Filter and merge the given events then call the listener if anything remains.
+     * 
+     * @param events the events to deliver.
+     */
+    @objid ("872c8d6f-4d6d-41e4-a060-b7f411f8dfa8")
+    private void deliver(List<IModelChangeEvent> events) {
+        long start = System.nanoTime();
+        
+        IModelChangeEvent toFire;
+        if (events.size() == 1 && this.filter.isAll()) {
+            toFire = events.get(0);
+        } else {
+            ModelChangeEvent merged = new ModelChangeEvent();
+            for (IModelChangeEvent ev : events) {
+                merged.addFiltered(ev, this.filter);
+            }
+            toFire = merged;
+        }
+        
+        if (toFire.isEmpty()) {
+            synchronized (this) {
+                this.skippedCount++;
+            }
+            return;
+        }
+        
+        try {
+            this.listener.modelChanged(toFire);
+        } catch (RuntimeException | LinkageError e) {
+            Log.warning(e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            synchronized (this) {
+                this.callCount++;
+                this.totalNanos += duration;
+                if (duration > this.maxNanos) {
+                    this.maxNanos = duration;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the total time spent filtering events and running the listener, in nanoseconds.
+     */
+    @objid ("105cf479-a9aa-4c6f-b89e-48394e480455")
+    public synchronized long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * Reset the dispatch statistics.
+     */
+    @objid ("a904f20d-f621-4ce2-b82b-3c78d00c948a")
+    public synchronized void resetStatistics() {
+        this.receivedCount = 0;
+        this.coalescedCount = 0;
+        this.skippedCount = 0;
+        this.callCount = 0;
+        this.totalNanos = 0;
+        this.maxNanos = 0;
+    }
+
+    /**
+     * @return a one line summary of the dispatch statistics.
+     */
+    @objid ("33edfed2-cda6-4884-9932-c4933ad2d001")
+    public synchronized String getStatistics() {
+        return String.format("%s [%s] received=%d, coalesced=%d, skipped=%d, calls=%d, total=%d ms, max=%d ms, filter=%s",
+                this.listener,
+                this.executor == null ? "sync" : "async",
+                this.receivedCount,
+                this.coalescedCount,
+                this.skippedCount,
+                this.callCount,
+                this.totalNanos / 1_000_000,
+                this.maxNanos / 1_000_000,
+                this.filter.isAll() ? "all" : this.filter);
+    }
+
+    @objid ("3b38bb29-2781-427e-bad6-c9f49ab1a586")
+    @Override
+    public String toString() {
+        return getStatistics();
+    }
+
+}
@@ -22,6 +22,7 @@ package org.modelio.vcore.session.impl.transactions.events;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vcore.session.api.model.change.IModelChangeEvent;
@@ -31,6 +32,7 @@ import org.modelio.vcore.session.api.model.change.IModelChangeSupport;
 import org.modelio.vcore.session.api.model.change.IPersistentViewModelChangeListener;
 import org.modelio.vcore.session.api.model.change.IStatusChangeEvent;
 import org.modelio.vcore.session.api.model.change.IStatusChangeListener;
+import org.modelio.vcore.session.api.model.change.ModelChangeFilter;
 
 /**
  * Implementation of {@link IModelChangeSupport}.
@@ -40,7 +42,7 @@ import org.modelio.vcore.session.api.model.change.IStatusChangeListener;
 @objid ("b1ad0108-19f4-11e2-8eb9-001ec947ccaf")
 public class ModelChangeSupport implements IModelChangeSupport {
     @objid ("006ebf40-0d1e-1f20-85a5-001ec947cd2a")
-    private final List<IModelChangeListener> modelChangeListeners = new CopyOnWriteArrayList<>();
+    private final List<ModelChangeListenerEntry> modelChangeListeners = new CopyOnWriteArrayList<>();
 
     @objid ("006ec31e-0d1e-1f20-85a5-001ec947cd2a")
     private final List<IModelChangeHandler> modelChangeHandlers = new CopyOnWriteArrayList<>();
@@ -62,9 +64,19 @@ public class ModelChangeSupport implements IModelChangeSupport {
     @objid ("006ecea4-0d1e-1f20-85a5-001ec947cd2a")
     @Override
     public void addModelChangeListener(final IModelChangeListener aListener) {
-        if (!this.modelChangeListeners.contains(aListener)) {
-            this.modelChangeListeners.add(aListener);
+        addModelChangeListener(aListener, ModelChangeFilter.ALL, null);
+    }
+
+    @objid ("7f509023-4954-4bec-bf63-ec1653710961")
+    @Override
+    public synchronized void addModelChangeListener(IModelChangeListener aListener, ModelChangeFilter filter, Executor executor) {
+        for (ModelChangeListenerEntry entry : this.modelChangeListeners) {
+            if (entry.getListener() == aListener) {
+                return;
+            }
         }
+        
+        this.modelChangeListeners.add(new ModelChangeListenerEntry(aListener, filter, executor));
     }
 
     @objid ("e53318d4-778f-49bf-8194-d39a80a0a37a")
@@ -92,7 +104,7 @@ public class ModelChangeSupport implements IModelChangeSupport {
     @objid ("0070d708-e3b9-1fd5-b969-001ec947cd2a")
     @Override
     public void removeModelChangeListener(final IModelChangeListener aListener) {
-        this.modelChangeListeners.remove(aListener);
+        this.modelChangeListeners.removeIf(entry -> entry.getListener() == aListener);
     }
 
     @objid ("48a8549d-9c47-4548-a35a-ac681c0bf011")
@@ -112,17 +124,15 @@ public class ModelChangeSupport implements IModelChangeSupport {
      * <p>
      * Transactions are forbidden for model change listeners, ie model change listeners are not allowed to modify the model
      * Exceptions thrown by listeners are caught, added to the log and ignored.
+     * <p>
+     * Asynchronous listeners are only scheduled here, they are called later in their own executor.
      * 
      * @param event the model change event.
      */
     @objid ("7d7cdcfc-1c43-11e2-8eb9-001ec947ccaf")
     public void fireModelChangeListeners(final IModelChangeEvent event) {
-        for (IModelChangeListener listener : this.modelChangeListeners) {
-            try {
-                listener.modelChanged(event);
-            } catch (RuntimeException | LinkageError e) {
-                Log.warning(e);
-            }
+        for (ModelChangeListenerEntry entry : this.modelChangeListeners) {
+            entry.fire(event);
         }
     }
 
@@ -157,6 +167,19 @@ public class ModelChangeSupport implements IModelChangeSupport {
         return this.modelChangeHandlers;
     }
 
+    /**
+     * Get the model change listeners registrations, with their dispatch statistics.
+     * <p>
+     * Do not modify the returned list!
+     * 
+     * @return the model change listeners registrations.
+     * @since 4.1
+     */
+    @objid ("a50e2f0a-03bf-4cef-8729-51efb9073b90")
+    public List<ModelChangeListenerEntry> getModelChangeListenerEntries() {
+        return this.modelChangeListeners;
+    }
+
     /**
      * @return persistent view change listeners.
      */
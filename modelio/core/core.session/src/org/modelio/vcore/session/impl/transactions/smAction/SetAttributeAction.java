@@ -94,6 +94,21 @@ public class SetAttributeAction extends SimpleAction {
         return this.oldValue;
     }
 
+    /**
+     * Merge a later modification of the same attribute of the same object into this action.
+     * <p>
+     * This action will then restore the value preceding both modifications on undo
+     * and set the value following both modifications on redo.
+     * 
+     * @param later a later action modifying the same attribute of the same object.
+     * @since 4.1
+     */
+    @objid ("4658db53-6e67-47ed-8aa9-a10c1f325e4b")
+    public void merge(SetAttributeAction later) {
+        assert later.refered == this.refered && later.smAtt == this.smAtt;
+        this.newValue = later.newValue;
+    }
+
     @objid ("4b3eadfb-332f-496e-959d-8f2fa9661da0")
     @Override
     public String toString() {
@@ -0,0 +1,112 @@
+package org.modelio.vcore.session.impl.transactions;
+
+import java.util.UUID;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Test;
+import org.modelio.vcore.session.impl.transactions.smAction.SetAttributeAction;
+import org.modelio.vcore.smkernel.ISmObjectData;
+import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.meta.mof.MofMetamodel.MofBuilder;
+import org.modelio.vcore.smkernel.meta.mof.MofMetamodel;
+import org.modelio.vcore.smkernel.meta.mof.MofSmAttribute;
+import org.modelio.vcore.smkernel.meta.mof.MofSmClass;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that {@link Transaction#compact()} keeps undo and redo results.
+ */
+@objid ("acda2f9a-3ab8-40bf-a17c-7d9e9baac784")
+@SuppressWarnings("javadoc")
+public class TransactionCompactTest {
+    @objid ("e17e9d91-e4b1-4f65-a141-79416a43a71a")
+    private final MofSmClass cls;
+
+    @objid ("ac2b1085-436b-4c63-bee6-e8a4167a6b62")
+    private final MofSmAttribute att;
+
+    /**
+     * Object data, kept here because model objects only reference it weakly.
+     */
+    @objid ("b803b307-f4ae-44a2-9e40-936de5ddd4e5")
+    private ISmObjectData data;
+
+    @objid ("c41eda4b-6714-4cac-b3da-dd6a8caca2a3")
+    public TransactionCompactTest() {
+        MofMetamodel mm = new MofMetamodel();
+        try (MofBuilder mmBuilder = mm.builder();) {
+            this.cls = mmBuilder.createClass("Class", "mmFrag1", true).build();
+        }
+        this.att = new MofSmAttribute(this.cls, "Value");
+    }
+
+    /**
+     * Successive modifications of an attribute are merged into one action.
+     */
+    @objid ("18b89600-a74a-432a-9fe4-832353a8ad92")
+    @Test
+    public void testMergeSuccessiveSets() {
+        SmObjectImpl obj = newObject("v0");
+        Transaction tr = new Transaction("tr", null);
+        set(tr, obj, "v1");
+        set(tr, obj, "v2");
+        set(tr, obj, "v3");
+        
+        tr.compact();
+        assertEquals(1, tr.getActions().size());
+        
+        tr.undo(false);
+        assertEquals("v0", get(obj));
+        tr.redo();
+        assertEquals("v3", get(obj));
+    }
+
+    /**
+     * Modifications are not merged across a sub transaction modifying the same attribute.
+     */
+    @objid ("684e762f-c8f8-417f-b4cf-6eadee276ab0")
+    @Test
+    public void testNoMergeAcrossSubTransaction() {
+        SmObjectImpl obj = newObject("v0");
+        Transaction tr = new Transaction("tr", null);
+        set(tr, obj, "v1");
+        
+        Transaction sub = new Transaction("sub", null);
+        tr.addAction(sub);
+        set(sub, obj, "v2");
+        
+        set(tr, obj, "v3");
+        
+        tr.compact();
+        assertEquals(3, tr.getActions().size());
+        
+        tr.undo(false);
+        assertEquals("v0", get(obj));
+        tr.redo();
+        assertEquals("v3", get(obj));
+    }
+
+    @objid ("13c9d158-97cc-411b-8549-2dd766f07bf6")
+    private SmObjectImpl newObject(String value) {
+        SmObjectImpl obj = this.cls.getObjectFactory().createImpl();
+        this.data = this.cls.getObjectFactory().createData();
+        obj.initData(this.data);
+        obj.init(UUID.randomUUID().toString(), 0);
+        this.att.setValue(this.data, value);
+        return obj;
+    }
+
+    /**
+     * Modify the attribute and record the action, as the model object implementation does.
+     */
+    @objid ("9c4d3a00-7597-4293-83ca-8a068aa61db4")
+    private void set(Transaction tr, SmObjectImpl obj, String value) {
+        tr.addAction(new SetAttributeAction(obj, this.att, get(obj), value));
+        this.att.setValue(obj.getData(), value);
+    }
+
+    @objid ("c6331187-4e56-4f7d-8911-ec6a0293035a")
+    private Object get(SmObjectImpl obj) {
+        return this.att.getValue(obj.getData());
+    }
+
+}
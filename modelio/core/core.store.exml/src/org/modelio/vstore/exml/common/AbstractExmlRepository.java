@@ -30,15 +30,31 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.modelio.vbasic.collections.ConcatSpliterator;
 import org.modelio.vbasic.files.FileUtils;
 import org.modelio.vbasic.files.StreamException;
 import org.modelio.vbasic.log.Log;
@@ -57,12 +73,14 @@ import org.modelio.vcore.smkernel.IRepositoryObject;
 import org.modelio.vcore.smkernel.ISmObjectData;
 import org.modelio.vcore.smkernel.SmLiveId;
 import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.SmUuid;
 import org.modelio.vcore.smkernel.mapi.AbstractMetaclassException;
 import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vcore.smkernel.mapi.MMetamodelFragment;
 import org.modelio.vcore.smkernel.mapi.MObject;
 import org.modelio.vcore.smkernel.mapi.MRef;
 import org.modelio.vcore.smkernel.meta.MetamodelWriter;
+import org.modelio.vcore.smkernel.meta.SmAttribute;
 import org.modelio.vcore.smkernel.meta.SmClass;
 import org.modelio.vcore.smkernel.meta.SmDependency;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
@@ -94,14 +112,38 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     @objid ("dea15b27-b222-4564-82f7-7621e0e741ad")
     private static final boolean TRACE = false;
 
+    /**
+     * Minimum number of CMS nodes to write for using worker threads.
+     */
+    @objid ("cf8c1eb4-923a-4618-907e-246dddac0966")
+    private static final int PARALLEL_SAVE_THRESHOLD = 8;
+
+    /**
+     * Maximum number of CMS nodes writing threads.
+     */
+    @objid ("c847bc81-7426-470f-9268-f9fc662875f8")
+    private static final int MAX_SAVE_WORKERS = 4;
+
+    /**
+     * Number of index entries loaded at once by {@link #streamByClass(SmClass, boolean)}.
+     */
+    @objid ("e47084f3-c16f-4eca-b511-de4208342d4d")
+    private static final int STREAM_BATCH_SIZE = 256;
+
     @objid ("fd21f5d1-5986-11e1-991a-001ec947ccaf")
     private volatile boolean baseOpen;
 
+    /**
+     * Serializes {@link #save(IModelioProgress)} calls.
+     */
+    @objid ("67acb081-5037-4d16-a136-860fb47aa0fd")
+    private final Object saveLock = new Object();
+
     /**
      * Shield against infinite loops.
      */
     @objid ("b4e83141-9442-4bc1-8c36-70f890c44e0e")
-    private String lastLoad;
+    private SmUuid lastLoad;
 
     /**
      * If <code>true</code>, indexes will be rebuilt on next access.
@@ -129,7 +171,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
      * The key is the CMS node UUID.
      */
     @objid ("b5b8d35c-7df4-4793-961f-7226b0f0ddb1")
-    private final Map<String, ExmlStorageHandler> deletedNodes = new HashMap<> ();
+    private final Map<SmUuid, ExmlStorageHandler> deletedNodes = new HashMap<> ();
 
     /**
      * Remembers loaded objects detached from the repository between 2 saves.
@@ -137,7 +179,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
      * The key is the object UUID.
      */
     @objid ("24943bc8-3a52-4cf1-a3d4-c4357e084521")
-    private final Map<String, SmObjectImpl> detachedObjects = new HashMap<> ();
+    private final Map<SmUuid, SmObjectImpl> detachedObjects = new HashMap<> ();
 
     /**
      * EMF adapter.
@@ -257,7 +299,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         assertOpen();
         
         if (newObject.getClassOf().isCmsNode()) {
-            ExmlStorageHandler newHandler = this.deletedNodes.remove(newObject.getUuid());
+            ExmlStorageHandler newHandler = this.deletedNodes.remove(newObject.getSmUuid());
             if (newHandler == null) {
                 newHandler = createStorageHandler(newObject, true);
                 newHandler.setDirty(true);
@@ -278,7 +320,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         // Add the object to our load cache
         synchronized(this.detachedObjects) {
             getLoadCache().putToCache(newObject);
-            this.detachedObjects.remove(newObject.getUuid());
+            this.detachedObjects.remove(newObject.getSmUuid());
         }
     }
 
@@ -342,7 +384,13 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         
         Collection<MObject> results = new ArrayList<>();
         try (IModelLoader modelLoader = this.modelLoaderProvider.beginLoadSession()) {
-            loadAll(cls, modelLoader, withSubClasses);
+            SmAttribute smAtt = cls.getAttributeDef(att);
+            if (smAtt != null && smAtt.isNameAtt() && val instanceof String) {
+                // Load only the objects having the searched name in the index.
+                loadByName(cls, (String) val, modelLoader, withSubClasses);
+            } else {
+                loadAll(cls, modelLoader, withSubClasses);
+            }
         } catch (IndexException e) {
             getErrorSupport().fireError(e);
         } catch (DuplicateObjectException e) {
@@ -371,6 +419,213 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         return results;
     }
 
+    /**
+     * Looks up the CMS node index and loads the objects while the stream is consumed.
+     * The metaclass and each of its sub classes are opened one after the other.
+     * Objects are loaded by batches of {@value #STREAM_BATCH_SIZE}, each in one load session.
+     */
+    @objid ("728b8715-81cd-49d1-b3ab-85808d11e88f")
+    @Override
+    public Stream<MObject> streamByClass(SmClass cls, boolean withSubClasses) {
+        assertOpen();
+        
+        // Objects already in memory, including the ones not indexed yet
+        Set<MObject> loaded = new HashSet<>();
+        getLoadCache().findByClass(cls, withSubClasses, loaded);
+        
+        List<Supplier<? extends Spliterator<? extends MObject>>> sources = new ArrayList<>();
+        sources.add(loaded::spliterator);
+        sources.add(() -> streamIndexed(cls, loaded));
+        if (withSubClasses) {
+            for (SmClass c : cls.getAllSubClasses()) {
+                sources.add(() -> streamIndexed(c, loaded));
+            }
+        }
+        return ConcatSpliterator.stream(sources, false);
+    }
+
+    /**
+     * Look up the names in the CMS node index: only the matching objects references are returned,
+     * no model object is loaded.
+     */
+    @objid ("d5ca0a4f-3bde-408f-bdaa-d3575110cc61")
+    @Override
+    public Collection<MRef> findRefsByName(SmClass cls, boolean withSubClasses, Predicate<String> nameFilter) {
+        assertOpen();
+        
+        Collection<MRef> results = new ArrayList<>();
+        try {
+            ICmsNodeIndex cmsNodeIndex = getCmsNodeIndex();
+            if (withSubClasses) {
+                for (SmClass c : cls.getAllSubClasses()) {
+                    findRefsByName(cmsNodeIndex.idByMClass(c), nameFilter, results);
+                }
+            }
+        
+            findRefsByName(cmsNodeIndex.idByMClass(cls), nameFilter, results);
+        } catch (IndexException e) {
+            getErrorSupport().fireError(e);
+        } catch (StreamException e) {
+            getErrorSupport().fireError(e.getCause());
+        }
+        return results;
+    }
+
+    @objid ("e17df8e5-1588-4b79-b80a-7d052a3c51bc")
+    private static void findRefsByName(Stream<ObjIdName> ids, Predicate<String> nameFilter, Collection<MRef> results) {
+        ids
+        .filter(idn -> nameFilter.test(idn.name == null ? "" : idn.name))
+        .forEach(idn -> results.add(new MRef(idn.classof.getQualifiedName(), idn.id, idn.name)));
+    }
+
+    /**
+     * Look up the links in the user node index, no model object is loaded.
+     * <p>
+     * Objects modified since the last save are tested on their current links instead.
+     */
+    @objid ("53f0d174-b1aa-4042-ae07-748be9b89198")
+    @Override
+    public Collection<MRef> findRefsByDep(SmClass cls, boolean withSubClasses, SmDependency dep, MObject target) {
+        assertOpen();
+        
+        Set<MRef> results = new HashSet<>();
+        try {
+            for (ObjId userId : getUserNodeIndex().getObjectUsers(new ObjId((SmObjectImpl) target), dep.getName())) {
+                if (userId.classof == cls || (withSubClasses && userId.classof.hasBase(cls))) {
+                    SmObjectImpl loaded = getLoadCache().findById(userId.classof, userId.id);
+                    if (loaded == null || ! isDirtyNode(loaded)) {
+                        results.add(new MRef(userId.classof.getQualifiedName(), userId.id));
+                    }
+                }
+            }
+        } catch (IndexException e) {
+            getErrorSupport().fireError(e);
+        }
+        
+        Collection<SmObjectImpl> loaded = new ArrayList<>();
+        getLoadCache().findByClass(cls, withSubClasses, loaded);
+        for (SmObjectImpl obj : loaded) {
+            if (isDirtyNode(obj) && obj.mGet(dep).contains(target)) {
+                results.add(new MRef(obj.getClassOf().getQualifiedName(), obj.getUuid()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Read the parents of the stored CMS nodes in the CMS node index, no model object is loaded.
+     * <p>
+     * CMS nodes modified since the last save give their current composition owner instead.
+     * Objects that are not CMS nodes are ignored.
+     */
+    @objid ("cb5a70a9-97c7-46b6-9709-2c97c9334b0f")
+    @Override
+    public Map<MObject, MRef> findOwnerRefs(Collection<? extends MObject> objs) {
+        assertOpen();
+        
+        Map<MObject, MRef> results = new HashMap<>();
+        try {
+            ICmsNodeIndex cmsNodeIndex = getCmsNodeIndex();
+            for (MObject obj : objs) {
+                SmObjectImpl impl = (SmObjectImpl) obj;
+                SmClass cls = impl.getClassOf();
+                if (! cls.isCmsNode()) {
+                    continue;
+                }
+        
+                SmObjectImpl loaded = getLoadCache().findById(cls, impl.getUuid());
+                if (loaded != null && isDirtyNode(loaded)) {
+                    SmObjectImpl owner = loaded.getCompositionOwner();
+                    results.put(obj, owner == null ? null : new MRef(owner.getClassOf().getQualifiedName(), owner.getUuid()));
+                } else {
+                    ObjId id = new ObjId(cls, impl.getUuid());
+                    if (isStored(id)) {
+                        ObjId parentId = cmsNodeIndex.getParentNodeOf(id);
+                        results.put(obj, parentId == null ? null : new MRef(parentId.classof.getQualifiedName(), parentId.id));
+                    }
+                }
+            }
+        } catch (IndexException e) {
+            getErrorSupport().fireError(e);
+        }
+        return results;
+    }
+
+    /**
+     * @return <code>true</code> if the CMS node storing the given loaded object has been modified since the last save.
+     */
+    @objid ("0351511c-9911-4f5a-a468-eff2a6b6ff15")
+    private static boolean isDirtyNode(SmObjectImpl obj) {
+        IRepositoryObject handler = obj.getRepositoryObject();
+        return handler instanceof ExmlStorageHandler && ((ExmlStorageHandler) handler).isDirty();
+    }
+
+    @objid ("8f187824-1d13-44c6-b792-93b654af2f56")
+    @Override
+    public void prefetch(Collection<MRef> refs, int depth) {
+        assertOpen();
+        
+        SmMetamodel metamodel = this.modelLoaderProvider.getMetamodel();
+        try (IModelLoader modelLoader = this.modelLoaderProvider.beginLoadSession()) {
+            ICmsNodeIndex cmsNodeIndex = getCmsNodeIndex();
+        
+            // Get the CMS nodes storing the given objects
+            Collection<ObjId> level = new LinkedHashSet<>();
+            for (MRef ref : refs) {
+                SmClass cls = metamodel.getMClass(ref.mc);
+                if (cls != null) {
+                    ObjId id = new ObjId(cls, ref.uuid);
+                    if (isStored(id)) {
+                        ObjId nodeId = cmsNodeIndex.getCmsNodeOf(id);
+                        if (nodeId != null) {
+                            level.add(nodeId);
+                        }
+                    }
+                }
+            }
+        
+            // Add the child CMS nodes level by level
+            Set<ObjId> nodeIds = new LinkedHashSet<>(level);
+            for (int i = 0; (depth < 0 || i < depth) && ! level.isEmpty(); i++) {
+                Collection<ObjId> nextLevel = new ArrayList<>();
+                for (ObjId nodeId : level) {
+                    for (ObjId childId : cmsNodeIndex.getChildNodes(nodeId)) {
+                        if (nodeIds.add(childId)) {
+                            nextLevel.add(childId);
+                        }
+                    }
+                }
+                level = nextLevel;
+            }
+        
+            // Let remote providers download the resources in parallel
+            try {
+                this.resProvider.prefetch(nodeIds, new NullProgress());
+            } catch (IOException e) {
+                // The CMS nodes will be read one by one
+                getErrorSupport().fireWarning(e);
+            }
+        
+            // Get the CMS nodes and load them in one batch
+            Collection<SmObjectImpl> nodes = new ArrayList<>(nodeIds.size());
+            for (ObjId nodeId : nodeIds) {
+                SmObjectImpl node = findByObjId(nodeId, modelLoader);
+                if (node != null) {
+                    nodes.add(node);
+                }
+            }
+        
+            loadCmsNodes(nodes, modelLoader);
+        } catch (DuplicateObjectException e) {
+            getErrorSupport().fireError(e);
+        } catch (IndexException e) {
+            setIndexesDamaged(e);
+            getErrorSupport().fireError(e);
+        } catch (IllegalReferenceException e) {
+            getErrorSupport().fireWarning(e);
+        }
+    }
+
     @objid ("fd21f5f3-5986-11e1-991a-001ec947ccaf")
     @Override
     public SmObjectImpl findById(SmClass cls, final String siteIdentifier) {
@@ -473,7 +728,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     @Override
     public SmObjectImpl getDetachedObject(ObjId id) {
         synchronized(this.detachedObjects) {
-            return this.detachedObjects.get(id.id);
+            return this.detachedObjects.get(SmUuid.of(id.id));
         }
     }
 
@@ -605,6 +860,25 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         return this.baseOpen;
     }
 
+    /**
+     * Answered by the CMS node index identifiers filter, without looking up each metaclass index.
+     */
+    @objid ("67321eff-fd6e-4afc-9578-39c16b940978")
+    @Override
+    public boolean mayContain(String siteIdentifier) {
+        if (! isOpen()) {
+            // let findById(...) report it
+            return true;
+        }
+        
+        try {
+            return getCmsNodeIndex().mayContain(siteIdentifier, this.modelLoaderProvider.getMetamodel());
+        } catch (IndexException e) {
+            getErrorSupport().fireError(e);
+            return true;
+        }
+    }
+
     @objid ("0d638b02-8fb6-11e1-be7e-001ec947ccaf")
     @Override
     public final boolean isStored(final SmObjectImpl obj) {
@@ -692,10 +966,10 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     @Override
     public final ISmObjectData loadObjectData(SmObjectImpl obj) {
         // Avoid infinite loop
-        if (obj.getUuid().equals(this.lastLoad)) {
+        if (obj.getSmUuid().equals(this.lastLoad)) {
             return null;
         }
-        this.lastLoad = obj.getUuid();
+        this.lastLoad = obj.getSmUuid();
         
         final ObjId objid = new ObjId(obj);
         
@@ -798,6 +1072,50 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         return this.resProvider.readBlobInfo(key);
     }
 
+    /**
+     * Get in advance the EXML resources of a CMS node subtree, or of the whole repository.
+     * <p>
+     * Remote repositories download the resources in parallel to a local cache,
+     * so that loading the CMS nodes later does not cost a network round trip each.
+     * Local repositories do nothing.
+     * 
+     * @param root the root of the CMS node subtree, <code>null</code> to prefetch the whole repository.
+     * @param monitor a progress monitor.
+     * @throws java.io.IOException in case of failure.
+     * @since 4.1
+     */
+    @objid ("3c51314c-96b1-4b0f-a840-acbff1c556db")
+    public void prefetchCmsNodes(ObjId root, IModelioProgress monitor) throws IOException {
+        Collection<ObjId> toFetch = new ArrayList<>();
+        try {
+            ICmsNodeIndex index = getIndexes().getCmsNodeIndex();
+            if (root == null) {
+                for (SmClass mc : getModelLoaderProvider().getMetamodel().getRegisteredMClasses()) {
+                    if (mc.isCmsNode()) {
+                        for (String uuid : index.getByMClass(mc)) {
+                            toFetch.add(new ObjId(mc, uuid));
+                        }
+                    }
+                }
+            } else {
+                Deque<ObjId> todo = new ArrayDeque<>();
+                todo.add(root);
+                while (! todo.isEmpty()) {
+                    ObjId id = todo.poll();
+                    toFetch.add(id);
+                    todo.addAll(index.getChildNodes(id));
+                }
+            }
+        } catch (IndexException e) {
+            setIndexesDamaged(e);
+            throw new IOException(e.getLocalizedMessage(), e);
+        } catch (CannotOpenIndexException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        }
+        
+        this.resProvider.prefetch(toFetch, monitor);
+    }
+
     /**
      * Reload the given CMS node objects from repository.
      * 
@@ -814,8 +1132,9 @@ public abstract class AbstractExmlRepository implements IExmlBase {
                 for (MRef ref : toRestore) {
                     // forget detached objects are create new ones
                     synchronized(this.detachedObjects) {
-                        this.detachedObjects.remove(ref.uuid);
-                        this.deletedNodes.remove(ref.uuid);
+                        SmUuid uuid = SmUuid.of(ref.uuid);
+                        this.detachedObjects.remove(uuid);
+                        this.deletedNodes.remove(uuid);
                     }
         
                     ObjId id = new ObjId(metamodel.getMClass(ref.mc), ref.uuid);
@@ -825,11 +1144,11 @@ public abstract class AbstractExmlRepository implements IExmlBase {
             }
             
             for (MObject obj : toReload) {
+                SmObjectImpl impl = (SmObjectImpl) obj;
                 synchronized(this.detachedObjects) {
-                    this.detachedObjects.remove(obj.getUuid());
-                    this.deletedNodes.remove(obj.getUuid());
+                    this.detachedObjects.remove(impl.getSmUuid());
+                    this.deletedNodes.remove(impl.getSmUuid());
                 }
-                SmObjectImpl impl = (SmObjectImpl) obj;
                 SmObjectImpl newobj = loadCmsNode(new ObjId(impl), refresher, true);
                 if (TRACE) {
                     if( newobj != obj) {
@@ -840,12 +1159,12 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         
             if (toDelete != null) {
                 for (MObject obj : toDelete) {
+                    SmObjectImpl impl = (SmObjectImpl) obj;
                     synchronized(this.detachedObjects) {
-                        this.detachedObjects.remove(obj.getUuid());
-                        this.deletedNodes.remove(obj.getUuid());
+                        this.detachedObjects.remove(impl.getSmUuid());
+                        this.deletedNodes.remove(impl.getSmUuid());
                     }
-        
-                    SmObjectImpl impl = (SmObjectImpl) obj;
+
                     IRepositoryObject h = impl.getRepositoryObject();
                     if (h.getRepositoryId() == getRepositoryId()) {
                         // delete the object only if has not been stolen by another repository
@@ -862,13 +1181,45 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     @objid ("074ab913-ee11-446f-a674-4c5e34d2b53a")
     @Override
     public final synchronized void reloadCmsNode(SmObjectImpl obj, IModelLoader modelLoader) throws DuplicateObjectException {
+        reloadCmsNode(obj, modelLoader, this::doReloadCmsNode);
+    }
+
+    @objid ("8b39a371-827f-4d61-890a-7b00e93f1535")
+    @Override
+    public final synchronized void loadCmsNodes(Collection<SmObjectImpl> cmsNodes, IModelLoader modelLoader) throws DuplicateObjectException {
+        List<SmObjectImpl> toLoad = new ArrayList<>(cmsNodes.size());
+        for (SmObjectImpl obj : cmsNodes) {
+            // Load the node if not moved to another repository and not already loaded.
+            final IRepositoryObject repoHandle = obj.getRepositoryObject();
+            if (repoHandle.getRepositoryId() == getRepositoryId() && !((ExmlStorageHandler) repoHandle).isLoaded()) {
+                toLoad.add(obj);
+            }
+        }
+        
+        if (! toLoad.isEmpty()) {
+            doLoadCmsNodes(toLoad, modelLoader);
+        }
+    }
+
+    /**
+     * Reload the given CMS node content with the given loader.
+     * <p>
+     * In case of failure the CMS node will be set as <i>shell</i>.
+     * 
+     * @param obj a CMS node model object.
+     * @param modelLoader the model loader to use.
+     * @param contentLoader the CMS node content loader.
+     * @throws org.modelio.vcore.model.DuplicateObjectException if a duplicate object is detected in many repositories.
+     */
+    @objid ("1418855f-6875-4df8-b529-8ee72abc89ee")
+    protected final synchronized void reloadCmsNode(SmObjectImpl obj, IModelLoader modelLoader, ICmsNodeContentLoader contentLoader) throws DuplicateObjectException {
         final ExmlStorageHandler exmlHandler = (ExmlStorageHandler) obj.getRepositoryObject();
         boolean ret = false;
         
         try {
             exmlHandler.setLoaded(true);
         
-            doReloadCmsNode(obj, modelLoader);
+            contentLoader.load(obj, modelLoader);
             ret = true;
         
             exmlHandler.setDirty(false);
@@ -897,13 +1248,13 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     public synchronized void removeObject(SmObjectImpl object) {
         synchronized(this.detachedObjects) {
             this.loadCache.removeFromCache(object);
-            this.detachedObjects.put(object.getUuid(), object);
+            this.detachedObjects.put(object.getSmUuid(), object);
         }
         
         if (object.getClassOf().isCmsNode()) {
             // Record deletion and remove the storage handler
             ExmlStorageHandler handler = (ExmlStorageHandler) object.getRepositoryObject();
-            this.deletedNodes.put(object.getUuid(), handler);
+            this.deletedNodes.put(object.getSmUuid(), handler);
             synchronized(this.storageHandlers) {
                 // don't use this.storageHandlers.remove() : WeakReference does not define equals()
                 for (Iterator<WeakReference<ExmlStorageHandler>> it = this.storageHandlers.iterator(); 
@@ -919,81 +1270,213 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         }
     }
 
+    /**
+     * Save the dirty CMS nodes.
+     * <p>
+     * All changes are written in a resource provider {@link IExmlResourceProvider#beginTransaction() transaction}
+     * so that a failure or a crash leaves either the previous or the new repository content.
+     * <p>
+     * When there are many dirty CMS nodes they are written by worker threads while the calling
+     * thread updates the indexes with the written ones. The repository lock is not held meanwhile
+     * so that the workers may load the CMS nodes they reference.
+     */
     @objid ("fd26b977-5986-11e1-991a-001ec947ccaf")
     @Override
-    public synchronized void save(IModelioProgress monitor) {
-        // TODO The save should be ACID in order to preserve
-        // consistency in case of failure in the middle.
+    public void save(IModelioProgress monitor) {
+        synchronized (this.saveLock) {
+            // Contains dirty CMS nodes and deleted ones.
+            Collection<ExmlStorageHandler> dirty;
+            List<ExmlStorageHandler> toSave = new ArrayList<>();
+            String repositoryName = getResourceProvider().getName();
+            SubProgress mon;
+            boolean committed = false;
+            Exception failure = null;
+        
+            synchronized (this) {
+                dirty = getDirtyHandlers();
+                if (dirty.isEmpty()) {
+                    return;
+                }
         
-        // Contains dirty CMS nodes and deleted ones.
-        Collection<ExmlStorageHandler> dirty = getDirtyHandlers();
+                mon = SubProgress.convert(monitor, dirty.size() * 20 + 20);
+                mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.begin", repositoryName));
+                try {
+                    this.resProvider.beginTransaction();
+                } catch (IOException e) {
+                    getErrorSupport().fireError(e);
+                    return;
+                }
+            }
         
-        if (dirty.isEmpty()) {
-            return;
-        }
+            try {
+                synchronized (this) {
+                    if (! this.deletedNodes.isEmpty()) {
+                        mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.deleting", repositoryName, this.deletedNodes.size()));
+                        deleteCmsNodes(this.deletedNodes.values(), mon.newChild(this.deletedNodes.size()));
+                    }
         
-        String repositoryName = getResourceProvider().getName();
-        int nbDirty = dirty.size();
-        SubProgress mon = SubProgress.convert(monitor, nbDirty * 20);
-        mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.begin", repositoryName));
-        try {
+                    for (ExmlStorageHandler handler : dirty) {
+                        // Do not save not loaded nodes: these are missing references.
+                        // Do not save deleted nodes: the file is already deleted.
+                        if (handler.isLoaded() && ! this.deletedNodes.containsKey(SmUuid.of(handler.getCmsNodeId().id))) {
+                            toSave.add(handler);
+                        } else {
+                            handler.setDirty(false);
+                        }
+                    }
+                }
         
-            if (! this.deletedNodes.isEmpty()) {
-                // TODO backup files to roll back save on failure
-                mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.deleting", repositoryName, this.deletedNodes.size()));
-                deleteCmsNodes(this.deletedNodes.values(), mon.newChild(this.deletedNodes.size()));
-            }
+                // Write the CMS nodes and update the indexes
+                saveCmsNodes(toSave, repositoryName, mon.newChild(toSave.size() * 20));
         
-            int i = 0;
-            nbDirty = dirty.size(); // dirty is modified by deleteCmsNodes()
-            for (ExmlStorageHandler handler : dirty) {
-                try {
-                    // Do not save not loaded nodes: these are missing references.
-                    // Do not save deleted nodes: the file is already deleted.
-                    if (handler.isLoaded() && ! this.deletedNodes.containsKey(handler.getCmsNodeId().id)) {
-                        //TODO: backup files in case of future failure
-                        save (handler, mon.newChild(10));
+                ExmlIndex index;
+                synchronized (this) {
+                    saveMetamodelDescriptor();
+        
+                    // Publish all resources at once, will also write a stamp
+                    this.resProvider.commit();
+                    committed = true;
+        
+                    synchronized (this.detachedObjects) {
+                        this.deletedNodes.clear();
+                        this.detachedObjects.clear();
                     }
+                    index = this.needRebuildIndexes ? null : this.indexes;
+                }
         
-                    handler.setDirty(false);
-                } catch (IOException e) {
-                    // Report save error and try to continue
-                    String message = VStoreExml.I18N.getMessage("AbstractExmlRepository.saveNodeFailed",
-                            handler.getCmsNodeId(),
-                            FileUtils.getLocalizedMessage(e),
-                            getResourceProvider().getName());
+                // Now commit the indexes
+                mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.indexes", repositoryName));
+                if (index != null) {
+                    index.commitDb();
+                }
+            } catch (IOException e) {
+                getErrorSupport().fireError(e);
+                failure = e;
+            } catch (IndexException e) {
+                failure = e;
+                setIndexesDamaged(e);
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                if (! committed) {
+                    // The written CMS nodes are rolled back, they must be saved again
+                    for (ExmlStorageHandler handler : toSave) {
+                        handler.setDirty(true);
+                    }
         
-                    getErrorSupport().fireWarning(new StorageException(this, message, e));
+                    try {
+                        this.resProvider.rollback();
+                    } catch (IOException e) {
+                        getErrorSupport().fireWarning(e);
+                    }
+        
+                    // The indexes were updated from the rolled back files
+                    synchronized (this) {
+                        setIndexesDamaged(failure != null ? failure : new IOException(repositoryName + ": save aborted"));
+                    }
                 }
+                afterSave(committed);
+            }
         
-                mon.worked(1);
-                if (++i % 5 == 0) {
-                    mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.progress", repositoryName, i, nbDirty));
+            mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.done", repositoryName));
+        }
+    }
+
+    /**
+     * Write the given CMS nodes and update the indexes with them.
+     * <p>
+     * Uses worker threads if there are many CMS nodes to write.
+     * Write failures are reported as warnings, the failed CMS nodes stay dirty.
+     * <p>
+     * The dirty flag of each CMS node is cleared before it is serialized, so that a modification
+     * made meanwhile marks it dirty again and is written by the next save.
+     * 
+     * @param toSave the storage handlers of the CMS nodes to write.
+     * @param repositoryName the repository name, for progress messages.
+     * @param progress the progress monitor.
+     */
+    @objid ("7be225b1-73fc-42ad-8d3d-c4270ffe2f4d")
+    private void saveCmsNodes(List<ExmlStorageHandler> toSave, String repositoryName, IModelioProgress progress) {
+        SubProgress mon = SubProgress.convert(progress, toSave.size() * 20 + 5);
+        
+        ExmlIndex index;
+        synchronized (this) {
+            try {
+                index = getIndexes(mon.newChild(5));
+            } catch (CannotOpenIndexException e) {
+                setIndexesDamaged(e);
+                index = null;
+            }
+        }
+        
+        final ExmlIndex startIndex = index;
+        ParallelCmsNodeSaver.IListener listener = new ParallelCmsNodeSaver.IListener() {
+            private ExmlIndex lindexes = startIndex;
+        
+            private int i = 0;
+        
+            @Override
+            public void onSaved(ExmlStorageHandler handler) {
+                if (this.lindexes != null) {
+                    // Index the written resource while the next ones are being written.
+                    synchronized (AbstractExmlRepository.this) {
+                        try {
+                            this.lindexes.updateIndexes(handler.getCmsNodeId());
+                        } catch (IndexException e) {
+                            setIndexesDamaged(e);
+                            this.lindexes = null;
+                        }
+                    }
                 }
+                worked();
+            }
+        
+            @Override
+            public void onFailed(ExmlStorageHandler handler, IOException e) {
+                // Report save error and continue
+                String message = VStoreExml.I18N.getMessage("AbstractExmlRepository.saveNodeFailed",
+                        handler.getCmsNodeId(),
+                        FileUtils.getLocalizedMessage(e),
+                        getResourceProvider().getName());
         
+                getErrorSupport().fireWarning(new StorageException(AbstractExmlRepository.this, message, e));
+                worked();
             }
         
-            saveMetamodelDescriptor();
-            
-            // Commit resources, will also write a stamp
-            this.resProvider.commit();
-            synchronized (this.detachedObjects) {
-                this.deletedNodes.clear();
-                this.detachedObjects.clear();
+            private void worked() {
+                mon.worked(20);
+                if (++this.i % 5 == 0) {
+                    mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.progress", repositoryName, this.i, toSave.size()));
+                }
             }
+        };
         
-        } catch (IOException e) {
-            getErrorSupport().fireError(e);
-        } finally {
-            // todo: rollback already saved files in case of failure
-            // if (!success) ....
-        }
+        ParallelCmsNodeSaver.ISaveJob job = handler -> {
+            handler.setDirty(false);
+            try {
+                save(handler, new NullProgress());
+            } catch (IOException | RuntimeException e) {
+                handler.setDirty(true);
+                throw e;
+            }
+        };
         
-        // Now update the indexes
-        mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.indexes", repositoryName));
-        mon.setWorkRemaining(100);
-        updateIndexes(dirty, mon);
-        mon.subTask(VStoreExml.I18N.getMessage("AbstractExmlRepository.save.done", repositoryName));
+        int nbWorkers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_SAVE_WORKERS);
+        if (nbWorkers < 2 || toSave.size() < PARALLEL_SAVE_THRESHOLD) {
+            for (ExmlStorageHandler handler : toSave) {
+                try {
+                    job.save(handler);
+                    listener.onSaved(handler);
+                } catch (IOException e) {
+                    listener.onFailed(handler, e);
+                }
+            }
+        } else {
+            try (ParallelCmsNodeSaver saver = new ParallelCmsNodeSaver(nbWorkers)) {
+                saver.run(toSave, job, listener);
+            }
+        }
     }
 
     /**
@@ -1046,7 +1529,7 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         ExmlStorageHandler handler = (ExmlStorageHandler) obj.getRepositoryObject();
         
         this.loadCache.removeFromCache(obj);
-        this.detachedObjects.remove(obj.getUuid());
+        this.detachedObjects.remove(obj.getSmUuid());
         obj.setRepositoryObject(this.unloadedRepoHandler);
         
         handler.setToReload(obj);
@@ -1173,6 +1656,23 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         }
     }
 
+    /**
+     * Load the content of the given CMS nodes.
+     * <p>
+     * The default implementation loads the nodes one after the other with {@link #reloadCmsNode(SmObjectImpl, IModelLoader)}.
+     * Sub classes may redefine it to load the nodes more efficiently.
+     * 
+     * @param cmsNodes the CMS nodes to load. They all belong to this repository and are not loaded yet.
+     * @param modelLoader the model loader to use.
+     * @throws org.modelio.vcore.model.DuplicateObjectException if a duplicate object is detected in many repositories.
+     */
+    @objid ("b8191210-47a1-495d-a9c9-fefe9964070e")
+    protected void doLoadCmsNodes(List<SmObjectImpl> cmsNodes, IModelLoader modelLoader) throws DuplicateObjectException {
+        for (SmObjectImpl obj : cmsNodes) {
+            reloadCmsNode(obj, modelLoader);
+        }
+    }
+
     @objid ("ab2bff3e-06ff-44a6-8ddc-c398ccc51193")
     protected abstract void doReloadCmsNode(SmObjectImpl obj, IModelLoader modelLoader) throws DuplicateObjectException, IOException, IndexException;
 
@@ -1223,6 +1723,30 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         return this.writeable;
     }
 
+    /**
+     * Called at the end of {@link #save(IModelioProgress)} once the written resources
+     * have been committed or rolled back.
+     * <p>
+     * Does nothing by default.
+     * 
+     * @param committed <code>true</code> if the resources were committed, <code>false</code> if they were rolled back.
+     * @since 4.1
+     */
+    @objid ("cd3e71d8-d578-4f6f-9421-138f789edc78")
+    protected void afterSave(boolean committed) {
+        // nothing by default
+    }
+
+    /**
+     * Write a CMS node to its resource.
+     * <p>
+     * Called by {@link #save(IModelioProgress)}, possibly from several worker threads at once:
+     * the implementation must only read the model. It should not leave a truncated resource on failure.
+     * 
+     * @param handler the CMS node storage handler.
+     * @param progress a progress monitor.
+     * @throws java.io.IOException on failure
+     */
     @objid ("3e0990c3-1ea1-11e2-90db-001ec947ccaf")
     protected abstract void save(ExmlStorageHandler handler, IModelioProgress progress) throws IOException;
 
@@ -1370,47 +1894,195 @@ public abstract class AbstractExmlRepository implements IExmlBase {
     @objid ("fd2458f1-5986-11e1-991a-001ec947ccaf")
     private void loadAll(SmClass cls, IModelLoader modelLoader) throws DuplicateObjectException, IndexException {
         try {
-        getCmsNodeIndex()
-        .idByMClass(cls)
-        .forEach(objId -> {
+            loadAll(cls, getCmsNodeIndex().idByMClass(cls), modelLoader);
+        } catch (StreamException e) {
+            e.<IndexException>rethrow();
+            e.<DuplicateObjectException>rethrow();
+        }
+    }
+
+    /**
+     * Load the given objects of a metaclass.
+     * <p>
+     * The CMS nodes are loaded in one batch with {@link #loadCmsNodesOf(SmClass, List, IModelLoader)}.
+     * 
+     * @param cls the objects metaclass
+     * @param ids the identifiers of the objects to load, as found in the index.
+     * @param modelLoader the model loader to use
+     * @throws org.modelio.vcore.model.DuplicateObjectException when adding to the cache an object with the same identifier as another one.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
+     */
+    @objid ("adf73694-fbaf-408a-9f9f-e7f9a609ae7d")
+    private void loadAll(SmClass cls, Stream<ObjIdName> ids, IModelLoader modelLoader) throws DuplicateObjectException, IndexException {
+        // Read the whole index stream before loading: loading may update the index.
+        List<ObjIdName> toLoad = ids.collect(Collectors.toList());
+        if (toLoad.isEmpty()) {
+            return;
+        }
+        
+        loadCmsNodesOf(cls, toLoad, modelLoader);
+        
+        // The objects are now in memory, unless the index is out of date
+        // or they moved to another repository.
+        for (ObjIdName objId : toLoad) {
+            loadIndexedObject(cls, objId, modelLoader);
+        }
+    }
+
+    /**
+     * Load the CMS nodes of the given objects of a metaclass.
+     * <p>
+     * The objects are grouped by CMS node and the CMS nodes are loaded in one batch
+     * with {@link #loadCmsNodes(Collection, IModelLoader)}, so that implementations
+     * may parse them in parallel. Objects whose CMS node cannot be resolved are
+     * left to {@link #loadIndexedObject(SmClass, ObjIdName, IModelLoader)}.
+     * 
+     * @param cls the objects metaclass
+     * @param ids the identifiers of the objects, as found in the index.
+     * @param modelLoader the model loader to use
+     * @throws org.modelio.vcore.model.DuplicateObjectException when adding to the cache an object with the same identifier as another one.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
+     */
+    @objid ("2877e84a-c292-42e9-8294-eaed45b7edee")
+    private void loadCmsNodesOf(SmClass cls, List<ObjIdName> ids, IModelLoader modelLoader) throws DuplicateObjectException, IndexException {
+        // Group the objects by CMS node
+        ICmsNodeIndex cmsNodeIndex = getCmsNodeIndex();
+        Map<ObjId, SmObjectImpl> nodes = new LinkedHashMap<>();
+        for (ObjIdName objId : ids) {
+            ObjId id = objId.toObjId();
+            ObjId nodeId = cls.isCmsNode() ? id : cmsNodeIndex.getCmsNodeOf(id);
+            if (nodeId != null && ! nodes.containsKey(nodeId)) {
+                try {
+                    nodes.put(nodeId, findByObjId(nodeId, modelLoader));
+                } catch (IllegalReferenceException e) {
+                    // Leave it to loadIndexedObject(...)
+                    nodes.put(nodeId, null);
+                }
+            }
+        }
+        
+        nodes.values().removeIf(Objects::isNull);
+        loadCmsNodes(nodes.values(), modelLoader);
+    }
+
+    /**
+     * Load an object found in the index.
+     * <p>
+     * Objects that moved to another repository are loaded from there but not returned.
+     * 
+     * @param cls the object metaclass
+     * @param objId the identifier of the object to load, as found in the index.
+     * @param modelLoader the model loader to use
+     * @return the loaded object or <code>null</code> if it is not stored in this repository.
+     * @throws org.modelio.vcore.model.DuplicateObjectException when adding to the cache an object with the same identifier as another one.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
+     */
+    @objid ("33c02306-0501-4e59-b2ae-6c8be6809d68")
+    private SmObjectImpl loadIndexedObject(SmClass cls, ObjIdName objId, IModelLoader modelLoader) throws DuplicateObjectException, IndexException {
+        try {
+            return getByObjIdName(objId, true, modelLoader);
+        } catch (AbstractMetaclassException e) {
+            // Report and continue
+            getErrorSupport().fireWarning(e);
+        } catch (IllegalReferenceException e) {
+            // The object may have moved to another repository
             try {
-                getByObjIdName(objId, true, modelLoader);
-            } catch (AbstractMetaclassException e) {
-                // Report and continue
+                SmObjectImpl foundobj = modelLoader.loadForeignObject(cls, objId.id, objId.name);
+                if (foundobj.isShell()) {
+                    // Object not found anywhere else, the index is probably dead
+                    setIndexesDamaged(e);
+        
+                    getErrorSupport().fireWarning(e);
+                }
+            } catch (RuntimeException e2) {
+                e.addSuppressed(e2);
+        
+                // The index is probably dead
+                setIndexesDamaged(e);
+        
                 getErrorSupport().fireWarning(e);
-            } catch (IllegalReferenceException e) {
-                // The object may have moved to another repository
-                try {
-                    SmObjectImpl foundobj = modelLoader.loadForeignObject(cls, objId.id, objId.name);
-                    if (foundobj.isShell()) {
-                        // Object not found anywhere else, the index is probably dead
-                        setIndexesDamaged(e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stream the objects of a metaclass found in the index, loading them while the stream is consumed.
+     * <p>
+     * The index entries are read and loaded by batches: the CMS nodes of a batch are loaded
+     * together in a single load session.
+     * Index and loading errors are reported to the error support and the faulty objects are skipped.
+     * 
+     * @param cls a metamodel class
+     * @param excluded objects to skip
+     * @return the object stream spliterator.
+     */
+    @objid ("dacbb512-d232-4ad9-8d67-5c9cc0c04c93")
+    private Spliterator<MObject> streamIndexed(SmClass cls, Set<MObject> excluded) {
+        Iterator<ObjIdName> ids;
+        try {
+            ids = getCmsNodeIndex().idByMClass(cls).iterator();
+        } catch (IndexException e) {
+            getErrorSupport().fireError(e);
+            return Spliterators.emptySpliterator();
+        }
         
-                        getErrorSupport().fireWarning(e);
+        return new Spliterators.AbstractSpliterator<MObject>(Long.MAX_VALUE, Spliterator.NONNULL | Spliterator.DISTINCT) {
+            private Iterator<MObject> batch = Collections.emptyIterator();
+        
+            @Override
+            public boolean tryAdvance(Consumer<? super MObject> action) {
+                while (! this.batch.hasNext()) {
+                    if (! ids.hasNext()) {
+                        return false;
                     }
-                } catch (RuntimeException e2) {
-                    e.addSuppressed(e2);
         
-                    // The index is probably dead
-                    setIndexesDamaged(e);
+                    List<ObjIdName> batchIds = new ArrayList<>(STREAM_BATCH_SIZE);
+                    while (batchIds.size() < STREAM_BATCH_SIZE && ids.hasNext()) {
+                        batchIds.add(ids.next());
+                    }
+                    this.batch = loadStreamBatch(cls, batchIds, excluded).iterator();
+                }
         
-                    getErrorSupport().fireWarning(e);
+                action.accept(this.batch.next());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Load a batch of {@link #streamIndexed(SmClass, Set)}.
+     * <p>
+     * Errors are reported to the error support and the faulty objects are skipped.
+     * 
+     * @param cls a metamodel class
+     * @param ids the identifiers of the objects to load, as found in the index.
+     * @param excluded objects to skip
+     * @return the loaded objects.
+     */
+    @objid ("b1bf6d94-b133-45a6-8b2e-b1c53bc0316c")
+    private List<MObject> loadStreamBatch(SmClass cls, List<ObjIdName> ids, Set<MObject> excluded) {
+        List<MObject> ret = new ArrayList<>(ids.size());
+        try (IModelLoader modelLoader = this.modelLoaderProvider.beginLoadSession()) {
+            try {
+                loadCmsNodesOf(cls, ids, modelLoader);
+            } catch (DuplicateObjectException | IndexException e) {
+                // Report and load the objects one by one
+                getErrorSupport().fireError(e);
+            }
+        
+            for (ObjIdName objId : ids) {
+                try {
+                    SmObjectImpl obj = loadIndexedObject(cls, objId, modelLoader);
+                    if (obj != null && ! excluded.contains(obj)) {
+                        ret.add(obj);
+                    }
+                } catch (DuplicateObjectException | IndexException e) {
+                    getErrorSupport().fireError(e);
                 }
-            } catch (DuplicateObjectException e) {
-                throw new StreamException(e);
-            } catch (IndexException e) {
-                throw new StreamException(e);
             }
-        });
-        } catch (StreamException e) {
-            /*
-             * Though exception will be anyway re-thrown during first rethrow() call (oh, Java generics...), 
-             * this way allows to get a strict static definition of possible exceptions 
-             * (requires to declare them in throws). And no instanceof or something is needed.
-             */
-            e.<IndexException>rethrow();
-            e.<DuplicateObjectException>rethrow();
         }
+        return ret;
     }
 
     /**
@@ -1434,6 +2106,34 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         loadAll(cls, modelLoader);
     }
 
+    /**
+     * Load the instances of the given metaclass, and of its sub classes if asked,
+     * whose name in the index is the given one.
+     * 
+     * @param cls a metamodel class
+     * @param name the searched name
+     * @param modelLoader the model loader to use
+     * @param recursive <code>true</code> to load all sub classes too.
+     * @throws org.modelio.vcore.model.DuplicateObjectException when adding to the cache an object with the same identifier as another one.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
+     */
+    @objid ("3874fe7e-7983-47bb-ab91-4974554f489e")
+    private void loadByName(SmClass cls, String name, IModelLoader modelLoader, final boolean recursive) throws DuplicateObjectException, IndexException {
+        ICmsNodeIndex cmsNodeIndex = getCmsNodeIndex();
+        try {
+            if (recursive) {
+                for (SmClass c : cls.getAllSubClasses()) {
+                    loadAll(c, cmsNodeIndex.idByName(c, name), modelLoader);
+                }
+            }
+        
+            loadAll(cls, cmsNodeIndex.idByName(cls, name), modelLoader);
+        } catch (StreamException e) {
+            e.<IndexException>rethrow();
+            e.<DuplicateObjectException>rethrow();
+        }
+    }
+
     @objid ("5b09989e-d7c0-4ce9-8848-28734cd0f284")
     private MetamodelDescriptor loadMetamodelDescriptor() {
         try {
@@ -1566,28 +2266,6 @@ public abstract class AbstractExmlRepository implements IExmlBase {
      * @param dirty the dirty CMS nodes.
      * @param progress a progress monitor.
      */
-    @objid ("2eae7836-8585-11e1-b4fc-001ec947ccaf")
-    private final void updateIndexes(final Collection<ExmlStorageHandler> dirty, IModelioProgress progress) {
-        // Avoid spare JDBM file sync that consume time for nothing
-        if (dirty.isEmpty()) {
-            return;
-        }
-        
-        try {
-            SubProgress mon = SubProgress.convert(progress, dirty.size() + 5);
-            ExmlIndex lindexes = getIndexes(mon.newChild(3));
-        
-            for (ExmlStorageHandler handler : dirty) {
-                lindexes.updateIndexes(handler.getCmsNodeId());
-                mon.worked(1);
-            }
-        
-            lindexes.commitDb();
-        } catch (IndexException | CannotOpenIndexException e) {
-            setIndexesDamaged(e);
-        }
-    }
-
     /**
      * Tells whether the repository contain any CMS node of a metaclass of the given metamodel fragment.
      * 
@@ -1631,4 +2309,24 @@ public abstract class AbstractExmlRepository implements IExmlBase {
         }
     }
 
+    /**
+     * Loads the content of a CMS node.
+     */
+    @objid ("7722a7f1-2e2a-4edf-8411-4a8fa1ffb215")
+    @FunctionalInterface
+    protected interface ICmsNodeContentLoader {
+        /**
+         * Load the content of the given CMS node.
+         * 
+         * @param obj a CMS node model object.
+         * @param modelLoader the model loader to use.
+         * @throws org.modelio.vcore.model.DuplicateObjectException if a duplicate object is detected in many repositories.
+         * @throws java.io.IOException in case of I/O or parsing failure.
+         * @throws org.modelio.vstore.exml.common.index.IndexException in case of index access failure.
+         */
+        @objid ("d964f787-9e59-4160-9f64-3e1366d4233e")
+        void load(SmObjectImpl obj, IModelLoader modelLoader) throws DuplicateObjectException, IOException, IndexException;
+
+    }
+
 }
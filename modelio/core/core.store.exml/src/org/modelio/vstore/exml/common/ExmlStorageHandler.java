@@ -49,8 +49,11 @@ public class ExmlStorageHandler implements IRepositoryObject {
     @objid ("fd21f4cb-5986-11e1-991a-001ec947ccaf")
     private boolean loaded;
 
+    /**
+     * Volatile: cleared by the saving threads while the model may be modified.
+     */
     @objid ("fd21f4d0-5986-11e1-991a-001ec947ccaf")
-    private boolean dirty;
+    private volatile boolean dirty;
 
     @objid ("fd21f4e0-5986-11e1-991a-001ec947ccaf")
     private boolean parentLoaded;
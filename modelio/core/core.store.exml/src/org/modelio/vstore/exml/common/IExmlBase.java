@@ -21,6 +21,7 @@
 package org.modelio.vstore.exml.common;
 
 import java.io.IOException;
+import java.util.Collection;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.modelio.vcore.model.DuplicateObjectException;
@@ -79,6 +80,20 @@ public interface IExmlBase extends IRepository {
     @objid ("fd21f4c8-5986-11e1-991a-001ec947ccaf")
     void reloadCmsNode(final SmObjectImpl obj, IModelLoader modelLoader) throws DuplicateObjectException;
 
+    /**
+     * Load the given CMS nodes that are stored in this repository and not already loaded.
+     * <p>
+     * More efficient than calling {@link #loadCmsNode(ObjId, IModelLoader, boolean)} for each node
+     * when many nodes must be loaded.
+     * In case of failure the failing CMS nodes will be set as <i>shell</i>.
+     * 
+     * @param cmsNodes CMS node model objects.
+     * @param modelLoader the model loader to use.
+     * @throws org.modelio.vcore.model.DuplicateObjectException if a duplicate object is detected in many repositories.
+     */
+    @objid ("3645b1bb-7e4a-4c4e-8089-978eb61f8dd6")
+    void loadCmsNodes(Collection<SmObjectImpl> cmsNodes, IModelLoader modelLoader) throws DuplicateObjectException;
+
     /**
      * Remove the model object from the repository.
      * 
@@ -0,0 +1,205 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
+
+/**
+ * Writes many CMS nodes in parallel for an {@link AbstractExmlRepository}.
+ * <p>
+ * Worker threads serialize the CMS nodes, only reading the model.
+ * The thread calling {@link #run(Collection, ISaveJob, IListener)} is notified of each
+ * written CMS node and may update the indexes meanwhile the next ones are written.
+ * <p>
+ * Usage: instantiate, call {@link #run(Collection, ISaveJob, IListener)} then {@link #close()}.
+ */
+@objid ("368279de-0142-45b4-9e8a-5c38e0af9ae6")
+class ParallelCmsNodeSaver implements AutoCloseable {
+    /**
+     * Maximum number of CMS nodes submitted and not yet reported, per worker.
+     */
+    @objid ("ef0ab3b9-8a98-4907-9205-3fad263a8c9e")
+    private static final int QUEUE_PER_WORKER = 4;
+
+    @objid ("526e9b38-8797-41c4-b6e0-597ecf1e09b4")
+    private final int nbWorkers;
+
+    @objid ("7f6cdfc0-f11c-4ae0-8207-879f41278fee")
+    private final ExecutorService executor;
+
+    /**
+     * Initialize the saver.
+     * 
+     * @param nbWorkers the number of writing threads.
+     */
+    @objid ("b6553d6c-9d91-427b-96b0-d8dcdeb88509")
+    ParallelCmsNodeSaver(int nbWorkers) {
+        this.nbWorkers = nbWorkers;
+        this.executor = Executors.newFixedThreadPool(nbWorkers, new NamedThreadFactory("EXML saver %d"));
+    }
+
+    /**
+     * Write the given CMS nodes and report them to the listener.
+     * <p>
+     * The listener is called from the current thread, once for each CMS node.
+     * CMS nodes are not reported in the order of the collection.
+     * 
+     * @param handlers the storage handlers of the CMS nodes to write.
+     * @param job writes a CMS node. Called from the worker threads.
+     * @param listener called for each written CMS node.
+     */
+    @objid ("f651f5cf-da99-4461-821a-e99df5aad404")
+    void run(Collection<ExmlStorageHandler> handlers, ISaveJob job, IListener listener) {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(this.executor);
+        Iterator<ExmlStorageHandler> it = handlers.iterator();
+        
+        // Fill the pipeline
+        int pending = 0;
+        while (pending < this.nbWorkers * QUEUE_PER_WORKER && it.hasNext()) {
+            submit(completion, it.next(), job);
+            pending++;
+        }
+        
+        // Report results as they come and feed the pipeline
+        while (pending > 0) {
+            Result result = take(completion);
+            pending--;
+        
+            if (it.hasNext()) {
+                submit(completion, it.next(), job);
+                pending++;
+            }
+        
+            if (result.failure != null) {
+                listener.onFailed(result.handler, result.failure);
+            } else {
+                listener.onSaved(result.handler);
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    @objid ("9e09de45-ec63-4597-85d5-8f6bc0bc551f")
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    @objid ("eea56eb3-8c13-41ed-9428-c2901fdfa78d")
+    private static void submit(CompletionService<Result> completion, ExmlStorageHandler handler, ISaveJob job) {
+        completion.submit(() -> {
+            try {
+                job.save(handler);
+                return new Result(handler, null);
+            } catch (IOException e) {
+                return new Result(handler, e);
+            }
+        });
+    }
+
+    @objid ("bbed1f8b-8c42-429b-9edc-5a32b136213b")
+    private static Result take(CompletionService<Result> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * Writes a CMS node.
+     */
+    @objid ("50a94b42-2f92-45fd-9628-3406a4c910fe")
+    @FunctionalInterface
+    interface ISaveJob {
+        /**
+         * Write a CMS node.
+         * 
+         * @param handler the CMS node storage handler.
+         * @throws java.io.IOException on failure
+         */
+        @objid ("7f73fbb1-2a0c-4052-9b41-b3b6bc413e32")
+        void save(ExmlStorageHandler handler) throws IOException;
+
+    }
+
+    /**
+     * Receives the written CMS nodes.
+     */
+    @objid ("396aae56-b7d0-4a7d-82a4-dc2dd77cbeae")
+    interface IListener {
+        /**
+         * Called when a CMS node has been written.
+         * 
+         * @param handler the CMS node storage handler.
+         */
+        @objid ("a00fecde-f19c-4649-b8e4-6d8e7e6fd9dd")
+        void onSaved(ExmlStorageHandler handler);
+
+        /**
+         * Called when a CMS node could not be written.
+         * 
+         * @param handler the CMS node storage handler.
+         * @param failure the failure
+         */
+        @objid ("7669cad1-bba0-4e5e-8742-6a873e4c032b")
+        void onFailed(ExmlStorageHandler handler, IOException failure);
+
+    }
+
+    @objid ("d577e576-1198-4eed-9249-f4eeba03a48b")
+    private static class Result {
+        @objid ("c92c6f33-5823-4ebb-90d2-f8c916f248f9")
+        final ExmlStorageHandler handler;
+
+        @objid ("682899a2-0647-4718-b5ed-8cdca91eb59c")
+        final IOException failure;
+
+        @objid ("1f080d47-2d99-41ec-9b37-3da73bcc9608")
+        Result(ExmlStorageHandler handler, IOException failure) {
+            this.handler = handler;
+            this.failure = failure;
+        }
+
+    }
+
+}
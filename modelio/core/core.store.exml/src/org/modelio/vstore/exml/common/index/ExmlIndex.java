@@ -31,6 +31,7 @@ import org.modelio.vcore.session.api.repository.StorageErrorSupport;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
 import org.modelio.vstore.exml.common.index.builder.IndexBuilder;
 import org.modelio.vstore.exml.common.index.builder.InvalidExmlException;
+import org.modelio.vstore.exml.common.index.builder.ParallelIndexBuilder;
 import org.modelio.vstore.exml.common.index.jdbm.JdbmIndex;
 import org.modelio.vstore.exml.common.model.ObjId;
 import org.modelio.vstore.exml.plugin.VStoreExml;
@@ -77,6 +78,21 @@ public class ExmlIndex {
     @objid ("c9f929a1-0295-4948-b618-f800ff04c7cf")
     private final StorageErrorSupport errSupport;
 
+    @objid ("3b825327-40e9-4f65-a242-09b7f60e9b57")
+    private SmMetamodel metamodel;
+
+    /**
+     * Minimum number of EXML resources to parse the resources in parallel when building the indexes.
+     */
+    @objid ("8275fd48-745a-4e92-baa5-5def2fdf92c4")
+    private static final int PARALLEL_BUILD_THRESHOLD = 50;
+
+    /**
+     * Maximum number of threads parsing EXML resources when building the indexes.
+     */
+    @objid ("d39bb5c3-882b-46c5-acb1-90a2259c3169")
+    private static final int MAX_BUILD_WORKERS = 4;
+
     /**
      * Instantiate the indexes and open them.
      * 
@@ -101,12 +117,48 @@ public class ExmlIndex {
     @objid ("d5c90dd1-6231-11e1-b31a-001ec947ccaf")
     public void buildIndexes(IModelioProgress aMonitor) throws IOException, IndexException {
         SubProgress monitor = SubProgress.convert(aMonitor, "Building indexes", 320);
-        boolean problemsFound = false;
+        boolean problemsFound;
         
         Collection<ExmlResource> allResources = this.resProvider.getAllResources(monitor.newChild(100));
         int nbResources = allResources.size();
         monitor.setWorkRemaining(nbResources);
         
+        int nbWorkers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_BUILD_WORKERS);
+        if (nbWorkers > 1 && nbResources >= PARALLEL_BUILD_THRESHOLD) {
+            problemsFound = buildIndexesParallel(allResources, nbWorkers, monitor);
+        } else {
+            problemsFound = buildIndexesSequential(allResources, monitor);
+        }
+        
+        // Update index stamp if no problem found.
+        // in the other case the indexes will be rebuilt on next repository opening.
+        if (!problemsFound) {
+            this.db.setStoredVersion();
+        
+            commitDb();
+        
+            compress(monitor.newChild(20));
+        }
+        
+        commitDb();
+        
+        
+        monitor.done();
+    }
+
+    /**
+     * Index the resources one after the other in the current thread.
+     * 
+     * @param allResources the resources to index
+     * @param monitor the progress monitor
+     * @return <code>true</code> if invalid resources were found.
+     * @throws java.io.IOException in case of failure reading EXML files.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of error writing the index.
+     */
+    @objid ("955a0228-449d-4ca6-8788-25120f9398f7")
+    private boolean buildIndexesSequential(Collection<ExmlResource> allResources, SubProgress monitor) throws IOException, IndexException {
+        boolean problemsFound = false;
+        int nbResources = allResources.size();
         int i = 0;
         for (ExmlResource f : allResources) {
             try (InputStream is = f.bufferedRead()) {
@@ -126,21 +178,47 @@ public class ExmlIndex {
                 this.errSupport.fireWarning(e);
             }
         }
+        return problemsFound;
+    }
+
+    /**
+     * Parse the resources in worker threads and write the indexes from the current thread.
+     * 
+     * @param allResources the resources to index
+     * @param nbWorkers the number of parsing threads
+     * @param monitor the progress monitor
+     * @return <code>true</code> if invalid resources were found.
+     * @throws java.io.IOException in case of failure reading EXML files.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of error writing the index.
+     */
+    @objid ("c3827274-1bea-4dac-ac94-03930cf377ae")
+    private boolean buildIndexesParallel(Collection<ExmlResource> allResources, int nbWorkers, SubProgress monitor) throws IOException, IndexException {
+        int nbResources = allResources.size();
+        boolean[] problemsFound = new boolean[] {false};
         
-        // Update index stamp if no problem found.
-        // in the other case the indexes will be rebuilt on next repository opening.
-        if (!problemsFound) {
-            this.db.setStoredVersion();
-        
-            commitDb();
-        
-            compress(monitor.newChild(20));
-        }
+        try (ParallelIndexBuilder parallelBuilder = new ParallelIndexBuilder(this.metamodel, getCmsNodeIndex(), getUserNodeIndex(), nbWorkers)) {
+            parallelBuilder.run(allResources, new ParallelIndexBuilder.IListener() {
+                private int i = 0;
         
-        commitDb();
+                @Override
+                public void onIndexed(ExmlResource resource) throws IndexException {
+                    commitSometimes();
+                    this.i++;
+                    if (this.i % 10 == 0) {
+                        monitor.subTask( VStoreExml.I18N.getMessage("AbstractExmlRepository.mon.buildingIndexes.i",ExmlIndex.this.resProvider.getName(), this.i, nbResources));
+                    }
         
+                    monitor.worked(1);
+                }
         
-        monitor.done();
+                @Override
+                public void onInvalid(ExmlResource resource, InvalidExmlException e) {
+                    problemsFound[0] = true;
+                    ExmlIndex.this.errSupport.fireWarning(e);
+                }
+            });
+        }
+        return problemsFound[0];
     }
 
     /**
@@ -156,6 +234,7 @@ public class ExmlIndex {
             this.cmsNodeIndex = null;
             this.userNodeIndex = null;
             this.builder = null;
+            this.metamodel = null;
         }
     }
 
@@ -273,6 +352,7 @@ public class ExmlIndex {
                 this.db.open(aMonitor, this.resProvider, metamodel);
                 this.cmsNodeIndex = this.db.getCmsNodeIndex();
                 this.userNodeIndex = this.db.getUserNodeIndex();
+                this.metamodel = metamodel;
                 this.builder = new IndexBuilder(metamodel, getCmsNodeIndex(), getUserNodeIndex());
         
                 shield.success();
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.stream.Stream;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.files.StreamException;
+import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vcore.smkernel.meta.SmClass;
 import org.modelio.vstore.exml.common.model.ObjId;
 import org.modelio.vstore.exml.common.model.ObjIdName;
@@ -102,6 +103,19 @@ public interface ICmsNodeIndex {
     @objid ("32311d43-5c7b-11e1-863f-001ec947ccaf")
     ObjId getParentNodeOf(final ObjId id) throws IndexException;
 
+    /**
+     * Get the child CMS nodes of the given CMS node.
+     * <p>
+     * This is the inverse of {@link #getParentNodeOf(ObjId)}.
+     * 
+     * @param id a CMS node
+     * @return its child CMS nodes.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
+     * @since 4.1
+     */
+    @objid ("bbac1862-60fd-4121-b94d-66fea74aebac")
+    Collection<ObjId> getChildNodes(final ObjId id) throws IndexException;
+
     /**
      * @return <code>true</code> if the index is empty.
      * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error.
@@ -140,6 +154,21 @@ public interface ICmsNodeIndex {
     @objid ("32311d3e-5c7b-11e1-863f-001ec947ccaf")
     void setParent(final ObjId cmsNodeId, final ObjId parentId) throws IndexException;
 
+    /**
+     * Tells whether an object with the given identifier may be in the index, whatever its metaclass.
+     * <p>
+     * Answered by a {@link IdBloomFilter} built from the index on first call and fed by later additions:
+     * a <code>false</code> answer is certain, a <code>true</code> answer may be wrong.
+     * 
+     * @param uuid an object identifier
+     * @param metamodel the metamodel, used to find the metaclass indexes when building the filter.
+     * @return <code>false</code> if the object is certainly not in the index.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error
+     * @since 4.1
+     */
+    @objid ("81b625c0-094e-453e-9fbb-672d42c06dfa")
+    boolean mayContain(String uuid, MMetamodel metamodel) throws IndexException;
+
     /**
      * Get all model objects identifiers with their name for the given metaclass.
      * <p>
@@ -153,6 +182,24 @@ public interface ICmsNodeIndex {
     @objid ("d038adba-2fff-488e-b8ee-f65bc5df3447")
     Stream<ObjIdName> idByMClass(final SmClass cls) throws IndexException, StreamException;
 
+    /**
+     * Get the identifiers of the model objects of the given metaclass that have the given name.
+     * <p>
+     * Does not return child metaclasses nodes.
+     * <p>
+     * The name is the one the objects had when the index was last updated,
+     * callers are expected to check the loaded objects.
+     * 
+     * @param cls a metaclass.
+     * @param name the searched name.
+     * @return the matching object identifiers.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of I/O error
+     * @throws org.modelio.vbasic.files.StreamException containing IndexException may be thrown anytime in the stream when encountering an I/O error.
+     * @since 4.1
+     */
+    @objid ("98427cbb-b746-45ad-ad5d-e783b5529202")
+    Stream<ObjIdName> idByName(final SmClass cls, String name) throws IndexException, StreamException;
+
     /**
      * Get all objects contained by a CMS node
      * 
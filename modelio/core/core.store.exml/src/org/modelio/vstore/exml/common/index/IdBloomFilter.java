@@ -0,0 +1,170 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common.index;
+
+import java.util.Arrays;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Bloom filter of model object identifiers.
+ * <p>
+ * Answers in constant time whether an identifier may have been added: a <code>false</code> answer is certain,
+ * a <code>true</code> answer may be wrong for less than 1% of the identifiers never added.
+ * <p>
+ * The filter is sized for twice the identifiers given to its {@link Builder}. Once more identifiers have been added,
+ * {@link #add(String)} returns <code>false</code> to tell the filter should be rebuilt to keep its accuracy.
+ * <p>
+ * Additions are synchronized. Lookups are lock free and may miss an identifier being added concurrently.
+ * @since 4.1
+ */
+@objid ("18f9d567-0b3b-409b-87cc-92dc9214aa79")
+public final class IdBloomFilter {
+    @objid ("207bdab7-8ccf-4f5f-b724-bbe40fd14af8")
+    private static final int HASH_COUNT = 4;
+
+    @objid ("139fc65a-af5c-4418-8ea0-1f6a665f22f7")
+    private static final int BITS_PER_ID = 10;
+
+    @objid ("39ed15e3-5ddf-4f3b-9828-16c4e073d6a7")
+    private static final int MIN_CAPACITY = 1024;
+
+    @objid ("4fdc07ca-d7de-4d44-a105-5c5cfb413317")
+    private final long[] bits;
+
+    @objid ("d923c90f-629d-45f0-85b5-eedb21fe6850")
+    private final int mask;
+
+    @objid ("6f144cd8-208a-4544-bacf-87e962262063")
+    private final int capacity;
+
+    @objid ("bf81b434-3a8f-479e-852c-800a1ac11d20")
+    private int count;
+
+    @objid ("d7cd4775-cde9-4f22-b91f-7b01007d1968")
+    private IdBloomFilter(int expected) {
+        this.capacity = Math.max(MIN_CAPACITY, 2 * expected);
+        
+        long nbits = Long.highestOneBit((long) this.capacity * BITS_PER_ID - 1) << 1;
+        nbits = Math.min(nbits, 1L << 30);
+        this.bits = new long[(int) (nbits >>> 6)];
+        this.mask = (int) (nbits - 1);
+    }
+
+    /**
+     * Add an identifier.
+     * 
+     * @param id an object identifier
+     * @return <code>false</code> if the filter is now over its capacity and should be rebuilt.
+     */
+    @objid ("32a32a7b-8b52-47db-a9e3-5ba836aebf55")
+    public synchronized boolean add(String id) {
+        put(hash(id));
+        this.count++;
+        return this.count <= this.capacity;
+    }
+
+    /**
+     * Tells whether an identifier may have been added.
+     * 
+     * @param id an object identifier
+     * @return <code>false</code> if the identifier was certainly not added.
+     */
+    @objid ("476494ff-dd93-4330-b916-fb8b25deed08")
+    public boolean mightContain(String id) {
+        long h = hash(id);
+        int h1 = (int) (h >>> 32);
+        int h2 = (int) h;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & this.mask;
+            if ((this.bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @objid ("faede6e0-9f3e-42bd-a846-6acb6b369315")
+    @Override
+    public String toString() {
+        return String.format("IdBloomFilter [count=%d, capacity=%d, bits=%d]", this.count, this.capacity, this.bits.length * 64L);
+    }
+
+    @objid ("dfde8ef8-2457-4f25-852b-aa3e1965a8ad")
+    private void put(long h) {
+        int h1 = (int) (h >>> 32);
+        int h2 = (int) h;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & this.mask;
+            this.bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Compute two independent 32 bits hashes of an identifier: {@link String#hashCode()} and FNV-1a.
+     */
+    @objid ("ccef1240-5d27-448b-b9ff-1d89c6543eaa")
+    private static long hash(String id) {
+        int fnv = 0x811c9dc5;
+        for (int i = 0; i < id.length(); i++) {
+            fnv = (fnv ^ id.charAt(i)) * 0x01000193;
+        }
+        // odd second hash so that the probe sequence covers all bits
+        return ((long) id.hashCode() << 32) | ((fnv | 1) & 0xffffffffL);
+    }
+
+    /**
+     * Collects identifiers then builds a filter sized for them.
+     */
+    @objid ("2eb20575-dc4e-4262-9e0f-7535e74c72d2")
+    public static final class Builder {
+        @objid ("7d67ab25-ea5f-4b8f-86fb-0dc205c2de72")
+        private long[] hashes = new long[MIN_CAPACITY];
+
+        @objid ("7696a3df-7bc8-4dde-9280-1956e2307289")
+        private int size;
+
+        /**
+         * @param id an object identifier to add to the filter.
+         */
+        @objid ("1d972d03-9804-47ae-aa3d-577e4ccbe1af")
+        public void add(String id) {
+            if (this.size == this.hashes.length) {
+                this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+            }
+            this.hashes[this.size++] = hash(id);
+        }
+
+        /**
+         * @return a new filter containing the collected identifiers.
+         */
+        @objid ("74fdae47-4de7-4848-b507-a213f6e81dce")
+        public IdBloomFilter build() {
+            IdBloomFilter ret = new IdBloomFilter(this.size);
+            for (int i = 0; i < this.size; i++) {
+                ret.put(this.hashes[i]);
+            }
+            ret.count = this.size;
+            return ret;
+        }
+
+    }
+
+}
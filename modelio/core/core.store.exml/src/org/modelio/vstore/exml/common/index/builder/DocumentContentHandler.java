@@ -26,8 +26,6 @@ import java.util.Deque;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
-import org.modelio.vstore.exml.common.index.ICmsNodeIndex;
-import org.modelio.vstore.exml.common.index.IUserNodeIndex;
 import org.modelio.vstore.exml.common.index.IndexException;
 import org.modelio.vstore.exml.common.model.ObjId;
 import org.modelio.vstore.exml.common.model.ObjIdName;
@@ -56,10 +54,7 @@ class DocumentContentHandler extends DefaultHandler {
     private AbstractState currentState;
 
     @objid ("fd1f92d0-5986-11e1-991a-001ec947ccaf")
-    private final ICmsNodeIndex cmsNodeIndex;
-
-    @objid ("fd21f54a-5986-11e1-991a-001ec947ccaf")
-    private final IUserNodeIndex userNodeIndex;
+    private final IIndexWriter indexWriter;
 
     @objid ("fd21f6e3-5986-11e1-991a-001ec947ccaf")
     private final OBJECTState objectState;
@@ -89,9 +84,8 @@ class DocumentContentHandler extends DefaultHandler {
     private final Deque<Data> dataStack = new ArrayDeque<>();
 
     @objid ("fd21f716-5986-11e1-991a-001ec947ccaf")
-    public DocumentContentHandler(SmMetamodel metamodel, ICmsNodeIndex parentIndex, IUserNodeIndex userIndex) {
-        this.cmsNodeIndex = parentIndex;
-        this.userNodeIndex = userIndex;
+    public DocumentContentHandler(SmMetamodel metamodel, IIndexWriter indexWriter) {
+        this.indexWriter = indexWriter;
         
         this.extIdState = new EXTIDState();
         this.objectState = new OBJECTState();
@@ -122,7 +116,7 @@ class DocumentContentHandler extends DefaultHandler {
             this.cmsNodeId = childId;
         }
         
-        this.cmsNodeIndex.addObject(this.cmsNodeId, childIdName);
+        this.indexWriter.addObject(this.cmsNodeId, childIdName);
         pushObject(childId);
     }
 
@@ -131,9 +125,9 @@ class DocumentContentHandler extends DefaultHandler {
         ObjId usedId = this.idReader.readObjId(className, uid, false);
         
         // add to used refs unless usedId is contained inside cmsNodeId
-        if (! this.cmsNodeId.equals(this.cmsNodeIndex.getCmsNodeOf(usedId))) {
+        if (! this.cmsNodeId.equals(this.indexWriter.getCmsNodeOf(usedId))) {
             Data data = getDataStack().element();
-            this.userNodeIndex.addUsed(data.id, data.curDepName, usedId);
+            this.indexWriter.addUsed(data.id, data.curDepName, usedId);
         }
     }
 
@@ -191,7 +185,7 @@ class DocumentContentHandler extends DefaultHandler {
     public void setCmsNode(final String className, final String uid, final String name) throws IndexException {
         ObjIdName objIdName = this.idReader.readObjIdName(className, uid, name, true);
         this.cmsNodeId = objIdName.toObjId();
-        this.cmsNodeIndex.addCmsNode(objIdName);
+        this.indexWriter.addCmsNode(objIdName);
     }
 
     @objid ("fd21f6ea-5986-11e1-991a-001ec947ccaf")
@@ -219,7 +213,7 @@ class DocumentContentHandler extends DefaultHandler {
             this.parentSet = true;
         
             ObjId parentId = this.idReader.readObjId(className, uid, true);
-            this.cmsNodeIndex.setParent(this.cmsNodeId, parentId);
+            this.indexWriter.setParent(this.cmsNodeId, parentId);
         }
     }
 
@@ -0,0 +1,86 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common.index.builder;
+
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.common.model.ObjIdName;
+
+/**
+ * Receives the index entries produced by parsing an EXML resource.
+ * <p>
+ * This is the only part of the indexes the {@link IndexBuilder} needs.
+ * It may be backed by the real indexes, see {@link IndexWriter}, or by an in memory recorder.
+ */
+@objid ("6cc2465a-b83b-45ef-9510-853d8aa80cb1")
+public interface IIndexWriter {
+    /**
+     * Add a CMS node.
+     * 
+     * @param id the CMS node identifier
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+     */
+    @objid ("a207c5f0-7fee-489d-bfa3-1f3720ec3797")
+    void addCmsNode(ObjIdName id) throws IndexException;
+
+    /**
+     * Record an object as being stored in a CMS node.
+     * 
+     * @param cmsNodeId the CMS node
+     * @param objectId the stored object
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+     */
+    @objid ("628f9862-dd62-4eee-9532-f0cfa3ef16d5")
+    void addObject(ObjId cmsNodeId, ObjIdName objectId) throws IndexException;
+
+    /**
+     * Set the parent CMS node of a CMS node.
+     * 
+     * @param cmsNodeId the CMS node
+     * @param parentId its parent CMS node
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+     */
+    @objid ("6a8b0f53-17e0-487f-8206-be71f62492ba")
+    void setParent(ObjId cmsNodeId, ObjId parentId) throws IndexException;
+
+    /**
+     * Record that an object of a CMS node references another object through a dependency.
+     * 
+     * @param userNodeId the referencing object
+     * @param depName the dependency name
+     * @param usedObjectId the referenced object
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+     */
+    @objid ("5bb5b9f7-2c5d-4552-8622-6292b2226b0f")
+    void addUsed(ObjId userNodeId, String depName, ObjId usedObjectId) throws IndexException;
+
+    /**
+     * Get the CMS node storing an object.
+     * 
+     * @param id an object identifier
+     * @return its CMS node or <code>null</code> if not known.
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index read failure
+     */
+    @objid ("e4d95df7-9257-4563-90d7-ecf44f4231dc")
+    ObjId getCmsNodeOf(ObjId id) throws IndexException;
+
+}
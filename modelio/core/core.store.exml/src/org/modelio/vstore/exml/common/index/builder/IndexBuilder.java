@@ -56,7 +56,18 @@ public class IndexBuilder {
      */
     @objid ("fd21f71a-5986-11e1-991a-001ec947ccaf")
     public IndexBuilder(SmMetamodel metamodel, ICmsNodeIndex parentIndex, IUserNodeIndex userIndex) {
-        this.defaultHandler = new DocumentContentHandler(metamodel, parentIndex, userIndex);
+        this(metamodel, new IndexWriter(parentIndex, userIndex));
+    }
+
+    /**
+     * Initialize the index builder.
+     * 
+     * @param metamodel the metamodel
+     * @param indexWriter receives the index entries.
+     */
+    @objid ("0cb43b9b-89aa-4c8d-b3a2-f5d0583f7424")
+    public IndexBuilder(SmMetamodel metamodel, IIndexWriter indexWriter) {
+        this.defaultHandler = new DocumentContentHandler(metamodel, indexWriter);
         
         try {
             SAXParserFactory saxFactory = SAXParserFactory.newInstance();
@@ -0,0 +1,129 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common.index.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.common.model.ObjIdName;
+
+/**
+ * In memory recorder of the index entries produced by parsing one EXML resource.
+ * <p>
+ * Index writer for a {@link DocumentContentHandler} running in a worker thread.
+ * The recorded entries are later written into the real indexes
+ * by a single thread with {@link #writeTo(List, IIndexWriter)}.
+ * <p>
+ * Answers {@link #getCmsNodeOf(ObjId)} only for the objects recorded since the last {@link #takeEntries()} call.
+ * This is sufficient when building indexes from scratch.
+ */
+@objid ("b9098072-fc90-411d-8184-19c613513056")
+class IndexEntriesBatch implements IIndexWriter {
+    @objid ("8158ff3c-c623-4854-8f92-5bc9e490f1eb")
+    private List<IIndexEntry> entries = new ArrayList<>();
+
+    /**
+     * Objects recorded in the current batch -> their CMS node.
+     */
+    @objid ("614e08c7-74cc-41e7-8ccd-0ab9e7058221")
+    private final Map<ObjId, ObjId> cmsNodes = new HashMap<>();
+
+    /**
+     * Get the recorded entries and start a new batch.
+     * 
+     * @return the recorded entries.
+     */
+    @objid ("d98ef576-1cfb-499c-95d8-a6e04e989b4c")
+    public List<IIndexEntry> takeEntries() {
+        List<IIndexEntry> ret = this.entries;
+        this.entries = new ArrayList<>(ret.size());
+        this.cmsNodes.clear();
+        return ret;
+    }
+
+    /**
+     * Write recorded entries into the real indexes.
+     * 
+     * @param batch entries returned by {@link #takeEntries()}
+     * @param indexWriter the real indexes writer
+     * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+     */
+    @objid ("f306ae67-2b5e-4efb-9a6b-d21b8b692b7b")
+    public static void writeTo(List<IIndexEntry> batch, IIndexWriter indexWriter) throws IndexException {
+        for (IIndexEntry entry : batch) {
+            entry.writeTo(indexWriter);
+        }
+    }
+
+    @objid ("5c029a84-ad5e-4c16-92c9-e0d429b57fe2")
+    @Override
+    public void addCmsNode(ObjIdName id) throws IndexException {
+        this.cmsNodes.put(id.toObjId(), id.toObjId());
+        this.entries.add(w -> w.addCmsNode(id));
+    }
+
+    @objid ("9e6b27ff-70e4-4ee1-a901-7f2b6e095bce")
+    @Override
+    public void addObject(ObjId cmsNodeId, ObjIdName objectId) throws IndexException {
+        this.cmsNodes.put(objectId.toObjId(), cmsNodeId);
+        this.entries.add(w -> w.addObject(cmsNodeId, objectId));
+    }
+
+    @objid ("c7680da6-f8b6-4150-bda4-c27ba9547eac")
+    @Override
+    public void setParent(ObjId cmsNodeId, ObjId parentId) throws IndexException {
+        this.entries.add(w -> w.setParent(cmsNodeId, parentId));
+    }
+
+    @objid ("7b3b93c5-92fc-49fa-a89d-d4407d853dc8")
+    @Override
+    public void addUsed(ObjId userNodeId, String depName, ObjId usedObjectId) throws IndexException {
+        this.entries.add(w -> w.addUsed(userNodeId, depName, usedObjectId));
+    }
+
+    @objid ("666cb383-f9fe-4728-bb22-43e63c4b78c6")
+    @Override
+    public ObjId getCmsNodeOf(ObjId id) throws IndexException {
+        return this.cmsNodes.get(id);
+    }
+
+    /**
+     * A recorded index entry.
+     */
+    @objid ("c3135fd8-1b69-457c-9fd2-43a27359721f")
+    @FunctionalInterface
+    interface IIndexEntry {
+        /**
+         * Write the entry in the real indexes.
+         * 
+         * @param indexWriter the real indexes writer
+         * @throws org.modelio.vstore.exml.common.index.IndexException on index write failure
+         */
+        @objid ("fa4cd151-ae32-4b2a-befa-4b545c5bac17")
+        void writeTo(IIndexWriter indexWriter) throws IndexException;
+
+    }
+
+}
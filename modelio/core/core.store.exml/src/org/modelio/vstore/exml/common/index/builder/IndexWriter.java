@@ -0,0 +1,81 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common.index.builder;
+
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vstore.exml.common.index.ICmsNodeIndex;
+import org.modelio.vstore.exml.common.index.IUserNodeIndex;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.common.model.ObjIdName;
+
+/**
+ * {@link IIndexWriter} writing directly in the CMS node and user node indexes.
+ */
+@objid ("d2eaa3e5-6412-47f6-a8e4-f970509b5b46")
+public class IndexWriter implements IIndexWriter {
+    @objid ("6aa91a3d-247c-4129-a3b8-385e0f8f5e94")
+    private final ICmsNodeIndex cmsNodeIndex;
+
+    @objid ("c98cd8fe-743b-4f60-a797-fb6924e29494")
+    private final IUserNodeIndex userNodeIndex;
+
+    /**
+     * @param cmsNodeIndex the parent/child index
+     * @param userNodeIndex the used CMS nodes index.
+     */
+    @objid ("03526974-75f7-4b40-880d-b14b13ed1289")
+    public IndexWriter(ICmsNodeIndex cmsNodeIndex, IUserNodeIndex userNodeIndex) {
+        this.cmsNodeIndex = cmsNodeIndex;
+        this.userNodeIndex = userNodeIndex;
+    }
+
+    @objid ("18254f40-e195-4d0e-8131-38d82c25df11")
+    @Override
+    public void addCmsNode(ObjIdName id) throws IndexException {
+        this.cmsNodeIndex.addCmsNode(id);
+    }
+
+    @objid ("bfc16fed-dc3b-4b62-a122-212bdae4c1d2")
+    @Override
+    public void addObject(ObjId cmsNodeId, ObjIdName objectId) throws IndexException {
+        this.cmsNodeIndex.addObject(cmsNodeId, objectId);
+    }
+
+    @objid ("6e519bdf-d597-46e8-959d-dbb0275ee8cd")
+    @Override
+    public void setParent(ObjId cmsNodeId, ObjId parentId) throws IndexException {
+        this.cmsNodeIndex.setParent(cmsNodeId, parentId);
+    }
+
+    @objid ("64716988-2b26-47c8-b260-1d801c2826ee")
+    @Override
+    public void addUsed(ObjId userNodeId, String depName, ObjId usedObjectId) throws IndexException {
+        this.userNodeIndex.addUsed(userNodeId, depName, usedObjectId);
+    }
+
+    @objid ("1d16d1f0-925b-4325-870a-c9dcc47d076b")
+    @Override
+    public ObjId getCmsNodeOf(ObjId id) throws IndexException {
+        return this.cmsNodeIndex.getCmsNodeOf(id);
+    }
+
+}
@@ -0,0 +1,265 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.common.index.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
+import org.modelio.vcore.smkernel.meta.SmMetamodel;
+import org.modelio.vstore.exml.common.index.ICmsNodeIndex;
+import org.modelio.vstore.exml.common.index.IUserNodeIndex;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.index.builder.IndexEntriesBatch.IIndexEntry;
+import org.modelio.vstore.exml.resource.IExmlResourceProvider.ExmlResource;
+import org.xml.sax.InputSource;
+
+/**
+ * Indexes builder that parses EXML resources in parallel.
+ * <p>
+ * Worker threads each parse resources with their own {@link IndexBuilder} into an in memory
+ * batch of index entries. The thread calling {@link #run(Collection, IListener)} is the only one
+ * that writes the batches into the real indexes.
+ * <p>
+ * To be used only to build the indexes from scratch: the workers do not see the real indexes content.
+ * <p>
+ * Usage: instantiate, call {@link #run(Collection, IListener)} then {@link #close()}.
+ */
+@objid ("bc2280d0-57e0-47a2-b8bc-a9a5f01acd42")
+public class ParallelIndexBuilder implements AutoCloseable {
+    /**
+     * Maximum number of parsed resources waiting to be written, per worker.
+     * Bounds the memory used by the batches when the writer is slower than the parsers.
+     */
+    @objid ("1249b22f-008b-4281-a77b-f5ba87a62b9d")
+    private static final int QUEUE_PER_WORKER = 4;
+
+    @objid ("77c57fc2-b852-4757-8088-2f6ee64b2e42")
+    private final SmMetamodel metamodel;
+
+    @objid ("9c5c26cc-73d2-4094-accf-4d8f2d59a348")
+    private final IIndexWriter indexWriter;
+
+    @objid ("6fb31207-06f3-47f4-af73-4911243ac32a")
+    private final int nbWorkers;
+
+    @objid ("1489cc71-a461-4ea2-b45d-78926702929b")
+    private final ExecutorService executor;
+
+    /**
+     * One index builder per worker thread.
+     */
+    @objid ("eae6e2bd-23a0-42a6-a42a-e2b36d61865c")
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(this::createWorker);
+
+    /**
+     * Initialize the index builder.
+     * 
+     * @param metamodel the metamodel
+     * @param cmsNodeIndex the parent/child index
+     * @param userNodeIndex the used CMS nodes index.
+     * @param nbWorkers the number of parsing threads.
+     */
+    @objid ("0114a85c-3b66-4db1-ac4e-4b0c2dde5f11")
+    public ParallelIndexBuilder(SmMetamodel metamodel, ICmsNodeIndex cmsNodeIndex, IUserNodeIndex userNodeIndex, int nbWorkers) {
+        this.metamodel = metamodel;
+        this.indexWriter = new IndexWriter(cmsNodeIndex, userNodeIndex);
+        this.nbWorkers = nbWorkers;
+        this.executor = Executors.newFixedThreadPool(nbWorkers, new NamedThreadFactory("EXML index builder %d"));
+    }
+
+    /**
+     * Parse all the given resources and write the indexes.
+     * <p>
+     * The listener is called from the current thread, after each resource has been written in the indexes
+     * or found invalid. Resources are not written in the indexes in the order of the collection.
+     * 
+     * @param resources the EXML resources to index.
+     * @param listener called after each resource.
+     * @throws java.io.IOException in case of failure reading an EXML resource.
+     * @throws org.modelio.vstore.exml.common.index.IndexException in case of error writing the index.
+     */
+    @objid ("c5ac9ebd-84d0-4fb5-8707-669678699ced")
+    public void run(Collection<ExmlResource> resources, IListener listener) throws IOException, IndexException {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(this.executor);
+        Iterator<ExmlResource> it = resources.iterator();
+        
+        // Fill the pipeline
+        int pending = 0;
+        while (pending < this.nbWorkers * QUEUE_PER_WORKER && it.hasNext()) {
+            submit(completion, it.next());
+            pending++;
+        }
+        
+        // Write results as they come and feed the pipeline
+        while (pending > 0) {
+            Result result = take(completion);
+            pending--;
+        
+            if (it.hasNext()) {
+                submit(completion, it.next());
+                pending++;
+            }
+        
+            if (result.invalid != null) {
+                listener.onInvalid(result.resource, result.invalid);
+            } else {
+                IndexEntriesBatch.writeTo(result.entries, this.indexWriter);
+                listener.onIndexed(result.resource);
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    @objid ("ab3083b4-450e-4836-b0b8-3e34afec68da")
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    @objid ("d3fa77d6-0f8e-4c19-9804-1a26b278dce5")
+    private Worker createWorker() {
+        return new Worker(this.metamodel);
+    }
+
+    @objid ("d215e6ff-ecb1-4c45-a4c9-c6e07fef0581")
+    private void submit(CompletionService<Result> completion, ExmlResource resource) {
+        completion.submit(() -> this.workers.get().parse(resource));
+    }
+
+    @objid ("892f42cd-e7fb-4367-a7af-49404be34f6f")
+    private static Result take(CompletionService<Result> completion) throws IOException, IndexException {
+        try {
+            Future<Result> future = completion.take();
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexException(e.toString(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IndexException(cause.toString(), cause);
+            }
+        }
+    }
+
+    /**
+     * Receives the index building results.
+     */
+    @objid ("916547f8-94a0-45e6-9999-6ff1ed73ed97")
+    public interface IListener {
+        /**
+         * Called when a resource has been written in the indexes.
+         * 
+         * @param resource the indexed resource.
+         * @throws org.modelio.vstore.exml.common.index.IndexException in case of error writing the index.
+         */
+        @objid ("b9b6183c-fba0-4a64-87cf-3989c85a7261")
+        void onIndexed(ExmlResource resource) throws IndexException;
+
+        /**
+         * Called when a resource could not be parsed.
+         * <p>
+         * Nothing from this resource is written in the indexes.
+         * 
+         * @param resource the invalid resource.
+         * @param e the parsing error.
+         */
+        @objid ("b5bc09a5-c9a1-47de-910b-7f7ecbd95ee3")
+        void onInvalid(ExmlResource resource, InvalidExmlException e);
+
+    }
+
+    /**
+     * Parsing result of a resource.
+     */
+    @objid ("a61862f3-c09c-4509-bb48-65a51524da8a")
+    private static class Result {
+        @objid ("0d2b9eff-c63a-428e-9916-27db36b22a14")
+        final ExmlResource resource;
+
+        @objid ("78a3c5f6-d214-4860-97fe-b0c4423dd8a9")
+        final List<IIndexEntry> entries;
+
+        @objid ("64bc1158-c2a2-4b16-b8a8-b130b15415fc")
+        final InvalidExmlException invalid;
+
+        @objid ("bf12642b-b4c5-4a39-96e9-8b7a317a03b6")
+        Result(ExmlResource resource, List<IIndexEntry> entries, InvalidExmlException invalid) {
+            this.resource = resource;
+            this.entries = entries;
+            this.invalid = invalid;
+        }
+
+    }
+
+    /**
+     * Parses resources in a worker thread.
+     */
+    @objid ("36181c76-24cd-409d-8a3d-060a7a18e755")
+    private static class Worker {
+        @objid ("dfde7891-2452-4889-8643-4aea81b12b96")
+        private final IndexEntriesBatch batch;
+
+        @objid ("d68c3c71-9c22-4aa2-9660-ef56bc0f53f9")
+        private final IndexBuilder builder;
+
+        @objid ("d2d8d4b9-4dbf-4e7d-8d6d-b14723f5055f")
+        Worker(SmMetamodel metamodel) {
+            this.batch = new IndexEntriesBatch();
+            this.builder = new IndexBuilder(metamodel, this.batch);
+        }
+
+        @objid ("ce9e293e-538b-46be-a632-6253a88906ac")
+        Result parse(ExmlResource resource) throws IOException {
+            try (InputStream is = resource.bufferedRead()) {
+                InputSource src = new InputSource(is);
+                src.setPublicId(resource.getPublicLocation());
+                this.builder.run(src);
+        
+                return new Result(resource, this.batch.takeEntries(), null);
+            } catch (InvalidExmlException e) {
+                // Drop what was recorded before the error
+                this.batch.takeEntries();
+                return new Result(resource, null, e);
+            }
+        }
+
+    }
+
+}
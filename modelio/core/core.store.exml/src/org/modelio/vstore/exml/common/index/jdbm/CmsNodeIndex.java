@@ -35,12 +35,15 @@ import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import jdbm.InverseHashView;
 import jdbm.PrimaryHashMap;
 import jdbm.RecordManager;
+import jdbm.SecondaryHashMap;
 import jdbm.helper.StoreReference;
 import org.modelio.vbasic.files.StreamException;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vcore.smkernel.meta.SmClass;
 import org.modelio.vstore.exml.common.index.ICmsNodeIndex;
+import org.modelio.vstore.exml.common.index.IdBloomFilter;
 import org.modelio.vstore.exml.common.index.IndexException;
 import org.modelio.vstore.exml.common.model.ObjId;
 import org.modelio.vstore.exml.common.model.ObjIdName;
@@ -50,6 +53,12 @@ import org.modelio.vstore.exml.common.model.ObjIdName;
  */
 @objid ("e1ee6207-5c83-11e1-863f-001ec947ccaf")
 public class CmsNodeIndex implements ICmsNodeIndex {
+    /**
+     * Filter of all indexed identifiers, <code>null</code> when not built yet.
+     */
+    @objid ("141907d9-5803-4419-9bfc-db9be0a1125f")
+    private volatile IdBloomFilter storedIds;
+
     @objid ("d554d657-7f1a-11e1-ba70-001ec947ccaf")
     private PrimaryHashMap<Long,StoreReference<Collection<Long>>> cmsNodeContent;
 
@@ -75,6 +84,14 @@ public class CmsNodeIndex implements ICmsNodeIndex {
     @objid ("d554d64c-7f1a-11e1-ba70-001ec947ccaf")
     private PrimaryHashMap<Long,Long> parentIndex;
 
+    /**
+     * 'object name -> object identifiers' secondary indexes of {@link #objectsIndex}.
+     * <p>
+     * Maintained by JDBM each time {@link #objectsIndex} is modified.
+     */
+    @objid ("7c9dbb6d-fe40-4d39-8ec1-3b01be4c5f27")
+    private Map<MClass , SecondaryHashMap<String,String,ObjectIndexValue>> namesIndex;
+
     @objid ("fdfe958c-883f-4278-ab20-09b7a5eb0026")
     private final ObjectIndexValueSerializer objIndexValueSerializer;
 
@@ -98,6 +115,7 @@ public class CmsNodeIndex implements ICmsNodeIndex {
             this.parentIndex = db.hashMap("parentIndex");
         
             this.objectsIndex = new HashMap<>();
+            this.namesIndex = new HashMap<>();
         
             this.cmsNodeContent = db.hashMap("cmsNodeContent");
         
@@ -120,6 +138,7 @@ public class CmsNodeIndex implements ICmsNodeIndex {
                     new ObjectIndexValue(
                             idn.name, 
                             this.objIdTable.getOrAddKey(idn.toObjId())));
+            recordStored(idn.id);
         
         } catch (InternalError e) {
             throw JdbmIndexException.from(e);
@@ -138,6 +157,7 @@ public class CmsNodeIndex implements ICmsNodeIndex {
                     new ObjectIndexValue(objectIdn.name,
                             this.objIdTable.getOrAddKey(cmsNodeId)));
             addCmsNodeContent(cmsNodeId, objectIdn.toObjId());
+            recordStored(objectIdn.id);
         } catch (InternalError e) {
             throw JdbmIndexException.from(e);
         } catch (IOError e) {
@@ -224,6 +244,29 @@ public class CmsNodeIndex implements ICmsNodeIndex {
         }
     }
 
+    @objid ("cf6ef61b-d665-4762-8d08-328e40e4d1c6")
+    @Override
+    public Collection<ObjId> getChildNodes(final ObjId id) throws IndexException {
+        try {
+            long lid = this.objIdTable.findKey(id);
+            if (lid==-1) {
+                return Collections.emptyList();
+            }
+        
+            Collection<ObjId> ret = new ArrayList<>();
+            for (Long childk : this.inverseParent.findKeysForValue(lid)) {
+                ret.add(this.objIdTable.getValue(childk));
+            }
+            return ret;
+        } catch (InternalError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOException e) {
+            throw JdbmIndexException.from(e);
+        }
+    }
+
     @objid ("82d690c7-5ca7-11e1-863f-001ec947ccaf")
     @Override
     public boolean isEmpty() throws IndexException {
@@ -406,6 +449,11 @@ public class CmsNodeIndex implements ICmsNodeIndex {
             ret = this.db.hashMap("objectsIndex."+cls.getQualifiedName(), null, this.objIndexValueSerializer);
             this.objectsIndex.put(cls, ret);
         
+            // The secondary index must be open before any modification of the primary one
+            this.namesIndex.put(cls, ret.secondaryHashMap(
+                    "namesIndex."+cls.getQualifiedName(),
+                    (id, value) -> value.name == null ? "" : value.name,
+                    UTFSerializer.INSTANCE));
         }
         return ret;
     }
@@ -440,6 +488,57 @@ public class CmsNodeIndex implements ICmsNodeIndex {
         }
     }
 
+    @objid ("d2d32298-a231-4a57-a0a6-5a2f527ba4f6")
+    @Override
+    public boolean mayContain(String uuid, MMetamodel metamodel) throws IndexException {
+        IdBloomFilter filter = this.storedIds;
+        if (filter == null) {
+            filter = buildStoredIds(metamodel);
+        }
+        return filter.mightContain(uuid);
+    }
+
+    @objid ("2b434750-42f9-43bb-9e3e-be0141798cf9")
+    private synchronized IdBloomFilter buildStoredIds(MMetamodel metamodel) throws IndexException {
+        if (this.storedIds != null) {
+            return this.storedIds;
+        }
+        
+        try {
+            IdBloomFilter.Builder builder = new IdBloomFilter.Builder();
+            for (MClass cls : metamodel.getRegisteredMClasses()) {
+                PrimaryHashMap<String, ObjectIndexValue> clsIndex = findObjectIndex(cls);
+                if (clsIndex != null) {
+                    for (String id : clsIndex.keySet()) {
+                        builder.add(id);
+                    }
+                }
+            }
+        
+            this.storedIds = builder.build();
+            return this.storedIds;
+        } catch (InternalError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOException e) {
+            throw JdbmIndexException.from(e);
+        }
+    }
+
+    /**
+     * Feed the identifiers filter with a new indexed identifier.
+     * <p>
+     * Synchronized with {@link #buildStoredIds(MMetamodel)} so that no identifier is missed while building.
+     */
+    @objid ("c6262f5e-ea9b-4a04-97a8-f97d82e0cf0d")
+    private synchronized void recordStored(String uuid) {
+        if (this.storedIds != null && ! this.storedIds.add(uuid)) {
+            // Too many additions, rebuild the filter on next request
+            this.storedIds = null;
+        }
+    }
+
     @objid ("38572aad-c546-41d9-999b-b223c4a24323")
     @Override
     public Stream<ObjIdName> idByMClass(final SmClass cls) throws IndexException, StreamException {
@@ -461,6 +560,31 @@ public class CmsNodeIndex implements ICmsNodeIndex {
         }
     }
 
+    @objid ("07cde759-5399-46b4-8230-d167952b0a19")
+    @Override
+    public Stream<ObjIdName> idByName(final SmClass cls, String name) throws IndexException, StreamException {
+        try {
+            if (findObjectIndex(cls) == null) {
+                return Stream.empty();
+            }
+        
+            Iterable<String> ids = this.namesIndex.get(cls).get(name);
+            if (ids == null) {
+                return Stream.empty();
+            } else {
+                return StreamSupport
+                        .stream(new JdbmSpliterator<>(ids.spliterator()), false)
+                        .map(id -> new ObjIdName(cls, name, id));
+            }
+        } catch (InternalError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOException e) {
+            throw JdbmIndexException.from(e);
+        }
+    }
+
     @objid ("b3a50054-f423-48a3-8ec2-27aa2e25b140")
     private String dumpObjId(Long idk) {
         if (idk == null) {
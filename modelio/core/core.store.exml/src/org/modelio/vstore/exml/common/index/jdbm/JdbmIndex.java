@@ -72,10 +72,11 @@ public class JdbmIndex implements IIndexDb {
      * <li> 15 : 22/08/2016 - Modelio 3.6: use qualified MClass names.
      * <li> 16 : 01/02/2017 - Modelio 3.6.1: Reworked used nodes indexes to include dependency name,
      * added a symbol table to share metaclass names and dependency names to save space.
+     * <li> 17 : 17/10/2026 - Modelio 4.1: added objects by name secondary indexes.
      * </ul>
      */
     @objid ("7dc0cd99-1877-11e2-9dfc-001ec947ccaf")
-    private static final int INDEX_FORMAT_VERSION = 16;
+    private static final int INDEX_FORMAT_VERSION = 17;
 
     @objid ("15db0306-18af-4014-91d4-80c848b40bca")
     private CmsNodeIndex cmsNodeIndex;
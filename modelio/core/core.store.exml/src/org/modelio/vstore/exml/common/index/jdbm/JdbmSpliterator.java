@@ -61,7 +61,8 @@ class JdbmSpliterator<T> implements Spliterator<T> {
     @Override
     public Spliterator<T> trySplit() throws StreamException {
         try {
-            return new JdbmSpliterator<>(this.wrapped.trySplit());
+            Spliterator<T> split = this.wrapped.trySplit();
+            return split == null ? null : new JdbmSpliterator<>(split);
         } catch (InternalError e) {
             throw fail(JdbmIndexException.from(e));
         } catch (IOError e) {
@@ -37,9 +37,11 @@ import jdbm.RecordManager;
 import jdbm.helper.StoreReference;
 import org.modelio.vbasic.files.StreamException;
 import org.modelio.vcore.smkernel.mapi.MClass;
+import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vcore.smkernel.meta.SmClass;
 import org.modelio.vcore.smkernel.meta.SmMetamodel;
 import org.modelio.vstore.exml.common.index.ICmsNodeIndex;
+import org.modelio.vstore.exml.common.index.IdBloomFilter;
 import org.modelio.vstore.exml.common.index.IndexException;
 import org.modelio.vstore.exml.common.model.ObjId;
 import org.modelio.vstore.exml.common.model.ObjIdName;
@@ -49,6 +51,12 @@ import org.modelio.vstore.exml.common.model.ObjIdName;
  */
 @objid ("b9d30a07-a8f2-4a9a-8b5c-6b22c2f5bc16")
 class CmsNodeIndex15 implements ICmsNodeIndex {
+    /**
+     * Filter of all indexed identifiers, <code>null</code> when not built yet.
+     */
+    @objid ("4a11996e-2659-42f0-9548-7eb2606c3420")
+    private volatile IdBloomFilter storedIds;
+
     @objid ("aaf828a7-f629-4d99-92fa-db431f412b00")
     private PrimaryHashMap<ObjId,StoreReference<Collection<ObjId>>> cmsNodeContent;
 
@@ -116,6 +124,7 @@ class CmsNodeIndex15 implements ICmsNodeIndex {
     public void addCmsNode(final ObjIdName idn) throws IndexException {
         try {
             getClassObjIndex(idn.classof).put(idn.id, new ObjectIndexValue(idn.name, idn.toObjId()));
+            recordStored(idn.id);
         
         } catch (InternalError e) {
             throw JdbmIndexException.from(e);
@@ -130,6 +139,7 @@ class CmsNodeIndex15 implements ICmsNodeIndex {
         try {
             getClassObjIndex(objectIdn.classof).put(objectIdn.id, new ObjectIndexValue(objectIdn.name, cmsNodeId));
             addCmsNodeContent(cmsNodeId, objectIdn.toObjId());
+            recordStored(objectIdn.id);
         } catch (InternalError e) {
             throw JdbmIndexException.from(e);
         } catch (IOError e) {
@@ -210,6 +220,22 @@ class CmsNodeIndex15 implements ICmsNodeIndex {
         }
     }
 
+    @objid ("32134ec7-fa6f-4284-ab1d-f5b3135fa98a")
+    @Override
+    public Collection<ObjId> getChildNodes(final ObjId id) throws IndexException {
+        try {
+            Collection<ObjId> ret = new ArrayList<>();
+            for (ObjId child : this.inverseParent.findKeysForValue(id)) {
+                ret.add(child);
+            }
+            return ret;
+        } catch (InternalError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOError e) {
+            throw JdbmIndexException.from(e);
+        }
+    }
+
     @objid ("e2941c29-c452-4f0c-ae09-4cb97f620982")
     @Override
     public boolean isEmpty() throws IndexException {
@@ -417,6 +443,57 @@ class CmsNodeIndex15 implements ICmsNodeIndex {
         }
     }
 
+    @objid ("83a38ce9-f45d-41cb-bc7f-3841ba8875d7")
+    @Override
+    public boolean mayContain(String uuid, MMetamodel metamodel) throws IndexException {
+        IdBloomFilter filter = this.storedIds;
+        if (filter == null) {
+            filter = buildStoredIds(metamodel);
+        }
+        return filter.mightContain(uuid);
+    }
+
+    @objid ("c0c4c67b-7775-48c9-997a-ff6b16d313c5")
+    private synchronized IdBloomFilter buildStoredIds(MMetamodel metamodel) throws IndexException {
+        if (this.storedIds != null) {
+            return this.storedIds;
+        }
+        
+        try {
+            IdBloomFilter.Builder builder = new IdBloomFilter.Builder();
+            for (MClass cls : metamodel.getRegisteredMClasses()) {
+                PrimaryHashMap<String, ObjectIndexValue> clsIndex = findObjectIndex(cls);
+                if (clsIndex != null) {
+                    for (String id : clsIndex.keySet()) {
+                        builder.add(id);
+                    }
+                }
+            }
+        
+            this.storedIds = builder.build();
+            return this.storedIds;
+        } catch (InternalError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOError e) {
+            throw JdbmIndexException.from(e);
+        } catch (IOException e) {
+            throw JdbmIndexException.from(e);
+        }
+    }
+
+    /**
+     * Feed the identifiers filter with a new indexed identifier.
+     * <p>
+     * Synchronized with {@link #buildStoredIds(MMetamodel)} so that no identifier is missed while building.
+     */
+    @objid ("a8670dd8-403a-4a4a-b8c8-54e39c63ba25")
+    private synchronized void recordStored(String uuid) {
+        if (this.storedIds != null && ! this.storedIds.add(uuid)) {
+            // Too many additions, rebuild the filter on next request
+            this.storedIds = null;
+        }
+    }
+
     @objid ("3b7be5b0-71b4-4777-9e5b-74fdb5f4f24f")
     @Override
     public Stream<ObjIdName> idByMClass(final SmClass cls) throws IndexException, StreamException {
@@ -439,6 +516,13 @@ class CmsNodeIndex15 implements ICmsNodeIndex {
         }
     }
 
+    @objid ("8bf9aba6-421c-440a-9446-5d12e166058f")
+    @Override
+    public Stream<ObjIdName> idByName(final SmClass cls, String name) throws IndexException, StreamException {
+        // No name index in this format
+        return idByMClass(cls).filter(idn -> name.equals(idn.name));
+    }
+
     @objid ("8032cb18-9e6a-4ebc-ac33-9e6778af5306")
     @Override
     public Iterable<ObjId> getCmsNodeContent(ObjId cmsNodeId) throws IndexException {
@@ -20,24 +20,37 @@
 
 package org.modelio.vstore.exml.local;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.log.Log;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vcore.model.DuplicateObjectException;
 import org.modelio.vcore.session.impl.storage.IModelLoader;
 import org.modelio.vcore.session.impl.storage.IModelLoaderProvider;
 import org.modelio.vcore.smkernel.SmObjectImpl;
+import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
+import org.modelio.vcore.smkernel.meta.SmMetamodel;
 import org.modelio.vstore.exml.common.AbstractExmlRepository;
 import org.modelio.vstore.exml.common.ExmlStorageHandler;
 import org.modelio.vstore.exml.common.ILoadHelper;
 import org.modelio.vstore.exml.common.LoadHelper;
 import org.modelio.vstore.exml.common.index.IndexException;
 import org.modelio.vstore.exml.common.model.ObjId;
-import org.modelio.vstore.exml.local.loader.IExmlLoader;
+import org.modelio.vstore.exml.local.loader.sax.ExmlSnapshotStore;
+import org.modelio.vstore.exml.local.loader.sax.ParallelExmlParser;
+import org.modelio.vstore.exml.local.loader.sax.RecordedExml;
 import org.modelio.vstore.exml.local.loader.sax.SaxExmlLoader;
 import org.modelio.vstore.exml.local.save.ExmlSaver;
 import org.modelio.vstore.exml.resource.IExmlResourceProvider.ExmlResource;
@@ -53,7 +66,43 @@ public class ExmlBase extends AbstractExmlRepository {
     private ILoadHelper loadHelper;
 
     @objid ("fd1f92aa-5986-11e1-991a-001ec947ccaf")
-    private IExmlLoader loader;
+    private SaxExmlLoader loader;
+
+    /**
+     * Minimum number of CMS nodes to load to parse their EXML resources in parallel.
+     */
+    @objid ("4827c1da-5c59-4db1-84c9-3dfe387a5e43")
+    private static final int PARALLEL_LOAD_THRESHOLD = 8;
+
+    /**
+     * Maximum number of threads parsing EXML resources.
+     */
+    @objid ("943637a7-ff7f-45e1-8a50-7c704f9cdc09")
+    private static final int MAX_PARSER_WORKERS = 4;
+
+    /**
+     * Initial size of the buffer a CMS node is serialized into.
+     */
+    @objid ("bf6e6036-7d79-48e3-8c55-56be88143292")
+    private static final int SAVE_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Name of the directory containing the EXML snapshots, next to the index directory.
+     */
+    @objid ("fa43493d-d721-45e9-a149-537deb2876fe")
+    private static final String SNAPSHOTS_DIRNAME = "snapshots";
+
+    /**
+     * Whether binary snapshots of the EXML resources should be used.
+     */
+    @objid ("f495307c-fab9-4e29-9028-8f31b1edceb4")
+    private boolean snapshotsEnabled;
+
+    /**
+     * Binary snapshots of the EXML resources, <code>null</code> if not used.
+     */
+    @objid ("fffc4bfb-c617-41fa-aa9b-18d81e107aaa")
+    private ExmlSnapshotStore snapshots;
 
     /**
      * Initialize a EXML repository from an EXML resource provider.
@@ -103,6 +152,22 @@ public class ExmlBase extends AbstractExmlRepository {
         if (resource == null) {
             // No EXML for this node, set the object as shell.
             throw new FileNotFoundException(cmsNodeId.toString());
+        } else if (this.snapshots != null && this.snapshots.isValid()) {
+            RecordedExml record = this.snapshots.read(cmsNodeId, resource.getPublicLocation());
+            if (record == null) {
+                // Parse the EXML once, keep its snapshot then load it
+                byte[] content;
+                try(InputStream is= resource.bufferedRead()) {
+                    if (is == null) {
+                        // Exml not found, set the object as shell.
+                        throw new FileNotFoundException(resource.getPublicLocation());
+                    }
+                    content = readContent(is);
+                }
+                record = this.snapshots.record(content, resource.getPublicLocation());
+                this.snapshots.write(cmsNodeId, record);
+            }
+            this.loader.load(record, modelLoader);
         } else {
             try(InputStream is= resource.bufferedRead()) {
                 if (is == null) {
@@ -118,6 +183,69 @@ public class ExmlBase extends AbstractExmlRepository {
         }
     }
 
+    /**
+     * Parse the EXML resources in worker threads then load them one after the other in the current thread.
+     */
+    @objid ("f49e712b-eab9-4522-abde-bba8bcf76709")
+    @Override
+    protected synchronized void doLoadCmsNodes(List<SmObjectImpl> cmsNodes, IModelLoader modelLoader) throws DuplicateObjectException {
+        int nbWorkers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARSER_WORKERS);
+        if (nbWorkers < 2 || cmsNodes.size() < PARALLEL_LOAD_THRESHOLD) {
+            super.doLoadCmsNodes(cmsNodes, modelLoader);
+            return;
+        }
+        
+        // Get the resources in this thread, the resource provider may not be thread safe.
+        // CMS nodes having a snapshot are loaded right now.
+        final ExmlSnapshotStore snapshotStore = this.snapshots != null && this.snapshots.isValid() ? this.snapshots : null;
+        Map<SmObjectImpl, ExmlResource> resources = new HashMap<>(cmsNodes.size());
+        List<SmObjectImpl> toParse = new ArrayList<>(cmsNodes.size());
+        for (SmObjectImpl obj : cmsNodes) {
+            try {
+                ExmlResource resource = getResourceProvider().getResource(new ObjId(obj));
+                RecordedExml snapshot = null;
+                if (resource != null) {
+                    resources.put(obj, resource);
+                    if (snapshotStore != null) {
+                        snapshot = snapshotStore.read(new ObjId(obj), resource.getPublicLocation());
+                    }
+                }
+        
+                if (snapshot != null) {
+                    final RecordedExml record = snapshot;
+                    reloadCmsNode(obj, modelLoader, (o, l) -> this.loader.load(record, l));
+                } else {
+                    toParse.add(obj);
+                }
+            } catch (IOException e) {
+                reloadCmsNode(obj, modelLoader, (o, l) -> {throw e;});
+            }
+        }
+        
+        // Parse the resources in storage order
+        toParse.sort(Comparator.comparing(obj -> {
+            ExmlResource resource = resources.get(obj);
+            return resource == null ? "" : resource.getPublicLocation();
+        }));
+        
+        try (ParallelExmlParser parser = new ParallelExmlParser(nbWorkers)) {
+            parser.run(toParse, resources::get, new ParallelExmlParser.IListener<SmObjectImpl>() {
+                @Override
+                public void onParsed(SmObjectImpl obj, RecordedExml record) throws DuplicateObjectException {
+                    if (snapshotStore != null) {
+                        snapshotStore.write(new ObjId(obj), record);
+                    }
+                    reloadCmsNode(obj, modelLoader, (o, l) -> ExmlBase.this.loader.load(record, l));
+                }
+        
+                @Override
+                public void onFailed(SmObjectImpl obj, IOException failure) throws DuplicateObjectException {
+                    reloadCmsNode(obj, modelLoader, (o, l) -> {throw failure;});
+                }
+            });
+        }
+    }
+
     @objid ("679e4b84-2e7b-11e2-8aaa-001ec947ccaf")
     @Override
     protected ILoadHelper getloadHelper() {
@@ -130,6 +258,18 @@ public class ExmlBase extends AbstractExmlRepository {
         this.loadHelper = new LoadHelper(this, isWriteable());
         //this.loader = new ExmlLoader(this.loadHelper, this.getLoadCache());
         this.loader = new SaxExmlLoader(this.loadHelper);
+        
+        this.snapshots = null;
+        if (this.snapshotsEnabled) {
+            Path indexPath = getResourceProvider().getIndexAccessPath().toPath();
+            try {
+                ExmlSnapshotStore store = new ExmlSnapshotStore(indexPath.resolveSibling(SNAPSHOTS_DIRNAME));
+                store.open(getResourceProvider().getStamp());
+                this.snapshots = store;
+            } catch (IOException e) {
+                Log.warning("%s: EXML snapshots disabled: %s", getResourceProvider().getName(), e.getLocalizedMessage());
+            }
+        }
     }
 
     @objid ("fd2458e1-5986-11e1-991a-001ec947ccaf")
@@ -138,10 +278,121 @@ public class ExmlBase extends AbstractExmlRepository {
         SmObjectImpl cmsNode = handler.getCmsNode();
         ObjId cmsNodeId = handler.getCmsNodeId();
         
-        try (OutputStream os = getResourceProvider().getResource(cmsNodeId).bufferedWrite()){
-            ExmlSaver saver = new ExmlSaver();
-            saver.externalize(cmsNode, os);
+        // Serialize in memory first so that a failure does not leave a truncated resource
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(SAVE_BUFFER_SIZE);
+        ExmlSaver saver = new ExmlSaver();
+        saver.externalize(cmsNode, buffer);
+        
+        ExmlResource resource = getResourceProvider().getResource(cmsNodeId);
+        try (OutputStream os = resource.write()){
+            buffer.writeTo(os);
+        }
+        
+        if (this.snapshots != null && this.snapshots.isValid()) {
+            this.snapshots.beginUpdate();
+            this.snapshots.write(cmsNodeId, this.snapshots.record(buffer.toByteArray(), resource.getPublicLocation()));
+        }
+    }
+
+    @objid ("fa1f0511-e1e4-4396-83b4-c5763202a253")
+    @Override
+    protected void afterSave(boolean committed) {
+        if (this.snapshots != null) {
+            if (committed) {
+                try {
+                    this.snapshots.endUpdate(getResourceProvider().getStamp());
+                } catch (IOException e) {
+                    Log.warning("%s: EXML snapshots disabled: %s", getResourceProvider().getName(), e.getLocalizedMessage());
+                    this.snapshots.invalidate();
+                }
+            } else {
+                this.snapshots.invalidate();
+            }
+        }
+    }
+
+    @objid ("e7aaa6c0-cb22-464b-b31f-7e21e887e2c6")
+    @Override
+    protected void deleteCmsNodes(Collection<ExmlStorageHandler> toDelete, IModelioProgress monitor) {
+        if (this.snapshots != null && ! toDelete.isEmpty()) {
+            this.snapshots.beginUpdate();
+            for (ExmlStorageHandler del : toDelete) {
+                this.snapshots.remove(del.getCmsNodeId());
+            }
+        }
+        
+        super.deleteCmsNodes(toDelete, monitor);
+    }
+
+    /**
+     * Drop the snapshots of the CMS nodes modified by the CMS driver before updating the indexes.
+     */
+    @objid ("fb7c1cad-e366-48ae-b22a-6ff0cf2e10f1")
+    @Override
+    public void updateIndexes(Collection<MRef> createdRefs, Collection<MRef> updatedRefs, Collection<MRef> deletedRefs, IModelioProgress progress) {
+        if (this.snapshots != null) {
+            this.snapshots.beginUpdate();
+            removeSnapshots(createdRefs);
+            removeSnapshots(updatedRefs);
+            removeSnapshots(deletedRefs);
+        }
+        
+        super.updateIndexes(createdRefs, updatedRefs, deletedRefs, progress);
+        
+        if (this.snapshots != null) {
+            try {
+                this.snapshots.endUpdate(getResourceProvider().getStamp());
+            } catch (IOException e) {
+                Log.warning("%s: EXML snapshots disabled: %s", getResourceProvider().getName(), e.getLocalizedMessage());
+                this.snapshots.invalidate();
+            }
+        }
+    }
+
+    @objid ("52605d87-5715-475f-ba69-9e31d1d6111b")
+    @Override
+    public void refreshModel(Collection<MObject> toReload, Collection<MObject> toDelete, Collection<MRef> toRestore) {
+        if (this.snapshots != null) {
+            for (MObject obj : toReload) {
+                this.snapshots.remove(new ObjId((SmObjectImpl) obj));
+            }
+        }
+        
+        super.refreshModel(toReload, toDelete, toRestore);
+    }
+
+    /**
+     * Tells whether binary snapshots of the EXML resources are kept to avoid parsing XML
+     * when loading the repository again.
+     * <p>
+     * Snapshots are stored next to the indexes and discarded when the repository stamp changes.
+     * Must be called before the repository is opened.
+     * 
+     * @param enabled whether to use EXML snapshots.
+     * @since 4.1
+     */
+    @objid ("64b43051-3c39-4b04-bb23-737699a72e79")
+    public void setSnapshotsEnabled(boolean enabled) {
+        this.snapshotsEnabled = enabled;
+    }
+
+    @objid ("870b91b3-bebb-43a2-b352-5eb06cb10e76")
+    private void removeSnapshots(Collection<MRef> refs) {
+        SmMetamodel metamodel = getModelLoaderProvider().getMetamodel();
+        for (MRef ref : refs) {
+            this.snapshots.remove(new ObjId(metamodel.getMClass(ref.mc), ref.uuid));
+        }
+    }
+
+    @objid ("f0af30cd-49b8-4765-ac25-c93019544511")
+    private static byte[] readContent(InputStream is) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(SAVE_BUFFER_SIZE);
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) >= 0) {
+            content.write(buf, 0, n);
         }
+        return content.toByteArray();
     }
 
 }
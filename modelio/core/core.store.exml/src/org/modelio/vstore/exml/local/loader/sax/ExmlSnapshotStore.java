@@ -0,0 +1,318 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.vstore.exml.local.loader.sax;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vbasic.log.Log;
+import org.modelio.vstore.exml.common.model.ObjId;
+
+/**
+ * Binary snapshots of the CMS node EXML resources of a repository.
+ * <p>
+ * A snapshot holds the SAX events of an EXML resource in the compact form written by
+ * {@link RecordedExml#writeTo(DataOutputStream)}, so that loading a CMS node does not need
+ * to parse XML anymore. The EXML resources stay the reference: snapshots are only a cache
+ * and may be deleted at any time.
+ * <p>
+ * The snapshot directory contains a stamp file holding the repository stamp the snapshots are
+ * synchronized with. The whole directory is discarded when the stamp does not match the repository one.
+ * While snapshots are being written the stamp file is removed, so that an interrupted save
+ * invalidates them.
+ * <p>
+ * Reading is done by the repository thread, writing may be done concurrently for distinct CMS nodes.
+ * @since 4.1
+ */
+@objid ("2e0f6992-f457-42e8-8a23-aaa8dc54af26")
+public class ExmlSnapshotStore {
+    @objid ("dd372ca4-333b-489c-beab-34dbf1a29df0")
+    private static final int MAGIC = 0x42584d4c;
+
+    @objid ("ad8f5601-2c51-446a-b656-d02f70a24708")
+    private static final int FORMAT_VERSION = 1;
+
+    @objid ("bf3fe2d6-7496-4601-a7ea-9fac33bf1657")
+    private static final String STAMP_FILE = "stamp.dat";
+
+    @objid ("df0514a9-05e5-4deb-a008-a53af117e3d9")
+    private static final String SNAPSHOT_EXT = ".bxml";
+
+    @objid ("c9c5dabf-3c2c-47e5-8e25-4f3b8e3ca607")
+    private final Path directory;
+
+    /**
+     * Whether the snapshots may be used.
+     */
+    @objid ("da3c6ec7-ffd3-4b2b-ba9f-08edec1200fc")
+    private volatile boolean valid;
+
+    /**
+     * Whether the stamp file has been removed by {@link #beginUpdate()}.
+     */
+    @objid ("e1605892-c59d-4917-9e20-b22e10958732")
+    private volatile boolean updating;
+
+    /**
+     * SAX parser used to record EXML content on each writing thread.
+     */
+    @objid ("1d6b7afd-68c2-464b-b6fd-cdf820460bdd")
+    private final ThreadLocal<ParallelExmlParser.Worker> parsers = ThreadLocal.withInitial(ParallelExmlParser.Worker::new);
+
+    /**
+     * @param directory the directory where snapshots are stored.
+     */
+    @objid ("ea4894c2-7214-43a5-8bcc-6f2c862eead3")
+    public ExmlSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the store and discard all snapshots if they are not synchronized with the repository stamp.
+     * <p>
+     * Snapshots are disabled if the repository has no stamp.
+     * 
+     * @param repositoryStamp the current repository stamp.
+     */
+    @objid ("d1561807-35d1-448a-8a58-a7b5d8729c27")
+    public void open(String repositoryStamp) {
+        this.valid = false;
+        this.updating = false;
+        if (repositoryStamp == null || repositoryStamp.isEmpty()) {
+            return;
+        }
+        
+        try {
+            Files.createDirectories(this.directory);
+            if (! repositoryStamp.equals(readStamp())) {
+                clear();
+                writeStamp(repositoryStamp);
+            }
+            this.valid = true;
+        } catch (IOException e) {
+            Log.warning("%s: EXML snapshots disabled: %s", this.directory, FileUtils.getLocalizedMessage(e));
+        }
+    }
+
+    /**
+     * Read the snapshot of a CMS node.
+     * <p>
+     * Returns <code>null</code> if there is no usable snapshot. Damaged snapshots are deleted.
+     * 
+     * @param id the CMS node identifier
+     * @param publicId the public identifier of the CMS node EXML resource, for error messages.
+     * @return the snapshot content or <code>null</code>.
+     */
+    @objid ("5bed85a7-7d11-4699-819d-190022ada4af")
+    public RecordedExml read(ObjId id, String publicId) {
+        if (! this.valid) {
+            return null;
+        }
+        
+        Path file = getSnapshotPath(id);
+        try {
+            // Read in the heap: the content is copied by RecordedExml anyway, and a mapped file
+            // could not be replaced or deleted on Windows until the mapping is garbage collected.
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.remaining() < 8 || buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                throw new IOException(file+": not a supported EXML snapshot");
+            }
+            return RecordedExml.readFrom(buf, publicId);
+        } catch (@SuppressWarnings ("unused") NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            Log.warning("Ignoring EXML snapshot: %s", FileUtils.getLocalizedMessage(e));
+            remove(id);
+            return null;
+        }
+    }
+
+    /**
+     * Write the snapshot of a CMS node.
+     * 
+     * @param id the CMS node identifier
+     * @param record the CMS node EXML content.
+     */
+    @objid ("c8c61433-c8ff-4756-ac69-abbe0ab4f308")
+    public void write(ObjId id, RecordedExml record) {
+        if (! this.valid) {
+            return;
+        }
+        
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(8 * 1024);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                record.writeTo(out);
+            }
+        
+            // Write in a temporary file then move it so that readers never see a partial snapshot
+            Path target = getSnapshotPath(id);
+            Path tmp = Files.createTempFile(this.directory, id.id, ".tmp");
+            try {
+                Files.write(tmp, buffer.toByteArray());
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            Log.warning("Failed writing EXML snapshot of %s: %s", id, FileUtils.getLocalizedMessage(e));
+            remove(id);
+        }
+    }
+
+    /**
+     * Parse an EXML content into a form that can be loaded with
+     * {@link SaxExmlLoader#load(RecordedExml, org.modelio.vcore.session.impl.storage.IModelLoader)}
+     * and written with {@link #write(ObjId, RecordedExml)}.
+     * <p>
+     * May be called concurrently.
+     * 
+     * @param exmlContent the EXML content
+     * @param publicId the public identifier of the EXML resource
+     * @return the parsed content.
+     * @throws java.io.IOException if the content is not valid EXML.
+     */
+    @objid ("748bc3ea-665a-47c2-bdf1-ac7e0a6e4968")
+    public RecordedExml record(byte[] exmlContent, String publicId) throws IOException {
+        return this.parsers.get().parse(exmlContent, publicId);
+    }
+
+    /**
+     * @return whether the snapshots are in use.
+     */
+    @objid ("0863489f-e30c-4183-b679-f81ef5529304")
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    /**
+     * Delete the snapshot of a CMS node.
+     * 
+     * @param id the CMS node identifier
+     */
+    @objid ("6c40dc1c-7f1a-4f1e-88d6-f560794214b5")
+    public void remove(ObjId id) {
+        try {
+            Files.deleteIfExists(getSnapshotPath(id));
+        } catch (IOException e) {
+            // The snapshot would be stale: disable them all
+            Log.warning("Failed deleting EXML snapshot of %s: %s", id, FileUtils.getLocalizedMessage(e));
+            invalidate();
+        }
+    }
+
+    /**
+     * To be called before snapshots are modified to follow repository changes.
+     * <p>
+     * Removes the stamp file so that the snapshots are discarded on next open
+     * if {@link #endUpdate(String)} is not called.
+     */
+    @objid ("4f804956-adf2-4fb2-a25c-7e0bb445df11")
+    public synchronized void beginUpdate() {
+        if (this.valid && ! this.updating) {
+            try {
+                Files.deleteIfExists(this.directory.resolve(STAMP_FILE));
+                this.updating = true;
+            } catch (IOException e) {
+                Log.warning("%s: EXML snapshots disabled: %s", this.directory, FileUtils.getLocalizedMessage(e));
+                this.valid = false;
+            }
+        }
+    }
+
+    /**
+     * To be called once the repository changes are committed.
+     * 
+     * @param repositoryStamp the new repository stamp.
+     */
+    @objid ("0e7bf088-307c-4acc-b902-ff01c206a75e")
+    public synchronized void endUpdate(String repositoryStamp) {
+        if (this.valid && this.updating) {
+            this.updating = false;
+            try {
+                if (repositoryStamp == null || repositoryStamp.isEmpty()) {
+                    this.valid = false;
+                } else {
+                    writeStamp(repositoryStamp);
+                }
+            } catch (IOException e) {
+                Log.warning("%s: EXML snapshots disabled: %s", this.directory, FileUtils.getLocalizedMessage(e));
+                this.valid = false;
+            }
+        }
+    }
+
+    /**
+     * Stop using the snapshots until next {@link #open(String)}.
+     * <p>
+     * The stamp file is removed so that they will be discarded then.
+     */
+    @objid ("68feaa6d-2d65-41ee-b345-35aa274f5adf")
+    public synchronized void invalidate() {
+        this.valid = false;
+        this.updating = false;
+        try {
+            Files.deleteIfExists(this.directory.resolve(STAMP_FILE));
+        } catch (IOException e) {
+            Log.warning("%s: %s", this.directory, FileUtils.getLocalizedMessage(e));
+        }
+    }
+
+    @objid ("848ac66f-950b-4122-b23f-1eb64a99e3eb")
+    private Path getSnapshotPath(ObjId id) {
+        return this.directory.resolve(id.id + SNAPSHOT_EXT);
+    }
+
+    @objid ("d428e3cd-da1e-47a7-a1b8-848dc1190ad3")
+    private String readStamp() throws IOException {
+        Path stampFile = this.directory.resolve(STAMP_FILE);
+        if (! Files.isRegularFile(stampFile)) {
+            return "";
+        }
+        return new String(Files.readAllBytes(stampFile), StandardCharsets.UTF_8);
+    }
+
+    @objid ("df81f2df-b989-467f-8ae7-e67a83ba01a0")
+    private void writeStamp(String stamp) throws IOException {
+        Files.write(this.directory.resolve(STAMP_FILE), stamp.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @objid ("deeb789a-540b-4843-8995-f599489048df")
+    private void clear() throws IOException {
+        Files.deleteIfExists(this.directory.resolve(STAMP_FILE));
+        try (DirectoryStream<Path> content = Files.newDirectoryStream(this.directory)) {
+            for (Path f : content) {
+                Files.deleteIfExists(f);
+            }
+        }
+    }
+
+}
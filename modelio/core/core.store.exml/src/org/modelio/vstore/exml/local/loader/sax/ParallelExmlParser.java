@@ -0,0 +1,284 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.local.loader.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vcore.model.DuplicateObjectException;
+import org.modelio.vstore.exml.resource.IExmlResourceProvider.ExmlResource;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Parses many EXML resources in parallel for a {@link SaxExmlLoader}.
+ * <p>
+ * Worker threads each own a SAX reader and record the parsed events of a resource without
+ * accessing the model. The thread calling {@link #run(Collection, Function, IListener)} receives
+ * the parsed resources and is the only one that loads them in the model, with
+ * {@link SaxExmlLoader#load(RecordedExml, org.modelio.vcore.session.impl.storage.IModelLoader)}.
+ * <p>
+ * Usage: instantiate, call {@link #run(Collection, Function, IListener)} then {@link #close()}.
+ */
+@objid ("fe8e2dbb-7606-408b-8f6d-3daebfe732b2")
+public class ParallelExmlParser implements AutoCloseable {
+    /**
+     * Maximum number of parsed resources waiting to be loaded, per worker.
+     * Bounds the memory used by the recorded resources when the loading is slower than the parsing.
+     */
+    @objid ("48c1f434-336f-438b-9278-6be713a7b0c8")
+    private static final int QUEUE_PER_WORKER = 4;
+
+    @objid ("2bdf0243-705a-4476-9cfd-03385ce12841")
+    private final int nbWorkers;
+
+    @objid ("402027f6-2f71-45c9-962c-336069923029")
+    private final ExecutorService executor;
+
+    /**
+     * One SAX reader per worker thread.
+     */
+    @objid ("0d964575-113f-4160-a667-c82fb95016d8")
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Initialize the parser.
+     * 
+     * @param nbWorkers the number of parsing threads.
+     */
+    @objid ("33b06af1-576e-4417-83a5-8d78074d43d9")
+    public ParallelExmlParser(int nbWorkers) {
+        this.nbWorkers = nbWorkers;
+        this.executor = Executors.newFixedThreadPool(nbWorkers, new NamedThreadFactory("EXML parser %d"));
+    }
+
+    /**
+     * Parse the EXML resources of the given items and pass them to the listener.
+     * <p>
+     * The listener is called from the current thread, once for each item. Items are not
+     * passed in the order of the collection.
+     * 
+     * @param items the items whose EXML resource must be parsed.
+     * @param resourceOf gives the EXML resource of an item. May return <code>null</code> if the item has no resource.
+     * @param listener called for each parsed item.
+     * @param <T> the items type
+     * @throws org.modelio.vcore.model.DuplicateObjectException if thrown by the listener.
+     */
+    @objid ("47b64e20-12df-4a97-b6d0-9c52b62cab40")
+    public <T> void run(Collection<T> items, Function<T, ExmlResource> resourceOf, IListener<T> listener) throws DuplicateObjectException {
+        CompletionService<Result<T>> completion = new ExecutorCompletionService<>(this.executor);
+        Iterator<T> it = items.iterator();
+        
+        // Fill the pipeline
+        int pending = 0;
+        while (pending < this.nbWorkers * QUEUE_PER_WORKER && it.hasNext()) {
+            submit(completion, it.next(), resourceOf);
+            pending++;
+        }
+        
+        // Pass results as they come and feed the pipeline
+        while (pending > 0) {
+            Result<T> result = take(completion);
+            pending--;
+        
+            if (it.hasNext()) {
+                submit(completion, it.next(), resourceOf);
+                pending++;
+            }
+        
+            if (result.failure != null) {
+                listener.onFailed(result.item, result.failure);
+            } else {
+                listener.onParsed(result.item, result.record);
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    @objid ("fc6dbcae-b7ce-4139-bc42-d24b109129d0")
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    @objid ("842bd40a-6cdc-4235-9cfb-ee3bce8db921")
+    private <T> void submit(CompletionService<Result<T>> completion, T item, Function<T, ExmlResource> resourceOf) {
+        completion.submit(() -> {
+            try {
+                ExmlResource resource = resourceOf.apply(item);
+                if (resource == null) {
+                    throw new FileNotFoundException(String.valueOf(item));
+                }
+                return new Result<>(item, this.workers.get().parse(resource), null);
+            } catch (IOException e) {
+                return new Result<>(item, null, e);
+            }
+        });
+    }
+
+    @objid ("be5caf29-1462-4ca8-8422-1d2792722f0e")
+    private static <T> Result<T> take(CompletionService<Result<T>> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * Receives the parsed resources.
+     * 
+     * @param <T> the items type
+     */
+    @objid ("c1f9895c-172e-45aa-9412-0e439d905e75")
+    public interface IListener<T> {
+        /**
+         * Called when the resource of an item has been parsed.
+         * 
+         * @param item the item
+         * @param record the parsed resource, to be loaded with {@link SaxExmlLoader#load(RecordedExml, org.modelio.vcore.session.impl.storage.IModelLoader)}.
+         * @throws org.modelio.vcore.model.DuplicateObjectException on loading failure
+         */
+        @objid ("56636850-81d3-465e-ba63-756344358d7a")
+        void onParsed(T item, RecordedExml record) throws DuplicateObjectException;
+
+        /**
+         * Called when the resource of an item could not be read or parsed.
+         * 
+         * @param item the item
+         * @param failure the failure
+         * @throws org.modelio.vcore.model.DuplicateObjectException on failure handling error
+         */
+        @objid ("3b2f4f83-dcb1-4477-9e46-3c02a345612e")
+        void onFailed(T item, IOException failure) throws DuplicateObjectException;
+
+    }
+
+    @objid ("6d5b0ece-2bb2-4d4c-ac54-698ab1651225")
+    private static class Result<T> {
+        @objid ("d0598734-c1f9-45c1-87e6-f3151936577f")
+        final T item;
+
+        @objid ("fbc91e63-3e1b-4ffa-87b9-585d18627608")
+        final RecordedExml record;
+
+        @objid ("fd8b6463-de71-4eb3-845c-c2e95d4ccfa7")
+        final IOException failure;
+
+        @objid ("573e3989-13df-41a4-8c86-ab6051492acb")
+        Result(T item, RecordedExml record, IOException failure) {
+            this.item = item;
+            this.record = record;
+            this.failure = failure;
+        }
+
+    }
+
+    /**
+     * SAX reader and events recorder of a worker thread.
+     */
+    @objid ("04d09295-89fe-4f12-afc2-ee116b0b9e36")
+    static class Worker {
+        @objid ("4f97548e-b8f5-47d9-a415-e4fa13ad79b5")
+        private final RecordedExml.Recorder recorder;
+
+        @objid ("c12a72f2-3e86-4d5a-8a35-1437aec13f52")
+        private final XMLReader xmlReader;
+
+        @objid ("02cfb85d-a766-4b61-8417-eecb7e9a7169")
+        Worker() {
+            this.recorder = new RecordedExml.Recorder();
+            this.xmlReader = SaxExmlLoader.createXmlReader(this.recorder);
+        }
+
+        /**
+         * Parse an in memory EXML content.
+         * 
+         * @param content the EXML content
+         * @param publicId the public identifier of the EXML resource
+         * @return the recorded events.
+         * @throws java.io.IOException if the content is not valid.
+         */
+        @objid ("3cf543da-23e0-4c08-803b-fce437fcabd0")
+        RecordedExml parse(byte[] content, String publicId) throws IOException {
+            try {
+                InputSource src = new InputSource(new ByteArrayInputStream(content));
+                src.setPublicId(publicId);
+                this.xmlReader.parse(src);
+                return this.recorder.takeRecord(publicId);
+            } catch (SAXException e) {
+                this.recorder.reset();
+                throw SaxExmlLoader.toIOException(publicId, e);
+            }
+        }
+
+        @objid ("e69b1938-9b78-4c61-9ec7-6ec3130204fe")
+        RecordedExml parse(ExmlResource resource) throws IOException {
+            String publicId = resource.getPublicLocation();
+            try (InputStream is = resource.bufferedRead()) {
+                if (is == null) {
+                    throw new FileNotFoundException(publicId);
+                }
+        
+                InputSource src = new InputSource(is);
+                src.setPublicId(publicId);
+                this.xmlReader.parse(src);
+                return this.recorder.takeRecord(publicId);
+            } catch (SAXException e) {
+                this.recorder.reset();
+                throw SaxExmlLoader.toIOException(publicId, e);
+            } catch (FileNotFoundException e) {
+                this.recorder.reset();
+                throw e;
+            } catch (IOException e) {
+                this.recorder.reset();
+                throw new IOException(publicId+": "+FileUtils.getLocalizedMessage(e), e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,499 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.local.loader.sax;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.LocatorImpl;
+
+/**
+ * The SAX events of an already parsed EXML resource.
+ * <p>
+ * Allows parsing EXML resources in a worker thread without accessing the model,
+ * then to load them later with {@link SaxExmlLoader#load(RecordedExml, org.modelio.vcore.session.impl.storage.IModelLoader)}
+ * in the thread allowed to modify the model.
+ * <p>
+ * Instances are immutable once recorded and may be passed from a thread to another.
+ */
+@objid ("a9bede99-0c94-462e-988a-789af7c51e6e")
+public final class RecordedExml {
+    @objid ("9525f09a-3dcb-40aa-8386-55b5f886d308")
+    private final String publicId;
+
+    @objid ("15487d82-00c1-4bcb-a51d-0847f9ec7a34")
+    private final List<Event> events;
+
+    @objid ("693235a6-c10a-40d1-9d7a-97401547b989")
+    private RecordedExml(String publicId, List<Event> events) {
+        this.publicId = publicId;
+        this.events = events;
+    }
+
+    /**
+     * @return the public identifier of the parsed EXML resource, usually its location.
+     */
+    @objid ("b82956c3-fe48-4f23-8085-810c3143a62a")
+    public String getPublicId() {
+        return this.publicId;
+    }
+
+    /**
+     * Send the recorded events to a SAX content handler.
+     * 
+     * @param handler the content handler
+     * @throws org.xml.sax.SAXException if the handler throws it.
+     */
+    @objid ("a3eb7d7c-a403-4081-8026-001eb1737a39")
+    void replay(ContentHandler handler) throws SAXException {
+        LocatorImpl locator = new LocatorImpl();
+        locator.setPublicId(this.publicId);
+        handler.setDocumentLocator(locator);
+        
+        handler.startDocument();
+        for (Event e : this.events) {
+            locator.setLineNumber(e.line);
+            locator.setColumnNumber(e.column);
+            e.replay(handler);
+        }
+        handler.endDocument();
+    }
+
+    /**
+     * Write the recorded events in a compact binary form.
+     * <p>
+     * Element names, attribute names and attribute values, including identifiers,
+     * are written once in a string table and then referenced by index.
+     * Character data is written as length prefixed UTF-8. Locations are not written.
+     * 
+     * @param out the output to write to.
+     * @throws java.io.IOException in case of failure
+     */
+    @objid ("5dc8bb2e-4e69-43c8-8bd2-b992cc2fa06e")
+    void writeTo(DataOutputStream out) throws IOException {
+        Map<String, Integer> table = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Event e : this.events) {
+            e.collectStrings(table, strings);
+        }
+        
+        out.writeInt(strings.size());
+        for (String str : strings) {
+            writeString(out, str);
+        }
+        
+        out.writeInt(this.events.size());
+        for (Event e : this.events) {
+            e.writeTo(out, table);
+        }
+    }
+
+    /**
+     * Decode events written by {@link #writeTo(DataOutputStream)}.
+     * 
+     * @param buf the buffer to read from.
+     * @param publicId the public identifier of the EXML resource.
+     * @return the decoded events.
+     * @throws java.io.IOException if the content is not valid.
+     */
+    @objid ("481351ef-5b55-436d-86d7-61b825dbb89d")
+    static RecordedExml readFrom(ByteBuffer buf, String publicId) throws IOException {
+        try {
+            String[] strings = new String[checkCount(buf.getInt(), buf)];
+            byte[] tmp = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int len = checkCount(buf.getInt(), buf);
+                if (len > tmp.length) {
+                    tmp = new byte[len];
+                }
+                buf.get(tmp, 0, len);
+                strings[i] = new String(tmp, 0, len, StandardCharsets.UTF_8);
+            }
+        
+            int nbEvents = checkCount(buf.getInt(), buf);
+            List<Event> events = new ArrayList<>(nbEvents);
+            for (int i = 0; i < nbEvents; i++) {
+                byte kind = buf.get();
+                switch (kind) {
+                case StartEvent.KIND:
+                    String uri = strings[buf.getInt()];
+                    String localName = strings[buf.getInt()];
+                    String qName = strings[buf.getInt()];
+                    int nbAtts = checkCount(buf.getInt(), buf);
+                    AttributesImpl atts = new AttributesImpl();
+                    for (int j = 0; j < nbAtts; j++) {
+                        atts.addAttribute(strings[buf.getInt()], strings[buf.getInt()], strings[buf.getInt()], strings[buf.getInt()], strings[buf.getInt()]);
+                    }
+                    events.add(new StartEvent(uri, localName, qName, atts));
+                    break;
+                case EndEvent.KIND:
+                    events.add(new EndEvent(strings[buf.getInt()], strings[buf.getInt()], strings[buf.getInt()]));
+                    break;
+                case CharsEvent.KIND:
+                    int len = checkCount(buf.getInt(), buf);
+                    if (len > tmp.length) {
+                        tmp = new byte[len];
+                    }
+                    buf.get(tmp, 0, len);
+                    events.add(new CharsEvent(new String(tmp, 0, len, StandardCharsets.UTF_8).toCharArray()));
+                    break;
+                default:
+                    throw new IOException(publicId+": unknown event kind "+kind);
+                }
+            }
+            return new RecordedExml(publicId, events);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(publicId+": truncated or damaged content", e);
+        }
+    }
+
+    @objid ("972547df-b381-4388-9f56-3e861b087f7b")
+    private static int checkCount(int count, ByteBuffer buf) throws IOException {
+        if (count < 0 || count > buf.remaining()) {
+            throw new IOException("invalid length: "+count);
+        }
+        return count;
+    }
+
+    @objid ("b1e5c94b-b261-41c0-b261-52f3d94602d2")
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @objid ("8e4f2696-59e5-4c26-af20-4ed381b12af3")
+    private static void intern(String str, Map<String, Integer> table, List<String> strings) {
+        String key = str == null ? "" : str;
+        if (! table.containsKey(key)) {
+            table.put(key, strings.size());
+            strings.add(key);
+        }
+    }
+
+    @objid ("c1f23f51-eb26-4d02-a8d4-fe19bb33ab55")
+    private static int indexOf(String str, Map<String, Integer> table) {
+        return table.get(str == null ? "" : str);
+    }
+
+    /**
+     * SAX handler that records the parsed events.
+     * <p>
+     * Does not access the model so that it may run in any thread.
+     * One instance may be reused for many documents, not concurrently.
+     */
+    @objid ("4c117f89-06ab-4f23-ae7b-bdfd2b4670a1")
+    static final class Recorder extends DefaultHandler {
+        @objid ("7fb98a02-6e66-4ccc-b798-99812aee3dad")
+        private List<Event> events = new ArrayList<>();
+
+        @objid ("50506565-4ca9-4cb7-8089-0f52ed2d9e50")
+        private Locator locator;
+
+        @objid ("785283db-c61c-4286-9ec3-617f40226221")
+        private StringBuilder pendingChars = new StringBuilder();
+
+        @objid ("bf3f3adc-76a7-4122-9887-21a6cc9f47db")
+        private int charsLine;
+
+        @objid ("810cc840-e7c9-476a-ab76-78683a3f68bc")
+        private int charsColumn;
+
+        /**
+         * Get the recorded document and reset the recorder.
+         * 
+         * @param publicId the public identifier of the parsed document
+         * @return the recorded document.
+         */
+        @objid ("fe14bafd-e904-4201-81b0-3e4cfaee37d7")
+        RecordedExml takeRecord(String publicId) {
+            flushChars();
+            RecordedExml ret = new RecordedExml(publicId, this.events);
+            reset();
+            return ret;
+        }
+
+        /**
+         * Forget the events recorded since the last {@link #takeRecord(String)}.
+         */
+        @objid ("c54bb3fa-11d1-495a-b6e7-337e931f8d88")
+        void reset() {
+            this.events = new ArrayList<>();
+            this.pendingChars.setLength(0);
+            this.locator = null;
+        }
+
+        @objid ("9b436e16-7f07-4346-82de-b68b2588321a")
+        @Override
+        public void setDocumentLocator(Locator aLocator) {
+            this.locator = aLocator;
+        }
+
+        @objid ("2c262a41-5fee-4822-938f-aa90bc834f90")
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            flushChars();
+            add(new StartEvent(uri, localName, qName, new AttributesImpl(attributes)));
+        }
+
+        @objid ("f5d626ce-5685-4753-8bcb-65ac44cd8bac")
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            flushChars();
+            add(new EndEvent(uri, localName, qName));
+        }
+
+        @objid ("6b1aa708-c512-4df9-ade1-5c24263ae1c3")
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            // Merge consecutive chunks
+            if (this.pendingChars.length() == 0 && this.locator != null) {
+                this.charsLine = this.locator.getLineNumber();
+                this.charsColumn = this.locator.getColumnNumber();
+            }
+            this.pendingChars.append(ch, start, length);
+        }
+
+        @objid ("46109b87-8fbe-4b32-afec-428b8da8c2d2")
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            throw e;
+        }
+
+        @objid ("1faa909d-3bbd-4eb4-bf9b-f8e23a7d84dd")
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            throw e;
+        }
+
+        @objid ("f044d53e-fd1e-4777-bb58-5749756c71b3")
+        private void flushChars() {
+            if (this.pendingChars.length() > 0) {
+                char[] chars = new char[this.pendingChars.length()];
+                this.pendingChars.getChars(0, chars.length, chars, 0);
+                this.pendingChars.setLength(0);
+        
+                CharsEvent e = new CharsEvent(chars);
+                e.line = this.charsLine;
+                e.column = this.charsColumn;
+                this.events.add(e);
+            }
+        }
+
+        @objid ("c1fb4d5b-79c0-4053-a0d8-8ce3c4c73270")
+        private void add(Event e) {
+            if (this.locator != null) {
+                e.line = this.locator.getLineNumber();
+                e.column = this.locator.getColumnNumber();
+            }
+            this.events.add(e);
+        }
+
+    }
+
+    /**
+     * A recorded SAX event.
+     */
+    @objid ("1e074039-4e81-4321-983b-358c9484568f")
+    private abstract static class Event {
+        @objid ("113238f4-ba5c-448b-813e-1ca82d63cdb8")
+        int line = -1;
+
+        @objid ("413a1fde-5618-4a7a-b67b-a7bb7f473db8")
+        int column = -1;
+
+        @objid ("2d1f17b0-9780-421e-a86e-26162a39e8c6")
+        abstract void replay(ContentHandler handler) throws SAXException;
+
+        /**
+         * Add the strings of this event to the string table.
+         */
+        @objid ("96cdec62-d1c3-48f9-8df3-5032e4919e65")
+        abstract void collectStrings(Map<String, Integer> table, List<String> strings);
+
+        /**
+         * Write this event, strings are written as indexes in the string table.
+         */
+        @objid ("f518e5ed-21b3-49b1-848b-00931fc80db8")
+        abstract void writeTo(DataOutputStream out, Map<String, Integer> table) throws IOException;
+
+    }
+
+    @objid ("ae1848f0-be89-46b0-8a36-562388602012")
+    private static final class StartEvent extends Event {
+        @objid ("0c88d8b3-9926-4366-9165-a6b34561bd69")
+        static final byte KIND = 1;
+
+        @objid ("958436f8-0962-444e-b440-110ef17b5b0c")
+        private final String uri;
+
+        @objid ("ae8e2402-3e6f-4b3a-892d-be2888ba7397")
+        private final String localName;
+
+        @objid ("9829acbd-71dd-4fb3-b863-dff0413ae495")
+        private final String qName;
+
+        @objid ("438e19cb-223a-4180-a618-d4d4562a1c39")
+        private final Attributes atts;
+
+        @objid ("99c023f1-064d-45fd-955e-7635e3206608")
+        StartEvent(String uri, String localName, String qName, Attributes atts) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.atts = atts;
+        }
+
+        @objid ("ec149b0e-c7df-451d-934b-838bac58b13c")
+        @Override
+        void replay(ContentHandler handler) throws SAXException {
+            handler.startElement(this.uri, this.localName, this.qName, this.atts);
+        }
+
+        @objid ("d8d4cb98-eeba-4446-b292-045ea9947615")
+        @Override
+        void collectStrings(Map<String, Integer> table, List<String> strings) {
+            intern(this.uri, table, strings);
+            intern(this.localName, table, strings);
+            intern(this.qName, table, strings);
+            for (int i = 0; i < this.atts.getLength(); i++) {
+                intern(this.atts.getURI(i), table, strings);
+                intern(this.atts.getLocalName(i), table, strings);
+                intern(this.atts.getQName(i), table, strings);
+                intern(this.atts.getType(i), table, strings);
+                intern(this.atts.getValue(i), table, strings);
+            }
+        }
+
+        @objid ("15ce1c44-aa3e-4885-b227-845fd6777718")
+        @Override
+        void writeTo(DataOutputStream out, Map<String, Integer> table) throws IOException {
+            out.writeByte(KIND);
+            out.writeInt(indexOf(this.uri, table));
+            out.writeInt(indexOf(this.localName, table));
+            out.writeInt(indexOf(this.qName, table));
+            out.writeInt(this.atts.getLength());
+            for (int i = 0; i < this.atts.getLength(); i++) {
+                out.writeInt(indexOf(this.atts.getURI(i), table));
+                out.writeInt(indexOf(this.atts.getLocalName(i), table));
+                out.writeInt(indexOf(this.atts.getQName(i), table));
+                out.writeInt(indexOf(this.atts.getType(i), table));
+                out.writeInt(indexOf(this.atts.getValue(i), table));
+            }
+        }
+
+    }
+
+    @objid ("7d013d0c-fbe4-4bec-9520-4cbcb4aa2fec")
+    private static final class EndEvent extends Event {
+        @objid ("33ed2e5c-95d7-4bc3-b57a-98e0e24edff7")
+        static final byte KIND = 2;
+
+        @objid ("4a9a2a23-d0dd-4119-a8d6-b041edcc95a0")
+        private final String uri;
+
+        @objid ("aabd6059-b470-45d5-bac5-ff9a70e4a935")
+        private final String localName;
+
+        @objid ("5873a8d8-62a7-4a0c-a5ba-4ec9d0e27a09")
+        private final String qName;
+
+        @objid ("91ded9fa-87af-42f2-a370-3129c183d103")
+        EndEvent(String uri, String localName, String qName) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+        }
+
+        @objid ("77bd972a-17bc-4cc2-82e9-e5cbba1eba5f")
+        @Override
+        void replay(ContentHandler handler) throws SAXException {
+            handler.endElement(this.uri, this.localName, this.qName);
+        }
+
+        @objid ("98d37091-281d-4290-8269-2f29dbe29c8b")
+        @Override
+        void collectStrings(Map<String, Integer> table, List<String> strings) {
+            intern(this.uri, table, strings);
+            intern(this.localName, table, strings);
+            intern(this.qName, table, strings);
+        }
+
+        @objid ("4b6560a2-fe17-41ef-9004-f7fccf9539a5")
+        @Override
+        void writeTo(DataOutputStream out, Map<String, Integer> table) throws IOException {
+            out.writeByte(KIND);
+            out.writeInt(indexOf(this.uri, table));
+            out.writeInt(indexOf(this.localName, table));
+            out.writeInt(indexOf(this.qName, table));
+        }
+
+    }
+
+    @objid ("97ee6b3c-d5c1-46c4-86e9-26d134950d89")
+    private static final class CharsEvent extends Event {
+        @objid ("b4c3c8dc-be3d-49ea-8cfc-8854f68d7f9e")
+        static final byte KIND = 3;
+
+        @objid ("b357c973-9abf-484b-a99e-d16e99d501fc")
+        private final char[] chars;
+
+        @objid ("d26a2539-9568-4538-a9a3-9b1a75b42620")
+        CharsEvent(char[] chars) {
+            this.chars = chars;
+        }
+
+        @objid ("e71efd90-2ec8-413e-aa44-56be775485c6")
+        @Override
+        void replay(ContentHandler handler) throws SAXException {
+            handler.characters(this.chars, 0, this.chars.length);
+        }
+
+        @objid ("d05c1398-905d-4469-8bc6-926f8e2acd54")
+        @Override
+        void collectStrings(Map<String, Integer> table, List<String> strings) {
+            // Character data is not shared
+        }
+
+        @objid ("3bc1c484-5667-4d03-8966-f5bf0996f7ff")
+        @Override
+        void writeTo(DataOutputStream out, Map<String, Integer> table) throws IOException {
+            out.writeByte(KIND);
+            writeString(out, new String(this.chars));
+        }
+
+    }
+
+}
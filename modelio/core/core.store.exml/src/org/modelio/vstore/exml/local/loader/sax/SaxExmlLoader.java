@@ -37,6 +37,7 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * SAX model loader.
@@ -69,15 +70,56 @@ public class SaxExmlLoader implements IExmlLoader {
         this.dataModel = new DataModel(loadHelper);
         this.defaultHandler = new DocumentContentHandler(this.dataModel);
         
+        this.xmlReader = createXmlReader(this.defaultHandler);
+    }
+
+    /**
+     * Load an EXML resource from an XML {@link InputSource}.
+     * 
+     * @param is the EXML source.
+     * @param loader the API to use to load the content.
+     * @return the loaded CMS node.
+     * @throws java.io.IOException in case of failure
+     * @throws org.modelio.vcore.model.DuplicateObjectException if another object with the same identifier as a loaded object already exists in another repository.
+     */
+    @objid ("2b011ba4-3faf-11e2-87cb-001ec947ccaf")
+    @Override
+    public SmObjectImpl load(final InputSource is, IModelLoader loader) throws IOException, DuplicateObjectException {
+        return doLoad(is.getPublicId(), () -> this.xmlReader.parse(is), loader);
+    }
+
+    /**
+     * Load an EXML resource already parsed by {@link ParallelExmlParser}.
+     * 
+     * @param record the parsed EXML resource.
+     * @param loader the API to use to load the content.
+     * @return the loaded CMS node.
+     * @throws java.io.IOException in case of failure
+     * @throws org.modelio.vcore.model.DuplicateObjectException if another object with the same identifier as a loaded object already exists in another repository.
+     */
+    @objid ("4e567f3d-414f-4760-a4d6-91e023efe352")
+    public SmObjectImpl load(final RecordedExml record, IModelLoader loader) throws IOException, DuplicateObjectException {
+        return doLoad(record.getPublicId(), () -> record.replay(this.defaultHandler), loader);
+    }
+
+    /**
+     * Create a namespace aware SAX reader.
+     * 
+     * @param handler the content and error handler
+     * @return the new XML reader.
+     */
+    @objid ("d198694f-44fa-4b19-ac61-841e7c260024")
+    static XMLReader createXmlReader(DefaultHandler handler) {
         try {
             SAXParserFactory saxFactory = SAXParserFactory.newInstance();
             SAXParser parser = saxFactory.newSAXParser();
-            this.xmlReader = parser.getXMLReader();
+            XMLReader reader = parser.getXMLReader();
         
-            this.xmlReader.setFeature("http://xml.org/sax/features/namespaces", true);
+            reader.setFeature("http://xml.org/sax/features/namespaces", true);
         
-            this.xmlReader.setContentHandler(this.defaultHandler);
-            this.xmlReader.setErrorHandler(this.defaultHandler);
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(handler);
+            return reader;
         } catch (ParserConfigurationException e) {
             // should never happen
             throw new ServiceConfigurationError(e.getLocalizedMessage(), e);
@@ -88,17 +130,30 @@ public class SaxExmlLoader implements IExmlLoader {
     }
 
     /**
-     * Load an EXML resource from an XML {@link InputSource}.
+     * Convert a SAX parsing failure to an {@link IOException}.
      * 
-     * @param is the EXML source.
-     * @param loader the API to use to load the content.
-     * @return the loaded CMS node.
-     * @throws java.io.IOException in case of failure
-     * @throws org.modelio.vcore.model.DuplicateObjectException if another object with the same identifier as a loaded object already exists in another repository.
+     * @param publicId the parsed resource public identifier
+     * @param e the SAX failure
+     * @return the I/O exception to throw.
      */
-    @objid ("2b011ba4-3faf-11e2-87cb-001ec947ccaf")
-    @Override
-    public SmObjectImpl load(final InputSource is, IModelLoader loader) throws IOException, DuplicateObjectException {
+    @objid ("399ae371-11b1-4686-a794-f310005c88d7")
+    static IOException toIOException(String publicId, SAXException e) {
+        if (e instanceof SAXParseException) {
+            SAXParseException pe = (SAXParseException) e;
+            String msg = pe.getPublicId()
+                    +":"+pe.getLineNumber()
+                    +":"+pe.getColumnNumber()
+                    +": "+pe.getLocalizedMessage();
+            
+            return new IOException(msg, e );
+        } else {
+            String msg = publicId+": "+e.getLocalizedMessage();
+            return new IOException (msg, e);
+        }
+    }
+
+    @objid ("34011523-347c-457f-8616-53f23adf9094")
+    private SmObjectImpl doLoad(String publicId, IParseJob job, IModelLoader loader) throws IOException, DuplicateObjectException {
         if (! this.loadInProgress.compareAndSet(false, true)) {
             throw new IllegalStateException(getClass().getSimpleName()+" Reentrant call not allowed.");
         }
@@ -108,24 +163,16 @@ public class SaxExmlLoader implements IExmlLoader {
             this.defaultHandler.reset();
             this.dataModel.setModelLoader (loader);
         
-            this.xmlReader.parse(is);
+            job.run();
             return this.dataModel.getRootObject();
-        } catch(SAXParseException e) {
-            String msg = e.getPublicId()
-                    +":"+e.getLineNumber()
-                    +":"+e.getColumnNumber()
-                    +": "+e.getLocalizedMessage();
-            
-            throw new IOException(msg, e );
         } catch (SAXException e) {
-            String msg = is.getPublicId()+": "+e.getLocalizedMessage();
-            throw new IOException (msg, e);
+            throw toIOException(publicId, e);
         } catch (IOException e) {
-            String msg = is.getPublicId()+": "+FileUtils.getLocalizedMessage(e);
+            String msg = publicId+": "+FileUtils.getLocalizedMessage(e);
             throw new IOException (msg, e);
         } catch (Error | RuntimeException e) {
             // just add a debugging exception and rethrow
-            e.addSuppressed(new Throwable("Error occurred while reading '"+is.getPublicId()+"'"));
+            e.addSuppressed(new Throwable("Error occurred while reading '"+publicId+"'"));
             throw e;
         } finally {
             this.loadInProgress.set(false);
@@ -138,4 +185,15 @@ public class SaxExmlLoader implements IExmlLoader {
         this.dataModel.setDependencyContentHook(hook);
     }
 
+    /**
+     * Parsing job run by {@link SaxExmlLoader#doLoad(String, IParseJob, IModelLoader)}.
+     */
+    @objid ("0a477ad6-7d28-4d3f-8c99-54b12581284a")
+    @FunctionalInterface
+    private interface IParseJob {
+        @objid ("23961fd4-3815-4800-b477-8410e5dff68a")
+        void run() throws IOException, SAXException;
+
+    }
+
 }
@@ -79,7 +79,7 @@ class ElementDependencies {
             if (comp != 0) {
                 return comp;
             }
-            return o1.getUuid().compareTo(o2.getUuid());
+            return o1.compareTo(o2);
         }
 
     }
@@ -0,0 +1,269 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.vstore.exml.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.concurrent.NamedThreadFactory;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vbasic.log.Log;
+import org.modelio.vbasic.progress.IModelioProgress;
+import org.modelio.vbasic.progress.SubProgress;
+
+/**
+ * Local copy of the resources of a remote EXML repository.
+ * <p>
+ * Resources are downloaded on first read, or in advance with {@link #prefetch(Collection, IModelioProgress)}.
+ * The cached files are kept from one session to the other while the remote repository stamp
+ * does not change: the whole cache is discarded when it does.
+ * <p>
+ * May be used concurrently.
+ * @since 4.1
+ */
+@objid ("7e475c38-b7aa-4db2-9eb2-390e3c8d69e7")
+public class ExmlContentCache {
+    /**
+     * Default name of the cache directory in the fragment runtime directory.
+     */
+    @objid ("61e4a644-776f-4ebf-a83f-f38ea84abf47")
+    public static final String DIRNAME = "exml_cache";
+
+    @objid ("8304d3d8-90e0-4a32-be36-8f5c94b59c4b")
+    private static final String STAMP_FILE = "cache_stamp.dat";
+
+    /**
+     * Maximum number of simultaneous connections when prefetching resources.
+     */
+    @objid ("83499307-7ed5-41b7-aa32-6676e93d3a7c")
+    private static final int MAX_PREFETCH_CONNECTIONS = 4;
+
+    @objid ("7a334356-7c45-444b-87fc-a6115671a86f")
+    private final Path directory;
+
+    @objid ("0367de9d-75e1-481c-8687-7b89aa476a59")
+    private final IFetcher fetcher;
+
+    /**
+     * Whether the cache is synchronized with the remote repository.
+     */
+    @objid ("2e10885e-a4bc-4d93-aa77-cb3046d0e869")
+    private volatile boolean valid;
+
+    /**
+     * @param directory the cache directory.
+     * @param fetcher opens the remote resources.
+     */
+    @objid ("0cca3d1d-d89b-4fe4-ba1c-ab915cc70434")
+    public ExmlContentCache(Path directory, IFetcher fetcher) {
+        this.directory = directory.normalize();
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Open the cache and discard its content if it does not match the remote repository stamp.
+     * <p>
+     * The cache is not used if the repository has no stamp: all reads then go to the remote repository.
+     * 
+     * @param remoteStamp the remote repository stamp.
+     */
+    @objid ("de3d3f2c-f388-4e28-8b9e-b7688fdbad99")
+    public synchronized void open(String remoteStamp) {
+        this.valid = false;
+        if (remoteStamp == null || remoteStamp.isEmpty()) {
+            return;
+        }
+        
+        try {
+            Path stampFile = this.directory.resolve(STAMP_FILE);
+            String localStamp = Files.isRegularFile(stampFile) ? new String(Files.readAllBytes(stampFile), StandardCharsets.UTF_8) : "";
+            if (! localStamp.equals(remoteStamp)) {
+                if (Files.isDirectory(this.directory)) {
+                    FileUtils.delete(this.directory);
+                }
+                Files.createDirectories(this.directory);
+                Files.write(stampFile, remoteStamp.getBytes(StandardCharsets.UTF_8));
+            }
+            this.valid = true;
+        } catch (IOException e) {
+            Log.warning("%s: EXML content cache disabled: %s", this.directory, FileUtils.getLocalizedMessage(e));
+        }
+    }
+
+    /**
+     * Open a resource from the cache, downloading it first if needed.
+     * 
+     * @param relativePath the resource path relative to the repository.
+     * @return an input stream or <code>null</code> if the remote resource does not exist.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("c12509b7-4081-402e-ad6b-77afbdf0a65d")
+    public InputStream read(String relativePath) throws IOException {
+        if (! this.valid) {
+            return this.fetcher.open(relativePath);
+        }
+        
+        Path file = getCachePath(relativePath);
+        try {
+            return Files.newInputStream(file);
+        } catch (@SuppressWarnings ("unused") NoSuchFileException e) {
+            // not cached yet
+        }
+        
+        if (download(relativePath, file)) {
+            return Files.newInputStream(file);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Download in parallel the given resources that are not already cached.
+     * <p>
+     * Failures on single resources are only logged, they will be reported again when the resource is read.
+     * 
+     * @param relativePaths paths of the resources relative to the repository.
+     * @param monitor a progress monitor, may be used to cancel the prefetch.
+     * @throws java.io.InterruptedIOException if the current thread is interrupted.
+     */
+    @objid ("4e69cbf8-0e82-4ad3-9b40-f70bf732e1a8")
+    public void prefetch(Collection<String> relativePaths, IModelioProgress monitor) throws InterruptedIOException {
+        if (! this.valid) {
+            return;
+        }
+        
+        List<String> missing = new ArrayList<>();
+        for (String p : relativePaths) {
+            if (! Files.isRegularFile(getCachePath(p))) {
+                missing.add(p);
+            }
+        }
+        
+        if (missing.isEmpty()) {
+            return;
+        }
+        
+        SubProgress mon = SubProgress.convert(monitor, missing.size());
+        int nbWorkers = Math.min(MAX_PREFETCH_CONNECTIONS, missing.size());
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers, new NamedThreadFactory("EXML prefetch %d"));
+        try {
+            CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+            for (String p : missing) {
+                completion.submit(() -> {
+                    download(p, getCachePath(p));
+                    return p;
+                });
+            }
+        
+            for (int i = 0; i < missing.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    Log.warning("EXML prefetch failed: %s", e.getCause().toString());
+                }
+                mon.worked(1);
+                if (mon.isCanceled()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ex = new InterruptedIOException(e.getLocalizedMessage());
+            ex.initCause(e);
+            throw ex;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Copy a remote resource in the cache.
+     * <p>
+     * The file is written aside then moved so that readers never see a partial file.
+     * 
+     * @param relativePath the resource path relative to the repository.
+     * @param file the cache file.
+     * @return <code>false</code> if the remote resource does not exist.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("53b39183-f934-4ae9-8fc9-e2c5423ea4c1")
+    private boolean download(String relativePath, Path file) throws IOException {
+        try (InputStream is = this.fetcher.open(relativePath)) {
+            if (is == null) {
+                return false;
+            }
+        
+            Path dir = file.getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return true;
+        }
+    }
+
+    @objid ("edcf47c0-388e-43e1-b3f0-711e286e7807")
+    private Path getCachePath(String relativePath) {
+        Path ret = this.directory.resolve(relativePath).normalize();
+        if (! ret.startsWith(this.directory)) {
+            throw new IllegalArgumentException(relativePath+" is not a relative path.");
+        }
+        return ret;
+    }
+
+    /**
+     * Opens the remote resources.
+     */
+    @objid ("dc958191-669e-4bef-af9f-f6ece7d3b917")
+    @FunctionalInterface
+    public interface IFetcher {
+        /**
+         * Open a remote resource.
+         * <p>
+         * Called concurrently from several threads.
+         * 
+         * @param relativePath the resource path relative to the repository.
+         * @return an input stream or <code>null</code> if the resource does not exist.
+         * @throws java.io.IOException on failure
+         */
+        @objid ("66b852be-30ef-4f5c-b432-2e7c6569905b")
+        InputStream open(String relativePath) throws IOException;
+
+    }
+
+}
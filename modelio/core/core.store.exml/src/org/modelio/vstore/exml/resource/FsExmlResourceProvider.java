@@ -106,9 +106,12 @@ public class FsExmlResourceProvider extends LocalExmlResourceProvider {
             Path remoteIndexPath = this.repositoryPath.resolve(".index");
             if (Files.isDirectory(remoteIndexPath)) {
                 FileUtils.copyDirectoryTo(remoteIndexPath, this.localIndexPath);
-                Files.write(this.localIndexStampPath, getStamp().getBytes(StandardCharsets.UTF_8));
             }
         
+            // If the indexes are missing or outdated, the repository rebuilds them in the local directory:
+            // keep them until the repository changes.
+            Files.write(this.localIndexStampPath, getStamp().getBytes(StandardCharsets.UTF_8));
+        
         }
     }
 
@@ -60,14 +60,46 @@ public interface IExmlResourceProvider {
     @objid ("cf2f176b-03e4-11e2-b5bf-001ec947ccaf")
     void close() throws IOException;
 
+    /**
+     * Start a write transaction.
+     * <p>
+     * Until the next {@link #commit()} or {@link #rollback()}, the implementation may stage
+     * the resources written or deleted so that {@link #commit()} publishes all of them or none.
+     * Reading a resource then returns its staged content.
+     * <p>
+     * The default implementation does nothing: resources are modified in place.
+     * 
+     * @throws java.io.IOException in case of failure.
+     * @since 4.1
+     */
+    @objid ("bfad5603-aa6e-434f-95bd-d22b2729c3bd")
+    default void beginTransaction() throws IOException {
+        // Resources are modified in place
+    }
+
     /**
      * Commit all writes that were done since last commit().
+     * <p>
+     * Publishes the resources staged since {@link #beginTransaction()}.
      * 
      * @throws java.io.IOException in case of failure.
      */
     @objid ("cf2f176d-03e4-11e2-b5bf-001ec947ccaf")
     void commit() throws IOException;
 
+    /**
+     * Discard the resources staged since {@link #beginTransaction()}.
+     * <p>
+     * The default implementation does nothing.
+     * 
+     * @throws java.io.IOException in case of failure.
+     * @since 4.1
+     */
+    @objid ("64ac74bf-77bf-410b-ac7d-1fc5ba309268")
+    default void rollback() throws IOException {
+        // Resources are modified in place
+    }
+
     /**
      * Create the repository.
      * 
@@ -241,6 +273,23 @@ public interface IExmlResourceProvider {
     @objid ("5ef60438-4f0d-4441-b359-f5673f9cbb41")
     void open() throws IOException;
 
+    /**
+     * Get in advance the EXML resources of the given CMS nodes.
+     * <p>
+     * Providers of remote repositories may download them in parallel to a local cache,
+     * so that loading the CMS nodes later does not cost a network round trip each.
+     * The default implementation does nothing.
+     * 
+     * @param cmsNodes the CMS nodes whose resources will be needed.
+     * @param monitor a progress monitor.
+     * @throws java.io.IOException in case of failure.
+     * @since 4.1
+     */
+    @objid ("1107e812-48cc-4256-ad5d-b87269fcc745")
+    default void prefetch(Collection<ObjId> cmsNodes, IModelioProgress monitor) throws IOException {
+        // Resources are already local
+    }
+
     /**
      * Read the content of a blob.
      * <p>
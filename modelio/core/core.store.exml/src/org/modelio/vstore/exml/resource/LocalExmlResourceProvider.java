@@ -66,6 +66,9 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("cf50780d-03e4-11e2-b5bf-001ec947ccaf")
     protected final Path repositoryPath;
 
+    @objid ("53f6d167-9f2c-472d-87f0-dd0a8d1627b6")
+    private final LocalWriteJournal journal;
+
     /**
      * Initialize the resource provider.
      * 
@@ -82,6 +85,7 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
         this.stampPath = repositoryPath.resolve(IStampGeometry.STAMP_DIR_NAME).resolve(IStampGeometry.STAMP_FILE_NAME);
         this.indexPath = runtimePath.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME);
         this.versionPath = repositoryPath.resolve(IExmlRepositoryGeometry.FORMAT_VERSION_PATH);
+        this.journal = new LocalWriteJournal(repositoryPath, this.stampPath.resolveSibling(LocalWriteJournal.JOURNAL_FILE_NAME));
     }
 
     @objid ("cf50781d-03e4-11e2-b5bf-001ec947ccaf")
@@ -99,8 +103,8 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("cf52da6e-03e4-11e2-b5bf-001ec947ccaf")
     @Override
     public void commit() throws IOException {
-        // TODO Implement a local ACID transaction to ensure consistency when
-        // write failure.
+        // Publish staged resources
+        this.journal.commit();
         
         // Write the stamp
         if (isWriteable()) {
@@ -108,6 +112,34 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
         }
     }
 
+    /**
+     * Stage the written resources next to their target until {@link #commit()}.
+     */
+    @objid ("27ec0d51-bc3d-4372-bbe3-1dafae4a1c70")
+    @Override
+    public void beginTransaction() throws IOException {
+        this.journal.begin();
+    }
+
+    @objid ("dcdd1409-6129-4472-bff0-7b807fac042b")
+    @Override
+    public void rollback() throws IOException {
+        this.journal.rollback();
+    }
+
+    /**
+     * Replays or rolls back a save interrupted by a crash.
+     */
+    @objid ("524fa4f2-d329-4fc2-b98a-6cace39845d6")
+    @Override
+    public void open() throws IOException {
+        super.open();
+        
+        if (isWriteable()) {
+            this.journal.recover();
+        }
+    }
+
     @objid ("b7bd8a6c-220c-4225-88ff-aa5b1540ce6e")
     @Override
     public boolean exists() throws IOException {
@@ -124,7 +156,7 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
             for (Path dir : classDs) {
                 try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(dir, "*.exml")) {
                     for (Path f : dirStream) {
-                        toBuild.add(new LocalResource(f));
+                        toBuild.add(new LocalResource(f, this.journal));
                     }
                 }
                 monitor.worked(1);
@@ -149,7 +181,7 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("cf507812-03e4-11e2-b5bf-001ec947ccaf")
     @Override
     public ExmlResource getRelativePathResource(String relativePath) {
-        return new LocalResource(this.repositoryPath.resolve(relativePath));
+        return new LocalResource(this.repositoryPath.resolve(relativePath), this.journal);
     }
 
     @objid ("7acb5016-121e-4da7-839c-f01355078455")
@@ -242,24 +274,41 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
         @objid ("cf52da60-03e4-11e2-b5bf-001ec947ccaf")
         private Path p;
 
+        @objid ("fae1d477-cf7f-4bca-ae60-f12ae9f5a86d")
+        private final LocalWriteJournal journal;
+
         @objid ("cf52da61-03e4-11e2-b5bf-001ec947ccaf")
         public LocalResource(Path p) {
+            this(p, null);
+        }
+
+        /**
+         * @param p the resource path
+         * @param journal the write journal, may be <code>null</code>.
+         */
+        @objid ("174e77ef-473f-49ce-bf05-6504c3ccc0c2")
+        LocalResource(Path p, LocalWriteJournal journal) {
             this.p = p;
+            this.journal = journal;
         }
 
         @objid ("cf52da64-03e4-11e2-b5bf-001ec947ccaf")
         @Override
         public InputStream read() throws IOException {
-            if (!Files.isRegularFile(this.p)) {
+            Path readPath = (this.journal == null) ? this.p : this.journal.getReadPath(this.p);
+            if (readPath == null || !Files.isRegularFile(readPath)) {
                 return null;
             } else {
-                return Files.newInputStream(this.p);
+                return Files.newInputStream(readPath);
             }
         }
 
         @objid ("cf52da69-03e4-11e2-b5bf-001ec947ccaf")
         @Override
         public OutputStream write() throws IOException {
+            if (this.journal != null) {
+                return this.journal.write(this.p);
+            }
             Files.createDirectories(this.p.getParent());
             return Files.newOutputStream(this.p);
         }
@@ -267,7 +316,11 @@ public class LocalExmlResourceProvider extends AbstractExmlResourceProvider {
         @objid ("97902336-12de-11e2-816a-001ec947ccaf")
         @Override
         public void delete() throws IOException {
-            Files.deleteIfExists(this.p);
+            if (this.journal != null) {
+                this.journal.delete(this.p);
+            } else {
+                Files.deleteIfExists(this.p);
+            }
         }
 
         @objid ("92e120c5-2cd2-11e2-81f1-001ec947ccaf")
@@ -0,0 +1,381 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vstore.exml.resource;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.log.Log;
+
+/**
+ * Journal making the writes to a local repository atomic.
+ * <p>
+ * While a transaction is active, written resources go to a staging file next to their target
+ * and deleted resources are only recorded. Each staged change is appended to a journal file.
+ * {@link #commit()} marks the journal as committed, then renames the staging files over their targets
+ * and deletes the recorded resources.
+ * <p>
+ * {@link #recover()} is to be called when opening the repository:
+ * a committed journal left by a crash is replayed, an uncommitted one is rolled back.
+ */
+@objid ("0edac4ba-2370-4cfb-90bf-2c72705feabe")
+final class LocalWriteJournal {
+    /**
+     * Suffix of the staging files.
+     */
+    @objid ("1b9feaa8-1d2d-49f3-8e6a-37873c680c11")
+    static final String STAGED_SUFFIX = ".new";
+
+    /**
+     * Journal file name.
+     */
+    @objid ("323344c1-fdd3-4207-8192-d6e289e8d29a")
+    static final String JOURNAL_FILE_NAME = "save.journal";
+
+    @objid ("3bc9f26a-1752-489d-ac76-c91c50951297")
+    private static final String WRITE_ENTRY = "W ";
+
+    @objid ("3c228843-3a5a-4cdb-919b-2aa26e0e6d29")
+    private static final String DELETE_ENTRY = "D ";
+
+    @objid ("ad2295b1-85ac-49a8-85f8-fc404792e6f2")
+    private static final String COMMIT_ENTRY = "COMMIT";
+
+    @objid ("6850b6e3-bdf2-4515-bcb6-c1d16bf9df01")
+    private final Path root;
+
+    @objid ("5e0b5e51-b8e0-4841-ab2e-edec1179c71a")
+    private final Path journalPath;
+
+    /**
+     * Written resources path -> staging file path.
+     */
+    @objid ("e9a3b65b-ac3f-4baa-a16e-b411ff1253a7")
+    private final Map<Path, Path> staged = new ConcurrentHashMap<>();
+
+    /**
+     * Deleted resources path.
+     */
+    @objid ("a7104b8f-d515-4b49-a9eb-faf30cad976c")
+    private final Set<Path> deleted = ConcurrentHashMap.newKeySet();
+
+    @objid ("bde7bfdb-c5dd-4e66-bcf8-de7593021090")
+    private volatile boolean active;
+
+    @objid ("26c36b4d-53ac-4e3b-8844-be82f53a9ec5")
+    private FileChannel journalChannel;
+
+    @objid ("09580e2d-aa99-454e-81ce-d006d08a6876")
+    private Writer journalWriter;
+
+    /**
+     * Initialize the journal.
+     * 
+     * @param root the repository root directory. Journal entries are relative to it.
+     * @param journalPath the journal file path.
+     */
+    @objid ("45d52dae-4360-462d-8d22-a0a61fd93045")
+    LocalWriteJournal(Path root, Path journalPath) {
+        this.root = root;
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Start a transaction.
+     * 
+     * @throws java.io.IOException if the journal cannot be created.
+     * @throws java.lang.IllegalStateException if a transaction is already active.
+     */
+    @objid ("9b44a05c-36f8-4ae3-934c-28337dba6943")
+    synchronized void begin() throws IOException, IllegalStateException {
+        if (this.active) {
+            throw new IllegalStateException("A transaction is already active on " + this.root);
+        }
+        
+        Files.createDirectories(this.journalPath.getParent());
+        this.journalChannel = FileChannel.open(this.journalPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.journalWriter = Channels.newWriter(this.journalChannel, StandardCharsets.UTF_8.newEncoder(), 256);
+        this.active = true;
+    }
+
+    /**
+     * @return <code>true</code> if a transaction is active.
+     */
+    @objid ("a9519a49-6a8e-4e84-868c-4f5403180e29")
+    boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Get the path to read a resource from.
+     * 
+     * @param target a resource path.
+     * @return the path to read the resource content from, <code>null</code> if the resource is deleted in the current transaction.
+     */
+    @objid ("ff2abf1c-7487-42d8-944c-09eb0bc804aa")
+    Path getReadPath(Path target) {
+        if (! this.active) {
+            return target;
+        } else if (this.deleted.contains(target)) {
+            return null;
+        } else {
+            return this.staged.getOrDefault(target, target);
+        }
+    }
+
+    /**
+     * Open a stream to write a resource.
+     * <p>
+     * If a transaction is active the content is written to a staging file
+     * that is synchronized with the storage device on close.
+     * 
+     * @param target a resource path.
+     * @return an output stream.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("ea27edb8-08d3-4e7f-a574-8568d42b6009")
+    OutputStream write(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        if (! this.active) {
+            return Files.newOutputStream(target);
+        }
+        
+        Path stagedPath = stage(target);
+        FileChannel ch = FileChannel.open(stagedPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new FilterOutputStream(Channels.newOutputStream(ch)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+            }
+        
+            @Override
+            public void close() throws IOException {
+                try {
+                    flush();
+                    ch.force(false);
+                } finally {
+                    super.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Delete a resource.
+     * <p>
+     * If a transaction is active the deletion is only recorded.
+     * 
+     * @param target a resource path.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("5c072faf-a56c-43fd-8c3b-df441a7b82d5")
+    synchronized void delete(Path target) throws IOException {
+        if (! this.active) {
+            Files.deleteIfExists(target);
+            return;
+        }
+        
+        Path stagedPath = this.staged.remove(target);
+        if (stagedPath != null) {
+            Files.deleteIfExists(stagedPath);
+        }
+        
+        if (this.deleted.add(target)) {
+            appendEntry(DELETE_ENTRY, target);
+        }
+    }
+
+    /**
+     * Publish all the changes of the current transaction.
+     * <p>
+     * Does nothing if no transaction is active.
+     * 
+     * @throws java.io.IOException on failure. If the commit mark was written, the transaction is replayed at next {@link #recover()}.
+     */
+    @objid ("ff482c70-d6b2-4f0a-ae24-a10593a15e7d")
+    synchronized void commit() throws IOException {
+        if (! this.active) {
+            return;
+        }
+        
+        // Write the commit mark
+        this.journalWriter.write(COMMIT_ENTRY);
+        this.journalWriter.write('\n');
+        this.journalWriter.flush();
+        this.journalChannel.force(false);
+        
+        // Publish
+        try {
+            for (Map.Entry<Path, Path> e : this.staged.entrySet()) {
+                move(e.getValue(), e.getKey());
+            }
+        
+            for (Path p : this.deleted) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            // Keep the committed journal to finish publishing at next recover()
+            this.active = false;
+            this.staged.clear();
+            this.deleted.clear();
+            this.journalWriter.close();
+            this.journalWriter = null;
+            this.journalChannel = null;
+            throw e;
+        }
+        
+        end();
+    }
+
+    /**
+     * Discard all the changes of the current transaction.
+     * <p>
+     * Does nothing if no transaction is active.
+     * 
+     * @throws java.io.IOException on failure
+     */
+    @objid ("3d5e6839-2397-439f-8fd5-74172a0d8ff0")
+    synchronized void rollback() throws IOException {
+        if (! this.active) {
+            return;
+        }
+        
+        for (Path p : this.staged.values()) {
+            Files.deleteIfExists(p);
+        }
+        
+        end();
+    }
+
+    /**
+     * Replay or roll back a transaction interrupted by a crash.
+     * <p>
+     * A resource may be written, deleted then written again in the same transaction:
+     * only the last journal entry of each resource is replayed.
+     * 
+     * @throws java.io.IOException on failure
+     */
+    @objid ("27d2e8b9-608b-48f4-8101-1ce37c046121")
+    synchronized void recover() throws IOException {
+        if (this.active || ! Files.isRegularFile(this.journalPath)) {
+            return;
+        }
+        
+        List<String> lines = Files.readAllLines(this.journalPath, StandardCharsets.UTF_8);
+        boolean committed = ! lines.isEmpty() && lines.get(lines.size() - 1).equals(COMMIT_ENTRY);
+        
+        Log.warning("'%s' save was interrupted, %s it.", this.root, committed ? "replaying" : "rolling back");
+        
+        // Resource path -> whether its last entry is a write
+        Map<Path, Boolean> lastEntries = new LinkedHashMap<>();
+        for (String line : lines) {
+            if (line.startsWith(WRITE_ENTRY)) {
+                lastEntries.put(this.root.resolve(line.substring(WRITE_ENTRY.length())), Boolean.TRUE);
+            } else if (line.startsWith(DELETE_ENTRY)) {
+                lastEntries.put(this.root.resolve(line.substring(DELETE_ENTRY.length())), Boolean.FALSE);
+            }
+        }
+        
+        for (Map.Entry<Path, Boolean> e : lastEntries.entrySet()) {
+            Path target = e.getKey();
+            Path stagedPath = getStagedPath(target);
+            if (! committed) {
+                Files.deleteIfExists(stagedPath);
+            } else if (e.getValue()) {
+                // The staging file is missing if already published
+                if (Files.exists(stagedPath)) {
+                    move(stagedPath, target);
+                }
+            } else {
+                Files.deleteIfExists(stagedPath);
+                Files.deleteIfExists(target);
+            }
+        }
+        
+        Files.delete(this.journalPath);
+    }
+
+    @objid ("9d770e65-95e8-4768-9338-0115fe059e4f")
+    private synchronized Path stage(Path target) throws IOException {
+        this.deleted.remove(target);
+        
+        Path stagedPath = this.staged.get(target);
+        if (stagedPath == null) {
+            stagedPath = getStagedPath(target);
+            appendEntry(WRITE_ENTRY, target);
+            this.staged.put(target, stagedPath);
+        }
+        return stagedPath;
+    }
+
+    @objid ("1b7f8d4b-4cc2-4215-ab2b-76d45fdfb879")
+    private void appendEntry(String kind, Path target) throws IOException {
+        this.journalWriter.write(kind);
+        this.journalWriter.write(this.root.relativize(target).toString());
+        this.journalWriter.write('\n');
+        // Flush to survive to a process crash. A power loss leaves only unreferenced staging files.
+        this.journalWriter.flush();
+    }
+
+    @objid ("67f06b51-61d3-4c0b-955e-12eae2f110a3")
+    private void end() throws IOException {
+        this.active = false;
+        this.staged.clear();
+        this.deleted.clear();
+        try {
+            this.journalWriter.close();
+        } finally {
+            this.journalWriter = null;
+            this.journalChannel = null;
+            Files.deleteIfExists(this.journalPath);
+        }
+    }
+
+    @objid ("97405694-721d-412d-8fa2-904a8311408f")
+    private static Path getStagedPath(Path target) {
+        return target.resolveSibling(target.getFileName().toString() + STAGED_SUFFIX);
+    }
+
+    @objid ("85243664-c36a-4a57-9c39-12d56274afb4")
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
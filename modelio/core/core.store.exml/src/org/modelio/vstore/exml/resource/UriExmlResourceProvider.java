@@ -34,7 +34,9 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.auth.IAuthData;
 import org.modelio.vbasic.files.FileUtils;
@@ -45,6 +47,7 @@ import org.modelio.vbasic.net.UriUtils;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vstore.exml.common.index.IndexOutdatedException;
+import org.modelio.vstore.exml.common.model.ObjId;
 
 /**
  * Resource provider for repositories stored on an HTTP server,
@@ -79,6 +82,12 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("9f07f476-f226-4dc1-90e3-b12bc6430bba")
     private Path localIndexDir;
 
+    /**
+     * Local copy of the remote resources.
+     */
+    @objid ("8ae00822-c130-428e-b4f5-f5e050dc0ac6")
+    private final ExmlContentCache contentCache;
+
     /**
      * Initialize the resource provider.
      * 
@@ -97,6 +106,7 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
         
         this.localIndexDir = localDir.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME);
         this.localIndexStampPath = localDir.resolve(IStampGeometry.LOCAL_INDEX_STAMP_FILE);
+        this.contentCache = new ExmlContentCache(localDir.resolve(ExmlContentCache.DIRNAME), this::fetch);
     }
 
     @objid ("8aed1788-219d-4a0e-b816-82e4a52e8766")
@@ -138,6 +148,8 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
         
             Files.write(this.localIndexStampPath, getStamp().getBytes(StandardCharsets.UTF_8));
         }
+        
+        this.contentCache.open(getStamp());
     }
 
     @objid ("5d9550bb-9137-4d35-b3bd-7d1ed2a92004")
@@ -185,7 +197,7 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("f463ffa0-ff1f-4a8b-8f67-4fdc4460df96")
     @Override
     public ExmlResource getRelativePathResource(String relativePath) {
-        return new UriResource(this.url.resolve(relativePath), this.auth);
+        return new UriResource(this.url.resolve(relativePath), this.auth, relativePath, this.contentCache);
     }
 
     @objid ("7142952a-3664-47b1-b49a-44655806167a")
@@ -198,6 +210,19 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
         }
     }
 
+    /**
+     * Download the missing resources in parallel to the local cache.
+     */
+    @objid ("385b23db-12b7-4b4b-afee-2c05007478fb")
+    @Override
+    public void prefetch(Collection<ObjId> cmsNodes, IModelioProgress monitor) throws IOException {
+        List<String> paths = new ArrayList<>(cmsNodes.size());
+        for (ObjId id : cmsNodes) {
+            paths.add(getGeometry().getLocalFileRelativePath(id.toMRef()));
+        }
+        this.contentCache.prefetch(paths, monitor);
+    }
+
     @objid ("a5c90c28-c723-4f4e-a506-8ae4246249a3")
     @Override
     public URI getURI() {
@@ -265,6 +290,23 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
         }
     }
 
+    /**
+     * Open a remote resource for {@link #contentCache}.
+     * 
+     * @param relativePath the resource path relative to the repository.
+     * @return an input stream or <code>null</code> if the resource does not exist.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("c358472a-c4a9-4311-a404-cf2f15ef8689")
+    private InputStream fetch(String relativePath) throws IOException {
+        try {
+            return openURL(this.url.resolve(relativePath)).getInputStream();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            Log.warning(e.toString());
+            return null;
+        }
+    }
+
     @objid ("d1c951d9-400a-432b-be5d-16b72e4bd7ed")
     private UriConnection openURL(URI anUrl) throws IOException {
         UriConnection connection = UriConnections.createConnection(anUrl);
@@ -291,15 +333,44 @@ public class UriExmlResourceProvider extends AbstractExmlResourceProvider {
         @objid ("7abe393d-7269-4050-aa89-fc5beb06920d")
         private IAuthData auth;
 
+        /**
+         * Path relative to the repository, <code>null</code> if the resource is not cached.
+         */
+        @objid ("95453b92-431f-45e7-a30b-78ac72b6af9c")
+        private String relativePath;
+
+        @objid ("294c31d3-c7c3-425c-83b8-505f956f81a4")
+        private ExmlContentCache cache;
+
         @objid ("6135b20a-047a-4909-84e5-1a94c2064d09")
         public UriResource(URI url, IAuthData auth) {
             this.url = url;
             this.auth = auth;
         }
 
+        /**
+         * Initialize a resource read through a local cache.
+         * 
+         * @param url the resource URI
+         * @param auth authentication data, may be <code>null</code>.
+         * @param relativePath the resource path relative to the repository.
+         * @param cache the local cache
+         */
+        @objid ("24d23817-4bb9-40dd-9e47-e4c3b3b002a5")
+        public UriResource(URI url, IAuthData auth, String relativePath, ExmlContentCache cache) {
+            this.url = url;
+            this.auth = auth;
+            this.relativePath = relativePath;
+            this.cache = cache;
+        }
+
         @objid ("13562a62-0b81-48a9-af5b-e1bf9ef20f54")
         @Override
         public InputStream read() throws IOException {
+            if (this.cache != null) {
+                return this.cache.read(this.relativePath);
+            }
+            
             try {
                 return openURL().getInputStream();
             } catch (FileNotFoundException e) {
@@ -39,13 +39,16 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
 import org.modelio.vbasic.files.FileUtils;
 import org.modelio.vbasic.log.Log;
 import org.modelio.vbasic.progress.IModelioProgress;
 import org.modelio.vcore.smkernel.mapi.MMetamodel;
 import org.modelio.vstore.exml.common.index.IndexOutdatedException;
+import org.modelio.vstore.exml.common.model.ObjId;
 
 /**
  * Resource provider for repositories stored on an HTTP server,
@@ -77,6 +80,12 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
     @objid ("cf2a52c2-03e4-11e2-b5bf-001ec947ccaf")
     private Path localIndexDir;
 
+    /**
+     * Local copy of the remote resources.
+     */
+    @objid ("8fc4eac9-e49b-420c-a18c-3c92d800dfef")
+    private final ExmlContentCache contentCache;
+
     /**
      * Initialize the resource provider.
      * 
@@ -97,6 +106,7 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
         
             this.localIndexDir = localDir.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME);
             this.localIndexStampPath = localDir.resolve(IStampGeometry.LOCAL_INDEX_STAMP_FILE);
+            this.contentCache = new ExmlContentCache(localDir.resolve(ExmlContentCache.DIRNAME), this::fetch);
         
             if (url.getUserInfo() != null || (user != null && !user.isEmpty())) {
                 this.auth = computeHttpAuth(url, user, passwd);
@@ -146,6 +156,8 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
         
             Files.write(this.localIndexStampPath, getStamp().getBytes(StandardCharsets.UTF_8));
         }
+        
+        this.contentCache.open(getStamp());
     }
 
     @objid ("cf2cb50d-03e4-11e2-b5bf-001ec947ccaf")
@@ -195,7 +207,7 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
     public ExmlResource getRelativePathResource(String relativePath) {
         String resUrl = this.modelUrl.toString()+"/"+relativePath;
         try {
-            return new UrlResource(new URL(resUrl), this.auth);
+            return new UrlResource(new URL(resUrl), this.auth, relativePath, this.contentCache);
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException(relativePath+": "+e.getLocalizedMessage(), e);
         }
@@ -211,6 +223,19 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
         }
     }
 
+    /**
+     * Download the missing resources in parallel to the local cache.
+     */
+    @objid ("ce8797cc-9e51-4fe8-a9a7-240bd11321e0")
+    @Override
+    public void prefetch(Collection<ObjId> cmsNodes, IModelioProgress monitor) throws IOException {
+        List<String> paths = new ArrayList<>(cmsNodes.size());
+        for (ObjId id : cmsNodes) {
+            paths.add(getGeometry().getLocalFileRelativePath(id.toMRef()));
+        }
+        this.contentCache.prefetch(paths, monitor);
+    }
+
     @objid ("cf2f1754-03e4-11e2-b5bf-001ec947ccaf")
     @Override
     public URI getURI() {
@@ -297,6 +322,23 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
         }
     }
 
+    /**
+     * Open a remote resource for {@link #contentCache}.
+     * 
+     * @param relativePath the resource path relative to the model directory.
+     * @return an input stream or <code>null</code> if the resource does not exist.
+     * @throws java.io.IOException on failure
+     */
+    @objid ("e5b7522a-7205-4b48-b4e9-c85f4048d680")
+    private InputStream fetch(String relativePath) throws IOException {
+        try {
+            return openURL(new URL(this.modelUrl.toString()+"/"+relativePath)).getInputStream();
+        } catch (FileNotFoundException e) {
+            Log.warning(e.toString());
+            return null;
+        }
+    }
+
     @objid ("e5315907-37d7-11e2-920a-001ec947ccaf")
     private URLConnection openURL(URL anUrl) throws IOException {
         URLConnection connection = anUrl.openConnection();
@@ -333,15 +375,44 @@ public class UrlExmlResourceProvider extends AbstractExmlResourceProvider {
         @objid ("cf2cb51d-03e4-11e2-b5bf-001ec947ccaf")
         private URL url;
 
+        /**
+         * Path relative to the model directory, <code>null</code> if the resource is not cached.
+         */
+        @objid ("31ae24ee-dc5b-4c57-9576-ce456f7a9fed")
+        private String relativePath;
+
+        @objid ("ec00f2e8-7cd1-4575-aa3d-b9002fb66ee3")
+        private ExmlContentCache cache;
+
         @objid ("cf2cb51e-03e4-11e2-b5bf-001ec947ccaf")
         public UrlResource(URL url, String auth) {
             this.url = url;
             this.auth = auth;
         }
 
+        /**
+         * Initialize a resource read through a local cache.
+         * 
+         * @param url the resource URL
+         * @param auth the HTTP authorization header value, may be <code>null</code>.
+         * @param relativePath the resource path relative to the model directory.
+         * @param cache the local cache
+         */
+        @objid ("520c0f2e-d444-44f5-8aae-042495333555")
+        public UrlResource(URL url, String auth, String relativePath, ExmlContentCache cache) {
+            this.url = url;
+            this.auth = auth;
+            this.relativePath = relativePath;
+            this.cache = cache;
+        }
+
         @objid ("cf2cb521-03e4-11e2-b5bf-001ec947ccaf")
         @Override
         public InputStream read() throws IOException {
+            if (this.cache != null) {
+                return this.cache.read(this.relativePath);
+            }
+            
             try {
                 return openURL().getInputStream();
             } catch (FileNotFoundException e) {
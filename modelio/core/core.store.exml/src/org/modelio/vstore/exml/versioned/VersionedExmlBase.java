@@ -20,6 +20,7 @@
 
 package org.modelio.vstore.exml.versioned;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -98,10 +99,13 @@ public abstract class VersionedExmlBase extends AbstractExmlRepository {
         final SmObjectImpl cmsNode = handler.getCmsNode();
         final ObjId cmsNodeId = new ObjId(cmsNode);
         
-        try (OutputStream os = getResourceProvider().getResource(cmsNodeId).bufferedWrite();){
-            VersionedExmlSaver saver = new VersionedExmlSaver(getErrorSupport());
-            
-            saver.externalize(cmsNode, os, getResourceProvider().getLocalResource(cmsNodeId));
+        // Serialize in memory first so that a failure does not leave a truncated resource
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        VersionedExmlSaver saver = new VersionedExmlSaver(getErrorSupport());
+        saver.externalize(cmsNode, buffer, getResourceProvider().getLocalResource(cmsNodeId));
+        
+        try (OutputStream os = getResourceProvider().getResource(cmsNodeId).write()){
+            buffer.writeTo(os);
         }
     }
 
@@ -225,7 +225,7 @@ public class VersionedNodeDependencies {
             if (comp != 0) {
                 return comp;
             }
-            return o1.getUuid().compareTo(o2.getUuid());
+            return o1.compareTo(o2);
         }
 
     }
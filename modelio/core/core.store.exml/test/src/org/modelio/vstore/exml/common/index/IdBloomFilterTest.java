@@ -0,0 +1,95 @@
+package org.modelio.vstore.exml.common.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of {@link IdBloomFilter}.
+ */
+@objid ("fe69532d-a94c-4f14-ba7a-5e2fc3e19d02")
+@SuppressWarnings("javadoc")
+public class IdBloomFilterTest {
+    /**
+     * All identifiers given to the builder must be found.
+     */
+    @objid ("cab8c9c2-92a1-4db3-887d-8ab8561da7ed")
+    @Test
+    public void testNoFalseNegativeWhenBuilt() {
+        List<String> ids = randomIds(50000);
+        
+        IdBloomFilter.Builder builder = new IdBloomFilter.Builder();
+        ids.forEach(builder::add);
+        IdBloomFilter filter = builder.build();
+        
+        for (String id : ids) {
+            assertTrue(id, filter.mightContain(id));
+        }
+    }
+
+    /**
+     * Identifiers added after the build must be found, even beyond the filter capacity.
+     */
+    @objid ("9ad48c8b-d240-4af5-bd0e-65630260d007")
+    @Test
+    public void testNoFalseNegativeWhenAdded() {
+        List<String> built = randomIds(1000);
+        List<String> added = randomIds(5000);
+        
+        IdBloomFilter.Builder builder = new IdBloomFilter.Builder();
+        built.forEach(builder::add);
+        IdBloomFilter filter = builder.build();
+        
+        boolean overCapacity = false;
+        for (String id : added) {
+            overCapacity |= ! filter.add(id);
+        }
+        assertTrue("capacity exceeded must be reported", overCapacity);
+        
+        for (String id : built) {
+            assertTrue(id, filter.mightContain(id));
+        }
+        for (String id : added) {
+            assertTrue(id, filter.mightContain(id));
+        }
+    }
+
+    /**
+     * The false positive rate must stay near the documented 1% at full capacity.
+     */
+    @objid ("142107a8-65b5-4933-9cd7-a08d29f1b84e")
+    @Test
+    public void testFalsePositiveRate() {
+        IdBloomFilter.Builder builder = new IdBloomFilter.Builder();
+        randomIds(10000).forEach(builder::add);
+        IdBloomFilter filter = builder.build();
+        
+        // Fill up to the capacity, twice the built size
+        for (String id : randomIds(10000)) {
+            assertTrue(filter.add(id));
+        }
+        
+        int falsePositives = 0;
+        int nbProbes = 100000;
+        for (String id : randomIds(nbProbes)) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertFalse("too many false positives: " + falsePositives, falsePositives > nbProbes / 50);
+    }
+
+    @objid ("e651e420-f62d-4d80-adb5-f3d0539bbd12")
+    private static List<String> randomIds(int count) {
+        List<String> ret = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ret.add(UUID.randomUUID().toString());
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.modelio.vstore.exml.common.index.jdbm;
+
+import java.io.IOException;
+import java.util.UUID;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.test.ExmlTestModel.Node;
+import org.modelio.vstore.exml.test.ExmlTestModel;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link CmsNodeIndex#mayContain(String, org.modelio.vcore.smkernel.mapi.MMetamodel)} never misses an indexed object.
+ */
+@objid ("2dc77eba-c41f-45ba-9e3f-f62fdbf7e85f")
+@SuppressWarnings("javadoc")
+public class CmsNodeIndexMayContainTest {
+    @objid ("fee35911-611c-4791-90a3-fc627fd1a077")
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @objid ("9f2d864e-92bf-481f-a4a4-990ee561b462")
+    @Test
+    public void testNoFalseNegative() throws IOException, IndexException {
+        ExmlTestModel model = new ExmlTestModel();
+        
+        String dbPath = folder.getRoot().toString() + "/mayContain";
+        RecordManager db = RecordManagerFactory.createRecordManager(dbPath);
+        try {
+            SymbolTable<ObjId> objIdTable = new SymbolTable<>(db, "ObjIdTable", new ObjIdSerializer(model.mm));
+            CmsNodeIndex cmsIdx = new CmsNodeIndex(db, objIdTable);
+        
+            // Indexed before the filter is built
+            Node root = model.node("Root");
+            cmsIdx.addCmsNode(root.toObjIdName());
+            for (int i = 0; i < 500; i++) {
+                Node n = model.node("Before" + i, root);
+                cmsIdx.addCmsNode(n.toObjIdName());
+                cmsIdx.addObject(n.toObjId(), n.att("a" + i, root).toObjIdName());
+            }
+        
+            // Builds the filter
+            cmsIdx.mayContain(UUID.randomUUID().toString(), model.mm);
+        
+            // Indexed after the filter is built, beyond its capacity so that it is rebuilt
+            for (int i = 0; i < 3000; i++) {
+                Node n = model.node("After" + i, root);
+                cmsIdx.addCmsNode(n.toObjIdName());
+                cmsIdx.addObject(n.toObjId(), n.att("a" + i, root).toObjIdName());
+                if (i % 500 == 0) {
+                    assertAllFound(cmsIdx, model, root);
+                }
+            }
+            db.commit();
+        
+            assertAllFound(cmsIdx, model, root);
+        } finally {
+            db.close();
+        }
+    }
+
+    @objid ("9f850dfe-f424-4f85-b019-bd18a6066488")
+    private static void assertAllFound(CmsNodeIndex cmsIdx, ExmlTestModel model, Node root) throws IndexException {
+        assertTrue(root.uid, cmsIdx.mayContain(root.uid, model.mm));
+        for (Node n : root.children) {
+            assertTrue(n.uid, cmsIdx.mayContain(n.uid, model.mm));
+            for (Node att : n.atts) {
+                assertTrue(att.uid, cmsIdx.mayContain(att.uid, model.mm));
+            }
+        }
+    }
+
+}
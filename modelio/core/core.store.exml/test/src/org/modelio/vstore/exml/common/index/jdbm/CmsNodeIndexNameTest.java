@@ -0,0 +1,112 @@
+package org.modelio.vstore.exml.common.index.jdbm;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vcore.smkernel.meta.SmClass;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.common.model.ObjIdName;
+import org.modelio.vstore.exml.test.ExmlTestModel.Node;
+import org.modelio.vstore.exml.test.ExmlTestModel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the {@link CmsNodeIndex#idByName(SmClass, String) name index}.
+ */
+@objid ("f2991c3a-af63-41bb-955a-3fa5385e1a70")
+@SuppressWarnings("javadoc")
+public class CmsNodeIndexNameTest {
+    @objid ("1ec6ccb6-69e7-4898-a6b2-9e2a3309fdbf")
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @objid ("400ac9a0-408d-4dab-bd08-425a0311af84")
+    @Test
+    public void testIdByName() throws IOException, IndexException {
+        ExmlTestModel model = new ExmlTestModel();
+        Node c1 = model.node("C1");
+        Node c2 = model.node("Same", c1);
+        Node c3 = model.node("Same", c1);
+        Node att = c1.att("Same", c2);
+        Node att2 = c1.att("Other", c3);
+        
+        String dbPath = folder.getRoot().toString() + "/nameIndex";
+        RecordManager db = RecordManagerFactory.createRecordManager(dbPath);
+        try {
+            CmsNodeIndex cmsIdx = createIndex(model, db);
+        
+            cmsIdx.addCmsNode(c1.toObjIdName());
+            cmsIdx.addCmsNode(c2.toObjIdName());
+            cmsIdx.addCmsNode(c3.toObjIdName());
+            cmsIdx.addObject(c1.toObjId(), att.toObjIdName());
+            cmsIdx.addObject(c1.toObjId(), att2.toObjIdName());
+            db.commit();
+        
+            assertEquals(uids(c1), find(cmsIdx, model.classCls, "C1"));
+            assertEquals(uids(c2, c3), find(cmsIdx, model.classCls, "Same"));
+            assertEquals(uids(att), find(cmsIdx, model.attCls, "Same"));
+            assertEquals(uids(att2), find(cmsIdx, model.attCls, "Other"));
+            assertTrue(find(cmsIdx, model.classCls, "Other").isEmpty());
+            assertTrue(find(cmsIdx, model.classCls, "Unknown").isEmpty());
+        
+            // Found names must be the indexed ones
+            cmsIdx.idByName(model.classCls, "Same").forEach(idn -> assertEquals("Same", idn.name));
+        
+            // Removal must update the name index
+            cmsIdx.removeObj(att.toObjId());
+            cmsIdx.removeObj(c3.toObjId());
+            db.commit();
+        
+            assertTrue(find(cmsIdx, model.attCls, "Same").isEmpty());
+            assertEquals(uids(c2), find(cmsIdx, model.classCls, "Same"));
+        
+            // Renaming must update the name index
+            cmsIdx.addCmsNode(new ObjIdName(model.classCls, "Renamed", c2.uid));
+            db.commit();
+        
+            assertTrue(find(cmsIdx, model.classCls, "Same").isEmpty());
+            assertEquals(uids(c2), find(cmsIdx, model.classCls, "Renamed"));
+        } finally {
+            db.close();
+        }
+        
+        // reopen base and test it
+        db = RecordManagerFactory.createRecordManager(dbPath);
+        try {
+            CmsNodeIndex cmsIdx = createIndex(model, db);
+        
+            assertEquals(uids(c1), find(cmsIdx, model.classCls, "C1"));
+            assertEquals(uids(c2), find(cmsIdx, model.classCls, "Renamed"));
+            assertEquals(uids(att2), find(cmsIdx, model.attCls, "Other"));
+        } finally {
+            db.close();
+        }
+    }
+
+    @objid ("dbd7927b-37d2-401f-92a3-da02cc8be5a3")
+    private static CmsNodeIndex createIndex(ExmlTestModel model, RecordManager db) throws IndexException {
+        SymbolTable<ObjId> objIdTable = new SymbolTable<>(db, "ObjIdTable", new ObjIdSerializer(model.mm));
+        return new CmsNodeIndex(db, objIdTable);
+    }
+
+    @objid ("7eb9f97c-d76a-4450-bc72-00e0b7350b71")
+    private static Set<String> find(CmsNodeIndex cmsIdx, SmClass cls, String name) throws IndexException {
+        return cmsIdx.idByName(cls, name).map(idn -> idn.id).collect(Collectors.toSet());
+    }
+
+    @objid ("64fd9286-bcba-4252-9b09-e8b6e036115b")
+    private static Set<String> uids(Node... nodes) {
+        return new HashSet<>(Arrays.stream(nodes).map(n -> n.uid).collect(Collectors.toList()));
+    }
+
+}
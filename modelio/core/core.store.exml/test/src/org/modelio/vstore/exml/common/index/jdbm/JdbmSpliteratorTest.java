@@ -0,0 +1,47 @@
+package org.modelio.vstore.exml.common.index.jdbm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test that {@link JdbmSpliterator} may be used by parallel streams.
+ */
+@objid ("17c2c786-820a-44c5-9a1f-08a65bcf320c")
+@SuppressWarnings("javadoc")
+public class JdbmSpliteratorTest {
+    /**
+     * A spliterator that cannot be split must not be wrapped.
+     */
+    @objid ("9d51a192-7631-4458-b6f9-ba677660504f")
+    @Test
+    public void testNoSplit() {
+        assertNull(new JdbmSpliterator<>(Spliterators.emptySpliterator()).trySplit());
+        
+        List<Integer> one = new ArrayList<>();
+        one.add(1);
+        Spliterator<Integer> s = new JdbmSpliterator<>(one.spliterator());
+        s.tryAdvance(i -> { /* consume */ });
+        assertNull(s.trySplit());
+    }
+
+    @objid ("957fc288-3b41-43c3-b788-00cb9629dbb1")
+    @Test
+    public void testParallelStream() {
+        List<Integer> values = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+        
+        long sum = StreamSupport.stream(new JdbmSpliterator<>(values.spliterator()), true)
+                .mapToLong(Integer::longValue)
+                .sum();
+        assertEquals(49995000L, sum);
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.modelio.vstore.exml.common.index.jdbm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vstore.exml.common.index.IndexException;
+import org.modelio.vstore.exml.common.index.builder.IndexBuilder;
+import org.modelio.vstore.exml.common.index.builder.InvalidExmlException;
+import org.modelio.vstore.exml.common.index.builder.ParallelIndexBuilder;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.resource.IExmlResourceProvider.ExmlResource;
+import org.modelio.vstore.exml.test.ExmlTestModel.Node;
+import org.modelio.vstore.exml.test.ExmlTestModel;
+import org.xml.sax.InputSource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ParallelIndexBuilder} unit test.
+ * <p>
+ * Indexes built in parallel must be the same as the ones built by a single {@link IndexBuilder}.
+ */
+@objid ("01da5aec-2fbd-4225-9bab-583a9c6ebed0")
+@SuppressWarnings("javadoc")
+public class ParallelIndexBuilderTest {
+    @objid ("2876e71b-7fde-4815-a396-2b718b9d1aeb")
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @objid ("09af2157-512d-4913-8df9-6c7a5d2e6a80")
+    @Test
+    public void testSameAsSequential() throws IOException, IndexException, InvalidExmlException {
+        ExmlTestModel model = new ExmlTestModel();
+        Random random = new Random(42);
+        
+        Node root = model.node("Root");
+        List<Node> all = new ArrayList<>();
+        all.add(root);
+        for (int i = 0; i < 60; i++) {
+            all.add(model.node("C" + i, all.get(random.nextInt(all.size()))));
+        }
+        List<Node> atts = new ArrayList<>();
+        for (Node n : all) {
+            for (int i = random.nextInt(4); i > 0; i--) {
+                atts.add(n.att(n.name + "_a" + i, all.get(random.nextInt(all.size()))));
+            }
+        }
+        
+        List<ExmlResource> resources = new ArrayList<>();
+        for (Node n : all) {
+            resources.add(n.toResource());
+        }
+        
+        RecordManager seqDb = RecordManagerFactory.createRecordManager(folder.getRoot().toString() + "/sequential");
+        RecordManager parDb = RecordManagerFactory.createRecordManager(folder.getRoot().toString() + "/parallel");
+        try {
+            Indexes seq = new Indexes(model, seqDb);
+            IndexBuilder builder = new IndexBuilder(model.mm, seq.cmsIdx, seq.userIdx);
+            for (ExmlResource r : resources) {
+                try (InputStream is = r.bufferedRead()) {
+                    InputSource src = new InputSource(is);
+                    src.setPublicId(r.getPublicLocation());
+                    builder.run(src);
+                }
+            }
+            seqDb.commit();
+        
+            Indexes par = new Indexes(model, parDb);
+            List<ExmlResource> indexed = new ArrayList<>();
+            try (ParallelIndexBuilder parBuilder = new ParallelIndexBuilder(model.mm, par.cmsIdx, par.userIdx, 3)) {
+                parBuilder.run(resources, new ParallelIndexBuilder.IListener() {
+                    @Override
+                    public void onIndexed(ExmlResource resource) {
+                        indexed.add(resource);
+                    }
+        
+                    @Override
+                    public void onInvalid(ExmlResource resource, InvalidExmlException e) {
+                        throw new AssertionError(e);
+                    }
+                });
+            }
+            parDb.commit();
+        
+            assertEquals(resources.size(), indexed.size());
+            assertEquals(new HashSet<>(seq.cmsIdx.getByMClass(model.classCls)), new HashSet<>(par.cmsIdx.getByMClass(model.classCls)));
+            assertEquals(new HashSet<>(seq.cmsIdx.getByMClass(model.attCls)), new HashSet<>(par.cmsIdx.getByMClass(model.attCls)));
+            assertEquals(all.size(), seq.cmsIdx.getByMClass(model.classCls).size());
+            assertEquals(atts.size(), seq.cmsIdx.getByMClass(model.attCls).size());
+        
+            int nbUsers = 0;
+            for (Node n : all) {
+                ObjId id = n.toObjId();
+                nbUsers += par.userIdx.getObjectUsers(id, "Type").size();
+                assertEquals(n.parent == null ? null : n.parent.toObjId(), par.cmsIdx.getParentNodeOf(id));
+                assertEquals(seq.cmsIdx.getParentNodeOf(id), par.cmsIdx.getParentNodeOf(id));
+                assertEquals(seq.cmsIdx.getName(id), par.cmsIdx.getName(id));
+                assertEquals(toSet(seq.cmsIdx.getCmsNodeContent(id)), toSet(par.cmsIdx.getCmsNodeContent(id)));
+                assertEquals(new HashSet<>(seq.userIdx.getObjectUsers(id, "Type")), new HashSet<>(par.userIdx.getObjectUsers(id, "Type")));
+            }
+        
+            assertTrue("no 'Type' reference indexed", nbUsers > 0);
+        
+            for (Node a : atts) {
+                ObjId id = a.toObjId();
+                assertNotNull(par.cmsIdx.getCmsNodeOf(id));
+                assertEquals(a.parent.toObjId(), par.cmsIdx.getCmsNodeOf(id));
+                assertEquals(seq.cmsIdx.getCmsNodeOf(id), par.cmsIdx.getCmsNodeOf(id));
+            }
+        } finally {
+            seqDb.close();
+            parDb.close();
+        }
+    }
+
+    @objid ("e1034171-75d2-4f1f-8afb-8806edd719c8")
+    private static HashSet<ObjId> toSet(Iterable<ObjId> ids) {
+        HashSet<ObjId> ret = new HashSet<>();
+        if (ids != null) {
+            ids.forEach(ret::add);
+        }
+        return ret;
+    }
+
+    /**
+     * CMS node and user node indexes in a JDBM database.
+     */
+    @objid ("379dc263-e64f-478f-8a02-87dec116f437")
+    private static class Indexes {
+        @objid ("f936484a-29d9-4ab6-98df-b11745bb99b7")
+        final CmsNodeIndex cmsIdx;
+
+        @objid ("a5e8ade8-1885-48e4-b4a0-ccc12b7fe6c8")
+        final UserNodeIndex userIdx;
+
+        @objid ("2b62b8bc-94c5-458a-9f13-2685789e477b")
+        Indexes(ExmlTestModel model, RecordManager db) throws IndexException {
+            SymbolTable<ObjId> objIdTable = new SymbolTable<>(db, "ObjIdTable", new ObjIdSerializer(model.mm));
+            SymbolTable<String> symbolTable = new SymbolTable<>(db, "SymbolTable", UTFSerializer.INSTANCE);
+            this.cmsIdx = new CmsNodeIndex(db, objIdTable);
+            this.userIdx = new UserNodeIndex(db, symbolTable, objIdTable);
+        }
+
+    }
+
+}
@@ -0,0 +1,245 @@
+package org.modelio.vstore.exml.local.loader.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.test.ExmlTestModel.Node;
+import org.modelio.vstore.exml.test.ExmlTestModel;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that an EXML resource read back from an {@link ExmlSnapshotStore} snapshot
+ * gives the same SAX events as parsing the EXML resource itself.
+ */
+@objid ("b67fa21d-94c4-4043-b52b-bad154af2964")
+@SuppressWarnings("javadoc")
+public class ExmlSnapshotStoreTest {
+    @objid ("76e6fb51-7121-4188-8a55-94ca9581af85")
+    private static final String STAMP = "stamp-1";
+
+    @objid ("396f2df4-b3cc-4c09-909a-7ed318a8af41")
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Round trip of a CMS node with composed objects, non ASCII names and references.
+     */
+    @objid ("34f60df1-fe9a-4875-b970-8e7bb59d9b8b")
+    @Test
+    public void testModelRoundTrip() throws Exception {
+        ExmlTestModel model = new ExmlTestModel();
+        Node root = model.node("Root");
+        Node c1 = model.node("Caf\u00e9 \u65e5\u672c", root);
+        Node c2 = model.node("C2", root);
+        root.att("a1", c1);
+        root.att("a2", c2);
+        
+        assertRoundTrip(root.toObjId(), root.toExml().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Round trip of character data, entities and CDATA sections.
+     */
+    @objid ("f32c6830-eb5f-40a9-ae06-82117c4535aa")
+    @Test
+    public void testCharactersRoundTrip() throws Exception {
+        ExmlTestModel model = new ExmlTestModel();
+        Node root = model.node("Root");
+        String exml = "<?xml version=\"1.0\" ?>\n"
+                + "<EXT object=\"a &amp; &lt;b&gt;\" version=\"4000\">\n"
+                + "<OBJECT>\n"
+                + "<ID name=\"a &amp; &quot;b&quot;\" mc=\"" + model.classCls.getQualifiedName() + "\" uid=\"" + root.uid + "\"/>\n"
+                + "<ATTRIBUTES>\n"
+                + "<ATT name=\"Note\"><![CDATA[line 1\nline 2 & <more>]]></ATT>\n"
+                + "<ATT name=\"Value\">x &lt; y &#233;t&#233;</ATT>\n"
+                + "<ATT name=\"Empty\"></ATT>\n"
+                + "</ATTRIBUTES>\n"
+                + "<DEPENDENCIES></DEPENDENCIES>\n"
+                + "</OBJECT>\n"
+                + "</EXT>\n";
+        
+        assertRoundTrip(root.toObjId(), exml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Snapshots are kept for the same repository stamp and discarded for another one.
+     */
+    @objid ("0aa90173-5acb-494d-b973-45e3b2faeb28")
+    @Test
+    public void testStampValidation() throws Exception {
+        Path dir = this.folder.newFolder("stamp").toPath();
+        ExmlTestModel model = new ExmlTestModel();
+        Node root = model.node("Root");
+        byte[] content = root.toExml().getBytes(StandardCharsets.UTF_8);
+        
+        ExmlSnapshotStore store = new ExmlSnapshotStore(dir);
+        store.open(STAMP);
+        store.write(root.toObjId(), store.record(content, root.uid));
+        
+        ExmlSnapshotStore sameStamp = new ExmlSnapshotStore(dir);
+        sameStamp.open(STAMP);
+        assertNotNull(sameStamp.read(root.toObjId(), root.uid));
+        
+        ExmlSnapshotStore otherStamp = new ExmlSnapshotStore(dir);
+        otherStamp.open("stamp-2");
+        assertNull(otherStamp.read(root.toObjId(), root.uid));
+        
+        ExmlSnapshotStore noStamp = new ExmlSnapshotStore(dir);
+        noStamp.open(null);
+        assertFalse(noStamp.isValid());
+        assertNull(noStamp.read(root.toObjId(), root.uid));
+    }
+
+    /**
+     * A damaged snapshot is ignored and deleted.
+     */
+    @objid ("a85aadce-dac8-49ec-9461-44287855c3fa")
+    @Test
+    public void testDamagedSnapshot() throws Exception {
+        Path dir = this.folder.newFolder("damaged").toPath();
+        ExmlTestModel model = new ExmlTestModel();
+        Node root = model.node("Root");
+        byte[] content = root.toExml().getBytes(StandardCharsets.UTF_8);
+        
+        ExmlSnapshotStore store = new ExmlSnapshotStore(dir);
+        store.open(STAMP);
+        store.write(root.toObjId(), store.record(content, root.uid));
+        
+        Path snapshot = findSnapshot(dir);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        
+        assertNull(store.read(root.toObjId(), root.uid));
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @objid ("756e66ef-59fd-4bdf-95c3-ef3ebcc591b6")
+    private void assertRoundTrip(ObjId id, byte[] content) throws IOException, SAXException {
+        String publicId = id.id + ".exml";
+        List<String> expected = parse(content, publicId);
+        
+        ExmlSnapshotStore store = new ExmlSnapshotStore(this.folder.newFolder(UUID.randomUUID().toString()).toPath());
+        store.open(STAMP);
+        assertTrue(store.isValid());
+        
+        RecordedExml recorded = store.record(content, publicId);
+        assertEquals(expected, replay(recorded));
+        
+        store.write(id, recorded);
+        RecordedExml read = store.read(id, publicId);
+        assertNotNull(read);
+        assertEquals(publicId, read.getPublicId());
+        assertEquals(expected, replay(read));
+    }
+
+    @objid ("bcd8ffb9-662d-4a30-b447-7861e2c88f52")
+    private static Path findSnapshot(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(".bxml")).findFirst().get();
+        }
+    }
+
+    /**
+     * Parse an EXML content with the same SAX parser configuration as the EXML loader.
+     */
+    @objid ("7c385e09-f77e-43b8-abb0-905acea129f8")
+    private static List<String> parse(byte[] content, String publicId) throws IOException, SAXException {
+        EventLog log = new EventLog();
+        InputSource src = new InputSource(new ByteArrayInputStream(content));
+        src.setPublicId(publicId);
+        SaxExmlLoader.createXmlReader(log).parse(src);
+        return log.getEvents();
+    }
+
+    @objid ("3a7025f3-9a2f-45d8-89dd-032d7340182f")
+    private static List<String> replay(RecordedExml recorded) throws SAXException {
+        EventLog log = new EventLog();
+        recorded.replay(log);
+        return log.getEvents();
+    }
+
+    /**
+     * Logs SAX events as strings, merging consecutive character chunks.
+     */
+    @objid ("01d3b91f-c0dd-487a-a89b-3af93d356400")
+    private static class EventLog extends DefaultHandler {
+        @objid ("ce51a253-c466-4446-a840-4ff878ad27ae")
+        private final List<String> events = new ArrayList<>();
+
+        @objid ("ce2574e3-e6c0-4645-bc4e-ad5fbcb5314a")
+        private final StringBuilder chars = new StringBuilder();
+
+        @objid ("579fc43e-4375-4c64-aebd-dc906818270b")
+        @Override
+        public void startDocument() {
+            this.events.add("startDocument");
+        }
+
+        @objid ("a955e2dc-181d-4ee7-98d4-38d2f8237691")
+        @Override
+        public void endDocument() {
+            flushChars();
+            this.events.add("endDocument");
+        }
+
+        @objid ("8ba5c659-66d2-4085-adde-31892e028dd2")
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            flushChars();
+            StringBuilder sb = new StringBuilder("start ").append(uri).append('|').append(localName).append('|').append(qName);
+            for (int i = 0; i < atts.getLength(); i++) {
+                sb.append(' ').append(atts.getURI(i)).append('|').append(atts.getLocalName(i)).append('|').append(atts.getQName(i))
+                .append('|').append(atts.getType(i)).append("='").append(atts.getValue(i)).append('\'');
+            }
+            this.events.add(sb.toString());
+        }
+
+        @objid ("f5417f62-5ba2-425a-a7d6-13210c148d64")
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushChars();
+            this.events.add("end " + uri + '|' + localName + '|' + qName);
+        }
+
+        @objid ("cf0caca9-ccba-4b26-b96f-1467dfff5685")
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            this.chars.append(ch, start, length);
+        }
+
+        @objid ("32141c1c-305f-4a26-bb9a-d84afd5b0497")
+        List<String> getEvents() {
+            return this.events;
+        }
+
+        @objid ("1b28330b-9099-4bcb-8157-190593608827")
+        private void flushChars() {
+            if (this.chars.length() > 0) {
+                this.events.add("chars '" + this.chars + "'");
+                this.chars.setLength(0);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.modelio.vstore.exml.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vbasic.files.Zipper;
+import org.modelio.vbasic.progress.NullProgress;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of {@link FsExmlResourceProvider} on a packaged RAMC archive opened as a zip file system,
+ * as RAMC fragments are mounted.
+ */
+@objid ("b6c2114f-cfa1-4cbd-993d-66f8fbb02011")
+@SuppressWarnings("javadoc")
+public class FsExmlResourceProviderTest {
+    @objid ("5b7037da-bbc0-4e14-b9f9-a19e833342fd")
+    private static final String EXML_PATH = IExmlRepositoryGeometry.MODEL_DIRNAME + "/Class/a.exml";
+
+    @objid ("febd4fda-38b9-49f6-86b5-e8bb129494d3")
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The index embedded in the archive is copied to the runtime directory, then kept while the stamp does not change.
+     */
+    @objid ("2c41a318-251b-4067-9674-a795f07bb4a0")
+    @Test
+    public void testMountPackagedRamc() throws IOException {
+        Path archive = packageRamc("s1");
+        Path runtimePath = this.folder.newFolder("runtime").toPath();
+        Path localIndex = runtimePath.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME);
+        
+        try (FileSystem fs = FileSystems.newFileSystem(archive, getClass().getClassLoader())) {
+            FsExmlResourceProvider provider = mount(fs, runtimePath);
+        
+            assertEquals("db", read(localIndex.resolve("idx.db")));
+            assertEquals("lg", read(localIndex.resolve("sub/idx.lg")));
+            assertEquals("s1", read(runtimePath.resolve(IStampGeometry.LOCAL_INDEX_STAMP_FILE)));
+            try (InputStream is = provider.getRelativePathResource(EXML_PATH).read()) {
+                assertEquals("exml", FileUtils.readWhole(is, "UTF-8"));
+            }
+        
+            // Next mount: the local copy is up to date and kept
+            Files.write(localIndex.resolve("idx.db"), bytes("local"));
+            mount(fs, runtimePath);
+            assertEquals("local", read(localIndex.resolve("idx.db")));
+        }
+    }
+
+    /**
+     * A new archive with another stamp replaces the local index copy.
+     */
+    @objid ("0d73f5a1-ae4b-4db3-b918-7ffb7e10c145")
+    @Test
+    public void testMountUpdatedRamc() throws IOException {
+        Path runtimePath = this.folder.newFolder("runtime").toPath();
+        Path localIndex = runtimePath.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME);
+        
+        try (FileSystem fs = FileSystems.newFileSystem(packageRamc("s1"), getClass().getClassLoader())) {
+            mount(fs, runtimePath);
+        }
+        Files.write(localIndex.resolve("idx.db"), bytes("local"));
+        
+        try (FileSystem fs = FileSystems.newFileSystem(packageRamc("s2"), getClass().getClassLoader())) {
+            mount(fs, runtimePath);
+        }
+        assertEquals("db", read(localIndex.resolve("idx.db")));
+        assertEquals("s2", read(runtimePath.resolve(IStampGeometry.LOCAL_INDEX_STAMP_FILE)));
+    }
+
+    /**
+     * Open the provider on the archive model the way RamcFileFragment does.
+     */
+    @objid ("a8df5157-39f6-4395-a119-b8fc5aa9f2ca")
+    private static FsExmlResourceProvider mount(FileSystem fs, Path runtimePath) throws IOException {
+        FsExmlResourceProvider provider = new FsExmlResourceProvider(fs.getPath("/", "model"), runtimePath, "ramc");
+        provider.open();
+        provider.buildIndexes(new NullProgress());
+        return provider;
+    }
+
+    /**
+     * Build a RAMC archive laid out as RamcPackager does, with a compressed index in <code>model/.index</code>.
+     */
+    @objid ("3709c91f-0f49-48ed-b9ad-47b5c119e41f")
+    private Path packageRamc(String stamp) throws IOException {
+        Path dataPath = this.folder.newFolder().toPath();
+        Path model = dataPath.resolve("model");
+        write(model.resolve(IStampGeometry.STAMP_DIR_NAME).resolve(IStampGeometry.STAMP_FILE_NAME), stamp);
+        write(model.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME).resolve("idx.db"), "db");
+        write(model.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME).resolve("sub").resolve("idx.lg"), "lg");
+        write(model.resolve(EXML_PATH), "exml");
+        
+        Path archive = this.folder.getRoot().toPath().resolve(stamp + ".ramc");
+        new Zipper(archive).compressContent(dataPath, new NullProgress(), null);
+        return archive;
+    }
+
+    @objid ("719e1aff-5d24-461d-832b-25bbfa5fd36e")
+    private static void write(Path target, String content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.write(target, bytes(content));
+    }
+
+    @objid ("003d50d1-3b8c-4097-813a-3230484971dc")
+    private static String read(Path p) throws IOException {
+        return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+    }
+
+    @objid ("06333910-53f0-40ea-9138-eae8e7a17500")
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.modelio.vstore.exml.resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of {@link LocalWriteJournal} commit, rollback and crash recovery.
+ */
+@objid ("14d14974-1ba0-445e-900c-c6938f8cb2ce")
+@SuppressWarnings("javadoc")
+public class LocalWriteJournalTest {
+    @objid ("fc6d0843-7915-4dc6-a743-6fea7ea181f5")
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @objid ("85c731db-9861-487c-93cd-8b46ebe5e0ec")
+    @Test
+    public void testCommit() throws IOException {
+        Path root = this.folder.newFolder("commit").toPath();
+        Path a = root.resolve("a/a.exml");
+        Path b = root.resolve("b.exml");
+        write(b, "old b");
+        
+        LocalWriteJournal journal = newJournal(root);
+        journal.begin();
+        write(journal, a, "new a");
+        journal.delete(b);
+        
+        // Nothing visible before commit, except through the journal
+        assertFalse(Files.exists(a));
+        assertTrue(Files.exists(b));
+        assertEquals("new a", read(journal.getReadPath(a)));
+        assertNull(journal.getReadPath(b));
+        
+        journal.commit();
+        
+        assertFalse(journal.isActive());
+        assertEquals("new a", read(a));
+        assertFalse(Files.exists(b));
+        assertClean(root);
+    }
+
+    @objid ("43a256bf-4534-4cb3-891d-619a0a8e3950")
+    @Test
+    public void testRollback() throws IOException {
+        Path root = this.folder.newFolder("rollback").toPath();
+        Path a = root.resolve("a.exml");
+        Path b = root.resolve("b.exml");
+        write(a, "old a");
+        write(b, "old b");
+        
+        LocalWriteJournal journal = newJournal(root);
+        journal.begin();
+        write(journal, a, "new a");
+        journal.delete(b);
+        journal.rollback();
+        
+        assertFalse(journal.isActive());
+        assertEquals("old a", read(a));
+        assertEquals("old b", read(b));
+        assertClean(root);
+    }
+
+    /**
+     * A resource written, deleted then written again in the same transaction must be kept.
+     */
+    @objid ("46657c26-e457-47d8-9f9b-2a2c6a6f1cb5")
+    @Test
+    public void testCommitWriteDeleteWrite() throws IOException {
+        Path root = this.folder.newFolder("wdw").toPath();
+        Path a = root.resolve("a.exml");
+        write(a, "old a");
+        
+        LocalWriteJournal journal = newJournal(root);
+        journal.begin();
+        write(journal, a, "first");
+        journal.delete(a);
+        write(journal, a, "second");
+        journal.commit();
+        
+        assertEquals("second", read(a));
+        assertClean(root);
+    }
+
+    /**
+     * Crash after the commit mark: recover() must publish the last state of each resource.
+     */
+    @objid ("7b1b861c-d1b3-4268-9a1e-9745e2479569")
+    @Test
+    public void testRecoverCommitted() throws IOException {
+        Path root = this.folder.newFolder("committed").toPath();
+        Path a = root.resolve("a.exml");
+        Path b = root.resolve("b.exml");
+        Path c = root.resolve("c.exml");
+        write(a, "old a");
+        write(b, "old b");
+        write(c, "old c");
+        
+        // Journal as left by a crash while publishing
+        write(root.resolve("a.exml" + LocalWriteJournal.STAGED_SUFFIX), "new a");
+        write(root.resolve("c.exml" + LocalWriteJournal.STAGED_SUFFIX), "new c");
+        write(journalPath(root), String.join("\n", "W a.exml", "D a.exml", "W a.exml", "W b.exml", "D b.exml", "W c.exml", "COMMIT", ""));
+        
+        newJournal(root).recover();
+        
+        assertEquals("new a", read(a));
+        assertFalse(Files.exists(b));
+        assertEquals("new c", read(c));
+        assertClean(root);
+    }
+
+    /**
+     * Crash before the commit mark: recover() must restore the previous content.
+     */
+    @objid ("b69b6440-81e3-41d3-8d52-3d178417a0d1")
+    @Test
+    public void testRecoverUncommitted() throws IOException {
+        Path root = this.folder.newFolder("uncommitted").toPath();
+        Path a = root.resolve("a.exml");
+        Path b = root.resolve("b.exml");
+        Path c = root.resolve("c.exml");
+        write(a, "old a");
+        write(b, "old b");
+        
+        // Crash in the middle of a transaction: the journal is never ended
+        LocalWriteJournal crashed = newJournal(root);
+        crashed.begin();
+        write(crashed, a, "new a");
+        crashed.delete(b);
+        write(crashed, c, "new c");
+        
+        newJournal(root).recover();
+        
+        assertEquals("old a", read(a));
+        assertEquals("old b", read(b));
+        assertFalse(Files.exists(c));
+        assertClean(root);
+    }
+
+    @objid ("cf68c0b1-a785-42d0-968c-14f8373eca1f")
+    private static LocalWriteJournal newJournal(Path root) {
+        return new LocalWriteJournal(root, journalPath(root));
+    }
+
+    @objid ("445d12c9-f382-4ebd-95f7-e6c5d2bd80a9")
+    private static Path journalPath(Path root) {
+        return root.resolve("admin").resolve(LocalWriteJournal.JOURNAL_FILE_NAME);
+    }
+
+    /**
+     * Assert neither the journal nor staging files are left.
+     */
+    @objid ("735c56aa-3a15-4414-9f2a-50af7abd4292")
+    private static void assertClean(Path root) throws IOException {
+        assertFalse(Files.exists(journalPath(root)));
+        try (Stream<Path> s = Files.walk(root)) {
+            Object[] staged = s.filter(p -> p.toString().endsWith(LocalWriteJournal.STAGED_SUFFIX)).toArray();
+            assertEquals(Arrays.toString(staged), 0, staged.length);
+        }
+    }
+
+    @objid ("aa0b3ded-81f7-4e83-8c9d-b9de70e1b0f0")
+    private static void write(LocalWriteJournal journal, Path target, String content) throws IOException {
+        try (OutputStream os = journal.write(target)) {
+            os.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @objid ("033332fe-4248-4ca5-be82-2644e4db2ea3")
+    private static void write(Path target, String content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.write(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @objid ("99e9fb5b-4e9d-4a96-a193-c09fa19063fc")
+    private static String read(Path p) throws IOException {
+        return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+    }
+
+}
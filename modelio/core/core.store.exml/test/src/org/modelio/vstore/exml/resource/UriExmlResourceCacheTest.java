@@ -0,0 +1,241 @@
+package org.modelio.vstore.exml.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.modelio.vbasic.files.FileUtils;
+import org.modelio.vbasic.progress.NullProgress;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.test.ExmlTestModel.Node;
+import org.modelio.vstore.exml.test.ExmlTestModel;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test of the local cache of {@link UriExmlResourceProvider} against an HTTP server.
+ */
+@objid ("d74be350-9dd0-452c-af09-1522f6841c1b")
+@SuppressWarnings("javadoc")
+public class UriExmlResourceCacheTest {
+    @objid ("c311768c-33a8-49e3-9c26-d0635897e24e")
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Served content: path relative to the repository -> content.
+     */
+    @objid ("bc8e5a61-bdf7-441e-bf0a-9fa8267ed871")
+    private final Map<String, byte[]> served = new ConcurrentHashMap<>();
+
+    /**
+     * Number of GET requests by path relative to the repository.
+     */
+    @objid ("1e2729e1-6054-4fcb-b7dc-6308715ae309")
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    @objid ("303d2b69-c234-4b43-b8da-ba7f38f98a63")
+    private HttpServer server;
+
+    @objid ("671ac7ec-7b6b-4229-9baa-07a3a5c39320")
+    private ExecutorService serverExecutor;
+
+    @objid ("0d77b1b9-6024-4572-9db2-2327e41d4fc0")
+    private URI repoUri;
+
+    @objid ("b4331cae-179d-4a27-9766-11d24a932319")
+    @Before
+    public void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.serverExecutor = Executors.newFixedThreadPool(8);
+        this.server.setExecutor(this.serverExecutor);
+        this.server.createContext("/repo/", this::handle);
+        this.server.start();
+        this.repoUri = URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + "/repo/");
+        
+        // Repository root, tested by UriExmlResourceProvider.exists()
+        this.served.put("", bytes("repository"));
+    }
+
+    @objid ("bd65e44b-9b59-4ddd-9fe4-c8c13ccd8f7a")
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    /**
+     * A resource is downloaded once, then read from the cache, also by a later session.
+     */
+    @objid ("45717449-c4e5-4bc7-a6d0-82c970a04b4d")
+    @Test
+    public void testReadThroughCache() throws IOException {
+        Path localDir = this.folder.newFolder("read").toPath();
+        setStamp("s1", localDir);
+        this.served.put("model/a.exml", bytes("content a"));
+        
+        UriExmlResourceProvider provider = open(localDir);
+        assertEquals("content a", read(provider, "model/a.exml"));
+        assertEquals("content a", read(provider, "model/a.exml"));
+        assertEquals(1, count("model/a.exml"));
+        
+        // Next session with the same stamp
+        provider = open(localDir);
+        assertEquals("content a", read(provider, "model/a.exml"));
+        assertEquals(1, count("model/a.exml"));
+    }
+
+    /**
+     * Missing remote resources are reported as missing and not cached.
+     */
+    @objid ("b0874918-e0ff-425e-9f86-3bc6c8373f6a")
+    @Test
+    public void testMissingResource() throws IOException {
+        Path localDir = this.folder.newFolder("missing").toPath();
+        setStamp("s1", localDir);
+        
+        UriExmlResourceProvider provider = open(localDir);
+        try (InputStream is = provider.getRelativePathResource("model/none.exml").read()) {
+            assertNull(is);
+        }
+        
+        this.served.put("model/none.exml", bytes("now here"));
+        assertEquals("now here", read(provider, "model/none.exml"));
+    }
+
+    /**
+     * A stamp change discards the whole cache.
+     */
+    @objid ("d050ce82-4fc9-4dc7-81e0-63373a0c67ad")
+    @Test
+    public void testStampChange() throws IOException {
+        Path localDir = this.folder.newFolder("stamp").toPath();
+        setStamp("s1", localDir);
+        this.served.put("model/a.exml", bytes("old a"));
+        
+        UriExmlResourceProvider provider = open(localDir);
+        assertEquals("old a", read(provider, "model/a.exml"));
+        
+        this.served.put("model/a.exml", bytes("new a"));
+        setStamp("s2", localDir);
+        
+        provider = open(localDir);
+        assertEquals("new a", read(provider, "model/a.exml"));
+        assertEquals(2, count("model/a.exml"));
+    }
+
+    /**
+     * Prefetched CMS nodes are downloaded once each and then read without any request.
+     */
+    @objid ("01fba062-cdb3-41fe-b9a6-226c6771e19c")
+    @Test
+    public void testPrefetch() throws IOException {
+        Path localDir = this.folder.newFolder("prefetch").toPath();
+        setStamp("s1", localDir);
+        
+        UriExmlResourceProvider provider = open(localDir);
+        ExmlTestModel model = new ExmlTestModel();
+        List<ObjId> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Node n = model.node("N" + i);
+            ids.add(n.toObjId());
+            this.served.put(path(provider, n.toObjId()), bytes(n.toExml()));
+        }
+        
+        provider.prefetch(ids, new NullProgress());
+        // Cached ones are not downloaded again
+        provider.prefetch(ids, new NullProgress());
+        
+        for (ObjId id : ids) {
+            String path = path(provider, id);
+            assertEquals(path, 1, count(path));
+            try (InputStream is = provider.getLocalResource(id).read()) {
+                assertEquals(new String(this.served.get(path), StandardCharsets.UTF_8), FileUtils.readWhole(is, "UTF-8"));
+            }
+            assertEquals(path, 1, count(path));
+        }
+    }
+
+    /**
+     * Open a provider on the test server, as a mounted fragment would.
+     * <p>
+     * The local index copy is faked so that no index file is downloaded.
+     */
+    @objid ("35ea08ec-fa05-40df-aeba-18978c6503ad")
+    private UriExmlResourceProvider open(Path localDir) throws IOException {
+        UriExmlResourceProvider provider = new UriExmlResourceProvider(this.repoUri, localDir, null);
+        provider.setName("test");
+        provider.open();
+        provider.buildIndexes(new NullProgress());
+        return provider;
+    }
+
+    /**
+     * Set the remote repository stamp and fake an up to date local index copy.
+     */
+    @objid ("0f2c898d-7e2f-402f-8daa-27856790afde")
+    private void setStamp(String stamp, Path localDir) throws IOException {
+        this.served.put(IStampGeometry.STAMP_DIR_NAME + "/" + IStampGeometry.STAMP_FILE_NAME, bytes(stamp));
+        Files.createDirectories(localDir.resolve(IExmlRepositoryGeometry.INDEX_DIRNAME));
+        Files.write(localDir.resolve(IStampGeometry.LOCAL_INDEX_STAMP_FILE), bytes(stamp));
+    }
+
+    @objid ("3afe7b46-d2d3-4334-a54c-de3c0e242f09")
+    private int count(String path) {
+        AtomicInteger c = this.requests.get(path);
+        return c == null ? 0 : c.get();
+    }
+
+    @objid ("c3dfca5c-7f38-44b4-9a3c-318384165f7c")
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/repo/".length());
+        this.requests.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+        
+        byte[] content = this.served.get(path);
+        try (OutputStream os = exchange.getResponseBody()) {
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, content.length);
+                os.write(content);
+            }
+        }
+    }
+
+    @objid ("c9e2715a-1121-412b-b411-a5b212cfccf5")
+    private static String path(UriExmlResourceProvider provider, ObjId id) {
+        return provider.getGeometry().getLocalFileRelativePath(id.toMRef());
+    }
+
+    @objid ("e4a4a11b-8804-4514-8e3c-3e8d0680b5af")
+    private static String read(UriExmlResourceProvider provider, String path) throws IOException {
+        try (InputStream is = provider.getRelativePathResource(path).read()) {
+            return FileUtils.readWhole(is, "UTF-8");
+        }
+    }
+
+    @objid ("75b1290c-1e12-4b88-bfb8-cd23a55b35b0")
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,267 @@
+package org.modelio.vstore.exml.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vcore.smkernel.meta.mof.MofMetamodel.MofBuilder;
+import org.modelio.vcore.smkernel.meta.mof.MofMetamodel;
+import org.modelio.vcore.smkernel.meta.mof.MofSmClass;
+import org.modelio.vcore.smkernel.meta.smannotations.SmDirective;
+import org.modelio.vstore.exml.common.model.ObjId;
+import org.modelio.vstore.exml.common.model.ObjIdName;
+import org.modelio.vstore.exml.resource.IExmlResourceProvider.ExmlResource;
+
+/**
+ * Small MOF test metamodel and EXML documents written by hand.
+ * <p>
+ * 'Class' is a CMS node metaclass that owns 'Att' objects and other classes.
+ * An 'Att' may reference a 'Class' with the 'Type' link.
+ * @author cma
+ */
+@objid ("aea2ae49-7ba5-4147-ba2e-2a5edf4731f7")
+@SuppressWarnings("javadoc")
+public class ExmlTestModel {
+    @objid ("9dd4c04c-8ec1-440d-925e-daa0c11a7253")
+    public final MofSmClass classCls;
+
+    @objid ("fb2fe78f-4191-4485-b56d-d645bbd88643")
+    public final MofSmClass attCls;
+
+    @objid ("a253730b-3849-49f0-aa24-e45e06a0b2f0")
+    public final MofMetamodel mm;
+
+    @objid ("088df3d7-79f7-4d50-be84-73a59d7dcd00")
+    public ExmlTestModel() {
+        this.mm = new MofMetamodel();
+        try (MofBuilder mmBuilder = this.mm.builder();) {
+            this.classCls = mmBuilder.createClass("Class", "mmFrag1", true).build();
+            this.attCls = mmBuilder.createClass("Att", "mmFrag1", false).build();
+        
+            mmBuilder.createDep("OwnedAtt")
+            .setSource(this.classCls)
+            .setTarget(this.attCls)
+            .setCardinality(0, -1)
+            .setComposition()
+            .createOpposite("Owner", 1, 1)
+            .build();
+        
+            mmBuilder.createDep("OwnedClass")
+            .setSource(this.classCls)
+            .setTarget(this.classCls)
+            .setCardinality(0, -1)
+            .setComposition()
+            .createOpposite("Owner", 0, 1)
+            .build();
+        
+            mmBuilder.createDep("Type")
+            .setSource(this.attCls)
+            .setTarget(this.classCls)
+            .setCardinality(0, 1)
+            .createOpposite("Typed", ob -> {
+                ob.setCardinality(0, -1);
+                ob.setNoPartOf();
+                ob.addFlag(SmDirective.SMCDDYNAMIC);
+            })
+            .build();
+        }
+    }
+
+    /**
+     * Create a root CMS node.
+     */
+    @objid ("787baf5d-67ca-4a02-8dd6-253fa1eb1af6")
+    public Node node(String name) {
+        return new Node(this.classCls, name, null);
+    }
+
+    /**
+     * Create a CMS node owned by another one.
+     */
+    @objid ("3ba5d37a-192d-4f31-a1f7-2fbbd6992620")
+    public Node node(String name, Node parent) {
+        Node ret = new Node(this.classCls, name, parent);
+        parent.children.add(ret);
+        return ret;
+    }
+
+    /**
+     * A model object written by hand in EXML.
+     */
+    @objid ("a7bd34ba-89d5-40a5-87c9-bf611cc3c9ce")
+    public class Node {
+        @objid ("05728ac7-f273-4e7a-8e2c-9efe630927a7")
+        public final MofSmClass cls;
+
+        @objid ("1e1205d1-d96b-4117-83a9-0bad0172a3e6")
+        public final String name;
+
+        @objid ("bb0ac150-dbee-4cf0-a631-99b5a19670b1")
+        public final String uid = UUID.randomUUID().toString();
+
+        @objid ("c6943590-ad5a-47ef-9f7e-7126c5d84368")
+        public final Node parent;
+
+        @objid ("6a4779f1-2e79-4d77-8188-208fd873d6b0")
+        public final List<Node> children = new ArrayList<>();
+
+        @objid ("978901fb-8802-42c0-bb07-24ba8d4790c8")
+        public final List<Node> atts = new ArrayList<>();
+
+        @objid ("bd58888a-32c8-4650-9914-b5734e622bc2")
+        public Node type;
+
+        @objid ("324fc7f6-9635-4226-b8ce-12a1b7a9a26f")
+        Node(MofSmClass cls, String name, Node parent) {
+            this.cls = cls;
+            this.name = name;
+            this.parent = parent;
+        }
+
+        /**
+         * Add an attribute to this class, typed by another class.
+         */
+        @objid ("dd65f08f-f5a9-4020-8d54-0b2da526f307")
+        public Node att(String attName, Node attType) {
+            Node ret = new Node(ExmlTestModel.this.attCls, attName, this);
+            ret.type = attType;
+            this.atts.add(ret);
+            return ret;
+        }
+
+        @objid ("d7d88ce6-ff6e-4983-820c-05af63995767")
+        public ObjId toObjId() {
+            return new ObjId(this.cls, this.uid);
+        }
+
+        @objid ("01d0186b-d6d5-4f2f-917b-c35b6712ad6d")
+        public ObjIdName toObjIdName() {
+            return new ObjIdName(this.cls, this.name, this.uid);
+        }
+
+        /**
+         * @return the EXML document of this CMS node.
+         */
+        @objid ("8ca17b27-d7cc-4ba5-9b2d-2a6b9c6a63e0")
+        public String toExml() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("<?xml version=\"1.0\" ?>\n");
+            sb.append("<EXT object=\"").append(this.name).append("\" version=\"4000\">\n");
+            appendObject(sb, this, true);
+            sb.append("</EXT>\n");
+            return sb.toString();
+        }
+
+        /**
+         * @return the EXML document of this CMS node as an in memory resource.
+         */
+        @objid ("9aebcfd8-39a5-4d1f-b835-a60c3e9ea92b")
+        public MemResource toResource() {
+            return new MemResource(this.uid + ".exml", toExml().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @objid ("92ab9b23-30b2-40dc-a64d-1e944579bd51")
+        private void appendObject(StringBuilder sb, Node n, boolean withPid) {
+            sb.append("<OBJECT>\n");
+            appendId(sb, "ID", n);
+            if (withPid && n.parent != null) {
+                appendId(sb, "PID", n.parent);
+            }
+            sb.append("<ATTRIBUTES>\n");
+            sb.append("</ATTRIBUTES>\n");
+            sb.append("<DEPENDENCIES>\n");
+            if (!n.atts.isEmpty()) {
+                sb.append("<COMP relation=\"OwnedAtt\">\n");
+                for (Node a : n.atts) {
+                    appendObject(sb, a, false);
+                }
+                sb.append("</COMP>\n");
+            }
+            if (!n.children.isEmpty()) {
+                sb.append("<COMP relation=\"OwnedClass\">\n");
+                for (Node c : n.children) {
+                    appendId(sb, "COMPID", c);
+                }
+                sb.append("</COMP>\n");
+            }
+            if (n.type != null) {
+                sb.append("<LINK relation=\"Type\">\n");
+                appendId(sb, "ID", n.type);
+                sb.append("</LINK>\n");
+            }
+            sb.append("</DEPENDENCIES>\n");
+            sb.append("</OBJECT>\n");
+        }
+
+        @objid ("0e18dece-392f-4176-a54f-6c39dd55875d")
+        private void appendId(StringBuilder sb, String tag, Node n) {
+            sb.append('<').append(tag)
+            .append(" name=\"").append(n.name)
+            .append("\" mc=\"").append(n.cls.getQualifiedName())
+            .append("\" uid=\"").append(n.uid)
+            .append("\"/>\n");
+        }
+
+    }
+
+    /**
+     * In memory EXML resource.
+     */
+    @objid ("9f82d4c4-b1cf-4cd5-a9a6-7b3936443728")
+    public static class MemResource implements ExmlResource {
+        @objid ("3851e0ef-f196-4e83-9fd6-7b0cae6f6d60")
+        private final String location;
+
+        @objid ("f87d71ea-9ba4-4acd-a9ba-10633611d623")
+        private byte[] content;
+
+        @objid ("a8383b5c-ab62-4973-a4cb-cc1e85dc4bff")
+        public MemResource(String location, byte[] content) {
+            this.location = location;
+            this.content = content;
+        }
+
+        @objid ("f814ce65-2de4-46e3-a69c-018328bf4a37")
+        @Override
+        public void delete() throws IOException {
+            this.content = null;
+        }
+
+        @objid ("2dabafa6-1dbd-44fd-a292-b5b1f2c44fcf")
+        @Override
+        public String getPublicLocation() {
+            return this.location;
+        }
+
+        @objid ("a02b34f0-03d8-41a2-9643-b41a54ce5767")
+        @Override
+        public InputStream read() throws IOException {
+            return new ByteArrayInputStream(this.content);
+        }
+
+        @objid ("ee15c268-3a8e-452c-aab2-475c91a0a3b3")
+        @Override
+        public OutputStream write() throws IOException {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    MemResource.this.content = toByteArray();
+                }
+            };
+        }
+
+        @objid ("ef5395b3-8d4c-459e-9273-210bd986f124")
+        public byte[] getContent() {
+            return this.content;
+        }
+
+    }
+
+}
@@ -0,0 +1,162 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vbasic.collections;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Spliterator that lazily chains the spliterators of many sources.
+ * <p>
+ * A source spliterator is asked to its supplier only when all previous sources are exhausted,
+ * so that short-circuiting operations like {@link Stream#findFirst()} or {@link Stream#limit(long)}
+ * never open the remaining sources. <code>Stream.flatMap(...)</code> cannot be used for this in Java 8:
+ * it pushes the whole content of each mapped stream.
+ * <p>
+ * Splitting gives half of the not yet opened sources to the returned spliterator, so that a parallel stream
+ * processes the sources concurrently. Once a single source remains, splitting is delegated to it.
+ * 
+ * @param <T> the type of elements
+ * @since 4.1
+ */
+@objid ("234e1602-61ca-4c84-86a6-31986498ce48")
+public class ConcatSpliterator<T> implements Spliterator<T> {
+    @objid ("b1b5f011-6a48-4b8e-9160-819549bbc72f")
+    private final List<Supplier<? extends Spliterator<? extends T>>> sources;
+
+    /**
+     * Index of the next source to open.
+     */
+    @objid ("03e8082e-ca6d-4df3-8e41-f93c4da66fec")
+    private int next;
+
+    /**
+     * Index after the last source of this spliterator.
+     */
+    @objid ("aa83acd8-7a1f-418c-86ef-c525e7e28b67")
+    private final int end;
+
+    /**
+     * The currently opened source, <code>null</code> if none.
+     */
+    @objid ("e8016dbc-00fa-46ac-9f25-e13598971e5e")
+    private Spliterator<? extends T> current;
+
+    /**
+     * @param sources the spliterator suppliers of the sources to chain, in encounter order.
+     */
+    @objid ("6d3851f2-6ba5-4f34-ba34-84b4454e7cb6")
+    public ConcatSpliterator(List<Supplier<? extends Spliterator<? extends T>>> sources) {
+        this(sources, 0, sources.size());
+    }
+
+    @objid ("17f764bb-56e8-428d-817a-9767f7136891")
+    private ConcatSpliterator(List<Supplier<? extends Spliterator<? extends T>>> sources, int from, int to) {
+        this.sources = sources;
+        this.next = from;
+        this.end = to;
+    }
+
+    /**
+     * Create a stream chaining lazily the given sources.
+     * 
+     * @param sources the spliterator suppliers of the sources to chain, in encounter order.
+     * @param parallel <code>true</code> to return a parallel stream.
+     * @return the chained stream.
+     */
+    @objid ("d2739e5b-cfd8-425a-b138-8fd2d964ab9c")
+    public static <T> Stream<T> stream(List<Supplier<? extends Spliterator<? extends T>>> sources, boolean parallel) {
+        return StreamSupport.stream(new ConcatSpliterator<>(sources), parallel);
+    }
+
+    @objid ("e88b3f82-0845-4ca2-b032-e1b079ad435d")
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (true) {
+            if (this.current != null && this.current.tryAdvance(action)) {
+                return true;
+            }
+        
+            if (this.next >= this.end) {
+                this.current = null;
+                return false;
+            }
+        
+            this.current = this.sources.get(this.next++).get();
+        }
+    }
+
+    @objid ("8eb146e0-b606-4be3-93f8-9c4c53adede1")
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (this.current != null) {
+            this.current.forEachRemaining(action);
+            this.current = null;
+        }
+        
+        while (this.next < this.end) {
+            this.sources.get(this.next++).get().forEachRemaining(action);
+        }
+    }
+
+    @objid ("bd1d2a9f-3270-4197-9ae3-7ba298d2f35b")
+    @Override
+    @SuppressWarnings ("unchecked")
+    public Spliterator<T> trySplit() {
+        int remaining = this.end - this.next;
+        if (this.current != null && remaining > 0) {
+            // Give away the opened source
+            Spliterator<T> ret = (Spliterator<T>) this.current;
+            this.current = null;
+            return ret;
+        } else if (remaining >= 2) {
+            int mid = this.next + remaining / 2;
+            ConcatSpliterator<T> ret = new ConcatSpliterator<>(this.sources, this.next, mid);
+            this.next = mid;
+            return ret;
+        } else if (remaining == 1) {
+            this.current = this.sources.get(this.next++).get();
+        }
+        
+        return this.current != null ? (Spliterator<T>) this.current.trySplit() : null;
+    }
+
+    @objid ("ab4f0133-c306-4309-9641-db698a6272c6")
+    @Override
+    public long estimateSize() {
+        if (this.next >= this.end) {
+            return this.current != null ? this.current.estimateSize() : 0;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @objid ("b01ec260-4668-4345-ab8d-31a6e8ffa419")
+    @Override
+    public int characteristics() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,65 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.modelio.vbasic.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+import org.modelio.vbasic.log.Log;
+
+/**
+ * Thread factory that creates daemon threads with a custom name
+ * and an unhandled exception handler that logs errors.
+ * <p>
+ * Threads are named from a {@link String#format(String, Object...) format} with the thread number as only argument.
+ * @since 4.1
+ */
+@objid ("6e91405e-0349-449e-9aa3-cd3b7bf1b64b")
+public class NamedThreadFactory implements ThreadFactory {
+    @objid ("0d0742cb-fcb4-4892-b589-89aa353b73cf")
+    private final String nameFormat;
+
+    @objid ("00cf6938-6cca-4216-8f31-a73d6e298436")
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Initialize the factory.
+     * 
+     * @param nameFormat the thread name format, eg: <code>"Index builder %d"</code>.
+     */
+    @objid ("60b41c0e-e0ca-49a1-a54e-1d7d04488c7c")
+    public NamedThreadFactory(String nameFormat) {
+        this.nameFormat = nameFormat;
+    }
+
+    @objid ("6e679dc9-ed86-4311-99fe-414d7e7a72b3")
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, String.format(this.nameFormat, this.count.incrementAndGet()));
+        t.setDaemon(true);
+        t.setUncaughtExceptionHandler((dead, e) -> {
+            Log.error("'" + dead + "' thread died unexpectedly:");
+            Log.error(e);
+        });
+        return t;
+    }
+
+}
@@ -478,7 +478,7 @@ public final class FileUtils {
             if (dir.equals(this.toPath)) {
                 return FileVisitResult.SKIP_SUBTREE;
             }
-            Path targetPath = this.toPath.resolve(this.fromPath.relativize(dir));
+            Path targetPath = resolveTarget(dir);
             if(!Files.exists(targetPath)){
                 Files.createDirectory(targetPath);
             }
@@ -488,10 +488,24 @@ public final class FileUtils {
         @objid ("10cbaed4-bc0f-46b3-a7fa-6c8d766db269")
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            Files.copy(file, this.toPath.resolve(this.fromPath.relativize(file)), this.copyOption);
+            Files.copy(file, resolveTarget(file), this.copyOption);
             return FileVisitResult.CONTINUE;
         }
 
+        /**
+         * Get the copy destination of a source path.
+         * <p>
+         * The relative path is resolved as a string because the source and the destination
+         * may belong to different file systems, e.g. a zip file system and the default one.
+         * 
+         * @param source a path in the source directory
+         * @return the destination path.
+         */
+        @objid ("de18d2a8-c50b-49b3-8db6-90d4627229dd")
+        private Path resolveTarget(Path source) {
+            return this.toPath.resolve(this.fromPath.relativize(source).toString());
+        }
+
     }
 
     /**
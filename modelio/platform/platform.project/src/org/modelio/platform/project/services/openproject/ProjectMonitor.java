@@ -84,6 +84,9 @@ final class ProjectMonitor implements IProjectMonitor {
                 this.projectServiceAccess.postAsyncEvent(ModelioEvent.FRAGMENT_UP, ev.fragment);
             }
             break;
+        case FRAGMENT_MOUNTED:
+            AppProjectCore.LOG.debug(ev.message);
+            break;
         default:
             if (ev.message != null) {
                 AppProjectCore.LOG.info(ev.message);
@@ -66,6 +66,9 @@ final class ProjectOpeningMonitor implements IProjectMonitor {
                 }
             }
             break;
+        case FRAGMENT_MOUNTED:
+            AppProjectCore.LOG.debug(ev.message);
+            break;
         default:
             // Log immediately
             if (ev.message != null) {
@@ -0,0 +1,242 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.platform.script.engine.core.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Least recently used cache of compiled scripts, keyed by a hash of the script source.
+ * <p>
+ * A {@link CompiledScript} is bound to the engine that compiled it, so each engine has its own cache.
+ * The cache also records compilation and execution times.
+ * <p>
+ * This class is thread safe.
+ * @since 4.1
+ */
+@objid ("c914722b-73aa-4f2c-8831-6e446bb4689f")
+public class CompiledScriptCache {
+    /**
+     * Name of the system property that sets the number of compiled scripts kept by each engine.
+     */
+    @objid ("96ef79da-7103-4dff-9785-7fa4bce8ed58")
+    public static final String PROPERTY_CACHE_SIZE = "modelio.script.compiledCacheSize";
+
+    @objid ("ee11eb6b-abcf-45c6-b42b-548ed5d6b8e4")
+    private static final int DEFAULT_CACHE_SIZE = 128;
+
+    @objid ("e70008c0-0bf4-4edb-a5f9-193c8ef30803")
+    private final Compilable compiler;
+
+    @objid ("de4e20ca-781a-4c21-a969-0c196917c06c")
+    private final int capacity;
+
+    @objid ("cfc5d799-3194-44b6-9b08-49091bac0b0e")
+    private final Map<String, CompiledScript> cache;
+
+    @objid ("6f6eb2ca-2a37-47e6-afa6-d0509c8cda79")
+    private final AtomicLong hits = new AtomicLong();
+
+    @objid ("aa6dcfd1-e546-4f3b-9698-6720fcc8d15e")
+    private final AtomicLong compileCount = new AtomicLong();
+
+    @objid ("725be7c2-2f56-458b-b96a-1ea16659d19f")
+    private final AtomicLong compileNanos = new AtomicLong();
+
+    @objid ("f7119dbc-d9b4-46de-8e5e-749e450be92e")
+    private final AtomicLong evalCount = new AtomicLong();
+
+    @objid ("da8cd566-ae8e-4c72-883b-a4f5c959cd58")
+    private final AtomicLong evalNanos = new AtomicLong();
+
+    /**
+     * @param compiler the engine that compiles the scripts.
+     * @param capacity the maximum number of compiled scripts kept.
+     */
+    @objid ("c8f40c15-b2ef-45c0-9716-4fb4ed356e3b")
+    @SuppressWarnings ("serial")
+    public CompiledScriptCache(Compilable compiler, int capacity) {
+        this.compiler = compiler;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                return size() > CompiledScriptCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Create a cache sized with the {@link #PROPERTY_CACHE_SIZE} system property.
+     * @param compiler the engine that compiles the scripts.
+     */
+    @objid ("c9ad1df5-bf18-4f77-81fe-10a3aaed6064")
+    public CompiledScriptCache(Compilable compiler) {
+        this(compiler, Integer.getInteger(PROPERTY_CACHE_SIZE, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Get the compiled script for the given source, compiling it on cache miss.
+     * @param script the script source
+     * @return the compiled script.
+     * @throws javax.script.ScriptException on compilation error. Failed compilations are not cached.
+     */
+    @objid ("bf92009d-80ff-4ad4-ae01-aca59b193243")
+    public CompiledScript get(String script) throws ScriptException {
+        final String key = hash(script);
+        
+        synchronized (this.cache) {
+            CompiledScript compiled = this.cache.get(key);
+            if (compiled != null) {
+                this.hits.incrementAndGet();
+                return compiled;
+            }
+        }
+        
+        // Compile outside the lock, concurrent compilations of the same script are harmless.
+        long start = System.nanoTime();
+        CompiledScript compiled = this.compiler.compile(script);
+        this.compileNanos.addAndGet(System.nanoTime() - start);
+        this.compileCount.incrementAndGet();
+        
+        synchronized (this.cache) {
+            this.cache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Evaluate a compiled script, recording its execution time.
+     * @param compiled the script to run
+     * @return the value returned by the script.
+     * @throws javax.script.ScriptException on script error
+     */
+    @objid ("857fde6c-370f-4856-98ca-1523992a9c4c")
+    public Object eval(CompiledScript compiled) throws ScriptException {
+        long start = System.nanoTime();
+        try {
+            return compiled.eval();
+        } finally {
+            this.evalNanos.addAndGet(System.nanoTime() - start);
+            this.evalCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Forget all compiled scripts.
+     * <p>
+     * To be called when the compiled scripts may be stale, like after a class loader change.
+     */
+    @objid ("8c5233b7-ac22-4099-b4f3-d96ce959ab26")
+    public void clear() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * @return the number of compiled scripts currently kept.
+     */
+    @objid ("460b7dff-47eb-4f4b-bd5c-1fca1a638264")
+    public int size() {
+        synchronized (this.cache) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * @return the number of times a script was found already compiled.
+     */
+    @objid ("1398bd5c-85f6-4e71-8020-ea1f08d03014")
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of script compilations, that is the number of cache misses.
+     */
+    @objid ("b9d69ede-2970-47eb-8af9-9ad123632e6c")
+    public long getCompileCount() {
+        return this.compileCount.get();
+    }
+
+    /**
+     * @return the total compilation time in nanoseconds.
+     */
+    @objid ("88f0e9ce-34ef-4cda-ada4-c6b6220182b7")
+    public long getCompileNanos() {
+        return this.compileNanos.get();
+    }
+
+    /**
+     * @return the number of compiled script evaluations.
+     */
+    @objid ("2ff05274-4788-487c-adf6-136049b68341")
+    public long getEvalCount() {
+        return this.evalCount.get();
+    }
+
+    /**
+     * @return the total evaluation time in nanoseconds.
+     */
+    @objid ("bd3cbab1-0182-4337-b36a-2225cbd89dad")
+    public long getEvalNanos() {
+        return this.evalNanos.get();
+    }
+
+    @objid ("f7394dec-1b40-4e38-8abc-d03cfd5ae8ff")
+    @Override
+    public String toString() {
+        return String.format("%s[size=%d/%d, hits=%d, compiled=%d in %d ms, evaluated=%d in %d ms]",
+                getClass().getSimpleName(),
+                size(),
+                this.capacity,
+                getHits(),
+                getCompileCount(),
+                getCompileNanos() / 1_000_000,
+                getEvalCount(),
+                getEvalNanos() / 1_000_000);
+    }
+
+    @objid ("010bf8ea-7090-425f-802b-b74f74288644")
+    private static String hash(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on all Java platforms
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
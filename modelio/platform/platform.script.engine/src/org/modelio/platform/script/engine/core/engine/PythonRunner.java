@@ -26,9 +26,14 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Collection;
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -52,6 +57,12 @@ public class PythonRunner implements IScriptRunner {
     @objid ("00760a48-cbcd-1065-a2b8-001ec947cd2a")
     private final ClassLoaderScriptEngine engine;
 
+    /**
+     * Compiled scripts cache, <code>null</code> if the engine cannot compile scripts.
+     */
+    @objid ("d71700a1-d444-4898-a718-47a186e1662e")
+    private final CompiledScriptCache scriptCache;
+
     @objid ("00762c1c-cbcd-1065-a2b8-001ec947cd2a")
     private PrintWriter outputWriter;
 
@@ -64,6 +75,7 @@ public class PythonRunner implements IScriptRunner {
     @objid ("00763f36-cbcd-1065-a2b8-001ec947cd2a")
     PythonRunner(ScriptEngine scriptEngine) {
         this.engine = new ClassLoaderScriptEngine(scriptEngine);
+        this.scriptCache = (scriptEngine instanceof Compilable) ? new CompiledScriptCache(this.engine) : null;
         
         this.outputWriter = new PrintWriter(System.out);
         this.commandWriter = this.outputWriter;
@@ -82,10 +94,11 @@ public class PythonRunner implements IScriptRunner {
         this.engine.bindStandardVariables(selection, selectedElements, Modelio.getInstance().getModelingSession());
         
         try {
-            try (FileReader reader = new FileReader(file.toFile())) {
-                this.engine.eval(reader);
+            try {
+                // Read the whole file so that it can be found in the compiled scripts cache
+                evalCached(new String(Files.readAllBytes(file), Charset.defaultCharset()));
                 this.commandWriter.println();
-            } catch (FileNotFoundException e) {
+            } catch (FileNotFoundException | NoSuchFileException e) {
                 ScriptEnginePlugin.LOG.error(ScriptEnginePlugin.PLUGIN_ID, e);
                 this.errorWriter.println(ScriptEnginePlugin.I18N.getMessage("FileNotFound", e.getMessage()));
             } catch (IOException e) {
@@ -184,7 +197,7 @@ public class PythonRunner implements IScriptRunner {
         this.commandWriter.flush();
         
         // Run the script
-        Object ret = this.engine.eval(script);
+        Object ret = evalCached(script);
         this.commandWriter.println();
         
         // Print the returned value to the console
@@ -196,6 +209,32 @@ public class PythonRunner implements IScriptRunner {
         }
     }
 
+    /**
+     * Evaluate a script, compiling it only if it is not in the compiled scripts cache.
+     * @param script the script source
+     * @return the value returned by the script
+     * @throws javax.script.ScriptException on script error
+     */
+    @objid ("a4cf7324-2625-49db-b708-eb30aabd7c0d")
+    private Object evalCached(String script) throws ScriptException {
+        if (this.scriptCache == null) {
+            return this.engine.eval(script);
+        }
+        
+        CompiledScript compiled = this.scriptCache.get(script);
+        this.engine.enforceCurrentClassLoader();
+        return this.scriptCache.eval(compiled);
+    }
+
+    /**
+     * @return the compiled scripts cache of this runner, with its compilation and execution statistics.
+     * May be <code>null</code> if the engine cannot compile scripts.
+     */
+    @objid ("5d558617-e539-45e3-9be8-1d97a2b8aa5d")
+    public CompiledScriptCache getScriptCache() {
+        return this.scriptCache;
+    }
+
     @objid ("0007df82-99ab-10ed-8812-001ec947cd2a")
     @Override
     public ScriptEngine getEngine() {
@@ -221,7 +260,7 @@ public class PythonRunner implements IScriptRunner {
      * </p>
      */
     @objid ("9ad20361-551e-49d6-9ac3-3df3ded3fab5")
-    private static class ClassLoaderScriptEngine implements ScriptEngine {
+    private static class ClassLoaderScriptEngine implements ScriptEngine, Compilable {
         @objid ("a927e4d4-5402-41b5-8fcf-244944032ffa")
         private static final String CLASSLOADER_VARIABLE = "CLASSLOADER";
 
@@ -318,6 +357,20 @@ public class PythonRunner implements IScriptRunner {
             return this.engine.eval(reader, n);
         }
 
+        @objid ("1a172aad-4564-4ee5-9fb4-b074e3862c0f")
+        @Override
+        public CompiledScript compile(String script) throws ScriptException {
+            enforceCurrentClassLoader();
+            return ((Compilable) this.engine).compile(script);
+        }
+
+        @objid ("eb1f0f70-dc83-4f4c-a1e0-630a627f78ed")
+        @Override
+        public CompiledScript compile(Reader script) throws ScriptException {
+            enforceCurrentClassLoader();
+            return ((Compilable) this.engine).compile(script);
+        }
+
         @objid ("049a60c1-451f-4d63-a5bb-e18e3989b821")
         @Override
         public void put(String key, Object value) {
@@ -20,6 +20,7 @@
 
 package org.modelio.platform.script.engine.core.engine;
 
+import java.util.concurrent.atomic.AtomicReference;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
@@ -86,6 +87,28 @@ public class ScriptRunnerFactory {
         }
     }
 
+    /**
+     * Get a pool of script runners to run independent scripts concurrently.
+     * 
+     * @param scriptingLanguage a script language
+     * @param size the number of runners in the pool
+     * @return the script runner pool, or <code>null</code> if the language is not supported.
+     */
+    @objid ("d078191a-8f3f-4b18-99d1-2c81140cd3af")
+    public ScriptRunnerPool getScriptRunnerPool(String scriptingLanguage, int size) {
+        final IScriptRunner first = getScriptRunner(scriptingLanguage);
+        if (first == null) {
+            return null;
+        }
+        
+        // Reuse the probe runner as first pooled runner
+        final AtomicReference<IScriptRunner> next = new AtomicReference<>(first);
+        return new ScriptRunnerPool(() -> {
+            IScriptRunner r = next.getAndSet(null);
+            return (r != null) ? r : getScriptRunner(scriptingLanguage);
+        }, size);
+    }
+
     /**
      * Get a script runner that runs the scripts in a transaction.
      * 
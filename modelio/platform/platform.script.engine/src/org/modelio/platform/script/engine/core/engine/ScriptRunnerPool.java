@@ -0,0 +1,161 @@
+/* 
+ * Copyright 2013-2020 Modeliosoft
+ * 
+ * This file is part of Modelio.
+ * 
+ * Modelio is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * Modelio is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Modelio.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.modelio.platform.script.engine.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+import javax.script.ScriptException;
+import com.modeliosoft.modelio.javadesigner.annotations.objid;
+
+/**
+ * Pool of pre-initialized script runners, to run independent script jobs concurrently.
+ * <p>
+ * Each runner has its own engine and its own compiled scripts cache, a runner is used by
+ * only one thread at a time. All runners are created by the constructor, so that the
+ * engine initialization cost is paid once.
+ * <p>
+ * Note that Jython engines share the same system state: all pooled runners should be given
+ * the same class loaders.
+ * @since 4.1
+ */
+@objid ("4af03e2c-b609-4539-92ca-42bd8f443bce")
+public class ScriptRunnerPool {
+    @objid ("40d071e0-4c6c-469f-af15-12b4e444a244")
+    private final BlockingQueue<IScriptRunner> idle;
+
+    @objid ("918e3824-1896-4d3a-823a-edeaadd33ac0")
+    private final List<IScriptRunner> runners;
+
+    /**
+     * Create the pool and all its runners.
+     * @param factory the runner factory
+     * @param size the number of runners
+     */
+    @objid ("a48aa6b9-f05e-4aae-8465-aaf61ac4d291")
+    public ScriptRunnerPool(Supplier<IScriptRunner> factory, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        }
+        
+        this.idle = new ArrayBlockingQueue<>(size);
+        List<IScriptRunner> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            IScriptRunner runner = factory.get();
+            all.add(runner);
+            this.idle.add(runner);
+        }
+        this.runners = Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Take a runner, waiting for one to be released if all are in use.
+     * <p>
+     * The runner must be given back with {@link #release(IScriptRunner)}.
+     * @return a runner
+     * @throws java.lang.InterruptedException if interrupted while waiting
+     */
+    @objid ("b9f076bc-0ef7-4966-a923-6407394ac1dc")
+    public IScriptRunner acquire() throws InterruptedException {
+        return this.idle.take();
+    }
+
+    /**
+     * Give back a runner taken with {@link #acquire()}.
+     * @param runner the runner to release.
+     */
+    @objid ("dc916e33-21cc-401f-a1a0-2d8a0373a14e")
+    public void release(IScriptRunner runner) {
+        if (! this.runners.contains(runner)) {
+            throw new IllegalArgumentException(runner + " does not belong to this pool.");
+        }
+        this.idle.add(runner);
+    }
+
+    /**
+     * Run a job with a pooled runner.
+     * @param job the job to run
+     * @return the job result
+     * @throws javax.script.ScriptException if the job fails
+     * @throws java.lang.InterruptedException if interrupted while waiting for a runner
+     */
+    @objid ("0734fe9c-b164-40e5-99a4-4f28c755b46a")
+    public <T> T run(IScriptJob<T> job) throws ScriptException, InterruptedException {
+        IScriptRunner runner = acquire();
+        try {
+            return job.run(runner);
+        } finally {
+            release(runner);
+        }
+    }
+
+    /**
+     * @return all the runners of the pool, in use or not.
+     */
+    @objid ("b17325b5-253b-4cae-be4b-54091e5bb8ad")
+    public List<IScriptRunner> getRunners() {
+        return this.runners;
+    }
+
+    /**
+     * @return the number of runners not in use.
+     */
+    @objid ("1e1ba95e-cea6-499c-b4ea-4f022772e720")
+    public int getIdleCount() {
+        return this.idle.size();
+    }
+
+    /**
+     * Get the compiled scripts caches statistics of all pooled runners.
+     * @return a statistics report, one line per runner.
+     */
+    @objid ("4bca62af-d6b0-4fd7-9411-022697fa8027")
+    public String getStatistics() {
+        StringBuilder sb = new StringBuilder();
+        for (IScriptRunner r : this.runners) {
+            if (r instanceof PythonRunner && ((PythonRunner) r).getScriptCache() != null) {
+                sb.append(((PythonRunner) r).getScriptCache()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A job run with a pooled script runner.
+     * @param <T> the job result type
+     */
+    @objid ("2a2863fd-51e9-4f0b-94e3-9aefbef1a12b")
+    @FunctionalInterface
+    public interface IScriptJob<T> {
+        /**
+         * Run the job.
+         * @param runner the script runner to use. It must not be used after this method returns.
+         * @return the job result
+         * @throws javax.script.ScriptException if the job fails
+         */
+        @objid ("acac21f7-d491-4679-8f35-be12e0a0ee88")
+        T run(IScriptRunner runner) throws ScriptException;
+
+    }
+
+}
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import com.modeliosoft.modelio.javadesigner.annotations.objid;
@@ -34,7 +35,9 @@ import org.modelio.platform.search.engine.ISearchCriteria;
 import org.modelio.platform.search.engine.ISearchEngine;
 import org.modelio.vcore.session.api.ICoreSession;
 import org.modelio.vcore.session.api.model.IModel;
+import org.modelio.vcore.smkernel.mapi.MClass;
 import org.modelio.vcore.smkernel.mapi.MObject;
+import org.modelio.vcore.smkernel.mapi.MRef;
 
 /**
  * The SearchEngine is able to find all the model elements matching its
@@ -44,6 +47,9 @@ import org.modelio.vcore.smkernel.mapi.MObject;
  * <li>a set of metaclasses defining the nature of the searched elements
  * <li>several boolean flags (eg: include/exclude RAMC)</li>
  * <li>a stereotype</li>
+ * </ul>
+ * <p>
+ * Names are first matched against the repository indexes, only the elements whose name matches are loaded.
  */
 @objid ("000693d4-c59e-10ab-8258-001ec947cd2a")
 public class ModelSearchEngine implements ISearchEngine {
@@ -54,25 +60,27 @@ public class ModelSearchEngine implements ISearchEngine {
         
         final ModelSearchCriteria criteria = (ModelSearchCriteria) params;
         
-        final Set<MObject> rawResults = new HashSet<>();
-        
-        // Collect raw results
-        for (final Class<? extends MObject> metaclass : criteria.getMetaclasses()) {
-            rawResults.addAll(session.getModel().findByClass(metaclass, IModel.NODELETED));
-        }
-        
-        
-        
         final List<Element> filteredResults = new ArrayList<>();
         try {
             final int flags = (criteria.isCaseSensitive()) ? 0 : Pattern.CASE_INSENSITIVE;
             final Pattern p = Pattern.compile(criteria.getExpression(), flags);
+            final Predicate<String> nameFilter = name -> p.matcher(name).matches();
+            final IModel model = session.getModel();
+        
+            // Collect references to the elements whose name matches,
+            // the repository indexes avoid loading the other elements.
+            final Set<MRef> rawResults = new HashSet<>();
+            for (final Class<? extends MObject> metaclass : criteria.getMetaclasses()) {
+                final MClass mClass = session.getMetamodel().getMClass(metaclass);
+                rawResults.addAll(model.findRefsByName(mClass, true, nameFilter));
+            }
         
-            for (final MObject mObject : rawResults) {
+            for (final MRef ref : rawResults) {
+                final MObject mObject = model.findByRef(ref, IModel.NODELETED);
         
                 if (mObject instanceof Element) {
                     // check name condition
-                    if (!p.matcher(mObject.getName()).matches()) {
+                    if (!nameFilter.test(mObject.getName())) {
                         continue;
                     }
                     // check is ramc condition